@@ -1,10 +1,26 @@
+import com.chwazi.build.CompileQuestionPackTask
+import com.chwazi.build.CompileSearchIndexTask
+
 plugins {
     alias(libs.plugins.androidApplication)
 }
 
+// The questions bank every generated asset is compiled from
+val questionsJson = layout.projectDirectory.file("src/main/assets/questions.json")
+
+// The banks of the other locales, named questions-<locale>.json (for example questions-en.json or
+// questions-pt-BR.json). Each one is compiled into its own pack and search index, see QuestionLocales.
+val localeQuestionsJson = fileTree("src/main/assets") { include("questions-*.json") }.files
+    .associateBy { it.name.removePrefix("questions-").removeSuffix(".json") }
+    .toSortedMap()
+
+// Suffix of a locale's task names, for example "PtBr" for pt-BR
+fun localeTaskSuffix(locale: String) =
+    locale.split('-').joinToString("") { part -> part.lowercase().replaceFirstChar { it.uppercase() } }
+
 android {
     namespace = "com.chwazi.app"
-    compileSdk = 34
+    compileSdk = libs.versions.compileSdk.get().toInt()
 
     defaultConfig {
         applicationId = "com.chwazi.app"
@@ -20,6 +36,11 @@ android {
         enable = true
     }
 
+    androidResources {
+        // Binary packs and the search index are memory-mapped at runtime, which requires them to be stored uncompressed
+        noCompress += listOf("qpack", "qidx")
+    }
+
     buildTypes {
         release {
             isMinifyEnabled = false
@@ -35,6 +56,67 @@ android {
     }
 }
 
+androidComponents {
+    onVariants { variant ->
+        // Compile questions.json into a binary question pack and ship it as a generated asset
+        val compilePack = tasks.register<CompileQuestionPackTask>(
+            "compile${variant.name.replaceFirstChar { it.uppercase() }}QuestionPack"
+        ) {
+            source.set(questionsJson)
+        }
+        variant.sources.assets?.addGeneratedSourceDirectory(compilePack, CompileQuestionPackTask::getOutputDir)
+
+        // Index the category names and questions for search and ship the index as a generated asset
+        val compileSearchIndex = tasks.register<CompileSearchIndexTask>(
+            "compile${variant.name.replaceFirstChar { it.uppercase() }}SearchIndex"
+        ) {
+            source.set(questionsJson)
+        }
+        variant.sources.assets?.addGeneratedSourceDirectory(compileSearchIndex, CompileSearchIndexTask::getOutputDir)
+
+        // The same for every other locale, into files of its own so no bank is read with another
+        localeQuestionsJson.forEach { (locale, json) ->
+            val taskSuffix = variant.name.replaceFirstChar { it.uppercase() } + localeTaskSuffix(locale)
+            val compileLocalePack = tasks.register<CompileQuestionPackTask>("compile${taskSuffix}QuestionPack") {
+                source.set(json)
+                packName.set("questions-$locale.qpack")
+            }
+            variant.sources.assets?.addGeneratedSourceDirectory(compileLocalePack, CompileQuestionPackTask::getOutputDir)
+            val compileLocaleSearchIndex = tasks.register<CompileSearchIndexTask>("compile${taskSuffix}SearchIndex") {
+                source.set(json)
+                indexName.set("search-$locale.qidx")
+            }
+            variant.sources.assets?.addGeneratedSourceDirectory(
+                compileLocaleSearchIndex, CompileSearchIndexTask::getOutputDir
+            )
+        }
+    }
+}
+
+// Pack used by the local unit tests to check it against the JSON it was compiled from
+val compileTestQuestionPack = tasks.register<CompileQuestionPackTask>("compileTestQuestionPack") {
+    source.set(questionsJson)
+    outputDir.set(layout.buildDirectory.dir("generated/testQuestionPack"))
+}
+
+// Search index used by the local unit tests to check it against the JSON it was compiled from
+val compileTestSearchIndex = tasks.register<CompileSearchIndexTask>("compileTestSearchIndex") {
+    source.set(questionsJson)
+    outputDir.set(layout.buildDirectory.dir("generated/testSearchIndex"))
+}
+
+tasks.withType<Test>().configureEach {
+    dependsOn(compileTestQuestionPack, compileTestSearchIndex)
+    systemProperty(
+        "chwazi.questionPack",
+        layout.buildDirectory.file("generated/testQuestionPack/questions.qpack").get().asFile.absolutePath
+    )
+    systemProperty(
+        "chwazi.searchIndex",
+        layout.buildDirectory.file("generated/testSearchIndex/search.qidx").get().asFile.absolutePath
+    )
+}
+
 dependencies {
 
     implementation(libs.appcompat)
@@ -0,0 +1,128 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+// This debug-only activity shows the performance metrics of the app.
+// It exports the recorder of this process to the metrics file and shows what the file holds:
+// a summary line per phase (milliseconds) followed by its histogram, then the counters.
+public class PerfMetricsActivity extends AppCompatActivity {
+
+    // Text view that shows the metrics
+    private TextView metricsText;
+    // The export currently running in the background, if any
+    private AsyncLoader.LoadTask loadTask;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // A plain layout built in code, this screen never ships in release builds
+        LinearLayout root = new LinearLayout(this);
+        root.setOrientation(LinearLayout.VERTICAL);
+        int padding = (int) (16 * getResources().getDisplayMetrics().density);
+        root.setPadding(padding, padding, padding, padding);
+
+        LinearLayout buttons = new LinearLayout(this);
+        Button btnRefresh = new Button(this);
+        btnRefresh.setText(R.string.perf_metrics_refresh);
+        btnRefresh.setOnClickListener(v -> refresh());
+        Button btnClear = new Button(this);
+        btnClear.setText(R.string.perf_metrics_clear);
+        btnClear.setOnClickListener(v -> {
+            Perf.getRecorder().clear();
+            refresh();
+        });
+        buttons.addView(btnRefresh);
+        buttons.addView(btnClear);
+        root.addView(buttons);
+
+        metricsText = new TextView(this);
+        metricsText.setTypeface(Typeface.MONOSPACE);
+        metricsText.setTextIsSelectable(true);
+        ScrollView scrollView = new ScrollView(this);
+        scrollView.addView(metricsText);
+        root.addView(scrollView, new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, 0, 1f));
+
+        setContentView(root);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        refresh();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (loadTask != null) {
+            loadTask.cancel();
+        }
+        super.onDestroy();
+    }
+
+    // Method to export the metrics and show the exported file
+    private void refresh() {
+        if (loadTask != null) {
+            loadTask.cancel();
+        }
+        File file = Perf.getExportFile(this);
+        Context appContext = getApplicationContext();
+        loadTask = AsyncLoader.load(() -> {
+            Perf.export(appContext);
+            return format(file);
+        }, new AsyncLoader.LoadCallback<String>() {
+            @Override
+            public void onLoaded(String result) {
+                metricsText.setText(result);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                metricsText.setText(getString(R.string.perf_metrics_error, error.getMessage()));
+            }
+        });
+    }
+
+    // Read the export back and render it in milliseconds
+    private static String format(File file) throws IOException {
+        PerfRecorder recorder = new PerfRecorder();
+        recorder.readFrom(file);
+        StringBuilder text = new StringBuilder(file.getPath()).append("\n\n");
+        for (PerfRecorder.Phase phase : PerfRecorder.Phase.values()) {
+            text.append(String.format(Locale.US, "%s\n  n=%d  mean=%.2f  p50<=%.2f  p90<=%.2f  p99<=%.2f  max=%.2f ms\n",
+                    phase.getTraceName(), recorder.getCount(phase), millis(recorder.getMeanNanos(phase)),
+                    millis(recorder.getPercentileNanos(phase, 0.5)), millis(recorder.getPercentileNanos(phase, 0.9)),
+                    millis(recorder.getPercentileNanos(phase, 0.99)), millis(recorder.getMaxNanos(phase))));
+            for (int b = 0; b < PerfRecorder.BUCKET_COUNT; b++) {
+                long count = recorder.getBucketCount(phase, b);
+                if (count > 0) {
+                    text.append(String.format(Locale.US, "  <%10.3f ms %6d\n",
+                            millis(PerfRecorder.bucketUpperNanos(b)), count));
+                }
+            }
+        }
+        text.append('\n');
+        for (PerfRecorder.Counter counter : PerfRecorder.Counter.values()) {
+            text.append(String.format(Locale.US, "%s %d\n", counter.name(), recorder.getCounter(counter)));
+        }
+        return text.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,86 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// This class runs loading work on a small background executor and delivers the result
+// (or the error) back on the main thread, so no screen ever parses or reads files in onCreate.
+public class AsyncLoader {
+
+    // Number of background threads, loading is I/O bound and rarely runs more than two jobs at once
+    private static final int THREAD_COUNT = 2;
+
+    // Shared executor for every load in the process
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "chwazi-loader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            // Stay below the UI thread so loading never competes with drawing
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        }
+    });
+
+    // Handler used to post results back to the main thread
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    // Interface that receives the outcome of a load on the main thread
+    public interface LoadCallback<T> {
+        void onLoaded(T result);
+
+        void onError(Exception error);
+    }
+
+    // Handle to a running load. Cancelling it guarantees the callback is not called afterwards.
+    public static class LoadTask {
+        private volatile boolean cancelled;
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    // Run work in the background and deliver its result to the callback on the main thread
+    public static <T> LoadTask load(Callable<T> work, LoadCallback<T> callback) {
+        LoadTask task = new LoadTask();
+        EXECUTOR.execute(() -> {
+            if (task.isCancelled()) {
+                return;
+            }
+            try {
+                T result = work.call();
+                MAIN.post(() -> {
+                    if (!task.isCancelled()) {
+                        callback.onLoaded(result);
+                    }
+                });
+            } catch (Exception e) {
+                MAIN.post(() -> {
+                    if (!task.isCancelled()) {
+                        callback.onError(e);
+                    }
+                });
+            }
+        });
+        return task;
+    }
+
+    // Run work in the background without waiting for its result, for example to warm a cache
+    public static void prefetch(Runnable work) {
+        EXECUTOR.execute(work);
+    }
+}
@@ -1,6 +1,6 @@
 package com.chwazi.app;
 
-// Import necessary Android and Java classes
+// Import necessary Android classes
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -8,25 +8,27 @@ import android.widget.TextView;
 
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.List;
-
-// This is the adapter class for the RecyclerView that displays categories
+// This is the adapter class for the RecyclerView that displays categories.
+// Names come from a CategoryPager one page at a time; a row whose page is still loading is shown
+// empty and rebound once the page arrives. A category's ID is its position, which is also the row's
+// stable ID, and clicks pass the ID rather than the text on screen.
 public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
 
-    // List to hold category names
-    private List<String> categories;
+    // Pages of category names
+    private final CategoryPager pager;
     // Listener for item click events
-    private OnItemClickListener listener;
+    private final OnItemClickListener listener;
 
     // Interface to handle click events on items
     public interface OnItemClickListener {
-        void onItemClick(String category);
+        void onItemClick(int categoryId);
     }
 
-    // Constructor for the adapter, takes a list of categories and a click listener
-    public CategoryAdapter(List<String> categories, OnItemClickListener listener) {
-        this.categories = categories;
+    // Constructor for the adapter, takes a source of category pages and a click listener
+    public CategoryAdapter(CategoryPager pager, OnItemClickListener listener) {
+        this.pager = pager;
         this.listener = listener;
+        setHasStableIds(true);
     }
 
     // ViewHolder class that holds the view for each category item
@@ -42,8 +44,11 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
 
             // Set a click listener on the entire item view
             itemView.setOnClickListener(v -> {
-                // When clicked, get the text from the TextView and pass it to the listener
-                listener.onItemClick(categoryName.getText().toString());
+                // When clicked, pass the category ID of the row to the listener
+                int position = getAdapterPosition();
+                if (position != RecyclerView.NO_POSITION) {
+                    listener.onItemClick(position);
+                }
             });
         }
     }
@@ -61,15 +66,21 @@ public class CategoryAdapter extends RecyclerView.Adapter<CategoryAdapter.Catego
     // Called to display data at the specified position
     @Override
     public void onBindViewHolder(CategoryViewHolder holder, int position) {
-        // Get the category name for the current position
-        String categoryName = categories.get(position);
+        // Get the category name for the current position, null while its page is loading
+        String categoryName = pager.getName(position);
         // Set the category name to the TextView in the ViewHolder
         holder.categoryName.setText(categoryName);
     }
 
+    // The category ID never changes for a row, so RecyclerView can keep rows across updates
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
     // Returns the total number of items in the data set
     @Override
     public int getItemCount() {
-        return categories.size();
+        return pager.getCount();
     }
 }
@@ -10,6 +10,12 @@ public class CategoryData {
     // List to store questions related to this category
     private List<Question> questions;
 
+    // Constructor used by the streaming loader to build a category directly
+    public CategoryData(String category, List<Question> questions) {
+        this.category = category;
+        this.questions = questions;
+    }
+
     // Getter method to retrieve the category name
     public String getCategory() {
         return category;
@@ -0,0 +1,277 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import com.google.gson.stream.JsonReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// This class is an index of the categories in a questions JSON file.
+// For every category it records the name, the number of questions and the byte range of the
+// category's object in the source, so the category grid can be drawn without touching any question
+// and a single category can be parsed by seeking straight to its block.
+// The index is persisted next to the app's files and thrown away when the source checksum changes.
+// QuestionRepository only uses it when the compiled question pack of a locale cannot be opened.
+public class CategoryIndex {
+
+    // File format constants
+    private static final int MAGIC = 0x43494458; // "CIDX"
+    private static final int VERSION = 1;
+
+    // Size of the read buffer used while scanning the source
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    // CRC32 of the source the index was built from
+    private final int sourceCrc;
+    // Stamp of the source (for example the app update time) that the checksum was last verified for
+    private final long sourceStamp;
+
+    // Per category data, all arrays share the same index
+    private final String[] names;
+    private final int[] questionCounts;
+    private final long[] offsets;
+    private final int[] lengths;
+
+    // Private constructor, use build or readFrom instead
+    private CategoryIndex(int sourceCrc, long sourceStamp, String[] names, int[] questionCounts,
+                          long[] offsets, int[] lengths) {
+        this.sourceCrc = sourceCrc;
+        this.sourceStamp = sourceStamp;
+        this.names = names;
+        this.questionCounts = questionCounts;
+        this.offsets = offsets;
+        this.lengths = lengths;
+    }
+
+    // Build an index by scanning the source once. Only the bytes of one category are held at a time,
+    // and they are only tokenized to read the name and count the questions.
+    public static CategoryIndex build(InputStream in, long sourceStamp) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] block = new byte[BUFFER_SIZE];
+        int blockLength = 0;
+        long blockStart = -1;
+        long position = 0;
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            crc.update(buffer, 0, read);
+            for (int i = 0; i < read; i++, position++) {
+                byte b = buffer[i];
+                if (blockStart >= 0) {
+                    if (blockLength == block.length) {
+                        block = Arrays.copyOf(block, block.length * 2);
+                    }
+                    block[blockLength++] = b;
+                }
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                } else if (b == '"') {
+                    inString = true;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                    if (b == '{' && depth == 2) {
+                        // A category object starts inside the top level array
+                        blockStart = position;
+                        block[0] = b;
+                        blockLength = 1;
+                    }
+                } else if (b == '}' || b == ']') {
+                    depth--;
+                    if (b == '}' && depth == 1 && blockStart >= 0) {
+                        addEntry(block, blockLength, names, counts);
+                        offsets.add(blockStart);
+                        lengths.add(blockLength);
+                        blockStart = -1;
+                    }
+                }
+            }
+        }
+
+        int size = names.size();
+        int[] countArray = new int[size];
+        long[] offsetArray = new long[size];
+        int[] lengthArray = new int[size];
+        for (int i = 0; i < size; i++) {
+            countArray[i] = counts.get(i);
+            offsetArray[i] = offsets.get(i);
+            lengthArray[i] = lengths.get(i);
+        }
+        return new CategoryIndex((int) crc.getValue(), sourceStamp, names.toArray(new String[0]),
+                countArray, offsetArray, lengthArray);
+    }
+
+    // Read the name and question count of one category block
+    private static void addEntry(byte[] block, int length, List<String> names, List<Integer> counts) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(
+                new ByteArrayInputStream(block, 0, length), StandardCharsets.UTF_8));
+        String name = "";
+        int count = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if ("category".equals(field)) {
+                name = reader.nextString();
+            } else if ("questions".equals(field)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    reader.skipValue();
+                    count++;
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        names.add(name);
+        counts.add(count);
+    }
+
+    // Whether the index was built from the given source, by comparing checksums
+    public boolean matches(InputStream source) throws IOException {
+        return checksum(source) == sourceCrc;
+    }
+
+    // Compute the CRC32 of a source without parsing it
+    public static int checksum(InputStream in) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            crc.update(buffer, 0, read);
+        }
+        return (int) crc.getValue();
+    }
+
+    // Load a persisted index, or return null if the file is missing or unreadable
+    public static CategoryIndex readFrom(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            int crc = in.readInt();
+            long stamp = in.readLong();
+            int size = in.readInt();
+            // Every entry takes at least 18 bytes, a larger count means the file is corrupt
+            if (size < 0 || size > file.length() / 18) {
+                return null;
+            }
+            String[] names = new String[size];
+            int[] counts = new int[size];
+            long[] offsets = new long[size];
+            int[] lengths = new int[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = in.readUTF();
+                counts[i] = in.readInt();
+                offsets[i] = in.readLong();
+                lengths[i] = in.readInt();
+            }
+            return new CategoryIndex(crc, stamp, names, counts, offsets, lengths);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Persist the index. The file is written under a temporary name and renamed into place,
+    // so a crash never leaves a half written index behind.
+    public void writeTo(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sourceCrc);
+            out.writeLong(sourceStamp);
+            out.writeInt(names.length);
+            for (int i = 0; i < names.length; i++) {
+                out.writeUTF(names[i]);
+                out.writeInt(questionCounts[i]);
+                out.writeLong(offsets[i]);
+                out.writeInt(lengths[i]);
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    // Return a copy of this index that is marked as verified for a new source stamp
+    public CategoryIndex withSourceStamp(long stamp) {
+        return new CategoryIndex(sourceCrc, stamp, names, questionCounts, offsets, lengths);
+    }
+
+    // Position of the category with the given name, or -1 if it is not indexed
+    public int find(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Getters for the index data
+    public int getSourceCrc() {
+        return sourceCrc;
+    }
+
+    public long getSourceStamp() {
+        return sourceStamp;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public List<String> getNames() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    public String getName(int category) {
+        return names[category];
+    }
+
+    public int getQuestionCount(int category) {
+        return questionCounts[category];
+    }
+
+    public long getOffset(int category) {
+        return offsets[category];
+    }
+
+    public int getLength(int category) {
+        return lengths[category];
+    }
+}
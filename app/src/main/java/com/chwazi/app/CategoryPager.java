@@ -0,0 +1,159 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.List;
+
+// This class holds the category names of the grid one page at a time.
+// Only the count of categories is known up front; a page is requested from the PageLoader the first
+// time one of its positions is shown, and the page after (or before) is requested as the grid scrolls
+// close to it. At most MAX_PAGES pages are held, the least recently shown one is dropped first, so the
+// memory used does not grow with the number of categories. A category's position is its ID.
+public class CategoryPager {
+
+    // Number of categories in a page, and pages held at once
+    public static final int PAGE_SIZE = 60;
+    public static final int MAX_PAGES = 5;
+    // How close to the end of a page, in positions, the neighbouring page is requested
+    public static final int PREFETCH_DISTANCE = 20;
+
+    // Interface that loads pages, the result is passed to onPageLoaded() or onPageFailed()
+    public interface PageLoader {
+        void loadPage(int page, int start, int count);
+    }
+
+    // Interface that is told when loaded names can be shown
+    public interface Listener {
+        void onRangeLoaded(int start, int count);
+    }
+
+    private final PageLoader loader;
+    private final Listener listener;
+
+    private int count;
+    // Slot holding each page (-1 if not held) and whether each page is being loaded
+    private int[] slotOfPage = new int[0];
+    private boolean[] pending = new boolean[0];
+
+    // Held pages: their names, the page in each slot (-1 for a free slot) and when it was last shown
+    private final String[][] slotNames = new String[MAX_PAGES][PAGE_SIZE];
+    private final int[] pageOfSlot = new int[MAX_PAGES];
+    private final long[] slotUsed = new long[MAX_PAGES];
+    private long useClock;
+
+    public CategoryPager(PageLoader loader, Listener listener) {
+        this.loader = loader;
+        this.listener = listener;
+        setCount(0);
+    }
+
+    // Start over with the given number of categories, every held page is dropped
+    public void setCount(int categoryCount) {
+        count = categoryCount;
+        int pageCount = (categoryCount + PAGE_SIZE - 1) / PAGE_SIZE;
+        slotOfPage = new int[pageCount];
+        pending = new boolean[pageCount];
+        for (int page = 0; page < pageCount; page++) {
+            slotOfPage[page] = -1;
+        }
+        for (int slot = 0; slot < MAX_PAGES; slot++) {
+            pageOfSlot[slot] = -1;
+        }
+    }
+
+    // Number of categories
+    public int getCount() {
+        return count;
+    }
+
+    // Name of the category at a position, or null while its page is loading.
+    // Showing a position also requests its page and, near a page edge, the neighbouring page.
+    public String getName(int position) {
+        int page = position / PAGE_SIZE;
+        int offset = position - page * PAGE_SIZE;
+        if (offset >= PAGE_SIZE - PREFETCH_DISTANCE) {
+            request(page + 1);
+        } else if (offset < PREFETCH_DISTANCE) {
+            request(page - 1);
+        }
+        int slot = slotOfPage[page];
+        if (slot < 0) {
+            request(page);
+            return null;
+        }
+        slotUsed[slot] = ++useClock;
+        return slotNames[slot][offset];
+    }
+
+    // Whether a page is held
+    public boolean isLoaded(int page) {
+        return slotOfPage[page] >= 0;
+    }
+
+    // Number of pages held
+    public int getLoadedPageCount() {
+        int loaded = 0;
+        for (int slot = 0; slot < MAX_PAGES; slot++) {
+            if (pageOfSlot[slot] >= 0) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    // A requested page was loaded, keep it in place of the least recently shown page
+    public void onPageLoaded(int page, List<String> names) {
+        if (page >= pending.length || !pending[page]) {
+            // Requested before the count changed
+            return;
+        }
+        pending[page] = false;
+        int start = page * PAGE_SIZE;
+        int size = Math.min(PAGE_SIZE, count - start);
+        if (names.size() != size) {
+            return;
+        }
+        int slot = leastRecentlyUsedSlot();
+        if (pageOfSlot[slot] >= 0) {
+            slotOfPage[pageOfSlot[slot]] = -1;
+        }
+        pageOfSlot[slot] = page;
+        slotOfPage[page] = slot;
+        slotUsed[slot] = ++useClock;
+        String[] target = slotNames[slot];
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            target[i] = i < size ? names.get(i) : null;
+        }
+        listener.onRangeLoaded(start, size);
+    }
+
+    // A requested page could not be loaded, it is requested again the next time it is shown
+    public void onPageFailed(int page) {
+        if (page < pending.length) {
+            pending[page] = false;
+        }
+    }
+
+    // Ask the loader for a page that is neither held nor loading
+    private void request(int page) {
+        if (page < 0 || page >= slotOfPage.length || slotOfPage[page] >= 0 || pending[page]) {
+            return;
+        }
+        pending[page] = true;
+        int start = page * PAGE_SIZE;
+        loader.loadPage(page, start, Math.min(PAGE_SIZE, count - start));
+    }
+
+    // A free slot, or the one shown longest ago
+    private int leastRecentlyUsedSlot() {
+        int best = 0;
+        for (int slot = 0; slot < MAX_PAGES; slot++) {
+            if (pageOfSlot[slot] < 0) {
+                return slot;
+            }
+            if (slotUsed[slot] < slotUsed[best]) {
+                best = slot;
+            }
+        }
+        return best;
+    }
+}
@@ -4,9 +4,12 @@ package com.chwazi.app;
 import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.MenuItem;
-import android.widget.ArrayAdapter;
+import android.view.View;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
@@ -14,23 +17,43 @@ import androidx.recyclerview.widget.GridLayoutManager;
 
 import com.chwazi.app.databinding.ActivityCategorySelectionBinding;
 
-import java.util.ArrayList;
 import java.util.List;
 
-// This activity allows users to select a category from a list
+// This activity allows users to select a category from a list.
+// Only the number of categories is loaded up front, names are loaded a page at a time as the grid scrolls.
+// Typing in the search box replaces the grid with the categories whose name or questions match.
 public class CategorySelectionActivity extends AppCompatActivity implements CategoryAdapter.OnItemClickListener{
 
+    // Number of columns in the category grid
+    private static final int SPAN_COUNT = 2;
+    // Most categories shown for a search
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     // Binding object to access views defined in the layout
     protected ActivityCategorySelectionBinding binding;
-    // List to store category names
-    private ArrayList<String> categories = new ArrayList<>();
+    // Pages of category names shown in the grid
+    private CategoryPager pager;
+    // Page loads currently running in the background, by page
+    private final SparseArray<AsyncLoader.LoadTask> pageTasks = new SparseArray<>();
 
     // Number of participants, default is 2
     private int participantCount;
 
+    // Adapter that displays the category names
+    private CategoryAdapter adapter;
+    // The category count load currently running in the background, if any
+    private AsyncLoader.LoadTask loadTask;
+    // Adapter that displays the results of a search, shown instead of the grid while there is a query
+    private SearchResultAdapter searchAdapter;
+    // The search currently running in the background, if any
+    private AsyncLoader.LoadTask searchTask;
+    // Start of the time-to-grid measurement, reset once the grid has been measured
+    private long gridStart;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        gridStart = System.nanoTime();
         // Inflate the layout using ViewBinding
         binding = ActivityCategorySelectionBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
@@ -40,13 +63,56 @@ public class CategorySelectionActivity extends AppCompatActivity implements Cate
 
         // Get the number of participants from the intent that started this activity
         participantCount = getIntent().getIntExtra("PARTICIPANT_COUNT", 2);
-        // Load the list of categories from a JSON file
-        loadCategoriesFromJSON();
+
+        // Names are requested from the repository a page at a time and rebound once they arrive
+        pager = new CategoryPager(this::loadPage, (start, count) -> adapter.notifyItemRangeChanged(start, count));
 
         // Set the layout manager for the RecyclerView to display items in a grid with 2 columns
-        binding.recyclerViewCategories.setLayoutManager(new GridLayoutManager(this, 2));
-        // Set the adapter for the RecyclerView with the list of categories and the current activity as the click listener
-        binding.recyclerViewCategories.setAdapter(new CategoryAdapter(categories, this));
+        binding.recyclerViewCategories.setLayoutManager(new GridLayoutManager(this, SPAN_COUNT));
+        // The grid's size does not depend on its rows, and a row scrolled off either edge is kept ready to come back
+        binding.recyclerViewCategories.setHasFixedSize(true);
+        binding.recyclerViewCategories.setItemViewCacheSize(2 * SPAN_COUNT);
+        // Set the adapter for the RecyclerView with the pages of categories and the current activity as the click listener
+        adapter = new CategoryAdapter(pager, this);
+        binding.recyclerViewCategories.setAdapter(adapter);
+        searchAdapter = new SearchResultAdapter(this);
+
+        // Search again on every change, a query only reads the prebuilt index
+        binding.searchBox.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                search(s.toString());
+            }
+        });
+
+        // Retry loading when the user asks for it after an error
+        binding.btnRetry.setOnClickListener(v -> loadCategories());
+        // Load the list of categories in the background
+        loadCategories();
+    }
+
+    @Override
+    protected void onDestroy() {
+        // Drop the pending result, this screen will not be around to show it
+        if (loadTask != null) {
+            loadTask.cancel();
+        }
+        if (searchTask != null) {
+            searchTask.cancel();
+        }
+        for (int i = 0; i < pageTasks.size(); i++) {
+            pageTasks.valueAt(i).cancel();
+        }
+        pageTasks.clear();
+        super.onDestroy();
     }
 
     // Method to set up the toolbar with a back button and title
@@ -74,30 +140,103 @@ public class CategorySelectionActivity extends AppCompatActivity implements Cate
         return super.onOptionsItemSelected(item);
     }
 
-    // Method to load categories from a JSON file
-    private void loadCategoriesFromJSON() {
-        try {
-            // Load the list of categories from JSON using a helper class
-            List<CategoryData> jsonCategories = JsonLoader.loadCategories(this);
-            // Add each category name to the categories list
-            for (CategoryData category : jsonCategories) {
-                categories.add(category.getCategory());
+    // Method to load the number of categories from the shared repository in the background
+    private void loadCategories() {
+        showLoadingState(true, false);
+        loadTask = QuestionRepository.getInstance(this).loadCategoryCountAsync(new AsyncLoader.LoadCallback<Integer>() {
+            @Override
+            public void onLoaded(Integer result) {
+                // Show a row per category, the first page is requested as soon as the grid binds it
+                pager.setCount(result);
+                adapter.notifyDataSetChanged();
+                showLoadingState(false, false);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                // Log the error and let the user retry
+                Log.e("CategorySelection", "Error loading categories", error);
+                showLoadingState(false, true);
+            }
+        });
+    }
+
+    // Method to load a page of category names in the background, called by the pager
+    private void loadPage(int page, int start, int count) {
+        pageTasks.put(page, QuestionRepository.getInstance(this).loadCategoryNamesAsync(start, count,
+                new AsyncLoader.LoadCallback<List<String>>() {
+                    @Override
+                    public void onLoaded(List<String> result) {
+                        pageTasks.remove(page);
+                        pager.onPageLoaded(page, result);
+                        // Time to grid ends with the first frame that shows category names
+                        if (gridStart != 0) {
+                            Perf.endOnNextDraw(binding.recyclerViewCategories, PerfRecorder.Phase.CATEGORY_GRID, gridStart);
+                            gridStart = 0;
+                        }
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        // The rows stay empty, the page is requested again when they are bound next
+                        Log.e("CategorySelection", "Error loading categories " + start + " to " + (start + count), error);
+                        pageTasks.remove(page);
+                        pager.onPageFailed(page);
+                    }
+                }));
+    }
+
+    // Method to search the categories in the background, an empty query shows the full grid again
+    private void search(String query) {
+        // Only the latest query's results are shown
+        if (searchTask != null) {
+            searchTask.cancel();
+            searchTask = null;
+        }
+        if (HebrewTokenizer.tokenize(query).isEmpty()) {
+            binding.tvNoResults.setVisibility(View.GONE);
+            if (binding.recyclerViewCategories.getAdapter() != adapter) {
+                binding.recyclerViewCategories.setAdapter(adapter);
             }
-        } catch (Exception e) {
-            // Log an error message if something goes wrong while reading JSON
-            Log.e("CategorySelection", "Error reading JSON", e);
+            return;
         }
+        searchTask = QuestionRepository.getInstance(this).searchCategoriesAsync(query, MAX_SEARCH_RESULTS,
+                new AsyncLoader.LoadCallback<List<QuestionRepository.CategoryMatch>>() {
+                    @Override
+                    public void onLoaded(List<QuestionRepository.CategoryMatch> result) {
+                        searchTask = null;
+                        searchAdapter.setMatches(result);
+                        if (binding.recyclerViewCategories.getAdapter() != searchAdapter) {
+                            binding.recyclerViewCategories.setAdapter(searchAdapter);
+                        }
+                        binding.tvNoResults.setVisibility(result.isEmpty() ? View.VISIBLE : View.GONE);
+                    }
+
+                    @Override
+                    public void onError(Exception error) {
+                        // Keep the previous results, the next keystroke searches again
+                        Log.e("CategorySelection", "Error searching categories", error);
+                        searchTask = null;
+                    }
+                });
+    }
+
+    // Method to switch between the loading, error and content states of the screen
+    private void showLoadingState(boolean loading, boolean failed) {
+        binding.progressLoading.setVisibility(loading ? View.VISIBLE : View.GONE);
+        binding.loadErrorGroup.setVisibility(failed ? View.VISIBLE : View.GONE);
+        binding.recyclerViewCategories.setVisibility(loading || failed ? View.INVISIBLE : View.VISIBLE);
     }
 
     // Handle click events on category items
     @Override
-    public void onItemClick(String category) {
+    public void onItemClick(int categoryId) {
         // Create an intent to start the GameActivity
         Intent intent = new Intent(CategorySelectionActivity.this, GameActivity.class);
         // Pass the number of participants to the GameActivity
         intent.putExtra("PARTICIPANT_COUNT", participantCount);
-        // Pass the selected category to the GameActivity
-        intent.putExtra("SELECTED_CATEGORY", category);
+        // Pass the ID of the selected category to the GameActivity
+        intent.putExtra("SELECTED_CATEGORY_ID", categoryId);
         // Start the GameActivity
         startActivity(intent);
         // Close the current activity
@@ -0,0 +1,507 @@
+package com.chwazi.app;
+
+// Import necessary Android classes
+import android.animation.ValueAnimator;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RenderNode;
+import android.os.Build;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.LinearInterpolator;
+
+import androidx.annotation.RequiresApi;
+
+// This view draws every participant circle on a single canvas and tracks the fingers on them.
+// Fingers are followed by pointer ID, so every finger (not just the first one) is seen, including
+// ACTION_POINTER_DOWN/UP and ACTION_CANCEL. Circle centers and radii come from a CircleLayout that is
+// computed once per participant count and size, and onTouchEvent/onDraw do not allocate.
+// The countdown pulses the circles, then the chosen circle grows while the others shrink and fade.
+// The animations run on the UI thread: every frame is a ValueAnimator tick that invalidates the view,
+// and onDraw runs again without a layout pass. On API 29+ every circle is recorded once into its own
+// RenderNode, so that onDraw only sets the nodes' scale and alpha and draws the existing display lists
+// instead of re-recording the circles. Fingers moving on the circles do not redraw anything.
+public class ChwaziTouchView extends View {
+
+    // MotionEvent pointer IDs are always in the range 0..31
+    private static final int MAX_POINTER_ID = 32;
+
+    // Largest size of a participant circle and smallest gap between circles, in density-independent pixels
+    private static final float CIRCLE_SIZE_DP = 80f;
+    private static final float CIRCLE_GAP_DP = 12f;
+    // Width of the ring drawn around a circle that is being touched
+    private static final float RING_WIDTH_DP = 6f;
+
+    // Opacity and size of the other circles while a chosen participant is shown, and size of the chosen one
+    private static final float NOT_CHOSEN_ALPHA = 0.3f;
+    private static final float NOT_CHOSEN_SCALE = 0.6f;
+    private static final float CHOSEN_SCALE = 1.4f;
+
+    // Length of the countdown before a participant is picked, and how the circles pulse during it
+    public static final long COUNTDOWN_MS = 2000;
+    private static final int COUNTDOWN_PULSES = 4;
+    private static final float PULSE_SCALE = 0.15f;
+    // Length of the animation that shows the chosen participant
+    public static final long CHOSEN_ANIMATION_MS = 600;
+
+    // Timing of the staggered entrance animation
+    private static final long ENTRANCE_DURATION_MS = 500;
+    private static final long ENTRANCE_STAGGER_MS = 100;
+
+    // Interface that receives finger changes on the participant circles
+    public interface OnParticipantTouchListener {
+        // A finger went down on a participant circle that was not touched yet, at the event time of the
+        // touch in the SystemClock.uptimeMillis() time base
+        void onParticipantDown(int participant, int touchedCount, long eventTime);
+
+        // The finger holding a participant circle was lifted or cancelled
+        void onParticipantUp(int participant, int touchedCount);
+    }
+
+    // Listener for finger changes
+    private OnParticipantTouchListener listener;
+
+    // Number of participants and their colors
+    private int participantCount;
+    private int[] colors = new int[0];
+
+    // Circle geometry, cached per participant count and view size
+    private final CircleLayout circleLayout = new CircleLayout();
+    private float[] centerX = new float[0];
+    private float[] centerY = new float[0];
+    private float radius;
+
+    // Which participant each pointer ID holds (-1 for none), and which pointer holds each participant
+    private final int[] participantByPointer = new int[MAX_POINTER_ID];
+    private int[] pointerByParticipant = new int[0];
+    private int touchedCount;
+
+    // Participant shown as chosen, or -1
+    private int chosen = -1;
+
+    // Paints reused for every frame
+    private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint ringPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    // Drives the staggered entrance of the circles, measured in elapsed milliseconds
+    private final ValueAnimator entranceAnimator = new ValueAnimator();
+    private float entranceTotal;
+    private float entranceElapsed = Float.MAX_VALUE;
+
+    // Drives the countdown, its fraction is -1 while no countdown is running
+    private final ValueAnimator countdownAnimator = new ValueAnimator();
+    private float countdownFraction = -1f;
+    // Drives the chosen circle growing and the others shrinking, 1 once they are in place
+    private final ValueAnimator chosenAnimator = new ValueAnimator();
+    private float chosenFraction = 1f;
+
+    // Scale and opacity of every circle in the current frame
+    private float[] circleScale = new float[0];
+    private float[] circleAlpha = new float[0];
+
+    // One RenderNode per circle on API 29+, recorded again only when the circles change
+    private final CircleNodes nodes = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q ? new CircleNodes() : null;
+    private boolean nodesDirty = true;
+
+    public ChwaziTouchView(Context context) {
+        this(context, null);
+    }
+
+    public ChwaziTouchView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        fillPaint.setStyle(Paint.Style.FILL);
+        ringPaint.setStyle(Paint.Style.STROKE);
+        ringPaint.setColor(Color.WHITE);
+        ringPaint.setStrokeWidth(RING_WIDTH_DP * getResources().getDisplayMetrics().density);
+        entranceAnimator.setInterpolator(new LinearInterpolator());
+        entranceAnimator.setFloatValues(0f, 1f);
+        entranceAnimator.addUpdateListener(animation -> {
+            // The fraction avoids boxing the animated value on every frame
+            entranceElapsed = animation.getAnimatedFraction() * entranceTotal;
+            invalidate();
+        });
+        countdownAnimator.setInterpolator(new LinearInterpolator());
+        countdownAnimator.setFloatValues(0f, 1f);
+        countdownAnimator.setDuration(COUNTDOWN_MS);
+        countdownAnimator.addUpdateListener(animation -> {
+            countdownFraction = animation.getAnimatedFraction();
+            invalidate();
+        });
+        chosenAnimator.setInterpolator(new DecelerateInterpolator());
+        chosenAnimator.setFloatValues(0f, 1f);
+        chosenAnimator.setDuration(CHOSEN_ANIMATION_MS);
+        chosenAnimator.addUpdateListener(animation -> {
+            chosenFraction = animation.getAnimatedFraction();
+            invalidate();
+        });
+        clearPointers();
+    }
+
+    // Set the listener for finger changes
+    public void setOnParticipantTouchListener(OnParticipantTouchListener listener) {
+        this.listener = listener;
+    }
+
+    // Show the given participants, one circle per color, and forget every finger
+    public void setParticipants(int count, int[] participantColors) {
+        participantCount = count;
+        colors = participantColors.clone();
+        if (centerX.length != count) {
+            centerX = new float[count];
+            centerY = new float[count];
+            pointerByParticipant = new int[count];
+            circleScale = new float[count];
+            circleAlpha = new float[count];
+        }
+        cancelCountdown();
+        setChosen(-1);
+        clearTouches();
+        computeLayout(getWidth(), getHeight());
+        nodesDirty = true;
+        invalidate();
+    }
+
+    // Play the staggered entrance animation of the circles
+    public void animateEntrance() {
+        entranceAnimator.cancel();
+        long total = ENTRANCE_DURATION_MS + ENTRANCE_STAGGER_MS * Math.max(0, participantCount - 1);
+        entranceTotal = total;
+        entranceAnimator.setDuration(total);
+        entranceElapsed = 0f;
+        entranceAnimator.start();
+    }
+
+    // Forget every touch, fingers still down have to be lifted and placed again to count
+    public void clearTouches() {
+        clearPointers();
+        for (int i = 0; i < pointerByParticipant.length; i++) {
+            pointerByParticipant[i] = -1;
+        }
+        touchedCount = 0;
+        invalidate();
+    }
+
+    // Pulse the circles for COUNTDOWN_MS, the screen picks a participant once the countdown is over
+    public void startCountdown() {
+        countdownAnimator.cancel();
+        countdownFraction = 0f;
+        countdownAnimator.start();
+    }
+
+    // Stop the countdown, for example when a finger was lifted, and bring the circles back to their size
+    public void cancelCountdown() {
+        countdownAnimator.cancel();
+        countdownFraction = -1f;
+        invalidate();
+    }
+
+    // Show the given participant as chosen, in the participant's own color with the other circles faded,
+    // or -1 to show every circle again
+    public void setChosen(int participant) {
+        chosenAnimator.cancel();
+        chosenFraction = 1f;
+        chosen = participant;
+        invalidate();
+    }
+
+    // Show the given participant as chosen, growing their circle while the others shrink and fade
+    // over CHOSEN_ANIMATION_MS. Ends the countdown.
+    public void animateChosen(int participant) {
+        cancelCountdown();
+        chosenAnimator.cancel();
+        chosen = participant;
+        chosenFraction = 0f;
+        chosenAnimator.start();
+    }
+
+    // Participant shown as chosen, or -1
+    public int getChosen() {
+        return chosen;
+    }
+
+    // Number of participant circles that are currently touched
+    public int getTouchedCount() {
+        return touchedCount;
+    }
+
+    // Whether the given participant's circle is currently touched
+    public boolean isTouched(int participant) {
+        return pointerByParticipant[participant] >= 0;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        computeLayout(w, h);
+        nodesDirty = true;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        entranceAnimator.cancel();
+        countdownAnimator.cancel();
+        chosenAnimator.cancel();
+        // The display lists are recorded again if the view comes back
+        if (nodes != null) {
+            nodes.discard();
+            nodesDirty = true;
+        }
+        super.onDetachedFromWindow();
+    }
+
+    // Place the circles on one or more rings around the center of the view.
+    // This runs only when the participant count or the size changes, never per frame.
+    private void computeLayout(int width, int height) {
+        float density = getResources().getDisplayMetrics().density;
+        if (!circleLayout.layout(participantCount, width, height, CIRCLE_SIZE_DP * density / 2f, CIRCLE_GAP_DP * density)) {
+            return;
+        }
+        radius = circleLayout.getRadius();
+        for (int i = 0; i < participantCount; i++) {
+            centerX[i] = circleLayout.getCenterX(i);
+            centerY[i] = circleLayout.getCenterY(i);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        computeFrame();
+        if (nodes != null && canvas.isHardwareAccelerated()) {
+            if (nodesDirty) {
+                nodes.record(participantCount, centerX, centerY, radius, ringPaint.getStrokeWidth(), colors,
+                        fillPaint, ringPaint);
+                nodesDirty = false;
+            }
+            for (int i = 0; i < participantCount; i++) {
+                if (circleScale[i] > 0f) {
+                    nodes.draw(canvas, i, circleScale[i], circleAlpha[i], hasRing(i));
+                }
+            }
+            return;
+        }
+        // Software rendering and older versions draw the circles directly, with the same scale and opacity
+        for (int i = 0; i < participantCount; i++) {
+            float scale = circleScale[i];
+            if (scale <= 0f) {
+                continue;
+            }
+            fillPaint.setColor(colors[i]);
+            fillPaint.setAlpha((int) (255 * circleAlpha[i]));
+            canvas.drawCircle(centerX[i], centerY[i], radius * scale, fillPaint);
+            if (hasRing(i)) {
+                ringPaint.setAlpha((int) (255 * circleAlpha[i]));
+                canvas.drawCircle(centerX[i], centerY[i], (radius + ringPaint.getStrokeWidth()) * scale, ringPaint);
+            }
+        }
+    }
+
+    // Feedback for a touched or chosen circle
+    private boolean hasRing(int participant) {
+        return pointerByParticipant[participant] >= 0 || chosen == participant;
+    }
+
+    // Work out the scale and opacity of every circle for this frame, from the entrance, the countdown
+    // and the chosen participant's animation
+    private void computeFrame() {
+        float pulse = 1f;
+        if (countdownFraction >= 0f) {
+            // The pulses get stronger as the countdown goes on
+            double wave = 0.5 - 0.5 * Math.cos(2 * Math.PI * COUNTDOWN_PULSES * countdownFraction);
+            pulse = 1f + PULSE_SCALE * countdownFraction * (float) wave;
+        }
+        for (int i = 0; i < participantCount; i++) {
+            float entrance = entranceScale(i);
+            float scale = entrance * pulse;
+            float alpha = entrance;
+            if (chosen == i) {
+                scale *= lerp(1f, CHOSEN_SCALE, chosenFraction);
+            } else if (chosen >= 0) {
+                scale *= lerp(1f, NOT_CHOSEN_SCALE, chosenFraction);
+                alpha *= lerp(1f, NOT_CHOSEN_ALPHA, chosenFraction);
+            }
+            circleScale[i] = scale;
+            circleAlpha[i] = alpha;
+        }
+    }
+
+    // Scale (and opacity) of a circle during the entrance animation
+    private float entranceScale(int participant) {
+        float local = (entranceElapsed - participant * ENTRANCE_STAGGER_MS) / ENTRANCE_DURATION_MS;
+        return clamp(local, 0f, 1f);
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+            case MotionEvent.ACTION_POINTER_DOWN: {
+                int index = event.getActionIndex();
+                pointerDown(event.getPointerId(index), event.getX(index), event.getY(index), event.getEventTime());
+                break;
+            }
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_POINTER_UP: {
+                pointerUp(event.getPointerId(event.getActionIndex()));
+                break;
+            }
+            case MotionEvent.ACTION_CANCEL: {
+                // The gesture was taken away from us, every finger is gone
+                for (int pointerId = 0; pointerId < MAX_POINTER_ID; pointerId++) {
+                    pointerUp(pointerId);
+                }
+                break;
+            }
+            default:
+                break;
+        }
+        return true;
+    }
+
+    // A finger went down, claim the circle under it if it is free
+    private void pointerDown(int pointerId, float x, float y, long eventTime) {
+        if (pointerId < 0 || pointerId >= MAX_POINTER_ID) {
+            return;
+        }
+        int participant = hitTest(x, y);
+        if (participant < 0 || pointerByParticipant[participant] >= 0) {
+            return;
+        }
+        participantByPointer[pointerId] = participant;
+        pointerByParticipant[participant] = pointerId;
+        touchedCount++;
+        invalidate();
+        if (listener != null) {
+            listener.onParticipantDown(participant, touchedCount, eventTime);
+        }
+    }
+
+    // A finger was lifted, release the circle it was holding
+    private void pointerUp(int pointerId) {
+        if (pointerId < 0 || pointerId >= MAX_POINTER_ID) {
+            return;
+        }
+        int participant = participantByPointer[pointerId];
+        if (participant < 0) {
+            return;
+        }
+        participantByPointer[pointerId] = -1;
+        pointerByParticipant[participant] = -1;
+        touchedCount--;
+        invalidate();
+        if (listener != null) {
+            listener.onParticipantUp(participant, touchedCount);
+        }
+    }
+
+    // Return the participant whose circle contains the point, or -1
+    private int hitTest(float x, float y) {
+        float radiusSquared = radius * radius;
+        for (int i = 0; i < participantCount; i++) {
+            float dx = x - centerX[i];
+            float dy = y - centerY[i];
+            if (dx * dx + dy * dy <= radiusSquared) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Mark every pointer ID as holding nothing
+    private void clearPointers() {
+        for (int i = 0; i < MAX_POINTER_ID; i++) {
+            participantByPointer[i] = -1;
+        }
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static float lerp(float from, float to, float fraction) {
+        return from + (to - from) * fraction;
+    }
+
+    // The circles as RenderNodes: a fill and a ring per participant, each recorded once at the circle's
+    // place. Drawing a frame still runs onDraw, but only changes node properties, so the circles' display
+    // lists are reused as they are.
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static class CircleNodes {
+        private RenderNode[] fills = new RenderNode[0];
+        private RenderNode[] rings = new RenderNode[0];
+
+        // Record every circle again, after the participants, their colors or the view's size changed
+        void record(int count, float[] centerX, float[] centerY, float radius, float ringWidth, int[] colors,
+                    Paint fillPaint, Paint ringPaint) {
+            if (fills.length != count) {
+                discard();
+                fills = new RenderNode[count];
+                rings = new RenderNode[count];
+                for (int i = 0; i < count; i++) {
+                    fills[i] = new RenderNode("circle");
+                    rings[i] = new RenderNode("ring");
+                    // A single shape, so alpha is applied without an offscreen layer
+                    fills[i].setHasOverlappingRendering(false);
+                    rings[i].setHasOverlappingRendering(false);
+                }
+            }
+            // Room for the ring around the circle, scaling happens around the center
+            float extent = radius + 2 * ringWidth;
+            int size = (int) Math.ceil(2 * extent);
+            for (int i = 0; i < count; i++) {
+                int left = Math.round(centerX[i] - extent);
+                int top = Math.round(centerY[i] - extent);
+                float cx = centerX[i] - left;
+                float cy = centerY[i] - top;
+
+                fillPaint.setColor(colors[i]);
+                place(fills[i], left, top, size, cx, cy);
+                Canvas canvas = fills[i].beginRecording();
+                canvas.drawCircle(cx, cy, radius, fillPaint);
+                fills[i].endRecording();
+
+                ringPaint.setAlpha(255);
+                place(rings[i], left, top, size, cx, cy);
+                canvas = rings[i].beginRecording();
+                canvas.drawCircle(cx, cy, radius + ringWidth, ringPaint);
+                rings[i].endRecording();
+            }
+        }
+
+        private static void place(RenderNode node, int left, int top, int size, float pivotX, float pivotY) {
+            node.setPosition(left, top, left + size, top + size);
+            node.setPivotX(pivotX);
+            node.setPivotY(pivotY);
+        }
+
+        // Draw a circle with the given scale and opacity, setting properties does not allocate
+        void draw(Canvas canvas, int participant, float scale, float alpha, boolean ring) {
+            RenderNode fill = fills[participant];
+            fill.setScaleX(scale);
+            fill.setScaleY(scale);
+            fill.setAlpha(alpha);
+            canvas.drawRenderNode(fill);
+            if (ring) {
+                RenderNode node = rings[participant];
+                node.setScaleX(scale);
+                node.setScaleY(scale);
+                node.setAlpha(alpha);
+                canvas.drawRenderNode(node);
+            }
+        }
+
+        // Free the display lists
+        void discard() {
+            for (RenderNode node : fills) {
+                node.discardDisplayList();
+            }
+            for (RenderNode node : rings) {
+                node.discardDisplayList();
+            }
+        }
+    }
+}
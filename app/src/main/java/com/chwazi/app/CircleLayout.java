@@ -0,0 +1,185 @@
+package com.chwazi.app;
+
+// This class computes where the participant circles go.
+// Circles are spread over one or more concentric rings, choosing the number of rings that allows the
+// largest circles, so 2 players get big circles on one ring and 20 players still fit comfortably.
+// The result is cached for the last count and container size, so it is only recomputed on a real change.
+public class CircleLayout {
+
+    // Most rings ever used, more than this never gives bigger circles for up to 20 participants
+    private static final int MAX_RINGS = 4;
+    // Radius the search starts from when circles of the largest allowed size do not fit,
+    // as a fraction of that size; it is halved further for containers too small for it
+    private static final float MIN_RADIUS_FRACTION = 0.25f;
+    // Below this radius in pixels, circles are too small to touch and the search gives up
+    private static final float SMALLEST_RADIUS = 0.5f;
+    // Steps of the radius search, plenty for sub-pixel precision
+    private static final int SEARCH_STEPS = 20;
+
+    // Computed positions, one entry per participant
+    private float[] centerX = new float[0];
+    private float[] centerY = new float[0];
+    private float radius;
+
+    // Inputs of the cached result
+    private int cachedCount = -1;
+    private int cachedWidth = -1;
+    private int cachedHeight = -1;
+    private float cachedMaxRadius = -1;
+    private float cachedGap = -1;
+
+    // Scratch space for ring capacities and assignments, reused between layouts
+    private final int[] ringCapacity = new int[MAX_RINGS];
+    private final int[] ringCount = new int[MAX_RINGS];
+    private final float[] ringRadius = new float[MAX_RINGS];
+
+    // Compute the layout for count circles of at most maxRadius with at least gap between them.
+    // Returns false, and keeps the previous result, when nothing changed since the last call.
+    public boolean layout(int count, int width, int height, float maxRadius, float gap) {
+        if (count == cachedCount && width == cachedWidth && height == cachedHeight
+                && maxRadius == cachedMaxRadius && gap == cachedGap) {
+            return false;
+        }
+        cachedCount = count;
+        cachedWidth = width;
+        cachedHeight = height;
+        cachedMaxRadius = maxRadius;
+        cachedGap = gap;
+
+        if (centerX.length != count) {
+            centerX = new float[count];
+            centerY = new float[count];
+        }
+        if (count == 0 || width <= 0 || height <= 0) {
+            radius = 0;
+            return true;
+        }
+
+        float half = Math.min(width, height) / 2f;
+        maxRadius = Math.min(maxRadius, half);
+
+        // Find the ring count that allows the biggest circles. In a container too small for the gap,
+        // the circles are allowed to touch rather than overlap.
+        int bestRings = 1;
+        float bestRadius = 0;
+        for (int attempt = 0; attempt < 2 && bestRadius == 0; attempt++) {
+            if (attempt == 1) {
+                gap = 0;
+            }
+            for (int rings = 1; rings <= MAX_RINGS; rings++) {
+                float r = largestRadius(count, half, maxRadius, gap, rings);
+                if (r > bestRadius + 0.5f || (bestRadius == 0 && r > 0)) {
+                    bestRadius = r;
+                    bestRings = rings;
+                }
+            }
+        }
+        // Only a container of a few pixels has no room at all, the circles overlap there
+        radius = bestRadius > 0 ? bestRadius : SMALLEST_RADIUS;
+        int totalCapacity = fillRings(half, radius, gap, bestRings);
+
+        // Share the participants between the rings in proportion to what each ring can hold,
+        // never leaving the later rings more than they can hold
+        int remaining = count;
+        int remainingCapacity = Math.max(totalCapacity, count);
+        for (int k = 0; k < bestRings; k++) {
+            int n;
+            if (k == bestRings - 1) {
+                n = remaining;
+            } else {
+                n = Math.min(ringCapacity[k], Math.round((float) remaining * ringCapacity[k] / remainingCapacity));
+                n = Math.min(remaining, Math.max(n, remaining - (remainingCapacity - ringCapacity[k])));
+            }
+            ringCount[k] = n;
+            remaining -= n;
+            remainingCapacity -= ringCapacity[k];
+        }
+
+        // Place the circles, rotating every ring a little so they do not line up
+        float cx = width / 2f;
+        float cy = height / 2f;
+        int index = 0;
+        for (int k = 0; k < bestRings; k++) {
+            int n = ringCount[k];
+            double offset = k * Math.PI / Math.max(1, n);
+            for (int i = 0; i < n; i++, index++) {
+                if (n == 1 && 2 * ringRadius[k] < 2 * radius + gap) {
+                    // A single circle in the middle
+                    centerX[index] = cx;
+                    centerY[index] = cy;
+                } else {
+                    double angle = offset + 2 * Math.PI * i / n;
+                    centerX[index] = clamp((float) (cx + ringRadius[k] * Math.cos(angle)), radius, width - radius);
+                    centerY[index] = clamp((float) (cy + ringRadius[k] * Math.sin(angle)), radius, height - radius);
+                }
+            }
+        }
+        return true;
+    }
+
+    // Binary search for the largest radius at which count circles fit on the given number of rings
+    private float largestRadius(int count, float half, float maxRadius, float gap, int rings) {
+        if (fillRings(half, maxRadius, gap, rings) >= count) {
+            return maxRadius;
+        }
+        float low = maxRadius * MIN_RADIUS_FRACTION;
+        while (fillRings(half, low, gap, rings) < count) {
+            if (low < SMALLEST_RADIUS) {
+                return 0;
+            }
+            low /= 2;
+        }
+        float high = maxRadius;
+        for (int step = 0; step < SEARCH_STEPS; step++) {
+            float mid = (low + high) / 2f;
+            if (fillRings(half, mid, gap, rings) >= count) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Compute the radius and capacity of every ring for circles of radius r, returning the total capacity
+    private int fillRings(float half, float r, float gap, int rings) {
+        float pitch = 2 * r + gap;
+        // A lone ring keeps the classic look of sitting a third of the way out
+        float outer = rings == 1 ? Math.min(half * 2f / 3f, half - r) : half - r;
+        int total = 0;
+        for (int k = 0; k < rings; k++) {
+            float ring = outer - k * pitch;
+            ringRadius[k] = ring;
+            int capacity;
+            if (ring < 0) {
+                capacity = 0;
+            } else if (2 * ring < pitch) {
+                // Too small for a ring, but there is room for one circle in the middle
+                capacity = 1;
+            } else {
+                // Neighbours on the ring are a chord apart, which must be at least the pitch
+                capacity = (int) (Math.PI / Math.asin(pitch / (2 * ring)));
+            }
+            ringCapacity[k] = capacity;
+            total += capacity;
+        }
+        return total;
+    }
+
+    // Getters for the computed layout
+    public float getCenterX(int participant) {
+        return centerX[participant];
+    }
+
+    public float getCenterY(int participant) {
+        return centerY[participant];
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    private static float clamp(float value, float min, float max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
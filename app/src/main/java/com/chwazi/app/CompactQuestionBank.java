@@ -0,0 +1,243 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+// This class holds parsed questions in a few packed arrays instead of one object graph per question.
+// Every string (category names, question texts and options) is stored once in a shared pool, so the
+// short options that repeat all over the bank ("3", "4", "כן", "לא") cost a single int per use.
+// The pool's characters live in one char array, so a string costs its characters and an offset.
+// Questions handed out are light views over a position in the bank, their strings are only created
+// when they are read.
+public class CompactQuestionBank {
+
+    // Rough per-object overheads used when estimating the retained size, see QuestionCache
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int ARRAY_OVERHEAD = 16;
+
+    // The string pool: string i is chars[stringStarts[i]] to chars[stringStarts[i + 1]]
+    private final char[] chars;
+    private final int[] stringStarts;
+
+    // Per category data: the name, and its questions as a range of the question arrays
+    private final int[] categoryNames;
+    private final int[] categoryStarts;
+
+    // Per question data: the text, the options as a range of optionStrings, and the correct answer
+    private final int[] questionTexts;
+    private final int[] optionStarts;
+    private final int[] optionStrings;
+    private final byte[] correctAnswers;
+
+    // Private constructor, use build instead
+    private CompactQuestionBank(char[] chars, int[] stringStarts, int[] categoryNames, int[] categoryStarts,
+                                int[] questionTexts, int[] optionStarts, int[] optionStrings, byte[] correctAnswers) {
+        this.chars = chars;
+        this.stringStarts = stringStarts;
+        this.categoryNames = categoryNames;
+        this.categoryStarts = categoryStarts;
+        this.questionTexts = questionTexts;
+        this.optionStarts = optionStarts;
+        this.optionStrings = optionStrings;
+        this.correctAnswers = correctAnswers;
+    }
+
+    // Pack parsed categories into a bank. The categories can be dropped afterwards, nothing refers to them.
+    public static CompactQuestionBank build(List<CategoryData> categories) {
+        int questionCount = 0;
+        int optionCount = 0;
+        for (CategoryData category : categories) {
+            for (Question question : category.getQuestions()) {
+                questionCount++;
+                optionCount += question.getOptions().size();
+            }
+        }
+
+        Pool pool = new Pool();
+        int[] categoryNames = new int[categories.size()];
+        int[] categoryStarts = new int[categories.size() + 1];
+        int[] questionTexts = new int[questionCount];
+        int[] optionStarts = new int[questionCount + 1];
+        int[] optionStrings = new int[optionCount];
+        byte[] correctAnswers = new byte[questionCount];
+
+        int q = 0;
+        int o = 0;
+        for (int c = 0; c < categories.size(); c++) {
+            CategoryData category = categories.get(c);
+            categoryNames[c] = pool.add(category.getCategory());
+            categoryStarts[c] = q;
+            for (Question question : category.getQuestions()) {
+                int correctAnswer = question.getCorrectAnswer();
+                if (correctAnswer < Byte.MIN_VALUE || correctAnswer > Byte.MAX_VALUE) {
+                    throw new IllegalArgumentException("Correct answer " + correctAnswer + " out of range");
+                }
+                questionTexts[q] = pool.add(question.getQuestion());
+                optionStarts[q] = o;
+                for (String option : question.getOptions()) {
+                    optionStrings[o++] = pool.add(option);
+                }
+                correctAnswers[q] = (byte) correctAnswer;
+                q++;
+            }
+        }
+        categoryStarts[categories.size()] = q;
+        optionStarts[questionCount] = o;
+
+        return new CompactQuestionBank(Arrays.copyOf(pool.chars, pool.charCount),
+                Arrays.copyOf(pool.starts, pool.ids.size() + 1), categoryNames, categoryStarts,
+                questionTexts, optionStarts, optionStrings, correctAnswers);
+    }
+
+    // Number of categories in the bank
+    public int getCategoryCount() {
+        return categoryNames.length;
+    }
+
+    // Name of the category at the given index
+    public String getCategoryName(int category) {
+        return getString(categoryNames[category]);
+    }
+
+    // Total number of questions in the bank
+    public int getQuestionCount() {
+        return questionTexts.length;
+    }
+
+    // Number of distinct strings in the pool
+    public int getStringCount() {
+        return stringStarts.length - 1;
+    }
+
+    // Read-only list of a category's questions, each question is a view created when it is accessed
+    public List<Question> getQuestions(int category) {
+        if (category < 0 || category >= categoryNames.length) {
+            throw new IndexOutOfBoundsException("Category " + category);
+        }
+        return new CategoryQuestions(categoryStarts[category], categoryStarts[category + 1]);
+    }
+
+    // The bank behind a question list returned by getQuestions, or null for any other list
+    static CompactQuestionBank bankOf(List<Question> questions) {
+        return questions instanceof CategoryQuestions ? ((CategoryQuestions) questions).getBank() : null;
+    }
+
+    // Estimate the retained size of the bank in bytes, with the same overheads as QuestionCache
+    public long estimateBytes() {
+        return OBJECT_OVERHEAD
+                + ARRAY_OVERHEAD + 2L * chars.length
+                + 6L * ARRAY_OVERHEAD + 4L * (stringStarts.length + categoryNames.length + categoryStarts.length
+                + questionTexts.length + optionStarts.length + optionStrings.length)
+                + ARRAY_OVERHEAD + correctAnswers.length;
+    }
+
+    // Text of the question at a position in the bank
+    String getText(int question) {
+        return getString(questionTexts[question]);
+    }
+
+    // Options of the question at a position in the bank
+    List<String> getOptions(int question) {
+        return new Options(optionStarts[question], optionStarts[question + 1]);
+    }
+
+    // Index of the correct option of the question at a position in the bank
+    int getCorrectAnswer(int question) {
+        return correctAnswers[question];
+    }
+
+    // Create the string with the given ID from the pool
+    private String getString(int id) {
+        int start = stringStarts[id];
+        return new String(chars, start, stringStarts[id + 1] - start);
+    }
+
+    // List view over the questions of one category
+    private class CategoryQuestions extends AbstractList<Question> implements RandomAccess {
+        private final int start;
+        private final int size;
+
+        CategoryQuestions(int start, int end) {
+            this.start = start;
+            this.size = end - start;
+        }
+
+        CompactQuestionBank getBank() {
+            return CompactQuestionBank.this;
+        }
+
+        @Override
+        public Question get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Question " + index);
+            }
+            return new Question(CompactQuestionBank.this, start + index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // List view over the options of one question
+    private class Options extends AbstractList<String> implements RandomAccess {
+        private final int start;
+        private final int size;
+
+        Options(int start, int end) {
+            this.start = start;
+            this.size = end - start;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Option " + index);
+            }
+            return getString(optionStrings[start + index]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    // The string pool while the bank is being built. The map from string to ID is dropped with it.
+    private static class Pool {
+        final Map<String, Integer> ids = new HashMap<>();
+        char[] chars = new char[1024];
+        int charCount;
+        int[] starts = new int[64];
+
+        // Return the ID of a string, adding it to the pool the first time it is seen
+        int add(String value) {
+            if (value == null) {
+                // Missing texts are stored as empty strings, like an empty field in the JSON
+                value = "";
+            }
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            int newId = ids.size();
+            ids.put(value, newId);
+            if (charCount + value.length() > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(chars.length * 2, charCount + value.length()));
+            }
+            value.getChars(0, value.length(), chars, charCount);
+            charCount += value.length();
+            if (newId + 2 > starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+            }
+            starts[newId + 1] = charCount;
+            return newId;
+        }
+    }
+}
@@ -2,87 +2,87 @@ package com.chwazi.app;
 
 // Import necessary Android and Java classes
 import android.content.Context;
-import android.content.res.ColorStateList;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.drawable.ColorDrawable;
-import android.graphics.drawable.Drawable;
-import android.graphics.drawable.GradientDrawable;
-import android.graphics.drawable.RippleDrawable;
-import android.graphics.drawable.ShapeDrawable;
-import android.graphics.drawable.shapes.OvalShape;
 import android.os.Bundle;
-import android.os.Handler;
-import android.util.DisplayMetrics;
-import android.util.Pair;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.MenuItem;
-import android.view.MotionEvent;
 import android.view.View;
-import android.view.ViewGroup;
-import android.view.ViewTreeObserver;
 import android.view.inputmethod.InputMethodManager;
 import android.widget.Button;
-import android.widget.FrameLayout;
-import android.widget.LinearLayout;
 import android.widget.NumberPicker;
-import android.widget.TextView;
+import android.widget.RadioGroup;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.AppCompatButton;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.chwazi.app.databinding.ActivityGameBinding;
-import com.google.android.material.bottomsheet.BottomSheetBehavior;
-import com.google.android.material.bottomsheet.BottomSheetDialog;
 import com.google.android.material.textfield.TextInputEditText;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
-import java.util.Set;
 
-// This activity manages the main game screen where participants interact
-public class GameActivity extends AppCompatActivity {
+// This activity manages the main game screen where participants interact.
+// The rules live in a GameEngine, this screen feeds it touches and answers and renders its commands.
+// The engine and the loaded questions are kept in a GameViewModel, so a configuration change only lays
+// the circles out again. Every event of the game is also recorded in the GameJournal, so a game
+// interrupted by the process dying resumes where it stopped.
+public class GameActivity extends AppCompatActivity implements GameEngine.Listener {
+
+    // Range of participants a game supports, shared with the participant prompts
+    public static final int MIN_PARTICIPANTS = 2;
+    public static final int MAX_PARTICIPANTS = 20;
+
+    // Names of the timed steps of the game, scheduling a step again replaces the pending one
+    private static final String EVENT_COUNTDOWN = "countdown";
+    private static final String EVENT_PROMPT_NAME = "prompt_name";
+    private static final String EVENT_RESET_GAME = "reset_game";
+    private static final String EVENT_AFTER_ANSWER = "after_answer";
+
+    // Saved instance state, the rest of the game is in the journal
+    private static final String STATE_PARTICIPANT_COUNT = "participant_count";
 
     // Binding object to access views defined in the layout
     protected ActivityGameBinding binding;
 
     // Number of participants in the game
     private int participantCount;
-    // Selected category for the game
-    private String category;
-
-    // Constant for the size of participant circles in density-independent pixels (dp)
-    private final int CIRCLE_SIZE_DP = 80;
-    // List of color pairs (hex code and color name) for participant circles
-    private final ArrayList<Pair<String, String>> colors = new ArrayList<>();
+    // ID of the selected category for the game
+    private int categoryId;
 
-    // List to store all questions for the selected category
-    private List<Question> questionsList = new ArrayList<>();
+    // Colors of the participant circles, generated for the current number of participants
+    private int[] participantColors = new int[0];
 
-    // Map to store participant names with their index
-    private HashMap<Integer, String> participantNames = new HashMap<>();
-    // Map to store scores for each participant by name
-    private Map<String, Integer> scores = new HashMap<>();
+    // Rules and state of the game: participants, scores and the question being asked
+    private GameEngine engine;
+    // Start of the selection latency, from the touch that started the countdown, 0 when none is running
+    private long selectionStart;
 
-    // Index to track the current participant
-    private int currentParticipantIndex;
+    // Dialog that asks the questions, reused for the whole game
+    private QuestionPanel questionPanel;
+    // Bottom sheet with the scores, reused for the whole game
+    private Scoreboard scoreboard;
 
-    // Dialog to show various prompts
-    private AlertDialog dialog;
+    // The question load currently running in the background, if any
+    private AsyncLoader.LoadTask loadTask;
 
-    // Set to keep track of participants who have been touched
-    private Set<Integer> touchedParticipants = new HashSet<>();
+    // Runs the delayed steps of the game, paused and cancelled together with this activity
+    private GameScheduler scheduler;
 
-    // List of color names for reference (not used in the provided code snippet)
-    private ArrayList<String> colorsName = new ArrayList<>();
+    // Journal of the game's events, and the interrupted game to resume once the questions are loaded
+    private GameJournal journal;
+    private GameJournal.Game resumedGame;
+    // Holds the engine and the game's questions across configuration changes
+    private GameViewModel viewModel;
+    // Dialog asking the selected participant for a name, while it is shown
+    private AlertDialog nameDialog;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -94,22 +94,54 @@ public class GameActivity extends AppCompatActivity {
         // Set up the toolbar at the top of the screen
         setupToolbar();
 
-        // Get the number of participants from the intent that started this activity
+        // Timed steps follow this activity's lifecycle
+        scheduler = LooperGameDriver.attach(this);
+        // The game engine outlives this screen and reports back to it, participants are selected the
+        // way the user chose before starting the game
+        viewModel = new ViewModelProvider(this).get(GameViewModel.class);
+        viewModel.configure(GameSettings.getSelectionPolicy(this).name());
+        viewModel.attach(this);
+        engine = viewModel.getEngine();
+
+        // Get the number of participants from the intent that started this activity, or the number
+        // chosen on a reset before the screen was recreated
         participantCount = getIntent().getIntExtra("PARTICIPANT_COUNT", 2);
+        if (savedInstanceState != null) {
+            participantCount = savedInstanceState.getInt(STATE_PARTICIPANT_COUNT, participantCount);
+        }
         // Get the selected category from the intent
-        category = getIntent().getStringExtra("SELECTED_CATEGORY");
+        categoryId = getIntent().getIntExtra("SELECTED_CATEGORY_ID", 0);
+
+        // Pass every finger on the circles to the engine, it selects a participant once everyone is touching
+        binding.touchView.setOnParticipantTouchListener(new ChwaziTouchView.OnParticipantTouchListener() {
+            @Override
+            public void onParticipantDown(int participant, int touchedCount, long eventTime) {
+                engine.touchDown(participant);
+                if (engine.getState() == GameEngine.State.COUNTING_DOWN) {
+                    // The last finger down started the countdown, measure until the chosen participant is drawn
+                    selectionStart = Perf.startAtUptime(eventTime);
+                }
+            }
 
-        // Add color pairs (hex code and name) to the colors list
-        colors.add(new Pair("#FF0000", "Red"));
-        colors.add(new Pair("#00FF00", "Green"));
-        colors.add(new Pair("#0000FF", "Blue"));
-        colors.add(new Pair("#ff0066", "Pink"));
-        colors.add(new Pair("#FF00FF", "Magenta"));
+            @Override
+            public void onParticipantUp(int participant, int touchedCount) {
+                engine.touchUp(participant);
+            }
+        });
 
-        // Load questions based on the selected category
-        loadQuestions(category);
-        // Generate circle views for each participant
-        generateCircles(participantCount);
+        // Retry loading when the user asks for it after an error
+        binding.btnRetry.setOnClickListener(v -> loadQuestions(categoryId));
+        journal = GameJournal.getInstance(this);
+        if (viewModel.hasGame()) {
+            // Recreated after a configuration change, the game is still in memory
+            showRetainedGame();
+        } else if (savedInstanceState != null || getIntent().getBooleanExtra("RESUME_GAME", false)) {
+            // Replay the journal first, then load the questions and pick the game up where it stopped
+            loadJournal();
+        } else {
+            // Load questions based on the selected category, the circles are generated once they are ready
+            loadQuestions(categoryId);
+        }
 
         // Set click listener for the Scoreboard button to show the scoreboard
         binding.btnScoreBoard.setOnClickListener(v -> showScoreboard(false));
@@ -125,6 +157,49 @@ public class GameActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Remember the questions asked so far, so the next game starts with fresh ones
+        QuestionRepository.getInstance(this).saveHistoryAsync();
+        // The process may be killed from here on, get the game's events on disk
+        journal.flush();
+        // Keep the exported performance metrics up to date, most phases are measured on this screen
+        Perf.exportAsync(this);
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        // Only what the journal does not hold, the journal is flushed in onStop
+        outState.putInt(STATE_PARTICIPANT_COUNT, participantCount);
+    }
+
+    @Override
+    protected void onDestroy() {
+        // The engine outlives this screen, it must not report to it anymore
+        viewModel.detach(this);
+        // Drop the pending result, this screen will not be around to show it
+        if (loadTask != null) {
+            loadTask.cancel();
+        }
+        if (nameDialog != null) {
+            nameDialog.dismiss();
+        }
+        // Close the question panel so its window does not outlive the activity
+        if (questionPanel != null) {
+            questionPanel.dismiss();
+        }
+        if (scoreboard != null) {
+            scoreboard.dismiss();
+        }
+        // Leaving the game on purpose ends it, only a game that was interrupted is resumed
+        if (isFinishing()) {
+            journal.gameReset();
+        }
+        super.onDestroy();
+    }
+
     // Method to set up the toolbar with a back button and title
     private void setupToolbar() {
         setSupportActionBar(binding.toolbar);
@@ -150,108 +225,115 @@ public class GameActivity extends AppCompatActivity {
         return super.onOptionsItemSelected(item);
     }
 
-    // Method to generate circle views representing each participant
-    private void generateCircles(int numberOfParticipants) {
-        // Remove any existing circles from the container
-        binding.circleContainer.removeAllViews();
-        // Add a listener to perform actions before the view is drawn
-        binding.circleContainer.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
-            @Override
-            public boolean onPreDraw() {
-                // Remove this listener to avoid multiple calls
-                binding.circleContainer.getViewTreeObserver().removeOnPreDrawListener(this);
+    // Method to start a new game and show a circle for each participant on the touch view
+    private void generateCircles(int numberOfParticipants, List<Question> questions) {
+        // Generate a distinct color for every participant, once per game setup
+        if (participantColors.length != numberOfParticipants) {
+            participantColors = ParticipantPalette.generate(numberOfParticipants);
+        }
+        long start = Perf.begin(PerfRecorder.Phase.CIRCLE_LAYOUT);
+        // Start every participant without a name and with no points, with a freshly shuffled deck
+        // that deals the questions these players have not seen yet first
+        QuestionDeck deck = QuestionRepository.getInstance(this).newDeck(categoryId, questions.size());
+        engine.start(numberOfParticipants, participantColors, questions, deck);
+        viewModel.gameStarted(categoryId, participantColors, questions);
+        journal.participantsSet(categoryId, getCategoryName(), questions.size(), participantColors);
+        binding.touchView.setParticipants(numberOfParticipants, participantColors);
+        Perf.end(PerfRecorder.Phase.CIRCLE_LAYOUT, start);
+        // Animate the circles to appear with staggered scaling and fading in
+        binding.touchView.animateEntrance();
+    }
 
-                // Get the width and height of the container
-                int containerWidth = binding.circleContainer.getWidth();
-                int containerHeight = binding.circleContainer.getHeight();
+    // Method to bring an interrupted game back: same participants, names, scores and questions asked
+    private void restoreGame(GameJournal.Game game, List<Question> questions) {
+        participantCount = game.getParticipantCount();
+        participantColors = game.colors;
+        QuestionDeck deck = QuestionRepository.getInstance(this).newDeck(categoryId, questions.size());
+        game.restore(engine, questions, deck);
+        viewModel.gameStarted(categoryId, participantColors, questions);
+        // The circles were already shown once, they come back without the entrance animation
+        binding.touchView.setParticipants(participantCount, participantColors);
+        showEngineState();
+    }
 
-                // If container size is not yet determined, exit early
-                if (containerWidth == 0 || containerHeight == 0) {
-                    return true;
-                }
+    // Method to show the game kept by the view model on this new screen, without any I/O
+    private void showRetainedGame() {
+        categoryId = viewModel.getCategoryId();
+        participantColors = viewModel.getParticipantColors();
+        participantCount = participantColors.length;
+        showLoadingState(false, false);
+        // Only the layout of the circles is done again, they appear without the entrance animation
+        binding.touchView.setParticipants(participantCount, participantColors);
+        showEngineState();
+    }
 
-                // Get display metrics to convert dp to pixels
-                DisplayMetrics metrics = getResources().getDisplayMetrics();
-                int circleSizePx = (int) (CIRCLE_SIZE_DP * metrics.density);
-
-                // Calculate the center of the container
-                int centerX = containerWidth / 2;
-                int centerY = containerHeight / 2;
-
-                // Calculate the radius for positioning circles in a circular layout
-                int radius = Math.min(containerWidth, containerHeight) / 3 - circleSizePx;
-                radius += circleSizePx;
-
-                // Loop to create each participant's circle
-                for (int i = 0; i < numberOfParticipants; i++) {
-                    // Calculate the angle for the current circle
-                    double angle = 2 * Math.PI * i / numberOfParticipants;
-                    // Calculate the x and y position based on the angle and radius
-                    int x = (int) (centerX + radius * Math.cos(angle)) - circleSizePx / 2;
-                    int y = (int) (centerY + radius * Math.sin(angle)) - circleSizePx / 2;
-
-                    // Ensure the circle stays within the container bounds
-                    x = Math.max(0, Math.min(x, containerWidth - circleSizePx));
-                    y = Math.max(0, Math.min(y, containerHeight - circleSizePx));
-
-                    // Create a new View for the circle
-                    View circle = new View(GameActivity.this);
-                    // Set layout parameters for size and position
-                    FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(circleSizePx, circleSizePx);
-                    params.leftMargin = x;
-                    params.topMargin = y;
-                    circle.setLayoutParams(params);
-
-                    // Set the background with a ripple effect and the participant's color
-                    circle.setBackground(createRippleDrawable(Color.parseColor(colors.get(i % colors.size()).first)));
-
-                    final int participantIndex = i;
-
-                    // Set a touch listener to handle participant interactions
-                    circle.setOnTouchListener((v, event) -> {
-                        if (event.getAction() == MotionEvent.ACTION_DOWN) {
-                            // Add participant to the touched set when pressed
-                            touchedParticipants.add(participantIndex);
-                            // Check if all participants have been touched
-                            checkAllParticipantsReady(numberOfParticipants);
-                        } else if (event.getAction() == MotionEvent.ACTION_UP) {
-                            // Remove participant from the touched set when released
-                            touchedParticipants.remove(participantIndex);
-                        }
-                        return true;
-                    });
-
-                    // Initialize participant name as empty
-                    participantNames.put(i, "");
-
-                    // Set initial scale and transparency for animation
-                    circle.setScaleX(0f);
-                    circle.setScaleY(0f);
-                    circle.setAlpha(0f);
-
-                    // Add the circle to the container
-                    binding.circleContainer.addView(circle);
-
-                    // Animate the circle to appear with scaling and fading in
-                    circle.animate()
-                            .scaleX(1f)
-                            .scaleY(1f)
-                            .alpha(1f)
-                            .setDuration(500)
-                            .setStartDelay(i * 100L) // Stagger the animations
-                            .start();
-                }
-                return true;
+    // Method to pick the game up on this screen where the engine is, the previous screen's fingers,
+    // dialogs and timed steps are gone
+    private void showEngineState() {
+        engine.touchesLost();
+        int participant = engine.getCurrentParticipant();
+        switch (engine.getState()) {
+            case SELECTED:
+                // Show the same participant again, already chosen
+                binding.touchView.setChosen(participant);
+                scheduler.schedule(EVENT_PROMPT_NAME, ChwaziTouchView.CHOSEN_ANIMATION_MS, engine::selectionShown);
+                break;
+            case NAMING:
+                binding.touchView.setChosen(participant);
+                onNameRequested(participant);
+                break;
+            case ANSWERING:
+                binding.touchView.setChosen(participant);
+                onQuestionAsked(participant, engine.getCurrentQuestion());
+                break;
+            case SCORING:
+                // The answer was already shown, move on to the next round
+                binding.touchView.setChosen(participant);
+                scheduler.schedule(EVENT_AFTER_ANSWER, 0, engine::resultShown);
+                break;
+            case FINISHED:
+                showScoreboard(false);
+                break;
+            default:
+                // Waiting for every participant to touch, there is nothing to show
+                break;
+        }
+    }
+
+    // Method to read the journal in the background, keeping the game only if it can be resumed here
+    private void loadJournal() {
+        showLoadingState(true, false);
+        loadTask = AsyncLoader.load(() -> {
+            GameJournal.Game game = journal.load();
+            // The game must be of this category, as the bank had it when the game started
+            if (game == null || game.finished || game.categoryId != categoryId
+                    || !game.categoryName.equals(QuestionRepository.getInstance(this).getCategoryName(categoryId))) {
+                return null;
+            }
+            return game;
+        }, new AsyncLoader.LoadCallback<GameJournal.Game>() {
+            @Override
+            public void onLoaded(GameJournal.Game result) {
+                resumedGame = result;
+                loadQuestions(categoryId);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                // Start a new game instead
+                Log.w("GameActivity", "Could not resume the game", error);
+                loadQuestions(categoryId);
             }
         });
     }
 
-    // Method to check if all participants have been touched
-    private void checkAllParticipantsReady(int numberOfParticipants) {
-        // If the number of touched participants equals the total number of participants
-        if (touchedParticipants.size() == numberOfParticipants) {
-            // Choose a random color for the next action
-            chooseRandomColor();
+    // Name of the game's category, recorded in the journal to tell it apart from a category that took its ID
+    private String getCategoryName() {
+        try {
+            return QuestionRepository.getInstance(this).getCategoryName(categoryId);
+        } catch (IOException e) {
+            // The questions were just loaded, so the bank is open and this does not happen in practice
+            return "";
         }
     }
 
@@ -266,15 +348,19 @@ public class GameActivity extends AppCompatActivity {
         NumberPicker numberPicker = dialogView.findViewById(R.id.numberPicker);
         Button btnCancel = dialogView.findViewById(R.id.btnCancel);
         Button btnNext = dialogView.findViewById(R.id.btnNext);
+        RadioGroup selectionModes = dialogView.findViewById(R.id.selectionModes);
 
         // Set minimum and maximum values for the NumberPicker
-        numberPicker.setMinValue(2); // Minimum 2 participants
-        numberPicker.setMaxValue(5); // Maximum 5 participants
+        numberPicker.setMinValue(MIN_PARTICIPANTS); // Minimum 2 participants
+        numberPicker.setMaxValue(MAX_PARTICIPANTS); // Maximum 20 participants, large tables get more rings
+        numberPicker.setValue(participantCount); // Start from the current number of participants
         numberPicker.setWrapSelectorWheel(false); // Prevent the NumberPicker from looping
 
         // Set the text color of the NumberPicker to white
         setNumberPickerTextColor(numberPicker, Color.WHITE);
 
+        // Start from the selection mode of the current game
+        selectionModes.check(GameSettings.selectionModeButton(engine.getSelection().getPolicy()));
 
         // Create an AlertDialog with the dialog view
         AlertDialog dialog = new AlertDialog.Builder(this)
@@ -297,6 +383,10 @@ public class GameActivity extends AppCompatActivity {
         btnNext.setOnClickListener(v -> {
             // Get the selected number of participants from the NumberPicker
             participantCount = numberPicker.getValue();
+            // The new game picks participants with the chosen mode, and so do the following ones
+            SelectionEngine.Policy policy = GameSettings.selectionPolicy(selectionModes.getCheckedRadioButtonId());
+            GameSettings.setSelectionPolicy(this, policy);
+            viewModel.setSelectionPolicy(policy);
             dialog.dismiss(); // Dismiss the dialog
             resetGame(); // Reset the game with the new participant count
         });
@@ -325,47 +415,41 @@ public class GameActivity extends AppCompatActivity {
         }
     }
 
-    // Method to choose a random participant from touched participants
-    private void chooseRandomColor() {
-        // Convert the set of touched participants to a list
-        List<Integer> touchedList = new ArrayList<>(touchedParticipants);
-        // Choose a random index from the list
-        int randomIndex = new Random().nextInt(touchedList.size());
-
-        // Show a toast message with the chosen color name
-        Toast.makeText(this, getString(R.string.choosen_color) + ": " + colors.get(randomIndex).second, Toast.LENGTH_SHORT).show();
-        // Set the current participant index to the chosen participant
-        currentParticipantIndex = touchedList.get(randomIndex);
-        // Delay for 500 milliseconds before prompting for the participant's name
-        new Handler().postDelayed(() -> promptParticipantName(), 500);
-
-        // Clear the set of touched participants
-        touchedParticipants.clear();
+    // Called by the engine when everyone is touching, the circles pulse until the countdown is over
+    @Override
+    public void onCountdownStarted() {
+        binding.touchView.startCountdown();
+        scheduler.schedule(EVENT_COUNTDOWN, ChwaziTouchView.COUNTDOWN_MS, engine::countdownFinished);
     }
 
-    // Method to create a RippleDrawable with a specified color
-    private Drawable createRippleDrawable(int color) {
-        // Create a ColorStateList for the ripple effect color
-        ColorStateList colorStateList = ColorStateList.valueOf(Color.WHITE); // Ripple color
-        // Create a ShapeDrawable with an oval shape and set its color
-        ShapeDrawable circleShape = new ShapeDrawable(new OvalShape());
-        circleShape.getPaint().setColor(color);
-
-        // Create and return a RippleDrawable with the ripple color and circle shape
-        return new RippleDrawable(colorStateList, circleShape, null);
+    // Called by the engine when a finger was lifted during the countdown, it starts over once everyone touches again
+    @Override
+    public void onCountdownCancelled() {
+        selectionStart = 0;
+        scheduler.cancel(EVENT_COUNTDOWN);
+        binding.touchView.cancelCountdown();
     }
 
-
-    // Method to prompt the current participant to enter their name
-    private void promptParticipantName() {
-        // Get the current participant's name by index
-        String value = getValueByIndex(participantNames, currentParticipantIndex);
-        // If the participant already has a name, show the next question
-        if (!value.isEmpty()) {
-            showNextQuestion();
-            return;
+    // Called by the engine when the countdown is over and a participant was picked
+    @Override
+    public void onParticipantSelected(int participant) {
+        journal.participantSelected(participant);
+        // Grow the chosen participant's circle and shrink the others, then prompt for the name
+        binding.touchView.animateChosen(participant);
+        if (selectionStart != 0) {
+            Perf.endOnNextDraw(binding.touchView, PerfRecorder.Phase.SELECTION_LATENCY, selectionStart);
+            selectionStart = 0;
         }
+        binding.touchView.announceForAccessibility(getString(R.string.chosen_participant, participant + 1));
+        scheduler.schedule(EVENT_PROMPT_NAME, ChwaziTouchView.CHOSEN_ANIMATION_MS + 200, engine::selectionShown);
+
+        // Forget the current touches, fingers have to be placed again for the next round
+        binding.touchView.clearTouches();
+    }
 
+    // Called by the engine to prompt the selected participant to enter their name
+    @Override
+    public void onNameRequested(int participant) {
         // Inflate the dialog layout for adding a participant's name
         LayoutInflater inflater = getLayoutInflater();
         View dialogView = inflater.inflate(R.layout.dialog_add_participant_prompt, null);
@@ -381,6 +465,7 @@ public class GameActivity extends AppCompatActivity {
         builder.setCancelable(false); // Make the dialog not cancelable by clicking outside
 
         AlertDialog alertDialog = builder.create();
+        nameDialog = alertDialog;
 
         // Set the background of the dialog to transparent for better UI appearance
         if (alertDialog.getWindow() != null) {
@@ -393,6 +478,8 @@ public class GameActivity extends AppCompatActivity {
         // Set click listener for the Cancel button
         btnCancel.setOnClickListener(v -> {
             alertDialog.dismiss(); // Dismiss the dialog
+            engine.nameCancelled(); // Wait for the participants to touch again
+            binding.touchView.setChosen(-1);
         });
 
 
@@ -401,14 +488,13 @@ public class GameActivity extends AppCompatActivity {
             // Get the entered name and trim any extra spaces
             String name = inputBox.getText().toString().trim();
             if (!name.isEmpty()) {
-                // Save the participant's name in the map
-                participantNames.put(currentParticipantIndex, name);
                 // Hide the keyboard
                 hideKeyboard(inputBox);
                 // Dismiss the dialog
                 alertDialog.dismiss();
-                // Show the next question
-                showNextQuestion();
+                // Save the participant's name, the engine moves on to the next question
+                journal.nameSet(participant, name);
+                engine.nameEntered(name);
             } else {
                 // Show an error message if the name is empty
                 Toast.makeText(this, getString(R.string.empty_name_error), Toast.LENGTH_SHORT).show();
@@ -420,223 +506,111 @@ public class GameActivity extends AppCompatActivity {
 
     // Method to reset the game by clearing scores and participant names
     private void resetGame() {
+        journal.gameReset();
+        viewModel.gameReset();
         // Delay the reset by 1 second for a smooth transition
-        new Handler().postDelayed(() -> {
-            scores.clear(); // Clear all scores
-            participantNames.clear(); // Clear all participant names
-            questionsList.clear(); // Clear the list of questions
-            loadQuestions(category); // Reload questions based on the category
-            generateCircles(participantCount); // Regenerate participant circles
-        }, 1000);
+        scheduler.schedule(EVENT_RESET_GAME, 1000, () -> {
+            // Start again from the first question, regenerating the circles also clears names and scores
+            loadQuestions(categoryId);
+        });
     }
 
-    // Method to show the next question in the game
-    private void showNextQuestion() {
-        // If there are no more questions, show the scoreboard
-        if (questionsList.isEmpty()) {
-            showScoreboard(false);
-            return;
-        }
-        // Get the current question (first in the list)
-        Question currentQuestion = questionsList.get(0);
-
-        // Inflate the dialog layout for question options
-        LayoutInflater inflater = getLayoutInflater();
-        View dialogView = inflater.inflate(R.layout.dialog_question_options, null);
-
-        // Find views in the dialog layout
-        TextView questionTextView = dialogView.findViewById(R.id.tvQuestion);
-        LinearLayout buttonWrapper = dialogView.findViewById(R.id.question_option_buttons_wrapper);
-
-        // Set the question text
-        questionTextView.setText(currentQuestion.getQuestion());
-
-        // Get the options for the current question
-        String[] options = currentQuestion.getOptions().toArray(new String[0]);
-        Button[] optionButtons = new Button[options.length];
-
-        // Loop to create buttons for each option
-        for (int i = 0; i < options.length; i++) {
-            AppCompatButton optionButton = new AppCompatButton(this);
-            optionButton.setText(options[i]); // Set the option text
-            optionButton.setTag(i); // Tag the button with its index
-            // Set layout parameters for the button
-            LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
-                    LinearLayout.LayoutParams.MATCH_PARENT,
-                    LinearLayout.LayoutParams.WRAP_CONTENT
-            );
-            params.setMargins(0, 0, 0, 10); // Set bottom margin
-            optionButton.setLayoutParams(params);
-            optionButton.setPadding(12, 12, 12, 12); // Set padding
-            optionButton.setBackgroundResource(R.drawable.button_gradient); // Set background
-            optionButton.setTextColor(Color.WHITE); // Set text color
-            buttonWrapper.addView(optionButton); // Add button to the wrapper
-
-            optionButtons[i] = optionButton;
-
-            // Set click listener for the option button
-            optionButton.setOnClickListener(v -> {
-                // Get the selected option index from the tag
-                int selectedOptionIndex = (int) v.getTag();
-                // Get the current participant's name
-                String participantName = participantNames.get(currentParticipantIndex);
-
-                // Check if the selected option is correct
-                if (selectedOptionIndex == currentQuestion.getCorrectAnswer()) {
-                    // Change button background to green and text color to green
-                    v.setBackgroundResource(R.drawable.button_gradient_green);
-                    ((AppCompatButton) v).setTextColor(Color.GREEN);
-                    // Remove the question from the list as it's answered
-                    questionsList.remove(0);
-                    // Increment the participant's score
-                    scores.put(participantName, scores.getOrDefault(participantName, 0) + 1);
-                } else {
-                    // Change button background to red and text color to red
-                    v.setBackgroundResource(R.drawable.button_gradient_red);
-                    ((AppCompatButton) v).setTextColor(Color.RED);
-                }
-
-                // Disable all option buttons after selection to prevent multiple answers
-                for (Button button : optionButtons) {
-                    button.setEnabled(false);
+    // Called by the engine to ask the selected participant a question
+    @Override
+    public void onQuestionAsked(int participant, Question question) {
+        long start = Perf.begin(PerfRecorder.Phase.QUESTION_DIALOG);
+        // Rebind the game's question panel, it is created on the first question only
+        if (questionPanel == null) {
+            questionPanel = new QuestionPanel(this, (selectedOption, correct) -> {
+                int answering = engine.getCurrentParticipant();
+                int question = engine.getCurrentQuestionIndex();
+                if (engine.answer(selectedOption)) {
+                    journal.answerGiven(answering, question, correct);
                 }
-
-                // Delay to show the result before moving to the next question or scoreboard
-                new Handler().postDelayed(() -> {
-                    dialog.dismiss(); // Dismiss the question dialog
-                    // Move to the next participant in a round-robin fashion
-                    currentParticipantIndex = (currentParticipantIndex + 1) % participantNames.size();
-                    // Show the scoreboard if there are no more questions, else continue the game
-                    showScoreboard(!questionsList.isEmpty());
-                }, 1000);
             });
         }
+        questionPanel.show(question);
+        Perf.end(PerfRecorder.Phase.QUESTION_DIALOG, start);
+    }
 
-        // Create and show the AlertDialog for the question
-        AlertDialog.Builder builder = new AlertDialog.Builder(this);
-        builder.setView(dialogView); // Set the custom view
-        builder.setCancelable(false); // Make the dialog not cancelable by clicking outside
-        dialog = builder.create();
-        dialog.show(); // Show the dialog to the user
+    // Called by the engine once the answer is scored
+    @Override
+    public void onAnswerScored(int participant, int selectedOption, boolean correct) {
+        // Delay to show the result before moving to the next question or scoreboard
+        scheduler.schedule(EVENT_AFTER_ANSWER, 1000, engine::resultShown);
     }
 
+    // Called by the engine at the end of every round
+    @Override
+    public void onRoundFinished(boolean gameFinished) {
+        binding.touchView.setChosen(-1);
+        if (gameFinished) {
+            // Nothing is left to resume, keep only a snapshot of the final scores
+            journal.gameFinished();
+        }
+        if (questionPanel != null) {
+            questionPanel.dismiss(); // Hide the question panel
+        }
+        // Show the scoreboard for a few seconds between rounds, and for good once the game is over
+        showScoreboard(!gameFinished);
+    }
 
     // Method to show the scoreboard in a bottom sheet dialog
     private void showScoreboard(Boolean isTimerSet) {
-
-        // Create a BottomSheetDialog with a custom theme
-        BottomSheetDialog bottomSheetDialog = new BottomSheetDialog(this, R.style.BottomSheetDialogTheme);
-        bottomSheetDialog.setCancelable(false); // Make it not cancelable by clicking outside
-
-
-        // Inflate the scoreboard layout
-        View view = getLayoutInflater().inflate(R.layout.scoreboard_bottom_sheet, null);
-
-        // Find views in the scoreboard layout
-        AppCompatButton returnToGameBtn = view.findViewById(R.id.btnReturnGame);
-        AppCompatButton resetGameBtn = view.findViewById(R.id.bsBtnResetGame);
-        LinearLayout scoreboardContainer = view.findViewById(R.id.scoreboardContainer);
-        TextView winnerTv = view.findViewById(R.id.tvWinner); // TextView to display the winner
-
-        // If there are no more questions, determine and display the winner
-        if (questionsList.isEmpty()){
-            returnToGameBtn.setVisibility(View.GONE); // Hide the "Return to Game" button
-
-            int firstScore = -1;
-            boolean isTie = true;
-            String winnerName = null;
-            int highestScore = 0;
-
-            // Loop through the scores to find the participant with the highest score
-            for (Map.Entry<String, Integer> entry : scores.entrySet()) {
-                int score = entry.getValue();
-                if (firstScore == -1) {
-                    firstScore = score;
-                    winnerName = entry.getKey();
-                    highestScore = score;
-                } else if (score != firstScore) {
-                    isTie = false;
-                    if (score > highestScore) {
-                        highestScore = score;
-                        winnerName = entry.getKey();
-                    }
-                }
-            }
-
-            if (isTie) {
-                // If all participants have the same score, declare a tie
-                winnerTv.setText(getString(R.string.tie_message));
-            } else {
-                // Otherwise, announce the participant with the highest score
-                winnerTv.setText(getString(R.string.winner_announcement, winnerName, highestScore));
+        long start = Perf.begin(PerfRecorder.Phase.SCOREBOARD_DIALOG);
+        // The scoreboard is created once per game and refreshed every time it is shown
+        if (scoreboard == null) {
+            scoreboard = new Scoreboard(this, scheduler, this::showParticipantsPrompt);
+        }
+        // If there are no more questions, the scoreboard announces the winner
+        boolean finished = !engine.hasMoreQuestions();
+        scoreboard.show(engine.getRoster(), finished, isTimerSet);
+        if (finished) {
+            // Add the game to the players' lifetime statistics once, on a background thread
+            GameJournal.Game game = journal.getGame();
+            if (game != null && viewModel.markStatsRecorded()) {
+                StatsStore.getInstance(this).recordGameAsync(game);
             }
         }
+        Perf.end(PerfRecorder.Phase.SCOREBOARD_DIALOG, start);
+    }
 
-        // Loop through the scores map and add each participant's score to the scoreboard
-        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
-            // Inflate the scoreboard item layout
-            View itemView = getLayoutInflater().inflate(R.layout.scoreboard_item, scoreboardContainer, false);
-
-
-            // Find TextViews in the scoreboard item layout
-            TextView tvParticipantName = itemView.findViewById(R.id.tvParticipantName);
-            TextView tvParticipantScore = itemView.findViewById(R.id.tvParticipantScore);
-
-            // Set the participant's name and score
-            tvParticipantName.setText(entry.getKey());
-            tvParticipantScore.setText(entry.getValue() + " " + getString(R.string.score));
-
-            // Add the item to the scoreboard container
-            scoreboardContainer.addView(itemView);
+    // Method to load questions based on the selected category
+    private void loadQuestions(int categoryId) {
+        if (loadTask != null) {
+            loadTask.cancel();
         }
-
-        // Set the content view of the BottomSheetDialog
-        bottomSheetDialog.setContentView(view);
-
-        // Ensure the bottom sheet is expanded and takes up full height
-        bottomSheetDialog.setOnShowListener(dialog -> {
-            BottomSheetDialog d = (BottomSheetDialog) dialog;
-            FrameLayout bottomSheet = d.findViewById(com.google.android.material.R.id.design_bottom_sheet);
-            if (bottomSheet != null) {
-                BottomSheetBehavior<?> behavior = BottomSheetBehavior.from(bottomSheet);
-                behavior.setState(BottomSheetBehavior.STATE_EXPANDED); // Expand the bottom sheet
-                bottomSheet.getLayoutParams().height = ViewGroup.LayoutParams.MATCH_PARENT; // Set height to match parent
-                bottomSheet.requestLayout(); // Request layout to apply changes
+        showLoadingState(true, false);
+        // Get the category's questions from the shared repository in the background
+        loadTask = QuestionRepository.getInstance(this).loadQuestionsAsync(categoryId, new AsyncLoader.LoadCallback<List<Question>>() {
+            @Override
+            public void onLoaded(List<Question> result) {
+                // Start from the first question and let the participants play, or pick up an interrupted game
+                showLoadingState(false, false);
+                GameJournal.Game game = resumedGame;
+                resumedGame = null;
+                if (game != null && game.questionCount == result.size()) {
+                    restoreGame(game, result);
+                } else {
+                    generateCircles(participantCount, result);
+                }
             }
-        });
 
-        // Set click listener for the Return to Game button to dismiss the scoreboard
-        returnToGameBtn.setOnClickListener(v -> bottomSheetDialog.dismiss());
-
-        // Set click listener for the Reset Game button to prompt resetting participants
-        resetGameBtn.setOnClickListener(v -> {
-            bottomSheetDialog.dismiss(); // Dismiss the scoreboard
-            showParticipantsPrompt(); // Show the participants prompt to reset the game
+            @Override
+            public void onError(Exception error) {
+                // Log the error and let the user retry, the game cannot start without questions
+                Log.e("GameActivity", "Error loading questions for category " + categoryId, error);
+                showLoadingState(false, true);
+            }
         });
-
-
-        // If a timer is set, automatically dismiss the scoreboard after 5 seconds
-        if (isTimerSet) {
-            new Handler().postDelayed(bottomSheetDialog::dismiss, 5000);
-        }
-
-        // Show the BottomSheetDialog to the user
-        bottomSheetDialog.show();
     }
 
-    // Method to load questions based on the selected category
-    private void loadQuestions(String category) {
-        // Load categories from JSON using the JsonLoader helper class
-        List<CategoryData> jsonCategories = JsonLoader.loadCategories(this);
-
-        // Loop through each category data to find the matching category
-        for (CategoryData categoryData : jsonCategories) {
-            if (categoryData.getCategory().equals(category)) {
-                // Set the questions list to the questions of the matched category
-                questionsList = categoryData.getQuestions();
-                break; // Exit the loop once the category is found
-            }
-        }
+    // Method to switch between the loading, error and playing states of the screen
+    private void showLoadingState(boolean loading, boolean failed) {
+        binding.progressLoading.setVisibility(loading ? View.VISIBLE : View.GONE);
+        binding.loadErrorGroup.setVisibility(failed ? View.VISIBLE : View.GONE);
+        // No circles until there are questions to ask
+        binding.touchView.setVisibility(loading || failed ? View.INVISIBLE : View.VISIBLE);
     }
 
     // Method to hide the keyboard from a specific view
@@ -648,27 +622,4 @@ public class GameActivity extends AppCompatActivity {
             imm.hideSoftInputFromWindow(view.getWindowToken(), 0);
         }
     }
-
-    // Method to create a GradientDrawable for a circle background
-    private GradientDrawable getCircleBackground(String colorHex) {
-        // Create a new GradientDrawable
-        GradientDrawable drawable = new GradientDrawable();
-        drawable.setShape(GradientDrawable.OVAL); // Set shape to oval
-        drawable.setColor(Color.parseColor(colorHex)); // Set the color from hex code
-        drawable.setSize(CIRCLE_SIZE_DP, CIRCLE_SIZE_DP); // Set the size of the circle
-        return drawable;
-    }
-
-    // Static method to get a value from a map by index
-    public static String getValueByIndex(HashMap<Integer, String> map, int index) {
-        // Convert the map values to a list
-        List<String> values = new ArrayList<>(map.values());
-
-        // Check if the index is within the list bounds
-        if (index >= 0 && index < values.size()) {
-            return values.get(index); // Return the value at the specified index
-        } else {
-            return null; // Return null if index is out of bounds
-        }
-    }
 }
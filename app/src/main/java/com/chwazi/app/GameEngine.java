@@ -0,0 +1,330 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.Collections;
+import java.util.List;
+
+// This class holds the rules of a game, independent of any screen.
+// A game moves through explicit states: participants touch their circles, a countdown runs while
+// every circle stays touched, one of them is selected, names themselves if needed, answers a question and is scored, until the questions run out.
+// The screen feeds events in (touches, the entered name, the chosen answer, and the end of each
+// on-screen pause, including the countdown) and renders the commands it gets back through the Listener. Events that do not
+// fit the current state are ignored and return false. Handling an event does not allocate, so the
+// engine can play millions of simulated turns in a plain JVM test.
+public class GameEngine {
+
+    // States of a game
+    public enum State {
+        // Waiting for every participant to touch their circle
+        WAITING_FOR_TOUCHES,
+        // Every participant is touching and the countdown to the selection is running
+        COUNTING_DOWN,
+        // A participant was picked and is being shown
+        SELECTED,
+        // The selected participant is entering a name
+        NAMING,
+        // The selected participant is answering a question
+        ANSWERING,
+        // The answer is being shown before the next round
+        SCORING,
+        // No questions are left
+        FINISHED
+    }
+
+    // Interface that receives the engine's commands to the screen
+    public interface Listener {
+        // Every participant is touching, run the countdown and then call countdownFinished()
+        void onCountdownStarted();
+
+        // A finger was lifted during the countdown, stop it and wait for every circle to be touched again
+        void onCountdownCancelled();
+
+        // Show which participant was picked, then call selectionShown()
+        void onParticipantSelected(int participant);
+
+        // Ask the participant for a name, then call nameEntered() or nameCancelled()
+        void onNameRequested(int participant);
+
+        // Ask the participant a question, then call answer()
+        void onQuestionAsked(int participant, Question question);
+
+        // Show whether the answer was right, then call resultShown()
+        void onAnswerScored(int participant, int selectedOption, boolean correct);
+
+        // Show the scores after a round, gameFinished is true when no questions are left
+        void onRoundFinished(boolean gameFinished);
+    }
+
+    // Picks who answers, according to the selection policy
+    private final SelectionEngine selection;
+    private final Listener listener;
+
+    // Participants, their names and their scores
+    private final ParticipantRoster roster = new ParticipantRoster();
+    // Which participants currently touch their circle
+    private boolean[] touched = new boolean[0];
+    private int touchedCount;
+
+    // Questions of the game, the deck that deals them and the one being asked (-1 for none)
+    private List<Question> questions = Collections.emptyList();
+    // An empty deck never draws, so it needs no random source
+    private QuestionDeck deck = new QuestionDeck(0, null);
+    private int currentQuestion = -1;
+    // Number of questions answered correctly
+    private int answeredCount;
+
+    private State state = State.WAITING_FOR_TOUCHES;
+    private int currentParticipant = -1;
+
+    public GameEngine(SelectionEngine selection, Listener listener) {
+        this.selection = selection;
+        this.listener = listener;
+    }
+
+    // Start a new game for the given participants, dealing the questions in the order of the deck
+    public void start(int participantCount, int[] participantColors, List<Question> questions, QuestionDeck deck) {
+        if (deck.size() != questions.size()) {
+            throw new IllegalArgumentException("Deck of " + deck.size() + " for " + questions.size() + " questions");
+        }
+        roster.reset(participantCount, participantColors);
+        selection.reset(participantCount);
+        if (touched.length != participantCount) {
+            touched = new boolean[participantCount];
+        } else {
+            clearTouches();
+        }
+        touchedCount = 0;
+        this.questions = questions;
+        this.deck = deck;
+        currentQuestion = -1;
+        answeredCount = 0;
+        currentParticipant = -1;
+        state = State.WAITING_FOR_TOUCHES;
+    }
+
+    // A participant put a finger on their circle, once everyone does the countdown starts
+    public boolean touchDown(int participant) {
+        if (touched[participant]) {
+            return false;
+        }
+        touched[participant] = true;
+        touchedCount++;
+        if (state == State.WAITING_FOR_TOUCHES && touchedCount == roster.getCount()) {
+            state = State.COUNTING_DOWN;
+            listener.onCountdownStarted();
+        }
+        return true;
+    }
+
+    // A participant lifted the finger from their circle, which cancels a running countdown
+    public boolean touchUp(int participant) {
+        if (!touched[participant]) {
+            return false;
+        }
+        touched[participant] = false;
+        touchedCount--;
+        if (state == State.COUNTING_DOWN) {
+            state = State.WAITING_FOR_TOUCHES;
+            listener.onCountdownCancelled();
+        }
+        return true;
+    }
+
+    // Every finger is gone without being lifted, for example because the screen was recreated.
+    // A running countdown stops without telling the listener, the new screen never showed it.
+    public void touchesLost() {
+        clearTouches();
+        if (state == State.COUNTING_DOWN) {
+            state = State.WAITING_FOR_TOUCHES;
+        }
+    }
+
+    // The countdown ran out with every circle still touched, select one of the participants
+    public boolean countdownFinished() {
+        if (state != State.COUNTING_DOWN) {
+            return false;
+        }
+        selectParticipant();
+        return true;
+    }
+
+    // The selected participant was shown, ask for a name or go straight to the question
+    public boolean selectionShown() {
+        if (state != State.SELECTED) {
+            return false;
+        }
+        if (roster.hasName(currentParticipant)) {
+            askQuestion();
+        } else {
+            state = State.NAMING;
+            listener.onNameRequested(currentParticipant);
+        }
+        return true;
+    }
+
+    // The selected participant entered a name
+    public boolean nameEntered(String name) {
+        if (state != State.NAMING || name == null || name.isEmpty()) {
+            return false;
+        }
+        roster.setName(currentParticipant, name);
+        askQuestion();
+        return true;
+    }
+
+    // The selected participant did not enter a name, wait for the next round of touches
+    public boolean nameCancelled() {
+        if (state != State.NAMING) {
+            return false;
+        }
+        state = State.WAITING_FOR_TOUCHES;
+        return true;
+    }
+
+    // The selected participant chose an answer, a correct one scores a point and moves to the next question
+    public boolean answer(int selectedOption) {
+        if (state != State.ANSWERING) {
+            return false;
+        }
+        boolean correct = selectedOption == questions.get(currentQuestion).getCorrectAnswer();
+        selection.recordAnswer(currentParticipant);
+        if (correct) {
+            // A wrong answer keeps the question for the next round, a right one moves on
+            currentQuestion = -1;
+            answeredCount++;
+            roster.addPoint(currentParticipant);
+        }
+        state = State.SCORING;
+        listener.onAnswerScored(currentParticipant, selectedOption, correct);
+        return true;
+    }
+
+    // The result of the answer was shown, end the round
+    public boolean resultShown() {
+        if (state != State.SCORING) {
+            return false;
+        }
+        if (hasMoreQuestions()) {
+            state = State.WAITING_FOR_TOUCHES;
+            listener.onRoundFinished(false);
+        } else {
+            state = State.FINISHED;
+            listener.onRoundFinished(true);
+        }
+        return true;
+    }
+
+    // Restore the participant that was selected when the game was interrupted, the screen shows the
+    // selection again and calls selectionShown() as after a pick. Used when replaying a GameJournal.
+    public boolean restoreSelection(int participant) {
+        if (state != State.WAITING_FOR_TOUCHES || participant < 0 || participant >= roster.getCount()) {
+            return false;
+        }
+        clearTouches();
+        currentParticipant = participant;
+        state = State.SELECTED;
+        return true;
+    }
+
+    // Restore the name a participant entered. Used when replaying a GameJournal.
+    public void restoreName(int participant, String name) {
+        roster.setName(participant, name);
+    }
+
+    // Restore an answer given to a question of the deck, scoring it as answer() did, and wait for the next
+    // round of touches. Used when replaying a GameJournal, without telling the listener.
+    public boolean restoreAnswer(int participant, int question, boolean correct) {
+        if (participant < 0 || participant >= roster.getCount() || question < 0 || question >= questions.size()) {
+            return false;
+        }
+        if (question != currentQuestion) {
+            deck.take(question);
+        }
+        selection.recordAnswer(participant);
+        if (correct) {
+            currentQuestion = -1;
+            answeredCount++;
+            roster.addPoint(participant);
+        } else {
+            currentQuestion = question;
+        }
+        currentParticipant = -1;
+        state = hasMoreQuestions() ? State.WAITING_FOR_TOUCHES : State.FINISHED;
+        return true;
+    }
+
+    // Getters for the state of the game
+    public State getState() {
+        return state;
+    }
+
+    public ParticipantRoster getRoster() {
+        return roster;
+    }
+
+    public SelectionEngine getSelection() {
+        return selection;
+    }
+
+    public int getCurrentParticipant() {
+        return currentParticipant;
+    }
+
+    public int getAnsweredCount() {
+        return answeredCount;
+    }
+
+    // The question being asked, or null between questions
+    public Question getCurrentQuestion() {
+        return currentQuestion < 0 ? null : questions.get(currentQuestion);
+    }
+
+    // Index of the question being asked in the game's question list, or -1 between questions
+    public int getCurrentQuestionIndex() {
+        return currentQuestion;
+    }
+
+    public int getQuestionCount() {
+        return questions.size();
+    }
+
+    public int getTouchedCount() {
+        return touchedCount;
+    }
+
+    // Whether there are questions left to ask
+    public boolean hasMoreQuestions() {
+        return currentQuestion >= 0 || deck.hasNext();
+    }
+
+    // Pick one of the participants with the selection policy, everyone has to touch again for the next round.
+    // A pick only happens once every circle is touched, so the selection picks among all participants.
+    private void selectParticipant() {
+        int participant = selection.pick();
+        clearTouches();
+        currentParticipant = participant;
+        state = State.SELECTED;
+        listener.onParticipantSelected(participant);
+    }
+
+    // Ask the current question, or finish the game if there is none left
+    private void askQuestion() {
+        if (!hasMoreQuestions()) {
+            state = State.FINISHED;
+            listener.onRoundFinished(true);
+            return;
+        }
+        if (currentQuestion < 0) {
+            currentQuestion = deck.next();
+        }
+        state = State.ANSWERING;
+        listener.onQuestionAsked(currentParticipant, questions.get(currentQuestion));
+    }
+
+    private void clearTouches() {
+        for (int i = 0; i < touched.length; i++) {
+            touched[i] = false;
+        }
+        touchedCount = 0;
+    }
+}
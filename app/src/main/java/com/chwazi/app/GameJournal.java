@@ -0,0 +1,620 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+// This class keeps an append-only journal of the events of the current game in the app's files dir,
+// so a game interrupted by the process dying (or the screen being recreated) can be resumed.
+// The events are: participants set (a new game), participant selected, name set, answer given and
+// game reset. Recording an event only updates the in-memory Game and encodes a few bytes, it never
+// touches the disk on the caller's thread: a single writer thread appends the encoded events in
+// batches at most FLUSH_DELAY_MS after they are recorded, and syncs the file at most every
+// SYNC_INTERVAL_MS, so the events lost to a crash are bounded and the disk is not hit per event.
+// At the end of a game the journal is compacted into a single snapshot of the game.
+//
+// Layout (integers big-endian):
+//   header    MAGIC, VERSION
+//   records   int length, byte type, payload (length - 1 bytes), int crc32 of type and payload
+// A record cut short by a crash fails its length or CRC; replay stops there and the file is truncated
+// to the last whole record before anything else is appended.
+public class GameJournal {
+
+    // Name of the journal in the app's files dir
+    public static final String JOURNAL_FILE = "game_journal.bin";
+
+    // Longest an event waits in memory before it is written, and shortest time between two syncs
+    static final long FLUSH_DELAY_MS = 200;
+    static final long SYNC_INTERVAL_MS = 1000;
+    // The journal is compacted when it grows past this size, even in the middle of a game
+    private static final int MAX_JOURNAL_BYTES = 64 * 1024;
+    // Sanity bound on a participant count read back from the file
+    private static final int MAX_PARTICIPANTS = 64;
+
+    // Format constants
+    private static final int MAGIC = 0x474A524E; // "GJRN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 2 * 4;
+    private static final byte PARTICIPANTS_SET = 1;
+    private static final byte PARTICIPANT_SELECTED = 2;
+    private static final byte NAME_SET = 3;
+    private static final byte ANSWER_GIVEN = 4;
+    private static final byte GAME_RESET = 5;
+    private static final byte SNAPSHOT = 6;
+
+    private static final String TAG = "GameJournal";
+
+    // The single instance shared by the whole application
+    private static GameJournal instance;
+
+    // A game as rebuilt from the journal: its category, participants and every answer given so far
+    public static class Game {
+        public final int categoryId;
+        public final String categoryName;
+        public final int questionCount;
+        public final int[] colors;
+        public final String[] names;
+        // The participant selected and not done answering yet, -1 between rounds
+        public int selected = -1;
+        public boolean finished;
+
+        // Answers in the order they were given
+        private int answerCount;
+        private int[] answerParticipants = new int[16];
+        private int[] answerQuestions = new int[16];
+        private boolean[] answerCorrect = new boolean[16];
+
+        Game(int categoryId, String categoryName, int questionCount, int[] colors) {
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.questionCount = questionCount;
+            this.colors = colors;
+            this.names = new String[colors.length];
+        }
+
+        public int getParticipantCount() {
+            return colors.length;
+        }
+
+        public int getAnswerCount() {
+            return answerCount;
+        }
+
+        // Participant who gave the answer at the given position, and whether it was correct
+        public int getAnswerParticipant(int answer) {
+            return answerParticipants[answer];
+        }
+
+        public boolean isAnswerCorrect(int answer) {
+            return answerCorrect[answer];
+        }
+
+        // Start the engine over with this game's participants and bring it to where the game stopped.
+        // The deck must be a fresh one for the game's questions.
+        public void restore(GameEngine engine, List<Question> questions, QuestionDeck deck) {
+            engine.start(colors.length, colors, questions, deck);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i] != null) {
+                    engine.restoreName(i, names[i]);
+                }
+            }
+            for (int i = 0; i < answerCount; i++) {
+                engine.restoreAnswer(answerParticipants[i], answerQuestions[i], answerCorrect[i]);
+            }
+            if (selected >= 0) {
+                engine.restoreSelection(selected);
+            }
+        }
+
+        void addAnswer(int participant, int question, boolean correct) {
+            if (answerCount == answerQuestions.length) {
+                int capacity = answerCount * 2;
+                answerParticipants = Arrays.copyOf(answerParticipants, capacity);
+                answerQuestions = Arrays.copyOf(answerQuestions, capacity);
+                answerCorrect = Arrays.copyOf(answerCorrect, capacity);
+            }
+            answerParticipants[answerCount] = participant;
+            answerQuestions[answerCount] = question;
+            answerCorrect[answerCount] = correct;
+            answerCount++;
+            selected = -1;
+        }
+
+        Game copy() {
+            Game copy = new Game(categoryId, categoryName, questionCount, colors.clone());
+            System.arraycopy(names, 0, copy.names, 0, names.length);
+            copy.selected = selected;
+            copy.finished = finished;
+            copy.answerCount = answerCount;
+            copy.answerParticipants = answerParticipants.clone();
+            copy.answerQuestions = answerQuestions.clone();
+            copy.answerCorrect = answerCorrect.clone();
+            return copy;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(categoryId);
+            out.writeUTF(categoryName);
+            out.writeInt(questionCount);
+            out.writeInt(colors.length);
+            for (int i = 0; i < colors.length; i++) {
+                out.writeInt(colors[i]);
+                out.writeBoolean(names[i] != null);
+                if (names[i] != null) {
+                    out.writeUTF(names[i]);
+                }
+            }
+            out.writeInt(selected);
+            out.writeBoolean(finished);
+            out.writeInt(answerCount);
+            for (int i = 0; i < answerCount; i++) {
+                out.writeInt(answerParticipants[i]);
+                out.writeInt(answerQuestions[i]);
+                out.writeBoolean(answerCorrect[i]);
+            }
+        }
+
+        static Game readFrom(DataInputStream in) throws IOException {
+            int categoryId = in.readInt();
+            String categoryName = in.readUTF();
+            int questionCount = in.readInt();
+            int[] colors = new int[checkCount(in.readInt())];
+            String[] names = new String[colors.length];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = in.readInt();
+                names[i] = in.readBoolean() ? in.readUTF() : null;
+            }
+            Game game = new Game(categoryId, categoryName, questionCount, colors);
+            System.arraycopy(names, 0, game.names, 0, names.length);
+            int selected = in.readInt();
+            boolean finished = in.readBoolean();
+            int answers = in.readInt();
+            for (int i = 0; i < answers; i++) {
+                game.addAnswer(in.readInt(), in.readInt(), in.readBoolean());
+            }
+            game.selected = selected;
+            game.finished = finished;
+            return game;
+        }
+    }
+
+    private final File file;
+    private final ScheduledExecutorService writer;
+
+    // Guards everything below, held only for in-memory work
+    private final Object lock = new Object();
+    // The game rebuilt from the journal and the events recorded since, null without a game
+    private Game game;
+    private boolean loaded;
+    // Framed events not written yet, and whether a flush is scheduled
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private boolean flushScheduled;
+    // Payload of the event being recorded
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(64);
+    private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+
+    // Writer thread state
+    private FileOutputStream stream;
+    private long journalBytes;
+    private long lastSync;
+    private boolean syncNeeded;
+    private boolean syncScheduled;
+
+    // Create a journal kept in the given file, written on the given single-threaded executor
+    public GameJournal(File file, ScheduledExecutorService writer) {
+        this.file = file;
+        this.writer = writer;
+        lastSync = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(SYNC_INTERVAL_MS);
+    }
+
+    // Return the shared journal, creating it on first use. Nothing is read until load() is called.
+    public static synchronized GameJournal getInstance(Context context) {
+        if (instance == null) {
+            ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "chwazi-journal");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            });
+            instance = new GameJournal(new File(context.getApplicationContext().getFilesDir(), JOURNAL_FILE), writer);
+        }
+        return instance;
+    }
+
+    // Replay the journal and return a copy of the game it holds, or null if there is none.
+    // Only the first call reads the file, call it off the main thread.
+    public Game load() {
+        synchronized (lock) {
+            if (!loaded) {
+                loaded = true;
+                game = replay();
+            }
+            return game == null ? null : game.copy();
+        }
+    }
+
+    // Return a copy of the game as recorded so far, or null. Does not read the file.
+    public Game getGame() {
+        synchronized (lock) {
+            return game == null ? null : game.copy();
+        }
+    }
+
+    // A new game started with the given participants, everything recorded before is dropped
+    public void participantsSet(int categoryId, String categoryName, int questionCount, int[] colors) {
+        synchronized (lock) {
+            loaded = true;
+            game = new Game(categoryId, categoryName, questionCount, colors.clone());
+            DataOutputStream out = begin();
+            try {
+                out.writeInt(categoryId);
+                out.writeUTF(categoryName);
+                out.writeInt(questionCount);
+                out.writeInt(colors.length);
+                for (int color : colors) {
+                    out.writeInt(color);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            end(PARTICIPANTS_SET);
+        }
+    }
+
+    // A participant was picked to answer
+    public void participantSelected(int participant) {
+        synchronized (lock) {
+            if (game == null) {
+                return;
+            }
+            game.selected = participant;
+            writeInts(PARTICIPANT_SELECTED, participant, 0, 0, 1);
+        }
+    }
+
+    // A participant entered a name
+    public void nameSet(int participant, String name) {
+        synchronized (lock) {
+            if (game == null) {
+                return;
+            }
+            game.names[participant] = name;
+            DataOutputStream out = begin();
+            try {
+                out.writeInt(participant);
+                out.writeUTF(name);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            end(NAME_SET);
+        }
+    }
+
+    // A participant answered a question, given by its index in the category's question list
+    public void answerGiven(int participant, int question, boolean correct) {
+        synchronized (lock) {
+            if (game == null) {
+                return;
+            }
+            game.addAnswer(participant, question, correct);
+            writeInts(ANSWER_GIVEN, participant, question, correct ? 1 : 0, 3);
+        }
+    }
+
+    // The game was abandoned, there is nothing left to resume
+    public void gameReset() {
+        synchronized (lock) {
+            loaded = true;
+            game = null;
+            begin();
+            end(GAME_RESET);
+        }
+    }
+
+    // The game is over: replace the journal with a snapshot of it, in the background
+    public void gameFinished() {
+        synchronized (lock) {
+            if (game == null) {
+                return;
+            }
+            game.finished = true;
+        }
+        writer.execute(this::compact);
+    }
+
+    // Write and sync everything recorded so far, in the background. The returned future completes once
+    // the events are on disk, for example when the screen stops and the process may be killed.
+    public Future<?> flush() {
+        return writer.submit(() -> writeBatch(true));
+    }
+
+    // Start encoding the payload of an event
+    private DataOutputStream begin() {
+        scratch.reset();
+        return scratchOut;
+    }
+
+    // Frame the event that was just encoded and schedule it to be written
+    private void end(byte type) {
+        frame(pending, type, scratch.toByteArray());
+        scheduleFlush();
+    }
+
+    // Record an event whose payload is one participant, optionally followed by a question and a flag
+    private void writeInts(byte type, int participant, int question, int flag, int count) {
+        DataOutputStream out = begin();
+        try {
+            out.writeInt(participant);
+            if (count > 1) {
+                out.writeInt(question);
+            }
+            if (count > 2) {
+                out.writeBoolean(flag != 0);
+            }
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        end(type);
+    }
+
+    // Append a record: its length, type, payload and the CRC of type and payload
+    private static void frame(ByteArrayOutputStream out, byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload, 0, payload.length);
+        writeInt(out, payload.length + 1);
+        out.write(type);
+        out.write(payload, 0, payload.length);
+        writeInt(out, (int) crc.getValue());
+    }
+
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            writer.schedule(() -> writeBatch(false), FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Writer thread: append the pending events, syncing if asked to or if the last sync is old enough
+    private void writeBatch(boolean forceSync) {
+        byte[] batch;
+        synchronized (lock) {
+            flushScheduled = false;
+            batch = pending.toByteArray();
+            pending = new ByteArrayOutputStream();
+        }
+        try {
+            if (batch.length > 0) {
+                FileOutputStream out = openStream();
+                out.write(batch);
+                journalBytes += batch.length;
+                syncNeeded = true;
+            }
+            long now = System.nanoTime();
+            if (syncNeeded && (forceSync || now - lastSync >= TimeUnit.MILLISECONDS.toNanos(SYNC_INTERVAL_MS))) {
+                stream.getFD().sync();
+                syncNeeded = false;
+                lastSync = now;
+            } else if (syncNeeded && !syncScheduled) {
+                // Make sure the remaining events are synced once the interval is over
+                syncScheduled = true;
+                writer.schedule(() -> {
+                    syncScheduled = false;
+                    writeBatch(false);
+                }, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            // The game goes on, only resuming it after a crash may lose some events
+            Log.w(TAG, "Could not write the game journal", e);
+            closeStream();
+        }
+        if (journalBytes > MAX_JOURNAL_BYTES) {
+            compact();
+        }
+    }
+
+    // Writer thread: replace the journal with a header and a snapshot of the game as it is now.
+    // Events still pending are part of the snapshot and are dropped.
+    private void compact() {
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        synchronized (lock) {
+            pending = new ByteArrayOutputStream();
+            if (game != null) {
+                try {
+                    game.writeTo(new DataOutputStream(snapshot));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        byte[] payload = snapshot.toByteArray();
+        closeStream();
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            ByteArrayOutputStream record = new ByteArrayOutputStream(HEADER_SIZE + payload.length + 9);
+            writeInt(record, MAGIC);
+            writeInt(record, VERSION);
+            if (payload.length > 0) {
+                frame(record, SNAPSHOT, payload);
+            }
+            record.writeTo(out);
+            out.getFD().sync();
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+            journalBytes = record.size();
+            lastSync = System.nanoTime();
+            syncNeeded = false;
+        } catch (IOException e) {
+            Log.w(TAG, "Could not compact the game journal", e);
+            tmp.delete();
+        }
+    }
+
+    // Writer thread: open the journal for appending, starting a new file with its header if needed
+    private FileOutputStream openStream() throws IOException {
+        if (stream == null) {
+            // Drop a record cut short by a crash, appending after it would hide everything that follows
+            replay();
+            boolean fresh = !file.isFile() || file.length() < HEADER_SIZE;
+            stream = new FileOutputStream(file, !fresh);
+            if (fresh) {
+                ByteArrayOutputStream header = new ByteArrayOutputStream(HEADER_SIZE);
+                writeInt(header, MAGIC);
+                writeInt(header, VERSION);
+                header.writeTo(stream);
+            }
+            journalBytes = file.length();
+        }
+        return stream;
+    }
+
+    private void closeStream() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // Nothing left to do with it
+            }
+            stream = null;
+        }
+    }
+
+    // Rebuild the game from the journal file, truncating a record cut short by a crash
+    private Game replay() {
+        if (!file.isFile()) {
+            return null;
+        }
+        byte[] data;
+        try {
+            // java.nio.file is not available before API 26
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                data = new byte[(int) raf.length()];
+                raf.readFully(data);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read the game journal", e);
+            return null;
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        Game replayed = null;
+        int valid = 0;
+        try {
+            // A file of another format is replaced as a whole
+            boolean supported = in.readInt() == MAGIC && in.readInt() == VERSION;
+            valid = supported ? HEADER_SIZE : 0;
+            while (supported && valid < data.length) {
+                int length = in.readInt();
+                if (length < 1 || length > data.length - valid - 8) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(data, valid + 4, length);
+                if ((int) crc.getValue() != readInt(data, valid + 4 + length)) {
+                    break;
+                }
+                byte type = in.readByte();
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(data, valid + 5, length - 1));
+                replayed = apply(replayed, type, payload);
+                in.skipBytes(length - 1 + 4);
+                valid += 4 + length + 4;
+            }
+        } catch (EOFException e) {
+            // A cut record, handled below
+        } catch (IOException | RuntimeException e) {
+            Log.w(TAG, "Damaged game journal", e);
+        }
+        if (valid < data.length) {
+            truncate(valid);
+        }
+        return replayed;
+    }
+
+    // Apply one event to the game being rebuilt
+    private static Game apply(Game game, byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case PARTICIPANTS_SET: {
+                int categoryId = in.readInt();
+                String categoryName = in.readUTF();
+                int questionCount = in.readInt();
+                int[] colors = new int[checkCount(in.readInt())];
+                for (int i = 0; i < colors.length; i++) {
+                    colors[i] = in.readInt();
+                }
+                return new Game(categoryId, categoryName, questionCount, colors);
+            }
+            case SNAPSHOT:
+                return Game.readFrom(in);
+            case GAME_RESET:
+                return null;
+            default:
+                break;
+        }
+        if (game == null) {
+            return null;
+        }
+        int participant = in.readInt();
+        if (participant < 0 || participant >= game.names.length) {
+            throw new IOException("Unknown participant " + participant);
+        }
+        switch (type) {
+            case PARTICIPANT_SELECTED:
+                game.selected = participant;
+                break;
+            case NAME_SET:
+                game.names[participant] = in.readUTF();
+                break;
+            case ANSWER_GIVEN:
+                game.addAnswer(participant, in.readInt(), in.readBoolean());
+                break;
+            default:
+                throw new IOException("Unknown event " + type);
+        }
+        return game;
+    }
+
+    private void truncate(int length) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(length);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not truncate the game journal", e);
+        }
+    }
+
+    private static int checkCount(int count) throws IOException {
+        if (count < 0 || count > MAX_PARTICIPANTS) {
+            throw new IOException("Bad participant count " + count);
+        }
+        return count;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+}
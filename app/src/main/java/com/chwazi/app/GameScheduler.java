@@ -0,0 +1,186 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.ArrayList;
+import java.util.List;
+
+// This class runs the timed steps of a game: the delay before the name prompt, the pause after an
+// answer, the scoreboard auto-dismiss and so on.
+// Every event has a name and scheduling a name again replaces the pending one, so fast repeated play
+// can never stack stale callbacks. Time comes from a Driver, which is a Looper in the app and a virtual
+// clock in tests. The scheduler can be paused and resumed (pending delays are kept), and cancelAll
+// drops everything at the end of the screen's lifecycle.
+public class GameScheduler {
+
+    // Interface to the clock and the event loop the scheduler runs on
+    public interface Driver {
+        // Current time in milliseconds, monotonic
+        long now();
+
+        // Call runDue() at the given time, replacing any earlier request
+        void wakeAt(long time);
+
+        // Forget the pending wake up
+        void cancelWake();
+    }
+
+    // A pending event, objects are reused once their event has run or was cancelled
+    private static class Event {
+        String name;
+        Runnable action;
+        long dueTime;
+        long sequence;
+        boolean active;
+    }
+
+    private final Driver driver;
+    private final List<Event> events = new ArrayList<>();
+
+    // Increases with every schedule, so events due at the same time run in the order they were scheduled
+    private long nextSequence;
+    private boolean paused;
+    private long pausedAt;
+
+    public GameScheduler(Driver driver) {
+        this.driver = driver;
+    }
+
+    // Run action after delayMs, replacing a pending event with the same name
+    public void schedule(String name, long delayMs, Runnable action) {
+        Event event = find(name);
+        if (event == null) {
+            event = obtain();
+            event.name = name;
+        }
+        event.action = action;
+        event.dueTime = now() + Math.max(0, delayMs);
+        event.sequence = nextSequence++;
+        event.active = true;
+        requestWake();
+    }
+
+    // Cancel the pending event with the given name, if any
+    public void cancel(String name) {
+        Event event = find(name);
+        if (event != null) {
+            release(event);
+            requestWake();
+        }
+    }
+
+    // Whether an event with the given name is pending
+    public boolean isScheduled(String name) {
+        return find(name) != null;
+    }
+
+    // Cancel every pending event
+    public void cancelAll() {
+        for (int i = 0; i < events.size(); i++) {
+            release(events.get(i));
+        }
+        driver.cancelWake();
+    }
+
+    // Stop the clock of the game, pending events keep their remaining delay
+    public void pause() {
+        if (paused) {
+            return;
+        }
+        paused = true;
+        pausedAt = driver.now();
+        driver.cancelWake();
+    }
+
+    // Start the clock again, pending events run after the rest of their delay
+    public void resume() {
+        if (!paused) {
+            return;
+        }
+        paused = false;
+        long pausedFor = driver.now() - pausedAt;
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (event.active) {
+                event.dueTime += pausedFor;
+            }
+        }
+        requestWake();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    // Run every event that is due, in order, then ask the driver to wake up for the next one.
+    // Events may schedule or cancel other events while they run.
+    public void runDue() {
+        while (!paused) {
+            Event next = earliest();
+            if (next == null || next.dueTime > driver.now()) {
+                break;
+            }
+            Runnable action = next.action;
+            release(next);
+            action.run();
+        }
+        requestWake();
+    }
+
+    // Game time, which stands still while paused
+    private long now() {
+        return paused ? pausedAt : driver.now();
+    }
+
+    // Ask the driver to wake up for the earliest pending event
+    private void requestWake() {
+        if (paused) {
+            return;
+        }
+        Event next = earliest();
+        if (next == null) {
+            driver.cancelWake();
+        } else {
+            driver.wakeAt(next.dueTime);
+        }
+    }
+
+    private Event earliest() {
+        Event best = null;
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (event.active && (best == null || event.dueTime < best.dueTime
+                    || (event.dueTime == best.dueTime && event.sequence < best.sequence))) {
+                best = event;
+            }
+        }
+        return best;
+    }
+
+    private Event find(String name) {
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (event.active && event.name.equals(name)) {
+                return event;
+            }
+        }
+        return null;
+    }
+
+    // Reuse a finished event object, or make a new one
+    private Event obtain() {
+        for (int i = 0; i < events.size(); i++) {
+            if (!events.get(i).active) {
+                return events.get(i);
+            }
+        }
+        Event event = new Event();
+        events.add(event);
+        return event;
+    }
+
+    // Mark an event as finished and drop its action, which may hold on to an activity
+    private static void release(Event event) {
+        event.active = false;
+        event.action = null;
+    }
+}
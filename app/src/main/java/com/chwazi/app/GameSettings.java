@@ -0,0 +1,53 @@
+package com.chwazi.app;
+
+// Import necessary Android classes
+import android.content.Context;
+import android.content.SharedPreferences;
+
+// This class keeps the choices the user made for new games, so the next game starts with them.
+// Values are stored by name, a value the app no longer knows reads back as the default.
+public final class GameSettings {
+
+    private static final String PREFERENCES = "game_settings";
+    private static final String KEY_SELECTION_POLICY = "selection_policy";
+
+    private GameSettings() {
+    }
+
+    // Return how the next participant is picked, selecting uniformly until the user chooses otherwise
+    public static SelectionEngine.Policy getSelectionPolicy(Context context) {
+        return SelectionEngine.Policy.fromName(preferences(context).getString(KEY_SELECTION_POLICY, null));
+    }
+
+    // Remember how the next participant is picked in the following games
+    public static void setSelectionPolicy(Context context, SelectionEngine.Policy policy) {
+        preferences(context).edit().putString(KEY_SELECTION_POLICY, policy.name()).apply();
+    }
+
+    // Radio button of a selection policy in the participants prompt
+    static int selectionModeButton(SelectionEngine.Policy policy) {
+        switch (policy) {
+            case LEAST_RECENTLY_CHOSEN:
+                return R.id.modeTakeTurns;
+            case WEIGHTED_BY_ANSWERS:
+                return R.id.modeFavorFewerAnswers;
+            default:
+                return R.id.modeRandom;
+        }
+    }
+
+    // Selection policy of a radio button in the participants prompt
+    static SelectionEngine.Policy selectionPolicy(int buttonId) {
+        if (buttonId == R.id.modeTakeTurns) {
+            return SelectionEngine.Policy.LEAST_RECENTLY_CHOSEN;
+        }
+        if (buttonId == R.id.modeFavorFewerAnswers) {
+            return SelectionEngine.Policy.WEIGHTED_BY_ANSWERS;
+        }
+        return SelectionEngine.Policy.UNIFORM;
+    }
+
+    private static SharedPreferences preferences(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,168 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import androidx.lifecycle.ViewModel;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+// This class keeps the game of a GameActivity across configuration changes (rotation, locale, ...).
+// The engine with its participants, scores and deck, and the loaded questions, outlive the activity,
+// so a recreated screen only lays out its circles again: no file is read and nothing is replayed.
+// The engine reports to whichever screen is attached through a relay, so it never holds on to a
+// destroyed activity. Process death is covered by the GameJournal, not by this class.
+public class GameViewModel extends ViewModel {
+
+    // Forwards the engine's commands to the attached screen. Nothing drives the engine while no screen
+    // is attached, the screen's timed steps are cancelled with it.
+    private static class Relay implements GameEngine.Listener {
+        GameEngine.Listener screen;
+
+        @Override
+        public void onCountdownStarted() {
+            if (screen != null) {
+                screen.onCountdownStarted();
+            }
+        }
+
+        @Override
+        public void onCountdownCancelled() {
+            if (screen != null) {
+                screen.onCountdownCancelled();
+            }
+        }
+
+        @Override
+        public void onParticipantSelected(int participant) {
+            if (screen != null) {
+                screen.onParticipantSelected(participant);
+            }
+        }
+
+        @Override
+        public void onNameRequested(int participant) {
+            if (screen != null) {
+                screen.onNameRequested(participant);
+            }
+        }
+
+        @Override
+        public void onQuestionAsked(int participant, Question question) {
+            if (screen != null) {
+                screen.onQuestionAsked(participant, question);
+            }
+        }
+
+        @Override
+        public void onAnswerScored(int participant, int selectedOption, boolean correct) {
+            if (screen != null) {
+                screen.onAnswerScored(participant, selectedOption, correct);
+            }
+        }
+
+        @Override
+        public void onRoundFinished(boolean gameFinished) {
+            if (screen != null) {
+                screen.onRoundFinished(gameFinished);
+            }
+        }
+    }
+
+    private final Relay relay = new Relay();
+    private final GameEngine engine;
+    private boolean configured;
+
+    // The game being played, questions is null until the first game is started
+    private List<Question> questions;
+    private int categoryId;
+    private int[] participantColors = new int[0];
+    // Whether the game's results were added to the players' statistics
+    private boolean statsRecorded;
+
+    public GameViewModel() {
+        this(new SelectionEngine(new SplittableRandom()));
+    }
+
+    // Create a holder whose engine picks participants with the given selection engine
+    GameViewModel(SelectionEngine selection) {
+        engine = new GameEngine(selection, relay);
+    }
+
+    // Make the given screen the one that renders the engine's commands
+    public void attach(GameEngine.Listener screen) {
+        relay.screen = screen;
+    }
+
+    // Stop reporting to the given screen, if it is still the attached one
+    public void detach(GameEngine.Listener screen) {
+        if (relay.screen == screen) {
+            relay.screen = null;
+        }
+    }
+
+    // Apply the selection policy chosen in the settings, an unknown name selects uniformly. Only the
+    // first call counts, a recreated screen keeps the policy and the order it has picked in so far.
+    public void configure(String selectionPolicy) {
+        if (configured) {
+            return;
+        }
+        configured = true;
+        engine.getSelection().setPolicy(SelectionEngine.Policy.fromName(selectionPolicy));
+    }
+
+    // Change the selection policy when the players reset the game. The next game starts right after
+    // and starts the selection over, so the new policy never inherits the old one's order.
+    public void setSelectionPolicy(SelectionEngine.Policy policy) {
+        configured = true;
+        engine.getSelection().setPolicy(policy);
+    }
+
+    // Remember the game the engine was just started (or restored) with
+    public void gameStarted(int categoryId, int[] participantColors, List<Question> questions) {
+        this.categoryId = categoryId;
+        this.participantColors = participantColors;
+        this.questions = questions;
+        statsRecorded = false;
+    }
+
+    // The game was abandoned, a recreated screen starts a new one instead of showing it
+    public void gameReset() {
+        questions = null;
+    }
+
+    // Whether a game is being played, so a recreated screen can show it right away
+    public boolean hasGame() {
+        return questions != null;
+    }
+
+    // Mark the game's results as added to the statistics, returns false if they already were
+    public boolean markStatsRecorded() {
+        if (statsRecorded) {
+            return false;
+        }
+        statsRecorded = true;
+        return true;
+    }
+
+    // Getters for the retained game
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public List<Question> getQuestions() {
+        return questions;
+    }
+
+    public int getCategoryId() {
+        return categoryId;
+    }
+
+    public int[] getParticipantColors() {
+        return participantColors;
+    }
+
+    @Override
+    protected void onCleared() {
+        relay.screen = null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.graphics.Color;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.MenuItem;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.LinearLayoutManager;
+
+import com.chwazi.app.databinding.ActivityHallOfFameBinding;
+
+import java.util.List;
+
+// This activity shows the hall of fame: every player who finished a game, ranked by wins.
+// The totals are read from the statistics rollup in the background, however many games were played.
+public class HallOfFameActivity extends AppCompatActivity {
+
+    // Binding object to access views defined in the layout
+    protected ActivityHallOfFameBinding binding;
+    // Adapter that displays the players
+    private HallOfFameAdapter adapter;
+    // The statistics load currently running in the background, if any
+    private AsyncLoader.LoadTask loadTask;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        // Inflate the layout using ViewBinding
+        binding = ActivityHallOfFameBinding.inflate(getLayoutInflater());
+        setContentView(binding.getRoot());
+
+        // Set up the toolbar at the top of the screen
+        setupToolbar();
+
+        // Set up the list of players
+        adapter = new HallOfFameAdapter(this);
+        binding.recyclerViewPlayers.setLayoutManager(new LinearLayoutManager(this));
+        binding.recyclerViewPlayers.setAdapter(adapter);
+
+        // Load the players' statistics in the background
+        loadPlayers();
+    }
+
+    @Override
+    protected void onDestroy() {
+        // Drop the pending result, this screen will not be around to show it
+        if (loadTask != null) {
+            loadTask.cancel();
+        }
+        super.onDestroy();
+    }
+
+    // Method to set up the toolbar with a back button and title
+    private void setupToolbar() {
+        setSupportActionBar(binding.toolbar);
+        if (getSupportActionBar() != null) {
+            // Enable the back button in the toolbar
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+            // Set the title of the toolbar
+            getSupportActionBar().setTitle(getString(R.string.hall_of_fame));
+            // Set the icon for the back button
+            getSupportActionBar().setHomeAsUpIndicator(R.drawable.ic_back_arrow);
+        }
+        // Set the title text color to white
+        binding.toolbar.setTitleTextColor(Color.WHITE);
+    }
+
+    // Handle toolbar item clicks, such as the back button
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            // If the back button is clicked, close this activity and go back
+            finish();
+        }
+        return super.onOptionsItemSelected(item);
+    }
+
+    // Method to load the ranked players from the statistics store in the background
+    private void loadPlayers() {
+        binding.progressLoading.setVisibility(View.VISIBLE);
+        StatsStore store = StatsStore.getInstance(this);
+        loadTask = AsyncLoader.load(store::getHallOfFame, new AsyncLoader.LoadCallback<List<StatsStore.PlayerStats>>() {
+            @Override
+            public void onLoaded(List<StatsStore.PlayerStats> result) {
+                binding.progressLoading.setVisibility(View.GONE);
+                adapter.setPlayers(result);
+                binding.tvNoPlayers.setVisibility(result.isEmpty() ? View.VISIBLE : View.GONE);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                // Statistics that cannot be read look like no games were played yet
+                Log.e("HallOfFame", "Error loading the statistics", error);
+                binding.progressLoading.setVisibility(View.GONE);
+                binding.tvNoPlayers.setVisibility(View.VISIBLE);
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// This is the adapter class for the RecyclerView that shows the hall of fame.
+// Rows are the players in the order StatsStore ranks them, with their lifetime totals and the
+// category they played most.
+public class HallOfFameAdapter extends RecyclerView.Adapter<HallOfFameAdapter.PlayerViewHolder> {
+
+    private final Context context;
+    // Players shown, best first
+    private final List<StatsStore.PlayerStats> players = new ArrayList<>();
+
+    public HallOfFameAdapter(Context context) {
+        this.context = context;
+    }
+
+    // ViewHolder class that holds the views of one player row
+    public static class PlayerViewHolder extends RecyclerView.ViewHolder {
+        TextView tvPlayerName;
+        TextView tvPlayerStats;
+        TextView tvPlayerCategory;
+
+        public PlayerViewHolder(View itemView) {
+            super(itemView);
+            // Find TextViews in the player item layout
+            tvPlayerName = itemView.findViewById(R.id.tvPlayerName);
+            tvPlayerStats = itemView.findViewById(R.id.tvPlayerStats);
+            tvPlayerCategory = itemView.findViewById(R.id.tvPlayerCategory);
+        }
+    }
+
+    // Method to show a new list of players
+    public void setPlayers(List<StatsStore.PlayerStats> newPlayers) {
+        players.clear();
+        players.addAll(newPlayers);
+        notifyDataSetChanged();
+    }
+
+    // Called when RecyclerView needs a new ViewHolder
+    @NonNull
+    @Override
+    public PlayerViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        // Inflate the player item layout
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_hall_of_fame, parent, false);
+        return new PlayerViewHolder(view);
+    }
+
+    // Called to display the player's place, name, totals and top category at the specified position
+    @Override
+    public void onBindViewHolder(@NonNull PlayerViewHolder holder, int position) {
+        StatsStore.PlayerStats player = players.get(position);
+        holder.tvPlayerName.setText(context.getString(R.string.hall_of_fame_player, position + 1, player.name));
+        holder.tvPlayerStats.setText(context.getString(R.string.hall_of_fame_stats, player.getWins(),
+                player.getGames(), Math.round(player.getAccuracy() * 100), player.getBestStreak()));
+        int top = player.getTopCategory();
+        if (top < 0) {
+            // Only games recorded before categories were kept, or no answers at all
+            holder.tvPlayerCategory.setVisibility(View.GONE);
+        } else {
+            String category = player.getCategoryName(top);
+            holder.tvPlayerCategory.setText(context.getString(R.string.hall_of_fame_top_category, category,
+                    player.getCategoryCorrect(category), player.getCategoryAnswered(category)));
+            holder.tvPlayerCategory.setVisibility(View.VISIBLE);
+        }
+    }
+
+    // Returns the total number of players
+    @Override
+    public int getItemCount() {
+        return players.size();
+    }
+}
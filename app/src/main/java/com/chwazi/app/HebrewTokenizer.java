@@ -0,0 +1,95 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.ArrayList;
+import java.util.List;
+
+// This class splits text into search terms. It is shared with the build, which indexes the question
+// bank with it, so the app must tokenize queries exactly the same way.
+// - Words are runs of letters and digits, lower-cased.
+// - Hebrew points and cantillation marks are dropped, and final letters (ך ם ן ף ץ) are written as
+//   their regular forms, so spelling variants meet.
+// - Hebrew attaches the prefix letters ו ה ב ל מ ש (and combinations like "וה" or "שב") to the next
+//   word. Since a leading מ or ה may also be part of the word itself, a word is indexed under every
+//   form with up to MAX_PREFIXES of these letters removed, so "והמספר" and "מספר" share the term "מספר".
+public final class HebrewTokenizer {
+
+    // Most prefix letters removed from a word, and the fewest letters a term may keep
+    public static final int MAX_PREFIXES = 3;
+    public static final int MIN_TERM_LENGTH = 2;
+
+    // Letters that Hebrew attaches in front of a word
+    private static final String PREFIX_LETTERS = "והבלמש";
+
+    private HebrewTokenizer() {
+    }
+
+    // Split text into normalized words, words shorter than MIN_TERM_LENGTH are dropped
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (isHebrewMark(c)) {
+                // Points are inside a word and never split it
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(normalize(c));
+            } else if (word.length() > 0) {
+                if (word.length() >= MIN_TERM_LENGTH) {
+                    words.add(word.toString());
+                }
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    // The terms a word is indexed under: the word itself, then the word without 1..MAX_PREFIXES prefix letters
+    public static List<String> variants(String word) {
+        List<String> variants = new ArrayList<>(MAX_PREFIXES + 1);
+        variants.add(word);
+        for (int strip = 1; strip <= MAX_PREFIXES && word.length() - strip >= MIN_TERM_LENGTH; strip++) {
+            if (PREFIX_LETTERS.indexOf(word.charAt(strip - 1)) < 0) {
+                break;
+            }
+            variants.add(word.substring(strip));
+        }
+        return variants;
+    }
+
+    // Whether the text ends inside a word, so its last word may still be growing while the user types
+    public static boolean endsInWord(String text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (!isHebrewMark(c)) {
+                return Character.isLetterOrDigit(c);
+            }
+        }
+        return false;
+    }
+
+    // Lower-case Latin letters and replace Hebrew final letters with their regular forms
+    private static char normalize(char c) {
+        switch (c) {
+            case 'ך':
+                return 'כ';
+            case 'ם':
+                return 'מ';
+            case 'ן':
+                return 'נ';
+            case 'ף':
+                return 'פ';
+            case 'ץ':
+                return 'צ';
+            default:
+                return Character.toLowerCase(c);
+        }
+    }
+
+    // Hebrew points and cantillation marks (U+0591..U+05C7), except the punctuation in that range
+    private static boolean isHebrewMark(char c) {
+        return c >= '\u0591' && c <= '\u05C7' && c != '\u05BE' && c != '\u05C0' && c != '\u05C3' && c != '\u05C6';
+    }
+}
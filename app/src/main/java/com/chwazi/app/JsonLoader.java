@@ -1,50 +1,162 @@
 package com.chwazi.app;
 
-// Import necessary Android and Java classes
-import android.content.Context;
-
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+// Import necessary Gson and Java classes
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
+import java.io.IOException;
 import java.io.InputStream;
-import java.lang.reflect.Type;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
-// This class helps load JSON data from the assets folder and parse it into Java objects
+// This class streams a questions JSON file and turns it into Java objects. QuestionRepository opens
+// the file of the active locale, see QuestionLocales.
+// Parsing is done token by token with Gson's JsonReader, so only the data that is actually
+// needed (all categories, only their names, or a single category) is ever materialized.
 public class JsonLoader {
 
-    // Public method to load categories from a JSON file
-    public static List<CategoryData> loadCategories(Context context) {
-
-        // Load the JSON content from the "questions.json" file in the assets folder
-        String json = loadJsonFromAssets(context, "questions.json");
-
-        // Create a new Gson instance for parsing JSON
-        Gson gson = new Gson();
-        // Define the type of the data we expect (a list of CategoryData objects)
-        Type listType = new TypeToken<List<CategoryData>>() {}.getType();
-        // Parse the JSON string into a list of CategoryData objects and return it
-        return gson.fromJson(json, listType);
-    }
-
-    // Private helper method to load a JSON file from the assets folder and return it as a String
-    private static String loadJsonFromAssets(Context context, String fileName) {
-        try {
-            // Open the JSON file from the assets folder
-            InputStream is = context.getAssets().open(fileName);
-            // Create a buffer to hold the data from the file
-            byte[] buffer = new byte[is.available()];
-            // Read the data into the buffer
-            is.read(buffer);
-            // Close the InputStream to free resources
-            is.close();
-            // Convert the byte array to a String and return it
-            return new String(buffer);
-        } catch (Exception e) {
-            // If an error occurs, print the stack trace for debugging
-            e.printStackTrace();
-            // Return null if there was an error loading the JSON
+    // Extension of every questions file, the file of a locale is named as in QuestionLocales
+    public static final String JSON_EXTENSION = ".json";
+
+    // JSON field names used by the questions file
+    private static final String FIELD_CATEGORY = "category";
+    private static final String FIELD_QUESTIONS = "questions";
+    private static final String FIELD_QUESTION = "question";
+    private static final String FIELD_OPTIONS = "options";
+    private static final String FIELD_CORRECT_ANSWER = "correctAnswer";
+
+    // Read every category and its questions from the given stream
+    public static List<CategoryData> readCategories(InputStream in) throws IOException {
+        JsonReader reader = newReader(in);
+        List<CategoryData> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(readCategoryObject(reader, null));
+        }
+        reader.endArray();
+        return result;
+    }
+
+    // Read only the category names from the given stream
+    public static List<String> readCategoryNames(InputStream in) throws IOException {
+        JsonReader reader = newReader(in);
+        List<String> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String name = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (FIELD_CATEGORY.equals(reader.nextName())) {
+                    name = reader.nextString();
+                } else {
+                    // Questions (and any unknown field) are skipped without building objects
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (name != null) {
+                result.add(name);
+            }
+        }
+        reader.endArray();
+        return result;
+    }
+
+    // Read the category with the given name from the stream, or null if it does not exist.
+    // Parsing stops as soon as the category is found; other categories are only skipped.
+    public static CategoryData readCategory(InputStream in, String category) throws IOException {
+        JsonReader reader = newReader(in);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            CategoryData data = readCategoryObject(reader, category);
+            if (data != null) {
+                return data;
+            }
+        }
+        reader.endArray();
+        return null;
+    }
+
+    // Read a single category object, for example a block located through a CategoryIndex
+    public static CategoryData readCategoryBlock(InputStream in) throws IOException {
+        return readCategoryObject(newReader(in), null);
+    }
+
+    // Create a JsonReader that decodes the stream as UTF-8
+    private static JsonReader newReader(InputStream in) {
+        return new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    // Read one category object. When a wanted name is given, the questions of any other
+    // category are skipped and null is returned for it.
+    private static CategoryData readCategoryObject(JsonReader reader, String wanted) throws IOException {
+        String name = null;
+        List<Question> questions = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (FIELD_CATEGORY.equals(field)) {
+                name = reader.nextString();
+            } else if (FIELD_QUESTIONS.equals(field)) {
+                if (wanted != null && name != null && !wanted.equals(name)) {
+                    // Not the category we are looking for, skip the whole array
+                    reader.skipValue();
+                } else {
+                    // Either we want everything, this is the wanted category,
+                    // or the name has not been seen yet and we cannot tell
+                    questions = readQuestions(reader);
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (wanted != null && !wanted.equals(name)) {
             return null;
         }
+        if (questions == null) {
+            questions = new ArrayList<>();
+        }
+        return new CategoryData(name, questions);
+    }
+
+    // Read the questions array of a category
+    private static List<Question> readQuestions(JsonReader reader) throws IOException {
+        List<Question> questions = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            questions.add(readQuestion(reader));
+        }
+        reader.endArray();
+        return questions;
+    }
+
+    // Read a single question object
+    private static Question readQuestion(JsonReader reader) throws IOException {
+        String text = null;
+        List<String> options = new ArrayList<>(4);
+        int correctAnswer = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String field = reader.nextName();
+            if (FIELD_QUESTION.equals(field)) {
+                text = reader.nextString();
+            } else if (FIELD_OPTIONS.equals(field)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    options.add(reader.nextString());
+                }
+                reader.endArray();
+            } else if (FIELD_CORRECT_ANSWER.equals(field) && reader.peek() == JsonToken.NUMBER) {
+                correctAnswer = reader.nextInt();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new Question(text, options, correctAnswer);
     }
 }
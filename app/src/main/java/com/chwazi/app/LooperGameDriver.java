@@ -0,0 +1,65 @@
+package com.chwazi.app;
+
+// Import necessary Android classes
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+// This class runs a GameScheduler on the main Looper and ties it to a screen's lifecycle:
+// the game clock is paused in onPause, resumed in onResume, and every pending event is cancelled
+// in onDestroy, so no delayed step can reach a destroyed activity or a closed window.
+public class LooperGameDriver implements GameScheduler.Driver, DefaultLifecycleObserver {
+
+    // One handler and one callback are used for every wake up
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable tick;
+    private final GameScheduler scheduler;
+
+    private LooperGameDriver() {
+        scheduler = new GameScheduler(this);
+        tick = scheduler::runDue;
+    }
+
+    // Create a scheduler that runs on the main thread for as long as the owner lives
+    public static GameScheduler attach(LifecycleOwner owner) {
+        LooperGameDriver driver = new LooperGameDriver();
+        owner.getLifecycle().addObserver(driver);
+        return driver.scheduler;
+    }
+
+    @Override
+    public long now() {
+        return SystemClock.uptimeMillis();
+    }
+
+    @Override
+    public void wakeAt(long time) {
+        handler.removeCallbacks(tick);
+        handler.postAtTime(tick, time);
+    }
+
+    @Override
+    public void cancelWake() {
+        handler.removeCallbacks(tick);
+    }
+
+    @Override
+    public void onResume(@NonNull LifecycleOwner owner) {
+        scheduler.resume();
+    }
+
+    @Override
+    public void onPause(@NonNull LifecycleOwner owner) {
+        scheduler.pause();
+    }
+
+    @Override
+    public void onDestroy(@NonNull LifecycleOwner owner) {
+        scheduler.cancelAll();
+        owner.getLifecycle().removeObserver(this);
+    }
+}
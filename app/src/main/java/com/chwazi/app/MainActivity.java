@@ -10,6 +10,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.Button;
 import android.widget.NumberPicker;
+import android.widget.RadioGroup;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
@@ -30,16 +31,40 @@ public class MainActivity extends AppCompatActivity {
         // Inflate the layout using ViewBinding
         binding = ActivityMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
+        // Measure the cold start up to the first frame of this screen
+        Perf.recordColdStart(binding.getRoot());
+
+        // Refresh the downloaded question packs at the start of a session, in the background
+        if (savedInstanceState == null) {
+            QuestionRepository.getInstance(this).updatePacksAsync();
+            // Go straight back to a game the process was killed in the middle of
+            resumeInterruptedGame();
+        }
 
         // Set a click listener for the Start Game button
         binding.btnStartGame.setOnClickListener(v -> {
             showParticipantsPrompt(); // Show a prompt to select number of participants
         });
+
+        // Set a click listener for the Hall of Fame button
+        binding.btnHallOfFame.setOnClickListener(v -> {
+            startActivity(new Intent(MainActivity.this, HallOfFameActivity.class));
+        });
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Keep the exported performance metrics up to date
+        Perf.exportAsync(this);
     }
 
     // Method to show a prompt for selecting the number of participants
     private void showParticipantsPrompt() {
 
+        // Start loading the categories while the user is busy choosing the number of participants
+        QuestionRepository.getInstance(this).prefetchCategories();
+
         // Inflate the dialog layout from XML
         LayoutInflater inflater = LayoutInflater.from(this);
         View dialogView = inflater.inflate(R.layout.dialog_participants_prompt, null);
@@ -48,15 +73,19 @@ public class MainActivity extends AppCompatActivity {
         NumberPicker numberPicker = dialogView.findViewById(R.id.numberPicker);
         Button btnCancel = dialogView.findViewById(R.id.btnCancel);
         Button btnNext = dialogView.findViewById(R.id.btnNext);
+        RadioGroup selectionModes = dialogView.findViewById(R.id.selectionModes);
 
         // Set minimum and maximum values for the NumberPicker
-        numberPicker.setMinValue(2); // Minimum 2 participants
-        numberPicker.setMaxValue(5); // Maximum 5 participants
+        numberPicker.setMinValue(GameActivity.MIN_PARTICIPANTS); // Minimum 2 participants
+        numberPicker.setMaxValue(GameActivity.MAX_PARTICIPANTS); // Maximum 20 participants
         numberPicker.setWrapSelectorWheel(false); // Prevent the NumberPicker from looping
 
         // Set the text color of the NumberPicker to white
         setNumberPickerTextColor(numberPicker, Color.WHITE);
 
+        // Start from the selection mode of the last game
+        selectionModes.check(GameSettings.selectionModeButton(GameSettings.getSelectionPolicy(this)));
+
         // Create an AlertDialog with the dialog view
         AlertDialog dialog = new AlertDialog.Builder(this)
                 .setView(dialogView) // Set the custom view
@@ -74,6 +103,8 @@ public class MainActivity extends AppCompatActivity {
         // Set a click listener for the Next button
         btnNext.setOnClickListener(v -> {
             int participantCount = numberPicker.getValue(); // Get the selected number of participants
+            // Remember the selection mode, the game screen picks participants with it
+            GameSettings.setSelectionPolicy(this, GameSettings.selectionPolicy(selectionModes.getCheckedRadioButtonId()));
             dialog.dismiss(); // Dismiss the dialog
             proceedToCategorySelection(participantCount); // Move to the next screen with the selected count
         });
@@ -102,6 +133,29 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    // Method to replay the game journal in the background and reopen the game it holds, if it was not over
+    private void resumeInterruptedGame() {
+        GameJournal journal = GameJournal.getInstance(this);
+        AsyncLoader.load(journal::load, new AsyncLoader.LoadCallback<GameJournal.Game>() {
+            @Override
+            public void onLoaded(GameJournal.Game game) {
+                if (game == null || game.finished || isFinishing()) {
+                    return;
+                }
+                Intent intent = new Intent(MainActivity.this, GameActivity.class);
+                intent.putExtra("PARTICIPANT_COUNT", game.getParticipantCount());
+                intent.putExtra("SELECTED_CATEGORY_ID", game.categoryId);
+                intent.putExtra("RESUME_GAME", true);
+                startActivity(intent);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                // Nothing to resume, the user starts a new game
+            }
+        });
+    }
+
     // Method to move to the Category Selection screen with the selected number of participants
     private void proceedToCategorySelection(int participantCount) {
         // Create an Intent to start the CategorySelectionActivity
@@ -0,0 +1,200 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// This class creates and applies binary deltas between two versions of a question pack, so an
+// installed pack is updated by downloading only what changed.
+// A delta is a list of instructions that rebuild the new version: COPY a range of the old version,
+// or ADD bytes carried in the delta itself. Packs change by whole questions, so most of a new
+// version is found as long runs of the old one.
+//
+// Layout (integers big-endian):
+//   header    MAGIC, VERSION, sourceLength, sourceCrc32, targetLength
+//   ops       COPY varint offset, varint length | ADD varint length, bytes | END
+// Varints are unsigned LEB128, as in the search index.
+public final class PackDelta {
+
+    // Format constants
+    private static final int MAGIC = 0x51444C54; // "QDLT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5 * 4;
+    private static final byte OP_END = 0;
+    private static final byte OP_COPY = 1;
+    private static final byte OP_ADD = 2;
+
+    // Length of the blocks of the old version looked up while creating a delta, shorter matches are added
+    private static final int BLOCK_SIZE = 16;
+
+    private PackDelta() {
+    }
+
+    // Rebuild the new version, of the expected length, from the old one and a delta.
+    // Throws if the delta was made for different bytes, builds another length or is damaged.
+    public static byte[] apply(byte[] source, byte[] delta, int expectedLength) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(delta);
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException("Not a supported pack delta");
+            }
+            if (in.getInt() != source.length || in.getInt() != crc(source)) {
+                throw new IOException("Delta was made for another version of the pack");
+            }
+            // Checked before the target is allocated
+            int targetLength = in.getInt();
+            if (targetLength != expectedLength) {
+                throw new IOException("Delta builds " + targetLength + " bytes, expected " + expectedLength);
+            }
+            byte[] target = new byte[targetLength];
+            int position = 0;
+            while (true) {
+                byte op = in.get();
+                if (op == OP_END) {
+                    break;
+                }
+                int offset = op == OP_COPY ? readVarint(in) : 0;
+                int length = readVarint(in);
+                if (length > targetLength - position) {
+                    throw new IOException("Damaged pack delta");
+                }
+                if (op == OP_COPY) {
+                    if (offset > source.length - length) {
+                        throw new IOException("Damaged pack delta");
+                    }
+                    System.arraycopy(source, offset, target, position, length);
+                } else if (op == OP_ADD) {
+                    in.get(target, position, length);
+                } else {
+                    throw new IOException("Damaged pack delta");
+                }
+                position += length;
+            }
+            if (position != targetLength) {
+                throw new IOException("Damaged pack delta");
+            }
+            return target;
+        } catch (RuntimeException e) {
+            // Reading past the end of a truncated delta
+            throw new IOException("Damaged pack delta", e);
+        }
+    }
+
+    // Create the delta that turns source into target. Used when publishing a new version of a pack.
+    public static byte[] create(byte[] source, byte[] target) {
+        // First offset of every aligned block of the old version, by content
+        Map<Integer, Integer> blocks = new HashMap<>();
+        for (int offset = 0; offset + BLOCK_SIZE <= source.length; offset += BLOCK_SIZE) {
+            Integer hash = hash(source, offset);
+            if (!blocks.containsKey(hash)) {
+                blocks.put(hash, offset);
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_SIZE + target.length / 8);
+        writeInt(out, MAGIC);
+        writeInt(out, VERSION);
+        writeInt(out, source.length);
+        writeInt(out, crc(source));
+        writeInt(out, target.length);
+
+        int added = 0; // start of the target bytes not covered by an instruction yet
+        int position = 0;
+        while (position + BLOCK_SIZE <= target.length) {
+            Integer match = blocks.get(hash(target, position));
+            if (match == null || !regionMatches(source, match, target, position, BLOCK_SIZE)) {
+                position++;
+                continue;
+            }
+            // Grow the match in both directions, backwards only over bytes not written yet
+            int sourceStart = match;
+            int targetStart = position;
+            while (targetStart > added && sourceStart > 0 && source[sourceStart - 1] == target[targetStart - 1]) {
+                sourceStart--;
+                targetStart--;
+            }
+            int end = position + BLOCK_SIZE;
+            int sourceEnd = match + BLOCK_SIZE;
+            while (end < target.length && sourceEnd < source.length && source[sourceEnd] == target[end]) {
+                end++;
+                sourceEnd++;
+            }
+            writeAdd(out, target, added, targetStart);
+            out.write(OP_COPY);
+            writeVarint(out, sourceStart);
+            writeVarint(out, end - targetStart);
+            added = end;
+            position = end;
+        }
+        writeAdd(out, target, added, target.length);
+        out.write(OP_END);
+        return out.toByteArray();
+    }
+
+    // Write an ADD instruction for target[start, end), if that range is not empty
+    private static void writeAdd(ByteArrayOutputStream out, byte[] target, int start, int end) {
+        if (end > start) {
+            out.write(OP_ADD);
+            writeVarint(out, end - start);
+            out.write(target, start, end - start);
+        }
+    }
+
+    private static int hash(byte[] data, int offset) {
+        int hash = 1;
+        for (int i = offset; i < offset + BLOCK_SIZE; i++) {
+            hash = 31 * hash + data[i];
+        }
+        return hash;
+    }
+
+    private static boolean regionMatches(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int crc(byte[] data) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length);
+        return (int) crc.getValue();
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    // Write an unsigned LEB128 varint: seven bits per byte, high bit set on every byte but the last
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    throw new IOException("Damaged pack delta");
+                }
+                return value;
+            }
+        }
+        throw new IOException("Damaged pack delta");
+    }
+}
@@ -0,0 +1,328 @@
+package com.chwazi.app;
+
+// Import necessary Java and Gson classes
+import com.google.gson.stream.JsonReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// This class installs extra question packs from a server into app storage and keeps them up to date.
+// The server publishes a catalog listing every pack with its current version, size and SHA-256:
+//   [{"id": "animals", "version": 3, "size": 12345, "sha256": "...", "deltas": [1, 2]}, ...]
+// A pack is downloaded whole from packs/<id>/<version>.qpack the first time. Later versions are
+// downloaded as a PackDelta from packs/<id>/<from>-<to>.qdelta when the catalog lists one for the
+// installed version, and whole otherwise (or when the patched pack does not match its checksum).
+// Every pack is checked against the catalog before it is installed, written under a temporary
+// name, synced and renamed into place, so an interrupted update never leaves a broken pack behind.
+// Installed packs are named <id>-<version>.qpack and are read by QuestionRepository with QuestionPack.
+public class PackManager {
+
+    // Path of the catalog on the server
+    public static final String CATALOG_PATH = "catalog.json";
+
+    private static final String PACK_EXTENSION = ".qpack";
+    private static final String TMP_EXTENSION = ".tmp";
+    // Pack IDs become file names, so they are restricted to a safe alphabet
+    private static final String ID_PATTERN = "[a-z0-9_]+";
+
+    // Network limits, an update runs in the background and must never hang or fill the storage
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int READ_TIMEOUT_MS = 20_000;
+    private static final int MAX_PACK_SIZE = 32 * 1024 * 1024;
+
+    // A pack installed in app storage
+    public static class InstalledPack {
+        public final String id;
+        public final int version;
+        public final File file;
+
+        InstalledPack(String id, int version, File file) {
+            this.id = id;
+            this.version = version;
+            this.file = file;
+        }
+    }
+
+    // The outcome of an update, the bytes downloaded include the catalog
+    public static class UpdateResult {
+        public int downloaded;
+        public int patched;
+        public int failed;
+        public long bytesDownloaded;
+    }
+
+    // A pack listed in the server's catalog
+    private static class CatalogEntry {
+        String id;
+        int version;
+        int size;
+        String sha256;
+        final List<Integer> deltas = new ArrayList<>();
+    }
+
+    private final File directory;
+    private final String baseUrl;
+
+    // Create a manager that installs packs into a directory from a server, baseUrl ends with a slash
+    public PackManager(File directory, String baseUrl) {
+        this.directory = directory;
+        this.baseUrl = baseUrl;
+    }
+
+    // Return the newest installed version of every pack, sorted by ID.
+    // Only reads the directory listing, so it is cheap enough to call when opening the question bank.
+    public List<InstalledPack> getInstalledPacks() {
+        Map<String, InstalledPack> newest = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        for (File file : files) {
+            InstalledPack pack = parseName(file);
+            if (pack != null) {
+                InstalledPack other = newest.get(pack.id);
+                if (other == null || other.version < pack.version) {
+                    newest.put(pack.id, pack);
+                }
+            }
+        }
+        return new ArrayList<>(newest.values());
+    }
+
+    // Bring every pack of the catalog up to date. A pack that cannot be updated keeps its installed
+    // version and is counted as failed; only a catalog that cannot be read fails the whole update.
+    // This does network and disk I/O, call it off the main thread.
+    public UpdateResult update() throws IOException {
+        UpdateResult result = new UpdateResult();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        deleteLeftovers();
+
+        byte[] catalog = download(CATALOG_PATH, MAX_PACK_SIZE);
+        result.bytesDownloaded += catalog.length;
+        List<InstalledPack> installed = getInstalledPacks();
+        for (CatalogEntry entry : readCatalog(catalog)) {
+            InstalledPack current = null;
+            for (InstalledPack pack : installed) {
+                if (pack.id.equals(entry.id)) {
+                    current = pack;
+                }
+            }
+            if (current != null && current.version >= entry.version) {
+                continue;
+            }
+            try {
+                updatePack(entry, current, result);
+            } catch (IOException e) {
+                result.failed++;
+            }
+        }
+        return result;
+    }
+
+    // Install the catalog's version of a pack, patching the installed version when a delta is published
+    private void updatePack(CatalogEntry entry, InstalledPack current, UpdateResult result) throws IOException {
+        byte[] pack = null;
+        if (current != null && entry.deltas.contains(current.version)) {
+            try {
+                byte[] delta = download("packs/" + entry.id + "/" + current.version + "-" + entry.version + ".qdelta",
+                        MAX_PACK_SIZE);
+                result.bytesDownloaded += delta.length;
+                byte[] patched = PackDelta.apply(readFile(current.file), delta, entry.size);
+                if (matches(entry, patched)) {
+                    pack = patched;
+                    result.patched++;
+                }
+            } catch (IOException e) {
+                // Fall back to the whole pack below
+                pack = null;
+            }
+        }
+        if (pack == null) {
+            pack = download("packs/" + entry.id + "/" + entry.version + PACK_EXTENSION, entry.size);
+            result.bytesDownloaded += pack.length;
+            if (!matches(entry, pack)) {
+                throw new IOException("Checksum mismatch for pack " + entry.id);
+            }
+            result.downloaded++;
+        }
+        // Refuse anything the app could not read, even with a matching checksum
+        new QuestionPack(ByteBuffer.wrap(pack)).verify();
+        install(entry, pack, current);
+    }
+
+    // Write a verified pack next to the installed one and rename it into place, then drop the old version
+    private void install(CatalogEntry entry, byte[] pack, InstalledPack current) throws IOException {
+        File file = new File(directory, entry.id + "-" + entry.version + PACK_EXTENSION);
+        File tmp = new File(directory, file.getName() + TMP_EXTENSION);
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(pack);
+            // The rename must not reach the disk before the data does
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Could not install " + file);
+        }
+        // A reader that mapped the old version keeps its mapping after the file is deleted
+        if (current != null) {
+            current.file.delete();
+        }
+    }
+
+    // Whether downloaded or patched bytes are exactly the pack the catalog describes
+    private static boolean matches(CatalogEntry entry, byte[] pack) {
+        return pack.length == entry.size && sha256(pack).equalsIgnoreCase(entry.sha256);
+    }
+
+    // Remove temporary files of an interrupted update
+    private void deleteLeftovers() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(TMP_EXTENSION)) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    // Parse "<id>-<version>.qpack", null for any other file
+    private static InstalledPack parseName(File file) {
+        String name = file.getName();
+        if (!name.endsWith(PACK_EXTENSION)) {
+            return null;
+        }
+        int dash = name.lastIndexOf('-');
+        if (dash <= 0) {
+            return null;
+        }
+        String id = name.substring(0, dash);
+        try {
+            int version = Integer.parseInt(name.substring(dash + 1, name.length() - PACK_EXTENSION.length()));
+            return id.matches(ID_PATTERN) && version >= 0 ? new InstalledPack(id, version, file) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Parse the catalog, entries with an unusable ID or version are skipped
+    private static List<CatalogEntry> readCatalog(byte[] catalog) throws IOException {
+        List<CatalogEntry> entries = new ArrayList<>();
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(catalog), StandardCharsets.UTF_8))) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                CatalogEntry entry = new CatalogEntry();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "id":
+                            entry.id = reader.nextString();
+                            break;
+                        case "version":
+                            entry.version = reader.nextInt();
+                            break;
+                        case "size":
+                            entry.size = reader.nextInt();
+                            break;
+                        case "sha256":
+                            entry.sha256 = reader.nextString();
+                            break;
+                        case "deltas":
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                entry.deltas.add(reader.nextInt());
+                            }
+                            reader.endArray();
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (entry.id != null && entry.id.matches(ID_PATTERN) && entry.version >= 0
+                        && entry.size > 0 && entry.size <= MAX_PACK_SIZE && entry.sha256 != null) {
+                    entries.add(entry);
+                }
+            }
+            reader.endArray();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed pack catalog", e);
+        }
+        return entries;
+    }
+
+    // Download a file from the server, refusing anything larger than maxSize bytes
+    private byte[] download(String path, int maxSize) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        try {
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("HTTP " + status + " for " + path);
+            }
+            long length = connection.getContentLengthLong();
+            if (length > maxSize) {
+                throw new IOException(path + " is larger than expected");
+            }
+            try (InputStream in = connection.getInputStream()) {
+                return readAll(in, maxSize, length > 0 ? (int) length : 8192);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return readAll(in, MAX_PACK_SIZE, (int) Math.min(file.length(), MAX_PACK_SIZE));
+        }
+    }
+
+    private static byte[] readAll(InputStream in, int maxSize, int expectedSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(expectedSize, 32));
+        byte[] chunk = new byte[8192];
+        int read;
+        while ((read = in.read(chunk)) > 0) {
+            if (out.size() + read > maxSize) {
+                throw new IOException("Download is larger than expected");
+            }
+            out.write(chunk, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    // Lower-case hex SHA-256 of some bytes
+    static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java and Android runtime provides SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.chwazi.app;
+
+// This class generates the participant colors.
+// Colors are picked in the OKLab color space, where equal distances look equally different, with hues
+// stepped by the golden angle so every new color lands far from the ones before it. Large tables also
+// alternate lightness, so even 20 colors stay easy to tell apart.
+public final class ParticipantPalette {
+
+    // Golden angle in radians, successive hues never cluster
+    private static final double GOLDEN_ANGLE = Math.PI * (3 - Math.sqrt(5));
+    // Starting hue, chosen so the first color is a warm red like the original palette
+    private static final double START_HUE = 0.5;
+    // Chroma of the generated colors, reduced when a color falls outside sRGB
+    private static final double CHROMA = 0.17;
+    // Lightness levels, only the first one is used for small tables
+    private static final double[] LIGHTNESS = {0.68, 0.82, 0.55};
+    // Above this many participants, lightness is varied as well as hue
+    private static final int SINGLE_LIGHTNESS_LIMIT = 8;
+
+    private ParticipantPalette() {
+    }
+
+    // Generate count opaque ARGB colors
+    public static int[] generate(int count) {
+        int[] colors = new int[count];
+        for (int i = 0; i < count; i++) {
+            double hue = START_HUE + i * GOLDEN_ANGLE;
+            double lightness = count <= SINGLE_LIGHTNESS_LIMIT ? LIGHTNESS[0] : LIGHTNESS[i % LIGHTNESS.length];
+            colors[i] = oklchToArgb(lightness, CHROMA, hue);
+        }
+        return colors;
+    }
+
+    // Convert an OKLCh color to ARGB, lowering the chroma until it fits in sRGB
+    private static int oklchToArgb(double lightness, double chroma, double hue) {
+        double[] rgb = new double[3];
+        for (double c = chroma; c >= 0; c -= 0.01) {
+            oklabToLinearRgb(lightness, c * Math.cos(hue), c * Math.sin(hue), rgb);
+            if (inGamut(rgb)) {
+                break;
+            }
+        }
+        return 0xFF000000
+                | (toSrgbByte(rgb[0]) << 16)
+                | (toSrgbByte(rgb[1]) << 8)
+                | toSrgbByte(rgb[2]);
+    }
+
+    // OKLab to linear sRGB, see https://bottosson.github.io/posts/oklab/
+    private static void oklabToLinearRgb(double l, double a, double b, double[] out) {
+        double lp = l + 0.3963377774 * a + 0.2158037573 * b;
+        double mp = l - 0.1055613458 * a - 0.0638541728 * b;
+        double sp = l - 0.0894841775 * a - 1.2914855480 * b;
+        double l3 = lp * lp * lp;
+        double m3 = mp * mp * mp;
+        double s3 = sp * sp * sp;
+        out[0] = 4.0767416621 * l3 - 3.3077115913 * m3 + 0.2309699292 * s3;
+        out[1] = -1.2684380046 * l3 + 2.6097574011 * m3 - 0.3413193965 * s3;
+        out[2] = -0.0041960863 * l3 - 0.7034186147 * m3 + 1.7076147010 * s3;
+    }
+
+    private static boolean inGamut(double[] rgb) {
+        for (double channel : rgb) {
+            if (channel < 0 || channel > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Apply the sRGB transfer function and quantize to a byte
+    private static int toSrgbByte(double linear) {
+        linear = Math.max(0, Math.min(1, linear));
+        double srgb = linear <= 0.0031308 ? 12.92 * linear : 1.055 * Math.pow(linear, 1 / 2.4) - 0.055;
+        return (int) Math.round(srgb * 255);
+    }
+}
@@ -0,0 +1,90 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.Arrays;
+
+// This class holds the state of every participant in a game: name, color and score.
+// Participants are identified by a dense int ID (their circle index), so two players with the same
+// name still keep separate scores, and every lookup on the answer path is a plain array access.
+// The ranking by score is maintained incrementally by a ScoreRanking as points are added.
+public class ParticipantRoster {
+
+    // Per participant data, indexed by participant ID
+    private String[] names = new String[0];
+    private int[] colors = new int[0];
+
+    // Scores and the participants ordered by them, kept up to date on every point
+    private final ScoreRanking ranking = new ScoreRanking();
+
+    // Start a new game with the given number of participants and their colors.
+    // Names and scores are cleared, arrays are only reallocated when the count changes.
+    public void reset(int count, int[] participantColors) {
+        if (names.length != count) {
+            names = new String[count];
+        } else {
+            Arrays.fill(names, null);
+        }
+        colors = participantColors.clone();
+        ranking.reset(count);
+    }
+
+    // Number of participants in the game
+    public int getCount() {
+        return names.length;
+    }
+
+    // Set the name a participant entered, participants may be named in any order
+    public void setName(int participant, String name) {
+        names[participant] = name;
+    }
+
+    // Name of a participant, or null if they have not entered one yet
+    public String getName(int participant) {
+        return names[participant];
+    }
+
+    // Whether a participant has entered a name
+    public boolean hasName(int participant) {
+        return names[participant] != null && !names[participant].isEmpty();
+    }
+
+    // Color of a participant's circle
+    public int getColor(int participant) {
+        return colors[participant];
+    }
+
+    // Colors of all participants, indexed by participant ID
+    public int[] getColors() {
+        return colors;
+    }
+
+    // Score of a participant
+    public int getScore(int participant) {
+        return ranking.getScore(participant);
+    }
+
+    // Give a participant one point for a correct answer
+    public void addPoint(int participant) {
+        ranking.increment(participant);
+    }
+
+    // Participant ID at the given rank, 0 being the highest score
+    public int getRanked(int rank) {
+        return ranking.getParticipant(rank);
+    }
+
+    // Rank of a participant, 0 being the highest score
+    public int getRank(int participant) {
+        return ranking.getRank(participant);
+    }
+
+    // Participant with the highest score, or -1 without participants
+    public int getLeader() {
+        return ranking.getLeader();
+    }
+
+    // Whether more than one participant shares the highest score
+    public boolean isLeaderTied() {
+        return ranking.isLeaderTied();
+    }
+}
@@ -0,0 +1,99 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// This class instruments the phases of the app.
+// Every phase is a systrace section (visible in Perfetto or systrace) and is also recorded in a
+// process-wide PerfRecorder, whose histograms are exported to a local file that the debug build can
+// show on screen, so the phases can be measured on any device without attaching a profiler.
+public final class Perf {
+
+    // Export of the recorder, in the app's files directory
+    private static final String EXPORT_FILE = "perf/metrics.txt";
+
+    private static final PerfRecorder RECORDER = new PerfRecorder();
+
+    // Cold start is measured only for the first MainActivity of the process
+    private static boolean coldStartRecorded;
+
+    private Perf() {
+    }
+
+    // Start a phase on the current thread, returns the start time to pass to end()
+    public static long begin(PerfRecorder.Phase phase) {
+        Trace.beginSection(phase.getTraceName());
+        return System.nanoTime();
+    }
+
+    // End a phase started with begin() on the same thread
+    public static void end(PerfRecorder.Phase phase, long start) {
+        Trace.endSection();
+        RECORDER.record(phase, System.nanoTime() - start);
+    }
+
+    // Record a phase that ends when the view draws its next frame, for phases that span several callbacks
+    public static void endOnNextDraw(View view, PerfRecorder.Phase phase, long start) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                RECORDER.record(phase, System.nanoTime() - start);
+                return true;
+            }
+        });
+    }
+
+    // Turn a time in the SystemClock.uptimeMillis() time base, such as the time of a touch event,
+    // into a start time for end() or endOnNextDraw()
+    public static long startAtUptime(long uptimeMillis) {
+        return System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(SystemClock.uptimeMillis() - uptimeMillis);
+    }
+
+    // Record the time from process start to the next frame of the given view, once per process
+    public static void recordColdStart(View view) {
+        if (coldStartRecorded) {
+            return;
+        }
+        coldStartRecorded = true;
+        endOnNextDraw(view, PerfRecorder.Phase.COLD_START, startAtUptime(Process.getStartUptimeMillis()));
+    }
+
+    // The recorder of this process
+    public static PerfRecorder getRecorder() {
+        return RECORDER;
+    }
+
+    // File the recorder is exported to
+    public static File getExportFile(Context context) {
+        return new File(context.getFilesDir(), EXPORT_FILE);
+    }
+
+    // Write the recorder to the export file, with the counters as they are now. This does disk I/O.
+    public static void export(Context context) throws IOException {
+        QuestionRepository.getInstance(context).reportCacheCounters(RECORDER);
+        RECORDER.writeTo(getExportFile(context));
+    }
+
+    // Write the recorder to the export file in the background
+    public static void exportAsync(Context context) {
+        Context appContext = context.getApplicationContext();
+        AsyncLoader.prefetch(() -> {
+            try {
+                export(appContext);
+            } catch (IOException e) {
+                Log.w("Perf", "Cannot export performance metrics", e);
+            }
+        });
+    }
+}
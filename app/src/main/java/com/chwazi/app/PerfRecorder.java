@@ -0,0 +1,282 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// This class records how long the phases of the app take, in memory and without allocating.
+// Every phase has a histogram with power-of-two buckets in microseconds (1us, 2us, 4us, ... ~35 minutes),
+// plus count, total, min and max, which is enough for percentiles with at most 2x error and keeps
+// recording to a few array writes. Counters kept elsewhere in the app, such as the question cache's
+// hits, are copied in before an export. Both can be exported to a plain text file and read back.
+public class PerfRecorder {
+
+    // Phases of the app that are measured
+    public enum Phase {
+        // From process start to the first frame of MainActivity
+        COLD_START("chwazi:coldStart"),
+        // Reading and parsing questions from the assets
+        ASSET_LOAD("chwazi:assetLoad"),
+        // From CategorySelectionActivity.onCreate to the first frame with the category grid
+        CATEGORY_GRID("chwazi:categoryGrid"),
+        // Starting a game and laying out the participant circles
+        CIRCLE_LAYOUT("chwazi:circleLayout"),
+        // Showing the question dialog
+        QUESTION_DIALOG("chwazi:questionDialog"),
+        // Showing the scoreboard
+        SCOREBOARD_DIALOG("chwazi:scoreboardDialog"),
+        // From the touch event of the last finger down to the first frame showing the chosen participant.
+        // This includes the ChwaziTouchView.COUNTDOWN_MS countdown, the rest is input, scheduling and drawing.
+        SELECTION_LATENCY("chwazi:selectionLatency");
+
+        private final String traceName;
+
+        Phase(String traceName) {
+            this.traceName = traceName;
+        }
+
+        // Name of the phase's systrace section
+        public String getTraceName() {
+            return traceName;
+        }
+    }
+
+    // Counters of the app, set from their owner before an export
+    public enum Counter {
+        // Lookups of the question cache of the current locale that found, or did not find, the category
+        QUESTION_CACHE_HITS,
+        QUESTION_CACHE_MISSES,
+        // Categories dropped from the question cache to stay within its limits
+        QUESTION_CACHE_EVICTIONS
+    }
+
+    // Number of histogram buckets, bucket i counts durations below 2^i microseconds
+    public static final int BUCKET_COUNT = 32;
+
+    // Format line written at the top of an export
+    private static final String HEADER = "# chwazi-perf v1";
+
+    private final long[][] buckets = new long[Phase.values().length][BUCKET_COUNT];
+    private final long[] counts = new long[Phase.values().length];
+    private final long[] totalNanos = new long[Phase.values().length];
+    private final long[] minNanos = new long[Phase.values().length];
+    private final long[] maxNanos = new long[Phase.values().length];
+    private final long[] counters = new long[Counter.values().length];
+
+    public PerfRecorder() {
+        clear();
+    }
+
+    // Record one duration of a phase
+    public synchronized void record(Phase phase, long nanos) {
+        int p = phase.ordinal();
+        nanos = Math.max(0, nanos);
+        buckets[p][bucketOf(nanos)]++;
+        counts[p]++;
+        totalNanos[p] += nanos;
+        minNanos[p] = Math.min(minNanos[p], nanos);
+        maxNanos[p] = Math.max(maxNanos[p], nanos);
+    }
+
+    // Forget everything recorded so far
+    public synchronized void clear() {
+        for (int p = 0; p < counts.length; p++) {
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                buckets[p][b] = 0;
+            }
+            counts[p] = 0;
+            totalNanos[p] = 0;
+            minNanos[p] = Long.MAX_VALUE;
+            maxNanos[p] = 0;
+        }
+        for (int c = 0; c < counters.length; c++) {
+            counters[c] = 0;
+        }
+    }
+
+    // Set a counter to its owner's current value
+    public synchronized void setCounter(Counter counter, long value) {
+        counters[counter.ordinal()] = value;
+    }
+
+    public synchronized long getCounter(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    // Getters for the statistics of a phase
+    public synchronized long getCount(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    public synchronized long getMeanNanos(Phase phase) {
+        int p = phase.ordinal();
+        return counts[p] == 0 ? 0 : totalNanos[p] / counts[p];
+    }
+
+    public synchronized long getMinNanos(Phase phase) {
+        int p = phase.ordinal();
+        return counts[p] == 0 ? 0 : minNanos[p];
+    }
+
+    public synchronized long getMaxNanos(Phase phase) {
+        return maxNanos[phase.ordinal()];
+    }
+
+    public synchronized long getBucketCount(Phase phase, int bucket) {
+        return buckets[phase.ordinal()][bucket];
+    }
+
+    // Duration below which the given fraction of the phase's samples fall, rounded up to a bucket bound
+    public synchronized long getPercentileNanos(Phase phase, double fraction) {
+        int p = phase.ordinal();
+        if (counts[p] == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(fraction * counts[p]));
+        long seen = 0;
+        for (int b = 0; b < BUCKET_COUNT; b++) {
+            seen += buckets[p][b];
+            if (seen >= rank) {
+                // The bucket's upper bound, but never more than the slowest sample
+                return Math.min(bucketUpperNanos(b), maxNanos[p]);
+            }
+        }
+        return maxNanos[p];
+    }
+
+    // Write every phase to a text file: one summary line and one line of bucket counts per phase,
+    // then one line per counter
+    public synchronized void writeTo(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            out.write(HEADER);
+            out.write('\n');
+            for (Phase phase : Phase.values()) {
+                int p = phase.ordinal();
+                out.write(String.format(Locale.US, "%s count=%d mean=%d min=%d max=%d p50=%d p90=%d p99=%d\n",
+                        phase.name(), counts[p], getMeanNanos(phase), getMinNanos(phase), maxNanos[p],
+                        getPercentileNanos(phase, 0.5), getPercentileNanos(phase, 0.9), getPercentileNanos(phase, 0.99)));
+                StringBuilder line = new StringBuilder(phase.name()).append(" buckets=");
+                for (int b = 0; b < BUCKET_COUNT; b++) {
+                    if (b > 0) {
+                        line.append(',');
+                    }
+                    line.append(buckets[p][b]);
+                }
+                out.write(line.append('\n').toString());
+            }
+            for (Counter counter : Counter.values()) {
+                out.write(String.format(Locale.US, "%s value=%d\n", counter.name(), counters[counter.ordinal()]));
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Cannot replace " + file);
+        }
+    }
+
+    // Merge an exported file into this recorder, for example the export of an earlier run
+    public synchronized void readFrom(File file) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String header = in.readLine();
+            if (!HEADER.equals(header)) {
+                throw new IOException("Not a performance export: " + file);
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                int space = line.indexOf(' ');
+                if (space < 0) {
+                    continue;
+                }
+                String name = line.substring(0, space);
+                String fields = line.substring(space + 1);
+                Phase phase = lookUp(Phase.class, name);
+                Counter counter = lookUp(Counter.class, name);
+                if (phase != null) {
+                    mergeLine(phase.ordinal(), fields);
+                } else if (counter != null && fields.startsWith("value=")) {
+                    counters[counter.ordinal()] += Long.parseLong(fields.substring("value=".length()));
+                }
+                // Anything else is a phase or counter from another version of the app
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Corrupt performance export: " + file, e);
+        }
+    }
+
+    // The constant of the given name, or null if this version of the app has none
+    private static <E extends Enum<E>> E lookUp(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Merge one line of an export into phase p
+    private void mergeLine(int p, String fields) {
+        if (fields.startsWith("buckets=")) {
+            String[] values = fields.substring("buckets=".length()).split(",");
+            for (int b = 0; b < Math.min(values.length, BUCKET_COUNT); b++) {
+                buckets[p][b] += Long.parseLong(values[b]);
+            }
+            return;
+        }
+        long count = 0;
+        long mean = 0;
+        for (String field : fields.split(" ")) {
+            int eq = field.indexOf('=');
+            if (eq < 0) {
+                continue;
+            }
+            String key = field.substring(0, eq);
+            long value = Long.parseLong(field.substring(eq + 1));
+            switch (key) {
+                case "count":
+                    count = value;
+                    break;
+                case "mean":
+                    mean = value;
+                    break;
+                case "min":
+                    if (count > 0) {
+                        minNanos[p] = Math.min(minNanos[p], value);
+                    }
+                    break;
+                case "max":
+                    maxNanos[p] = Math.max(maxNanos[p], value);
+                    break;
+                default:
+                    break;
+            }
+        }
+        counts[p] += count;
+        totalNanos[p] += mean * count;
+    }
+
+    // Bucket of a duration: 0 for below 1us, then one bucket per power of two microseconds
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        if (micros == 0) {
+            return 0;
+        }
+        int bucket = 64 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    // Upper bound of a bucket in nanoseconds
+    static long bucketUpperNanos(int bucket) {
+        return (1L << bucket) * 1000;
+    }
+}
@@ -3,7 +3,9 @@ package com.chwazi.app;
 // Import the List class from Java's utility package
 import java.util.List;
 
-// This class represents a single question in the game
+// This class represents a single question in the game.
+// A question either holds its own values, as built by the loaders, or is a view over a position
+// in a CompactQuestionBank and reads its values from the bank when asked.
 public class Question {
     // Variable to store the text of the question
     private String question;
@@ -11,19 +13,38 @@ public class Question {
     private List<String> options;
     // Variable to store the index of the correct answer in the options list
     private int correctAnswer;
+    // Bank the question is read from and its position there, null for a question holding its own values.
+    // Transient, so parsing JSON straight into questions leaves them out.
+    private final transient CompactQuestionBank bank;
+    private final transient int index;
+
+    // Constructor used by the streaming loader to build a question directly
+    public Question(String question, List<String> options, int correctAnswer) {
+        this.question = question;
+        this.options = options;
+        this.correctAnswer = correctAnswer;
+        this.bank = null;
+        this.index = -1;
+    }
+
+    // Constructor for a view over the question at a position in a compact bank
+    Question(CompactQuestionBank bank, int index) {
+        this.bank = bank;
+        this.index = index;
+    }
 
     // Getter method to retrieve the question text
     public String getQuestion() {
-        return question;
+        return bank != null ? bank.getText(index) : question;
     }
 
     // Getter method to retrieve the list of answer options
     public List<String> getOptions() {
-        return options;
+        return bank != null ? bank.getOptions(index) : options;
     }
 
     // Getter method to retrieve the index of the correct answer
     public int getCorrectAnswer() {
-        return correctAnswer;
+        return bank != null ? bank.getCorrectAnswer(index) : correctAnswer;
     }
 }
@@ -0,0 +1,138 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// This class is a small LRU cache of per-category question lists.
+// It is bounded both by the number of categories it holds and by an estimate of their size in bytes,
+// and keeps hit, miss and eviction counters so the cache can be tuned.
+public class QuestionCache {
+
+    // Rough per-object overheads used when estimating the size of a cached list
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int REFERENCE_SIZE = 4;
+
+    // Entries in access order, so the first entry is always the least recently used
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Maximum number of categories and estimated bytes the cache may hold
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // Estimated bytes currently held
+    private long currentBytes;
+
+    // Counters for cache behaviour
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    // A cached list together with its estimated size
+    private static class Entry {
+        final List<Question> questions;
+        final long bytes;
+
+        Entry(List<Question> questions, long bytes) {
+            this.questions = questions;
+            this.bytes = bytes;
+        }
+    }
+
+    // Constructor for the cache, takes the entry count and byte limits
+    public QuestionCache(int maxEntries, long maxBytes) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    // Return the cached questions for a category, or null on a miss
+    public synchronized List<Question> get(String category) {
+        Entry entry = entries.get(category);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.questions;
+    }
+
+    // Store the questions for a category and evict old entries until the cache fits its limits again
+    public synchronized void put(String category, List<Question> questions) {
+        Entry previous = entries.remove(category);
+        if (previous != null) {
+            currentBytes -= previous.bytes;
+        }
+        Entry entry = new Entry(questions, estimateBytes(questions));
+        entries.put(category, entry);
+        currentBytes += entry.bytes;
+        trimToLimits();
+    }
+
+    // Remove every entry, for example when the source data changes
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    // Evict least recently used entries while the cache is over either limit.
+    // The most recently added entry is always kept, even if it alone exceeds the byte limit.
+    private void trimToLimits() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && entries.size() > 1 && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            currentBytes -= eldest.bytes;
+            evictionCount++;
+        }
+    }
+
+    // Estimate the retained size of a list of questions in bytes.
+    // A list from a CompactQuestionBank retains the whole bank, whatever its questions look like.
+    static long estimateBytes(List<Question> questions) {
+        CompactQuestionBank bank = CompactQuestionBank.bankOf(questions);
+        if (bank != null) {
+            return bank.estimateBytes();
+        }
+        long bytes = OBJECT_OVERHEAD + (long) questions.size() * REFERENCE_SIZE;
+        for (Question question : questions) {
+            bytes += OBJECT_OVERHEAD + estimateString(question.getQuestion());
+            List<String> options = question.getOptions();
+            if (options != null) {
+                bytes += OBJECT_OVERHEAD + (long) options.size() * REFERENCE_SIZE;
+                for (String option : options) {
+                    bytes += estimateString(option);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // Estimate the retained size of a single string in bytes
+    private static long estimateString(String value) {
+        return value == null ? 0 : STRING_OVERHEAD + 2L * value.length();
+    }
+
+    // Getters for the cache counters and current size
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+}
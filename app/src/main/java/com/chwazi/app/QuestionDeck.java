@@ -0,0 +1,147 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.SplittableRandom;
+
+// This class deals the questions of a category in a random order, as indices into the category's
+// question list, so the questions themselves are never copied or reordered.
+// It shuffles one step per draw (an incremental Fisher-Yates shuffle), so drawing is O(1) and a game
+// that ends early never pays for shuffling the whole category. Questions already seen in earlier
+// games, kept in a bitset that is persisted by QuestionHistory, are dealt only once every unseen
+// question has been dealt; after that the history starts over.
+public class QuestionDeck {
+
+    private final SplittableRandom random;
+    private final int size;
+
+    // Question indices: [0, drawn) were dealt in this game, [drawn, freshEnd) are unseen
+    // and [freshEnd, size) were seen in earlier games
+    private final int[] order;
+    private int drawn;
+    private int freshEnd;
+
+    // One bit per question, set once the question has been dealt
+    private final long[] seen;
+    private int seenCount;
+
+    // Create a deck for a category of the given size with nothing seen yet
+    public QuestionDeck(int size, SplittableRandom random) {
+        this(size, new long[wordCount(size)], random);
+    }
+
+    // Create a deck over a seen bitset, for example one kept by QuestionHistory.
+    // The deck sets bits in the given array as it deals.
+    public QuestionDeck(int size, long[] seen, SplittableRandom random) {
+        if (seen.length < wordCount(size)) {
+            throw new IllegalArgumentException("Seen bitset is too small for " + size + " questions");
+        }
+        this.random = random;
+        this.size = size;
+        this.seen = seen;
+        order = new int[size];
+        // Unseen questions go to the front and seen ones to the back, in one pass
+        int front = 0;
+        int back = size;
+        for (int i = 0; i < size; i++) {
+            if (isSeen(i)) {
+                order[--back] = i;
+                seenCount++;
+            } else {
+                order[front++] = i;
+            }
+        }
+        freshEnd = front;
+    }
+
+    // Number of bitset words needed for a category of the given size
+    public static int wordCount(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    // Whether there is a question left that was not dealt in this game
+    public boolean hasNext() {
+        return drawn < size;
+    }
+
+    // Deal the next question and mark it as seen, returns its index in the category
+    public int next() {
+        if (drawn == size) {
+            throw new IllegalStateException("Every question was dealt");
+        }
+        if (drawn == freshEnd) {
+            // Everything was seen, start the history over with the questions this game has not dealt
+            startOver();
+        }
+        int pick = drawn + random.nextInt(freshEnd - drawn);
+        int question = order[pick];
+        order[pick] = order[drawn];
+        order[drawn++] = question;
+        markSeen(question);
+        return question;
+    }
+
+    // Deal a given question as if next() had returned it, used to restore a game from its journal.
+    // Returns false if it was already dealt in this game.
+    public boolean take(int question) {
+        int position = drawn;
+        while (position < size && order[position] != question) {
+            position++;
+        }
+        if (position == size) {
+            return false;
+        }
+        if (position >= freshEnd) {
+            // Seen in an earlier game: move it to the front of the seen part and grow the fresh part over it
+            order[position] = order[freshEnd];
+            order[freshEnd++] = question;
+            position = freshEnd - 1;
+        }
+        order[position] = order[drawn];
+        order[drawn++] = question;
+        markSeen(question);
+        return true;
+    }
+
+    // Whether the question was dealt in this game or an earlier one
+    public boolean isSeen(int question) {
+        return (seen[question >>> 6] & (1L << question)) != 0;
+    }
+
+    // Getters for the state of the deck
+    public int size() {
+        return size;
+    }
+
+    public int getDrawnCount() {
+        return drawn;
+    }
+
+    public int getSeenCount() {
+        return seenCount;
+    }
+
+    // The seen bitset, shared with whoever passed it in
+    public long[] getSeen() {
+        return seen;
+    }
+
+    private void markSeen(int question) {
+        long bit = 1L << question;
+        int word = question >>> 6;
+        if ((seen[word] & bit) == 0) {
+            seen[word] |= bit;
+            seenCount++;
+        }
+    }
+
+    // Forget the history of every question not dealt in this game, they are all fresh again.
+    // This is linear, but happens once per pass through the category.
+    private void startOver() {
+        for (int i = drawn; i < size; i++) {
+            int question = order[i];
+            seen[question >>> 6] &= ~(1L << question);
+        }
+        seenCount = drawn;
+        freshEnd = size;
+    }
+}
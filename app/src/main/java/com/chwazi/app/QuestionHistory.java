@@ -0,0 +1,129 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+// This class remembers which questions of every category were already asked, across games and
+// launches, as one bitset per category (a category of 1000 questions costs 125 bytes).
+// QuestionDeck sets the bits as it deals; the whole history is a single small file that is
+// written under a temporary name and renamed into place.
+public class QuestionHistory {
+
+    // File format constants
+    private static final int MAGIC = 0x51484953; // "QHIS"
+    private static final int VERSION = 1;
+
+    // A category's bitset together with the number of questions it was made for
+    private static class Entry {
+        final int size;
+        final long[] seen;
+
+        Entry(int size, long[] seen) {
+            this.size = size;
+            this.seen = seen;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // Return the seen bitset of a category, to pass to a QuestionDeck.
+    // A category whose question count changed (the bank was updated) starts over with nothing seen.
+    public synchronized long[] getSeen(String category, int size) {
+        Entry entry = entries.get(category);
+        if (entry == null || entry.size != size) {
+            entry = new Entry(size, new long[QuestionDeck.wordCount(size)]);
+            entries.put(category, entry);
+        }
+        return entry.seen;
+    }
+
+    // Number of categories with a history
+    public synchronized int getCategoryCount() {
+        return entries.size();
+    }
+
+    // Forget every question asked so far
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    // A copy of the history, taken on the thread that deals questions so it can be written on another one
+    public synchronized QuestionHistory copy() {
+        QuestionHistory copy = new QuestionHistory();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            Entry value = entry.getValue();
+            copy.entries.put(entry.getKey(), new Entry(value.size, value.seen.clone()));
+        }
+        return copy;
+    }
+
+    // Read a history file, an unreadable, corrupt or missing file is an empty history
+    public static QuestionHistory readFrom(File file) {
+        QuestionHistory history = new QuestionHistory();
+        if (!file.isFile()) {
+            return history;
+        }
+        // Counts are checked against the file length before anything is allocated from them
+        long length = file.length();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return history;
+            }
+            int count = in.readInt();
+            // Every category takes at least its name length and its size
+            if (count < 0 || count > length / 6) {
+                return history;
+            }
+            for (int i = 0; i < count; i++) {
+                String category = in.readUTF();
+                int size = in.readInt();
+                if (size < 0 || size / 8 > length) {
+                    history.entries.clear();
+                    return history;
+                }
+                long[] seen = new long[QuestionDeck.wordCount(size)];
+                for (int w = 0; w < seen.length; w++) {
+                    seen[w] = in.readLong();
+                }
+                history.entries.put(category, new Entry(size, seen));
+            }
+        } catch (IOException e) {
+            // A broken history only means questions may repeat
+            history.entries.clear();
+        }
+        return history;
+    }
+
+    // Persist the history, a crash never leaves a half written file behind
+    public synchronized void writeTo(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size);
+                for (long word : entry.getValue().seen) {
+                    out.writeLong(word);
+                }
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Could not replace " + file);
+        }
+    }
+}
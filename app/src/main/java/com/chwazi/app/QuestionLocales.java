@@ -0,0 +1,73 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+// This class picks the question bank for the app's locales.
+// Every bank is a set of files sharing a locale key: questions.json, questions.qpack and search.qidx hold
+// the default bank, in Hebrew, and questions-en.qpack or questions-pt-BR.qpack hold the bank of a locale.
+// The key of the default bank is the empty string. Banks of different locales never share a file, so
+// opening one costs the same however many others ship.
+public final class QuestionLocales {
+
+    // Language of the default bank, a Hebrew locale uses it unless a bank for its region ships
+    public static final String DEFAULT_LANGUAGE = "iw";
+    // Key of the default bank
+    public static final String DEFAULT_KEY = "";
+
+    private QuestionLocales() {
+    }
+
+    // Return the key of the bank to use for the locales in order of preference.
+    // Each locale is tried with its region, then with its language alone, before the next locale;
+    // the default bank is used when no locale has a bank of its own.
+    public static String resolve(Set<String> available, List<Locale> locales) {
+        for (Locale locale : locales) {
+            String language = normalizeLanguage(locale.getLanguage());
+            if (language.isEmpty()) {
+                continue;
+            }
+            if (!locale.getCountry().isEmpty()) {
+                String regional = language + "-" + locale.getCountry().toUpperCase(Locale.ROOT);
+                if (available.contains(regional)) {
+                    return regional;
+                }
+            }
+            if (language.equals(DEFAULT_LANGUAGE)) {
+                return DEFAULT_KEY;
+            }
+            if (available.contains(language)) {
+                return language;
+            }
+        }
+        return DEFAULT_KEY;
+    }
+
+    // Return the locale keys of the banks among a list of file names, for files named like
+    // base + extension or base-<key> + extension. The default bank is not included.
+    public static Set<String> findKeys(String[] fileNames, String base, String extension) {
+        Set<String> keys = new TreeSet<>();
+        String prefix = base + "-";
+        for (String name : fileNames) {
+            if (name.startsWith(prefix) && name.endsWith(extension)
+                    && name.length() > prefix.length() + extension.length()) {
+                keys.add(name.substring(prefix.length(), name.length() - extension.length()));
+            }
+        }
+        return keys;
+    }
+
+    // Return the name of a bank's file, for example fileName("questions", "en", ".qpack") is questions-en.qpack
+    public static String fileName(String base, String key, String extension) {
+        return key.isEmpty() ? base + extension : base + "-" + key + extension;
+    }
+
+    // Android and older JVMs report Hebrew as "iw" and newer JVMs as "he", treat both as one language
+    static String normalizeLanguage(String language) {
+        String lower = language.toLowerCase(Locale.ROOT);
+        return lower.equals("he") ? DEFAULT_LANGUAGE : lower;
+    }
+}
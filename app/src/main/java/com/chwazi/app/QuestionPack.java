@@ -0,0 +1,248 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+// This class reads the binary question pack compiled from questions.json at build time.
+// The pack is memory-mapped straight out of the APK and nothing is decoded up front:
+// a question's text and options are only turned into Strings when that question is asked for.
+// The layout is documented in QuestionPackCompiler (buildSrc) and must stay in sync with it.
+public class QuestionPack {
+
+    // Extension of every compiled pack, the pack of a locale is named as in QuestionLocales
+    public static final String PACK_EXTENSION = ".qpack";
+
+    // Format constants, see QuestionPackCompiler
+    private static final int MAGIC = 0x4351504B;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 11 * 4;
+    private static final int CATEGORY_ENTRY_SIZE = 3 * 4;
+    // A question record before its option string ids: text string id, correct answer, option count
+    private static final int QUESTION_RECORD_SIZE = 4 + 1 + 1;
+
+    // The whole pack, positions inside it are absolute offsets
+    private final ByteBuffer buffer;
+
+    // Header values
+    private final int categoryCount;
+    private final int questionCount;
+    private final int stringCount;
+    private final int categoryTableOffset;
+    private final int questionTableOffset;
+    private final int questionDataOffset;
+    private final int stringTableOffset;
+    private final int stringDataOffset;
+    private final int sourceCrc;
+
+    // Create a pack over an already loaded or mapped buffer.
+    // The header is checked so every table lies inside the buffer, see verify() for the entries.
+    public QuestionPack(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a supported question pack");
+        }
+        categoryCount = buffer.getInt(8);
+        questionCount = buffer.getInt(12);
+        stringCount = buffer.getInt(16);
+        categoryTableOffset = buffer.getInt(20);
+        questionTableOffset = buffer.getInt(24);
+        questionDataOffset = buffer.getInt(28);
+        stringTableOffset = buffer.getInt(32);
+        stringDataOffset = buffer.getInt(36);
+        sourceCrc = buffer.getInt(40);
+        if (categoryCount < 0 || questionCount < 0 || stringCount < 0
+                || !inside(categoryTableOffset, (long) categoryCount * CATEGORY_ENTRY_SIZE)
+                || !inside(questionTableOffset, 4L * questionCount)
+                || !inside(questionDataOffset, 0)
+                || !inside(stringTableOffset, 4L * (stringCount + 1L))
+                || !inside(stringDataOffset, 0)) {
+            throw new IOException("Damaged question pack");
+        }
+    }
+
+    // Memory-map a pack from the assets folder. The asset must be stored uncompressed.
+    public static QuestionPack open(Context context, String asset) throws IOException {
+        try (AssetFileDescriptor fd = context.getAssets().openFd(asset);
+             FileInputStream in = new FileInputStream(fd.getFileDescriptor());
+             FileChannel channel = in.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return new QuestionPack(channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength()));
+        }
+    }
+
+    // Memory-map a pack installed in app storage by PackManager
+    public static QuestionPack open(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file);
+             FileChannel channel = in.getChannel()) {
+            return new QuestionPack(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Number of categories in the pack
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    // Total number of questions in the pack
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    // CRC32 of the JSON the pack was compiled from
+    public int getSourceCrc() {
+        return sourceCrc;
+    }
+
+    // Name of the category at the given index
+    public String getCategoryName(int category) {
+        return readString(buffer.getInt(categoryEntry(category)));
+    }
+
+    // Names of every category, read from the category table only
+    public List<String> getCategoryNames() {
+        List<String> names = new ArrayList<>(categoryCount);
+        for (int i = 0; i < categoryCount; i++) {
+            names.add(getCategoryName(i));
+        }
+        return names;
+    }
+
+    // Index of the category with the given name, or -1 if it is not in the pack
+    public int findCategory(String name) {
+        for (int i = 0; i < categoryCount; i++) {
+            if (getCategoryName(i).equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Number of questions in a category
+    public int getQuestionCount(int category) {
+        return buffer.getInt(categoryEntry(category) + 8);
+    }
+
+    // Decode a single question of a category
+    public Question getQuestion(int category, int index) {
+        int entry = categoryEntry(category);
+        if (index < 0 || index >= buffer.getInt(entry + 8)) {
+            throw new IndexOutOfBoundsException("Question " + index + " in category " + category);
+        }
+        int record = buffer.getInt(questionTableOffset + 4 * (buffer.getInt(entry + 4) + index));
+
+        String text = readString(buffer.getInt(record));
+        int correctAnswer = buffer.get(record + 4);
+        int optionCount = buffer.get(record + 5);
+        List<String> options = new ArrayList<>(optionCount);
+        for (int i = 0; i < optionCount; i++) {
+            options.add(readString(buffer.getInt(record + 6 + 4 * i)));
+        }
+        return new Question(text, options, correctAnswer);
+    }
+
+    // Check that every entry of the tables points inside the pack, so no question fails to decode later.
+    // This reads the whole pack, it is meant for packs downloaded at runtime.
+    public void verify() throws IOException {
+        try {
+            int previous = 0;
+            for (int id = 0; id <= stringCount; id++) {
+                int offset = buffer.getInt(stringTableOffset + 4 * id);
+                if (offset < previous || !inside(stringDataOffset, offset)) {
+                    throw new IOException("Damaged question pack");
+                }
+                previous = offset;
+            }
+            for (int category = 0; category < categoryCount; category++) {
+                int entry = categoryEntry(category);
+                int first = buffer.getInt(entry + 4);
+                int count = buffer.getInt(entry + 8);
+                if (!isString(buffer.getInt(entry)) || first < 0 || count < 0 || (long) first + count > questionCount) {
+                    throw new IOException("Damaged question pack");
+                }
+            }
+            for (int question = 0; question < questionCount; question++) {
+                int record = buffer.getInt(questionTableOffset + 4 * question);
+                if (record < questionDataOffset || !inside(record, QUESTION_RECORD_SIZE)) {
+                    throw new IOException("Damaged question pack");
+                }
+                int optionCount = buffer.get(record + 5);
+                if (!isString(buffer.getInt(record)) || optionCount < 0
+                        || !inside(record, QUESTION_RECORD_SIZE + 4L * optionCount)) {
+                    throw new IOException("Damaged question pack");
+                }
+                for (int i = 0; i < optionCount; i++) {
+                    if (!isString(buffer.getInt(record + QUESTION_RECORD_SIZE + 4 * i))) {
+                        throw new IOException("Damaged question pack");
+                    }
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Damaged question pack", e);
+        }
+    }
+
+    // Whether length bytes from offset lie inside the pack, after the header
+    private boolean inside(long offset, long length) {
+        return offset >= HEADER_SIZE && length >= 0 && offset + length <= buffer.limit();
+    }
+
+    private boolean isString(int id) {
+        return id >= 0 && id < stringCount;
+    }
+
+    // Read-only view of a category's questions that decodes each question when it is accessed
+    public List<Question> getQuestions(int category) {
+        return new CategoryQuestions(category);
+    }
+
+    // Offset of a category's entry in the category table
+    private int categoryEntry(int category) {
+        if (category < 0 || category >= categoryCount) {
+            throw new IndexOutOfBoundsException("Category " + category);
+        }
+        return categoryTableOffset + category * CATEGORY_ENTRY_SIZE;
+    }
+
+    // Decode a string from the deduplicated string table
+    private String readString(int id) {
+        int start = buffer.getInt(stringTableOffset + 4 * id);
+        int end = buffer.getInt(stringTableOffset + 4 * (id + 1));
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(stringDataOffset + end);
+        bytes.position(stringDataOffset + start);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    // List view over one category of the pack
+    private class CategoryQuestions extends AbstractList<Question> implements RandomAccess {
+        private final int category;
+        private final int size;
+
+        CategoryQuestions(int category) {
+            this.category = category;
+            this.size = getQuestionCount(category);
+        }
+
+        @Override
+        public Question get(int index) {
+            return getQuestion(category, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
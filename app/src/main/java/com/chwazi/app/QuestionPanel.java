@@ -0,0 +1,160 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.widget.AppCompatButton;
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// This class shows the question dialog of a game.
+// The dialog is inflated once per game and rebound to every new Question. Option buttons come from a
+// pool that only grows to the largest option count seen, and all of them share one click listener,
+// so asking a question does not inflate views or allocate buttons, layout params or listeners.
+public class QuestionPanel implements View.OnClickListener {
+
+    // Interface that receives the participant's answer
+    public interface OnAnswerListener {
+        void onAnswered(int selectedOption, boolean correct);
+    }
+
+    private final Context context;
+    private final OnAnswerListener listener;
+
+    // Views of the dialog, created once
+    private final AlertDialog dialog;
+    private final TextView questionTextView;
+    private final LinearLayout buttonWrapper;
+
+    // Pooled option buttons and their normal backgrounds, index i is option i
+    private final List<AppCompatButton> optionButtons = new ArrayList<>();
+    private final List<Drawable> normalBackgrounds = new ArrayList<>();
+    // Backgrounds for a correct and a wrong answer, only one button is marked at a time
+    private final Drawable correctBackground;
+    private final Drawable wrongBackground;
+
+    // State of the question currently shown
+    private int optionCount;
+    private int correctAnswer;
+    private int markedOption = -1;
+    private boolean answered;
+
+    public QuestionPanel(Context context, OnAnswerListener listener) {
+        this.context = context;
+        this.listener = listener;
+
+        // Inflate the dialog layout for question options
+        View dialogView = LayoutInflater.from(context).inflate(R.layout.dialog_question_options, null);
+        questionTextView = dialogView.findViewById(R.id.tvQuestion);
+        buttonWrapper = dialogView.findViewById(R.id.question_option_buttons_wrapper);
+
+        correctBackground = ContextCompat.getDrawable(context, R.drawable.button_gradient_green);
+        wrongBackground = ContextCompat.getDrawable(context, R.drawable.button_gradient_red);
+
+        // Create the AlertDialog for the questions once, it is shown again for every question
+        AlertDialog.Builder builder = new AlertDialog.Builder(context);
+        builder.setView(dialogView); // Set the custom view
+        builder.setCancelable(false); // Make the dialog not cancelable by clicking outside
+        dialog = builder.create();
+    }
+
+    // Method to show a question, reusing the dialog and the option buttons
+    public void show(Question question) {
+        // Set the question text
+        questionTextView.setText(question.getQuestion());
+
+        // Bind every option to a pooled button, creating buttons only for a new largest option count
+        List<String> options = question.getOptions();
+        optionCount = options.size();
+        correctAnswer = question.getCorrectAnswer();
+        while (optionButtons.size() < optionCount) {
+            addOptionButton();
+        }
+        for (int i = 0; i < optionButtons.size(); i++) {
+            AppCompatButton optionButton = optionButtons.get(i);
+            if (i < optionCount) {
+                optionButton.setText(options.get(i));
+                optionButton.setEnabled(true);
+                optionButton.setVisibility(View.VISIBLE);
+            } else {
+                optionButton.setVisibility(View.GONE);
+            }
+        }
+
+        // Restore the button that showed the result of the last question
+        if (markedOption >= 0) {
+            AppCompatButton marked = optionButtons.get(markedOption);
+            marked.setBackground(normalBackgrounds.get(markedOption));
+            marked.setTextColor(Color.WHITE);
+            markedOption = -1;
+        }
+        answered = false;
+
+        if (!dialog.isShowing()) {
+            dialog.show();
+        }
+    }
+
+    // Method to hide the panel until the next question
+    public void dismiss() {
+        if (dialog.isShowing()) {
+            dialog.dismiss();
+        }
+    }
+
+    @Override
+    public void onClick(View v) {
+        // Ignore taps that arrive after the answer, before the buttons are disabled
+        if (answered) {
+            return;
+        }
+        answered = true;
+        // Get the selected option index from the tag
+        int selectedOption = (int) v.getTag();
+        boolean correct = selectedOption == correctAnswer;
+
+        // Mark the button green for a correct answer and red for a wrong one
+        AppCompatButton button = (AppCompatButton) v;
+        button.setBackground(correct ? correctBackground : wrongBackground);
+        button.setTextColor(correct ? Color.GREEN : Color.RED);
+        markedOption = selectedOption;
+
+        // Disable all option buttons after selection to prevent multiple answers
+        for (int i = 0; i < optionCount; i++) {
+            optionButtons.get(i).setEnabled(false);
+        }
+
+        listener.onAnswered(selectedOption, correct);
+    }
+
+    // Method to add one more button to the pool
+    private void addOptionButton() {
+        int index = optionButtons.size();
+        AppCompatButton optionButton = new AppCompatButton(context);
+        optionButton.setTag(index); // Tag the button with its index
+        // Set layout parameters for the button
+        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT,
+                LinearLayout.LayoutParams.WRAP_CONTENT
+        );
+        params.setMargins(0, 0, 0, 10); // Set bottom margin
+        optionButton.setLayoutParams(params);
+        optionButton.setBackgroundResource(R.drawable.button_gradient); // Set background
+        optionButton.setPadding(12, 12, 12, 12); // Set padding
+        optionButton.setTextColor(Color.WHITE); // Set text color
+        optionButton.setOnClickListener(this);
+        buttonWrapper.addView(optionButton); // Add button to the wrapper
+
+        optionButtons.add(optionButton);
+        normalBackgrounds.add(optionButton.getBackground());
+    }
+}
@@ -0,0 +1,540 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.LocaleList;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+// This class is the single, process-wide entry point for question data.
+// Questions come from the binary question pack compiled at build time and are decoded lazily.
+// If the pack is not available the JSON bank is used instead, through a persisted CategoryIndex:
+// the category list comes from the index alone, a category is parsed by seeking straight to its
+// block, and per-category question lists are packed into a CompactQuestionBank and kept in a bounded
+// LRU cache.
+// The bundled bank is picked by QuestionLocales from the configuration's locales, and only that locale's
+// files are ever opened. When the locale changes, the next call opens the new locale's bank and drops
+// the old one; lists already handed out stay readable, so a game in progress keeps its questions.
+// Packs installed by PackManager are appended after the bundled categories, in order of pack ID.
+// The installed packs are looked up once, so category IDs only change with the locale; packs downloaded
+// by updatePacksAsync() are picked up on the next launch.
+public class QuestionRepository {
+
+    // Limits for the per-category question cache
+    private static final int MAX_CACHED_CATEGORIES = 8;
+    private static final long MAX_CACHED_BYTES = 2L * 1024 * 1024;
+
+    private static final String TAG = "QuestionRepository";
+
+    // Names of the bundled bank's files, and of the persisted category index in the app's files dir.
+    // QuestionLocales adds the locale key to them, for example questions-en.qpack.
+    private static final String QUESTIONS_BASE = "questions";
+    private static final String SEARCH_BASE = "search";
+    private static final String INDEX_BASE = "category_index";
+    // Name of the persisted history of asked questions in the app's files dir
+    private static final String HISTORY_FILE = "question_history.bin";
+    // Directory of the packs installed by PackManager in the app's files dir
+    private static final String PACKS_DIR = "packs";
+
+    // The single instance shared by the whole application
+    private static QuestionRepository instance;
+
+    // Application context, never an Activity, so the repository can outlive screens
+    private final Context appContext;
+
+    // Locale keys of the bundled banks other than the default, null until the assets have been listed
+    private Set<String> localeKeys;
+    // Bundled bank of the current locale, null until it is first needed
+    private LocaleBank bank;
+
+    // Packs installed in app storage, and the first category of each counted from the first installed one
+    private final List<QuestionPack> installedPacks = new ArrayList<>();
+    private int[] installedStart = new int[0];
+    private int installedCount = -1;
+
+    // Questions already asked per category, read on the first question load
+    private QuestionHistory history;
+
+    // Private constructor, use getInstance instead
+    private QuestionRepository(Context context) {
+        this.appContext = context.getApplicationContext();
+    }
+
+    // Return the shared repository, creating it on first use
+    public static synchronized QuestionRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new QuestionRepository(context);
+        }
+        return instance;
+    }
+
+    // Load the number of categories in the background and deliver it on the main thread
+    public AsyncLoader.LoadTask loadCategoryCountAsync(AsyncLoader.LoadCallback<Integer> callback) {
+        return AsyncLoader.load(this::getCategoryCount, callback);
+    }
+
+    // Load the names of a range of categories in the background and deliver them on the main thread
+    public AsyncLoader.LoadTask loadCategoryNamesAsync(int start, int count, AsyncLoader.LoadCallback<List<String>> callback) {
+        return AsyncLoader.load(() -> getCategoryNames(start, count), callback);
+    }
+
+    // Load the questions of a category in the background and deliver them on the main thread
+    public AsyncLoader.LoadTask loadQuestionsAsync(int categoryId, AsyncLoader.LoadCallback<List<Question>> callback) {
+        return AsyncLoader.load(() -> {
+            // Read the history here too, so the game can deal its first question without touching the disk
+            getHistory();
+            return getQuestions(categoryId);
+        }, callback);
+    }
+
+    // Search the categories in the background and deliver the matches on the main thread
+    public AsyncLoader.LoadTask searchCategoriesAsync(String query, int maxResults,
+                                                      AsyncLoader.LoadCallback<List<CategoryMatch>> callback) {
+        return AsyncLoader.load(() -> searchCategories(query, maxResults), callback);
+    }
+
+    // Download new and updated question packs in the background, they are used from the next launch on.
+    // Does nothing if no pack server is configured.
+    public void updatePacksAsync() {
+        String url = appContext.getString(R.string.packs_url);
+        if (url.isEmpty()) {
+            return;
+        }
+        PackManager packManager = new PackManager(new File(appContext.getFilesDir(), PACKS_DIR), url);
+        AsyncLoader.prefetch(() -> {
+            try {
+                PackManager.UpdateResult result = packManager.update();
+                Log.i(TAG, "Packs updated: " + result.downloaded + " downloaded, " + result.patched + " patched, "
+                        + result.failed + " failed, " + result.bytesDownloaded + " bytes");
+            } catch (IOException e) {
+                // Offline or server unavailable, the installed packs stay as they are
+                Log.w(TAG, "Could not update question packs", e);
+            }
+        });
+    }
+
+    // Open the question bank ahead of time, so the category screen finds it ready
+    public void prefetchCategories() {
+        AsyncLoader.prefetch(() -> {
+            try {
+                getCategoryCount();
+            } catch (IOException e) {
+                // The category screen will hit the same error and show it, nothing to do here
+                Log.w(TAG, "Prefetching categories failed", e);
+            }
+        });
+    }
+
+    // Return the number of categories. Categories are identified by their position, from 0 to the count.
+    // The first call for a locale opens its bank and may read from disk, call it off the main thread.
+    public int getCategoryCount() throws IOException {
+        LocaleBank localeBank = getBank();
+        return localeBank.getBundledCount() + getInstalledCount();
+    }
+
+    // Return the names of a range of categories, only the names asked for are read
+    public List<String> getCategoryNames(int start, int count) throws IOException {
+        List<String> names = new ArrayList<>(count);
+        for (int id = start; id < start + count; id++) {
+            names.add(getCategoryName(id));
+        }
+        return names;
+    }
+
+    // Return the name of a category
+    public String getCategoryName(int categoryId) throws IOException {
+        LocaleBank localeBank = getBank();
+        int bundledCount = localeBank.getBundledCount();
+        if (categoryId >= bundledCount) {
+            int pack = findInstalledPack(categoryId - bundledCount);
+            return installedPacks.get(pack).getCategoryName(categoryId - bundledCount - installedStart[pack]);
+        }
+        QuestionPack questionPack = localeBank.getPack();
+        return questionPack != null ? questionPack.getCategoryName(categoryId) : localeBank.getIndex().getName(categoryId);
+    }
+
+    // Return a read-only list of the questions of a category.
+    // Callers walk it with an index instead of consuming it, so the same list can be shared.
+    // This may read from disk, call it off the main thread or use loadQuestionsAsync.
+    public List<Question> getQuestions(int categoryId) throws IOException {
+        LocaleBank localeBank = getBank();
+        int bundledCount = localeBank.getBundledCount();
+        if (categoryId < 0 || categoryId >= bundledCount + getInstalledCount()) {
+            throw new IOException("Unknown category " + categoryId);
+        }
+        if (categoryId >= bundledCount) {
+            int pack = findInstalledPack(categoryId - bundledCount);
+            return installedPacks.get(pack).getQuestions(categoryId - bundledCount - installedStart[pack]);
+        }
+        QuestionPack questionPack = localeBank.getPack();
+        if (questionPack != null) {
+            // A lazy view over the mapped pack, nothing is decoded until a question is read
+            return questionPack.getQuestions(categoryId);
+        }
+
+        String category = localeBank.getIndex().getName(categoryId);
+        List<Question> questions = localeBank.cache.get(category);
+        if (questions == null) {
+            CategoryData data;
+            long start = Perf.begin(PerfRecorder.Phase.ASSET_LOAD);
+            try {
+                data = localeBank.loadIndexedCategory(categoryId);
+            } finally {
+                Perf.end(PerfRecorder.Phase.ASSET_LOAD, start);
+            }
+            if (data == null) {
+                throw new IOException("Unknown category " + category);
+            }
+            // Packed with its own string pool, so evicting the category frees everything it used
+            questions = CompactQuestionBank.build(Collections.singletonList(data)).getQuestions(0);
+            localeBank.cache.put(category, questions);
+        }
+        return questions;
+    }
+
+    // Create a shuffled deck for the questions of a category, which skips questions asked in earlier
+    // games until every question of the category was asked
+    public QuestionDeck newDeck(int categoryId, int size) {
+        String category;
+        try {
+            // The history is kept by name, so it survives categories being added to the bank
+            category = getCategoryName(categoryId);
+        } catch (IOException e) {
+            // The questions were just loaded, so the bank is open and this does not happen in practice
+            Log.w(TAG, "No name for category " + categoryId + ", dealing without history", e);
+            return new QuestionDeck(size, new SplittableRandom());
+        }
+        return new QuestionDeck(size, getHistory().getSeen(category, size), new SplittableRandom());
+    }
+
+    // Return the history of asked questions, reading it the first time.
+    // This may read from disk, loadQuestionsAsync reads it ahead of time.
+    public synchronized QuestionHistory getHistory() {
+        if (history == null) {
+            history = QuestionHistory.readFrom(new File(appContext.getFilesDir(), HISTORY_FILE));
+        }
+        return history;
+    }
+
+    // Save the history of asked questions in the background.
+    // Call it on the thread that deals questions, the history is copied before it is written.
+    public void saveHistoryAsync() {
+        QuestionHistory snapshot;
+        synchronized (this) {
+            if (history == null) {
+                return;
+            }
+            snapshot = history.copy();
+        }
+        File file = new File(appContext.getFilesDir(), HISTORY_FILE);
+        AsyncLoader.prefetch(() -> {
+            try {
+                snapshot.writeTo(file);
+            } catch (IOException e) {
+                // Questions may repeat in the next game, nothing else is lost
+                Log.w(TAG, "Could not save the question history", e);
+            }
+        });
+    }
+
+    // Return the bundled bank of the current locale, swapping banks when the locale has changed since
+    // the last call. Only the new locale's files are opened, and only when they are first needed.
+    private synchronized LocaleBank getBank() {
+        String key = QuestionLocales.resolve(getLocaleKeys(), getConfiguredLocales());
+        if (bank == null || !bank.key.equals(key)) {
+            if (bank != null) {
+                Log.i(TAG, "Locale changed, switching questions from '" + bank.key + "' to '" + key + "'");
+            }
+            bank = new LocaleBank(key);
+        }
+        return bank;
+    }
+
+    // Locale keys of the bundled banks, listed from the assets once
+    private Set<String> getLocaleKeys() {
+        if (localeKeys == null) {
+            String[] assets;
+            try {
+                assets = appContext.getAssets().list("");
+            } catch (IOException e) {
+                Log.w(TAG, "Could not list the bundled question banks, using the default one", e);
+                assets = new String[0];
+            }
+            if (assets == null) {
+                assets = new String[0];
+            }
+            // A locale may ship a pack, or only the JSON the pack would be compiled from
+            localeKeys = QuestionLocales.findKeys(assets, QUESTIONS_BASE, QuestionPack.PACK_EXTENSION);
+            localeKeys.addAll(QuestionLocales.findKeys(assets, QUESTIONS_BASE, JsonLoader.JSON_EXTENSION));
+        }
+        return localeKeys;
+    }
+
+    // The locales of the app's current configuration, in order of preference
+    private List<Locale> getConfiguredLocales() {
+        LocaleList locales = appContext.getResources().getConfiguration().getLocales();
+        List<Locale> result = new ArrayList<>(locales.size());
+        for (int i = 0; i < locales.size(); i++) {
+            result.add(locales.get(i));
+        }
+        return result;
+    }
+
+    // Number of categories in the installed packs, mapping the packs on the first call
+    private synchronized int getInstalledCount() {
+        if (installedCount < 0) {
+            installedCount = openInstalledPacks();
+        }
+        return installedCount;
+    }
+
+    // Map every installed pack, skipping any that cannot be read, and return their number of categories
+    private int openInstalledPacks() {
+        PackManager packManager = new PackManager(new File(appContext.getFilesDir(), PACKS_DIR), "");
+        List<PackManager.InstalledPack> installed = packManager.getInstalledPacks();
+        installedStart = new int[installed.size()];
+        int count = 0;
+        for (PackManager.InstalledPack pack : installed) {
+            try {
+                QuestionPack questionPack = QuestionPack.open(pack.file);
+                installedStart[installedPacks.size()] = count;
+                installedPacks.add(questionPack);
+                count += questionPack.getCategoryCount();
+            } catch (IOException e) {
+                Log.w(TAG, "Installed pack " + pack.id + " could not be opened", e);
+            }
+        }
+        return count;
+    }
+
+    // Index of the installed pack holding a category, counted from the first installed category
+    private int findInstalledPack(int installedId) throws IOException {
+        getInstalledCount();
+        for (int pack = installedPacks.size() - 1; pack >= 0; pack--) {
+            if (installedId >= installedStart[pack]) {
+                return pack;
+            }
+        }
+        throw new IOException("Unknown category " + installedId);
+    }
+
+    // Time the app was last installed or updated, used to tell when the asset may have changed
+    private long getAppUpdateTime() {
+        try {
+            return appContext.getPackageManager().getPackageInfo(appContext.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            return 0;
+        }
+    }
+
+    // A category found by a search, with its name so the result can be shown without another load
+    public static class CategoryMatch {
+        public final int id;
+        public final String name;
+
+        public CategoryMatch(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    // Return the categories whose name or questions contain every word of the query, best matches first.
+    // The search index only covers the bundled categories, installed categories (and the bundled ones
+    // when there is no usable index) are found by their names only, after the indexed matches.
+    public List<CategoryMatch> searchCategories(String query, int maxResults) throws IOException {
+        List<CategoryMatch> matches = new ArrayList<>();
+        List<String> words = HebrewTokenizer.tokenize(query);
+        if (words.isEmpty()) {
+            return matches;
+        }
+        LocaleBank localeBank = getBank();
+        int count = localeBank.getBundledCount() + getInstalledCount();
+        int firstUnindexed = 0;
+        SearchIndex index = localeBank.getSearchIndex();
+        if (index != null) {
+            for (int id : index.search(query, maxResults)) {
+                matches.add(new CategoryMatch(id, getCategoryName(id)));
+            }
+            firstUnindexed = localeBank.getBundledCount();
+        }
+        for (int id = firstUnindexed; id < count && matches.size() < maxResults; id++) {
+            String name = getCategoryName(id);
+            if (HebrewTokenizer.tokenize(name).containsAll(words)) {
+                matches.add(new CategoryMatch(id, name));
+            }
+        }
+        return matches;
+    }
+
+    // Copy the counters of the current locale's question cache into a recorder, for its export.
+    // Nothing is opened for it: before the first question load the counters are all 0.
+    public synchronized void reportCacheCounters(PerfRecorder recorder) {
+        QuestionCache cache = bank != null ? bank.cache : null;
+        recorder.setCounter(PerfRecorder.Counter.QUESTION_CACHE_HITS, cache != null ? cache.getHitCount() : 0);
+        recorder.setCounter(PerfRecorder.Counter.QUESTION_CACHE_MISSES, cache != null ? cache.getMissCount() : 0);
+        recorder.setCounter(PerfRecorder.Counter.QUESTION_CACHE_EVICTIONS, cache != null ? cache.getEvictionCount() : 0);
+    }
+
+    // The bundled bank of one locale. Its pack, search index and JSON index are opened on first use,
+    // from the files named by the locale's key, and its question cache only holds this locale's questions.
+    private class LocaleBank {
+        final String key;
+
+        // The memory-mapped question pack, null if it could not be opened
+        private QuestionPack pack;
+        private boolean packOpened;
+
+        // Index of the JSON bank, only used when the pack is not available
+        private CategoryIndex index;
+
+        // The memory-mapped search index, null if it could not be opened or does not match the bank
+        private SearchIndex searchIndex;
+        private boolean searchIndexOpened;
+
+        // Number of categories, -1 until the bank has been opened
+        private int bundledCount = -1;
+
+        // LRU cache of question lists per category
+        final QuestionCache cache = new QuestionCache(MAX_CACHED_CATEGORIES, MAX_CACHED_BYTES);
+
+        LocaleBank(String key) {
+            this.key = key;
+        }
+
+        // Number of categories in the bank, opening it on the first call
+        synchronized int getBundledCount() throws IOException {
+            if (bundledCount < 0) {
+                long start = Perf.begin(PerfRecorder.Phase.ASSET_LOAD);
+                try {
+                    QuestionPack questionPack = getPack();
+                    bundledCount = questionPack != null ? questionPack.getCategoryCount() : getIndex().size();
+                } finally {
+                    Perf.end(PerfRecorder.Phase.ASSET_LOAD, start);
+                }
+            }
+            return bundledCount;
+        }
+
+        // Name of the bank's questions JSON in the assets folder
+        String getJsonAsset() {
+            return QuestionLocales.fileName(QUESTIONS_BASE, key, JsonLoader.JSON_EXTENSION);
+        }
+
+        // Open the question pack on first use, remembering if it is not available
+        synchronized QuestionPack getPack() {
+            if (!packOpened) {
+                packOpened = true;
+                try {
+                    pack = QuestionPack.open(appContext,
+                            QuestionLocales.fileName(QUESTIONS_BASE, key, QuestionPack.PACK_EXTENSION));
+                } catch (IOException e) {
+                    Log.w(TAG, "Question pack '" + key + "' not available, falling back to JSON", e);
+                }
+            }
+            return pack;
+        }
+
+        // Open the search index on first use. An index that was not compiled from the bank in use is ignored.
+        synchronized SearchIndex getSearchIndex() throws IOException {
+            if (!searchIndexOpened) {
+                searchIndexOpened = true;
+                try {
+                    SearchIndex opened = SearchIndex.open(appContext,
+                            QuestionLocales.fileName(SEARCH_BASE, key, SearchIndex.INDEX_EXTENSION));
+                    QuestionPack questionPack = getPack();
+                    if (opened.getCategoryCount() != getBundledCount()
+                            || (questionPack != null && opened.getSourceCrc() != questionPack.getSourceCrc())) {
+                        Log.w(TAG, "Search index does not match the question bank, searching names only");
+                    } else {
+                        searchIndex = opened;
+                    }
+                } catch (IOException e) {
+                    Log.w(TAG, "Search index not available, searching names only", e);
+                }
+            }
+            return searchIndex;
+        }
+
+        // Parse a single category of the JSON bank by seeking straight to its block
+        CategoryData loadIndexedCategory(int position) throws IOException {
+            CategoryIndex categoryIndex = getIndex();
+            if (position < 0 || position >= categoryIndex.size()) {
+                return null;
+            }
+            String category = categoryIndex.getName(position);
+            byte[] block = new byte[categoryIndex.getLength(position)];
+            try (InputStream is = appContext.getAssets().open(getJsonAsset())) {
+                long toSkip = categoryIndex.getOffset(position);
+                while (toSkip > 0) {
+                    long skipped = is.skip(toSkip);
+                    if (skipped <= 0) {
+                        throw new IOException("Category block is past the end of the asset");
+                    }
+                    toSkip -= skipped;
+                }
+                new DataInputStream(is).readFully(block);
+                return JsonLoader.readCategoryBlock(new ByteArrayInputStream(block));
+            } catch (IOException e) {
+                // The index no longer matches the asset, fall back to a streaming scan
+                Log.w(TAG, "Indexed read of " + category + " failed", e);
+                try (InputStream is = appContext.getAssets().open(getJsonAsset())) {
+                    return JsonLoader.readCategory(is, category);
+                }
+            }
+        }
+
+        // Return the index of the JSON bank. A persisted index is reused as long as its checksum matches
+        // the asset; the checksum is only recomputed after the app has been updated, since the asset
+        // cannot change otherwise.
+        synchronized CategoryIndex getIndex() throws IOException {
+            if (index != null) {
+                return index;
+            }
+            File file = new File(appContext.getFilesDir(), QuestionLocales.fileName(INDEX_BASE, key, ".bin"));
+            long stamp = getAppUpdateTime();
+            CategoryIndex stored = CategoryIndex.readFrom(file);
+            CategoryIndex result;
+            if (stored != null && stored.getSourceStamp() == stamp) {
+                result = stored;
+            } else if (stored != null && matchesAsset(stored)) {
+                result = stored.withSourceStamp(stamp);
+                persistIndex(result, file);
+            } else {
+                try (InputStream is = appContext.getAssets().open(getJsonAsset())) {
+                    result = CategoryIndex.build(is, stamp);
+                }
+                persistIndex(result, file);
+            }
+            index = result;
+            return index;
+        }
+
+        // Save the index, a failure only costs a rebuild on the next launch
+        private void persistIndex(CategoryIndex categoryIndex, File file) {
+            try {
+                categoryIndex.writeTo(file);
+            } catch (IOException e) {
+                Log.w(TAG, "Could not persist the category index", e);
+            }
+        }
+
+        // Whether a persisted index was built from the bank's JSON as it is now
+        private boolean matchesAsset(CategoryIndex categoryIndex) throws IOException {
+            try (InputStream is = appContext.getAssets().open(getJsonAsset())) {
+                return categoryIndex.matches(is);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.chwazi.app;
+
+// This class keeps participants ordered by score while the scores change.
+// Scores only ever grow by one point, so a participant that scores moves to the head of the group holding
+// its old score, found with a binary search, right behind everyone who already had the new score.
+// The rest of its old group shifts down one place, so participants with equal scores stay ordered by who
+// reached that score first (by ID for the starting score). An update costs a binary search plus the size
+// of the tie group, at most the table size of 20; the leader and tie state are read in O(1).
+public class ScoreRanking {
+
+    // Score of every participant, indexed by participant ID
+    private int[] scores = new int[0];
+    // Participant IDs from the highest score to the lowest, and the rank of every participant
+    private int[] ranking = new int[0];
+    private int[] rankOf = new int[0];
+
+    // Start over with the given number of participants, all without points
+    public void reset(int count) {
+        if (scores.length != count) {
+            scores = new int[count];
+            ranking = new int[count];
+            rankOf = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            scores[i] = 0;
+            ranking[i] = i;
+            rankOf[i] = i;
+        }
+    }
+
+    // Number of ranked participants
+    public int size() {
+        return ranking.length;
+    }
+
+    // Score of a participant
+    public int getScore(int participant) {
+        return scores[participant];
+    }
+
+    // Rank of a participant, 0 being the highest score
+    public int getRank(int participant) {
+        return rankOf[participant];
+    }
+
+    // Participant at the given rank
+    public int getParticipant(int rank) {
+        return ranking[rank];
+    }
+
+    // Give a participant one point and return the rank it had before.
+    // The participants between its new rank and that one each moved down one place.
+    public int increment(int participant) {
+        int rank = rankOf[participant];
+        int head = firstRankWithScore(scores[participant], rank);
+        for (int r = rank; r > head; r--) {
+            int other = ranking[r - 1];
+            ranking[r] = other;
+            rankOf[other] = r;
+        }
+        ranking[head] = participant;
+        rankOf[participant] = head;
+        scores[participant]++;
+        return rank;
+    }
+
+    // Participant with the highest score, or -1 without participants
+    public int getLeader() {
+        return ranking.length == 0 ? -1 : ranking[0];
+    }
+
+    // Whether more than one participant shares the highest score
+    public boolean isLeaderTied() {
+        return ranking.length > 1 && scores[ranking[0]] == scores[ranking[1]];
+    }
+
+    // Binary search for the first rank, at or before the given one, whose participant has the given score
+    private int firstRankWithScore(int score, int upTo) {
+        int low = 0;
+        int high = upTo;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (scores[ranking[mid]] > score) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
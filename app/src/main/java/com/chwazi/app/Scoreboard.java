@@ -0,0 +1,130 @@
+package com.chwazi.app;
+
+// Import necessary Android classes
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.appcompat.widget.AppCompatButton;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.google.android.material.bottomsheet.BottomSheetBehavior;
+import com.google.android.material.bottomsheet.BottomSheetDialog;
+
+// This class shows the scoreboard in a bottom sheet dialog.
+// The sheet and its RecyclerView are created once per game and only refreshed when shown again,
+// so opening the scoreboard after every answer rebinds just the rows that changed.
+public class Scoreboard {
+
+    // How long the scoreboard stays up between questions
+    private static final long AUTO_DISMISS_MS = 5000;
+    // Name of the auto-dismiss event on the game scheduler
+    private static final String EVENT_AUTO_DISMISS = "scoreboard_auto_dismiss";
+
+    // Interface that receives the Reset Game button
+    public interface OnResetGameListener {
+        void onResetGame();
+    }
+
+    private final Context context;
+    private final BottomSheetDialog bottomSheetDialog;
+    private final ScoreboardAdapter adapter;
+    private final AppCompatButton returnToGameBtn;
+    private final TextView winnerTv;
+
+    // Dismisses the scoreboard after a delay, cancelled again if the scoreboard is shown or closed first
+    private final GameScheduler scheduler;
+    private final Runnable autoDismiss;
+
+    public Scoreboard(Context context, GameScheduler scheduler, OnResetGameListener listener) {
+        this.context = context;
+        this.scheduler = scheduler;
+
+        // Create a BottomSheetDialog with a custom theme
+        bottomSheetDialog = new BottomSheetDialog(context, R.style.BottomSheetDialogTheme);
+        bottomSheetDialog.setCancelable(false); // Make it not cancelable by clicking outside
+
+        // Inflate the scoreboard layout
+        View view = LayoutInflater.from(context).inflate(R.layout.scoreboard_bottom_sheet, null);
+
+        // Find views in the scoreboard layout
+        returnToGameBtn = view.findViewById(R.id.btnReturnGame);
+        AppCompatButton resetGameBtn = view.findViewById(R.id.bsBtnResetGame);
+        RecyclerView scoreboardList = view.findViewById(R.id.scoreboardList);
+        winnerTv = view.findViewById(R.id.tvWinner); // TextView to display the winner
+
+        // Set up the list of scores
+        adapter = new ScoreboardAdapter(context.getString(R.string.score));
+        scoreboardList.setLayoutManager(new LinearLayoutManager(context));
+        scoreboardList.setAdapter(adapter);
+
+        // Set the content view of the BottomSheetDialog
+        bottomSheetDialog.setContentView(view);
+
+        // Ensure the bottom sheet is expanded and takes up full height
+        bottomSheetDialog.setOnShowListener(dialog -> {
+            FrameLayout bottomSheet = bottomSheetDialog.findViewById(com.google.android.material.R.id.design_bottom_sheet);
+            if (bottomSheet != null) {
+                BottomSheetBehavior<?> behavior = BottomSheetBehavior.from(bottomSheet);
+                behavior.setState(BottomSheetBehavior.STATE_EXPANDED); // Expand the bottom sheet
+                bottomSheet.getLayoutParams().height = ViewGroup.LayoutParams.MATCH_PARENT; // Set height to match parent
+                bottomSheet.requestLayout(); // Request layout to apply changes
+            }
+        });
+
+        autoDismiss = this::dismiss;
+
+        // Set click listener for the Return to Game button to dismiss the scoreboard
+        returnToGameBtn.setOnClickListener(v -> dismiss());
+
+        // Set click listener for the Reset Game button to prompt resetting participants
+        resetGameBtn.setOnClickListener(v -> {
+            dismiss(); // Dismiss the scoreboard
+            listener.onResetGame(); // Let the game prompt for the participants again
+        });
+    }
+
+    // Method to show the scoreboard with the current standings of the roster.
+    // When the game is finished the winner is announced, otherwise the sheet can close by itself.
+    public void show(ParticipantRoster roster, boolean finished, boolean autoDismissing) {
+        scheduler.cancel(EVENT_AUTO_DISMISS);
+        adapter.update(roster);
+
+        if (finished) {
+            returnToGameBtn.setVisibility(View.GONE); // Hide the "Return to Game" button
+            // The ranking knows the leader and whether anyone shares the top score
+            int leader = roster.getLeader();
+            if (leader < 0 || roster.isLeaderTied()) {
+                // If more than one participant has the highest score, declare a tie
+                winnerTv.setText(context.getString(R.string.tie_message));
+            } else {
+                // Otherwise, announce the participant with the highest score
+                winnerTv.setText(context.getString(R.string.winner_announcement, roster.getName(leader), roster.getScore(leader)));
+            }
+        } else {
+            returnToGameBtn.setVisibility(View.VISIBLE);
+            winnerTv.setText(null);
+        }
+
+        // If a timer is set, automatically dismiss the scoreboard after a few seconds
+        if (autoDismissing) {
+            scheduler.schedule(EVENT_AUTO_DISMISS, AUTO_DISMISS_MS, autoDismiss);
+        }
+
+        if (!bottomSheetDialog.isShowing()) {
+            bottomSheetDialog.show();
+        }
+    }
+
+    // Method to close the scoreboard
+    public void dismiss() {
+        scheduler.cancel(EVENT_AUTO_DISMISS);
+        if (bottomSheetDialog.isShowing()) {
+            bottomSheetDialog.dismiss();
+        }
+    }
+}
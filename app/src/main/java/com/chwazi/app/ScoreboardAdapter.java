@@ -0,0 +1,141 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+// This is the adapter class for the RecyclerView that displays the scoreboard.
+// Rows are the named participants in rank order, identified by their participant ID (stable IDs).
+// The adapter keeps a snapshot of what it shows and diffs it against the roster on every update,
+// so after an answer only the rows whose score or place changed are rebound.
+public class ScoreboardAdapter extends RecyclerView.Adapter<ScoreboardAdapter.ScoreViewHolder> {
+
+    // Text shown after every score, read once
+    private final String scoreLabel;
+
+    // Rows currently shown: participant ID, name and score at each position
+    private int[] ids = new int[0];
+    private String[] names = new String[0];
+    private int[] scores = new int[0];
+    private int size;
+
+    // Rows of the next update, swapped with the current ones once the diff is dispatched
+    private int[] nextIds = new int[0];
+    private String[] nextNames = new String[0];
+    private int[] nextScores = new int[0];
+    private int nextSize;
+
+    // Compares the shown rows with the next ones, reused for every update
+    private final DiffUtil.Callback diffCallback = new DiffUtil.Callback() {
+        @Override
+        public int getOldListSize() {
+            return size;
+        }
+
+        @Override
+        public int getNewListSize() {
+            return nextSize;
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return ids[oldPosition] == nextIds[newPosition];
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return scores[oldPosition] == nextScores[newPosition]
+                    && names[oldPosition].equals(nextNames[newPosition]);
+        }
+    };
+
+    public ScoreboardAdapter(String scoreLabel) {
+        this.scoreLabel = scoreLabel;
+        setHasStableIds(true);
+    }
+
+    // ViewHolder class that holds the views of one scoreboard row
+    public static class ScoreViewHolder extends RecyclerView.ViewHolder {
+        TextView tvParticipantName;
+        TextView tvParticipantScore;
+
+        public ScoreViewHolder(View itemView) {
+            super(itemView);
+            // Find TextViews in the scoreboard item layout
+            tvParticipantName = itemView.findViewById(R.id.tvParticipantName);
+            tvParticipantScore = itemView.findViewById(R.id.tvParticipantScore);
+        }
+    }
+
+    // Method to show the current standings of the roster, dispatching only the rows that changed
+    public void update(ParticipantRoster roster) {
+        int count = roster.getCount();
+        if (nextIds.length < count) {
+            nextIds = new int[count];
+            nextNames = new String[count];
+            nextScores = new int[count];
+        }
+        nextSize = 0;
+        for (int rank = 0; rank < count; rank++) {
+            int participant = roster.getRanked(rank);
+            // Participants that never entered a name have not played yet
+            if (roster.hasName(participant)) {
+                nextIds[nextSize] = participant;
+                nextNames[nextSize] = roster.getName(participant);
+                nextScores[nextSize] = roster.getScore(participant);
+                nextSize++;
+            }
+        }
+
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(diffCallback);
+
+        // The next rows become the shown rows, the old arrays are reused for the next update
+        int[] swapIds = ids;
+        ids = nextIds;
+        nextIds = swapIds;
+        String[] swapNames = names;
+        names = nextNames;
+        nextNames = swapNames;
+        int[] swapScores = scores;
+        scores = nextScores;
+        nextScores = swapScores;
+        size = nextSize;
+
+        result.dispatchUpdatesTo(this);
+    }
+
+    // Called when RecyclerView needs a new ViewHolder
+    @NonNull
+    @Override
+    public ScoreViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        // Inflate the scoreboard item layout
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.scoreboard_item, parent, false);
+        return new ScoreViewHolder(view);
+    }
+
+    // Called to display the participant's name and score at the specified position
+    @Override
+    public void onBindViewHolder(@NonNull ScoreViewHolder holder, int position) {
+        holder.tvParticipantName.setText(names[position]);
+        holder.tvParticipantScore.setText(scores[position] + " " + scoreLabel);
+    }
+
+    // Rows are identified by participant ID, so a row keeps its view when it changes place
+    @Override
+    public long getItemId(int position) {
+        return ids[position];
+    }
+
+    // Returns the total number of rows
+    @Override
+    public int getItemCount() {
+        return size;
+    }
+}
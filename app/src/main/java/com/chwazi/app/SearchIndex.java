@@ -0,0 +1,214 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// This class searches the categories with the inverted index compiled from questions.json at build time.
+// The index is memory-mapped straight out of the APK. A query is split into words with HebrewTokenizer,
+// each word (and its forms without prefix letters) is found by binary search in the sorted term
+// dictionary, and the categories in its posting list are counted, so the cost of a query depends on
+// the length of the posting lists it reads and never on scanning the questions.
+// A category matches when every word of the query is found in its name or questions; categories
+// with the words in their name come first, then categories matched with fewer prefix letters removed.
+// The last word of a query that is still being typed also matches every term it starts.
+// The layout is documented in SearchIndexCompiler (buildSrc) and must stay in sync with it.
+public class SearchIndex {
+
+    // Extension of every compiled index, the index of a locale is named as in QuestionLocales
+    public static final String INDEX_EXTENSION = ".qidx";
+
+    // Most dictionary terms a word that is still being typed expands to
+    public static final int MAX_PREFIX_TERMS = 64;
+
+    // Format constants, see SearchIndexCompiler
+    private static final int MAGIC = 0x43534958;
+    private static final int VERSION = 1;
+
+    // The whole index, positions inside it are absolute offsets
+    private final ByteBuffer buffer;
+
+    // Header values
+    private final int categoryCount;
+    private final int termCount;
+    private final int termTableOffset;
+    private final int postingTableOffset;
+    private final int sourceCrc;
+
+    // Per-category state of the current query, reused between queries: words of the query matched so
+    // far, words found in the name, the last word found in the name, and prefix letters removed to match
+    private final int[] matchedWords;
+    private final int[] nameWords;
+    private final int[] lastNameWord;
+    private final int[] strippedLetters;
+
+    // Create an index over an already loaded or mapped buffer
+    public SearchIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a supported search index");
+        }
+        categoryCount = buffer.getInt(8);
+        termCount = buffer.getInt(12);
+        termTableOffset = buffer.getInt(16);
+        postingTableOffset = buffer.getInt(24);
+        sourceCrc = buffer.getInt(32);
+        matchedWords = new int[categoryCount];
+        nameWords = new int[categoryCount];
+        lastNameWord = new int[categoryCount];
+        strippedLetters = new int[categoryCount];
+    }
+
+    // Memory-map an index from the assets folder. The asset must be stored uncompressed.
+    public static SearchIndex open(Context context, String asset) throws IOException {
+        try (AssetFileDescriptor fd = context.getAssets().openFd(asset);
+             FileInputStream in = new FileInputStream(fd.getFileDescriptor());
+             FileChannel channel = in.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return new SearchIndex(channel.map(FileChannel.MapMode.READ_ONLY, fd.getStartOffset(), fd.getLength()));
+        }
+    }
+
+    // Number of categories in the index
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    // Number of distinct terms in the index
+    public int getTermCount() {
+        return termCount;
+    }
+
+    // CRC32 of the JSON the index was compiled from
+    public int getSourceCrc() {
+        return sourceCrc;
+    }
+
+    // Return the IDs of the categories matching a query, best matches first, at most maxResults of them
+    public synchronized int[] search(String query, int maxResults) {
+        List<String> words = HebrewTokenizer.tokenize(query);
+        if (words.isEmpty()) {
+            return new int[0];
+        }
+        Arrays.fill(matchedWords, 0);
+        Arrays.fill(nameWords, 0);
+        Arrays.fill(lastNameWord, -1);
+        Arrays.fill(strippedLetters, 0);
+
+        boolean lastWordTyping = HebrewTokenizer.endsInWord(query);
+        for (int w = 0; w < words.size(); w++) {
+            boolean typing = lastWordTyping && w == words.size() - 1;
+            List<String> variants = HebrewTokenizer.variants(words.get(w));
+            // Fewer letters removed first, so a category keeps its best match for this word
+            for (int stripped = 0; stripped < variants.size(); stripped++) {
+                byte[] term = variants.get(stripped).getBytes(StandardCharsets.UTF_8);
+                int first = lowerBound(term);
+                if (typing) {
+                    for (int t = first; t < termCount && t < first + MAX_PREFIX_TERMS && startsWith(t, term); t++) {
+                        countPostings(t, w, stripped);
+                    }
+                } else if (first < termCount && compareTerm(first, term) == 0) {
+                    countPostings(first, w, stripped);
+                }
+            }
+        }
+
+        // Rank the categories matching every word: name matches, then fewer letters removed, then by ID
+        int wordCount = words.size();
+        long[] ranked = new long[categoryCount];
+        int found = 0;
+        for (int id = 0; id < categoryCount; id++) {
+            if (matchedWords[id] == wordCount) {
+                ranked[found++] = ((long) (wordCount - nameWords[id]) << 48) | ((long) strippedLetters[id] << 32) | id;
+            }
+        }
+        Arrays.sort(ranked, 0, found);
+        int[] result = new int[Math.min(found, maxResults)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) ranked[i];
+        }
+        return result;
+    }
+
+    // Count the categories of a term's posting list as matching word w.
+    // A category only counts if it matched every word before w, which makes the words an AND.
+    private void countPostings(int term, int w, int stripped) {
+        int position = buffer.getInt(postingTableOffset + 4 * term);
+        int end = buffer.getInt(postingTableOffset + 4 * (term + 1));
+        int posting = 0;
+        while (position < end) {
+            // Unsigned LEB128 gap to the previous posting
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            posting += gap;
+
+            int id = posting >>> 1;
+            if (matchedWords[id] == w) {
+                matchedWords[id] = w + 1;
+                strippedLetters[id] += stripped;
+            }
+            if ((posting & 1) != 0 && matchedWords[id] == w + 1 && lastNameWord[id] != w) {
+                lastNameWord[id] = w;
+                nameWords[id]++;
+            }
+        }
+    }
+
+    // Index of the first term that is not smaller than the given one
+    private int lowerBound(byte[] term) {
+        int low = 0;
+        int high = termCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareTerm(mid, term) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Compare a dictionary term with the given UTF-8 bytes, byte by byte as unsigned values
+    private int compareTerm(int index, byte[] term) {
+        int start = buffer.getInt(termTableOffset + 4 * index);
+        int length = buffer.getInt(termTableOffset + 4 * (index + 1)) - start;
+        int common = Math.min(length, term.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = (buffer.get(start + i) & 0xFF) - (term[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - term.length;
+    }
+
+    // Whether a dictionary term starts with the given UTF-8 bytes
+    private boolean startsWith(int index, byte[] prefix) {
+        int start = buffer.getInt(termTableOffset + 4 * index);
+        int length = buffer.getInt(termTableOffset + 4 * (index + 1)) - start;
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
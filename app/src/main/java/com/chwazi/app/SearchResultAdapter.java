@@ -0,0 +1,63 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// This is the adapter class for the RecyclerView that shows the categories found by a search.
+// It reuses the category item layout and click listener of CategoryAdapter, so a result starts
+// the game with its category exactly like a row of the full grid does.
+public class SearchResultAdapter extends RecyclerView.Adapter<CategoryAdapter.CategoryViewHolder> {
+
+    // Categories found by the current query, best matches first
+    private final List<QuestionRepository.CategoryMatch> matches = new ArrayList<>();
+    // Listener for item click events
+    private final CategoryAdapter.OnItemClickListener listener;
+
+    // Constructor for the adapter, takes the listener that is given the category ID of a clicked result
+    public SearchResultAdapter(CategoryAdapter.OnItemClickListener listener) {
+        this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    // Method to show the results of a new query
+    public void setMatches(List<QuestionRepository.CategoryMatch> newMatches) {
+        matches.clear();
+        matches.addAll(newMatches);
+        notifyDataSetChanged();
+    }
+
+    // Called when RecyclerView needs a new ViewHolder
+    @Override
+    public CategoryAdapter.CategoryViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        // Inflate the item layout for a category
+        View view = LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_category, parent, false);
+        // Clicks report the category ID of the result, not its position in the list
+        return new CategoryAdapter.CategoryViewHolder(view, position -> listener.onItemClick(matches.get(position).id));
+    }
+
+    // Called to display data at the specified position
+    @Override
+    public void onBindViewHolder(CategoryAdapter.CategoryViewHolder holder, int position) {
+        holder.categoryName.setText(matches.get(position).name);
+    }
+
+    // A result keeps its row when it moves between queries
+    @Override
+    public long getItemId(int position) {
+        return matches.get(position).id;
+    }
+
+    // Returns the total number of results
+    @Override
+    public int getItemCount() {
+        return matches.size();
+    }
+}
@@ -0,0 +1,196 @@
+package com.chwazi.app;
+
+// Import necessary Java classes
+import java.util.SplittableRandom;
+
+// This class picks the participant who answers next, according to a selection policy.
+// A pick happens once every circle is touched, so it is always one of all the participants.
+// One random source is reused for the whole game (seedable, for tests and benchmarks), every array
+// is sized in reset(), and every pick runs in constant time without allocating:
+// - UNIFORM gives everyone the same chance on every pick.
+// - LEAST_RECENTLY_CHOSEN deals the participants like shuffled cards, so everyone is chosen once
+//   before anyone is chosen again, and nobody is chosen twice in a row.
+// - WEIGHTED_BY_ANSWERS favors participants who answered fewer questions, with a Walker alias
+//   table that is rebuilt only when an answer changes the weights.
+public class SelectionEngine {
+
+    // Policies for picking the next participant
+    public enum Policy {
+        UNIFORM,
+        LEAST_RECENTLY_CHOSEN,
+        WEIGHTED_BY_ANSWERS;
+
+        // Return the policy of the given name, or UNIFORM for a missing or unknown name, such as one
+        // saved by an older version of the app
+        public static Policy fromName(String name) {
+            if (name != null) {
+                for (Policy policy : values()) {
+                    if (policy.name().equals(name)) {
+                        return policy;
+                    }
+                }
+            }
+            return UNIFORM;
+        }
+    }
+
+    private final SplittableRandom random;
+    private Policy policy = Policy.UNIFORM;
+    private int count;
+
+    // LEAST_RECENTLY_CHOSEN: participants not chosen in this round come first in the order
+    private int[] order = new int[0];
+    private int remaining;
+
+    // WEIGHTED_BY_ANSWERS: questions answered per participant and the alias table built from them
+    private int[] answered = new int[0];
+    private double[] probability = new double[0];
+    private int[] alias = new int[0];
+    private boolean tableDirty;
+    // Work lists of the table construction, kept to avoid allocating on a rebuild
+    private int[] small = new int[0];
+    private int[] large = new int[0];
+    private double[] scaled = new double[0];
+
+    public SelectionEngine(SplittableRandom random) {
+        this.random = random;
+    }
+
+    // Set the policy used by the next picks
+    public void setPolicy(Policy policy) {
+        this.policy = policy;
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    // Start over with the given number of participants, nobody was chosen or answered yet
+    public void reset(int participantCount) {
+        count = participantCount;
+        if (order.length != participantCount) {
+            order = new int[participantCount];
+            answered = new int[participantCount];
+            probability = new double[participantCount];
+            alias = new int[participantCount];
+            small = new int[participantCount];
+            large = new int[participantCount];
+            scaled = new double[participantCount];
+        }
+        for (int i = 0; i < participantCount; i++) {
+            order[i] = i;
+            answered[i] = 0;
+        }
+        remaining = participantCount;
+        tableDirty = true;
+    }
+
+    // Number of participants to pick from
+    public int getCount() {
+        return count;
+    }
+
+    // The participant answered a question, which lowers their weight
+    public void recordAnswer(int participant) {
+        answered[participant]++;
+        tableDirty = true;
+    }
+
+    public int getAnsweredCount(int participant) {
+        return answered[participant];
+    }
+
+    // Weight of a participant under WEIGHTED_BY_ANSWERS, relative to the others
+    public double getWeight(int participant) {
+        return 1.0 / (1 + answered[participant]);
+    }
+
+    // Pick the next participant according to the policy
+    public int pick() {
+        if (count == 0) {
+            throw new IllegalStateException("No participants to pick from");
+        }
+        switch (policy) {
+            case LEAST_RECENTLY_CHOSEN:
+                return pickLeastRecentlyChosen();
+            case WEIGHTED_BY_ANSWERS:
+                return pickWeighted();
+            default:
+                return random.nextInt(count);
+        }
+    }
+
+    // Deal the next participant of the round, starting a new round once everyone was dealt
+    private int pickLeastRecentlyChosen() {
+        int index;
+        if (remaining == 0) {
+            // The last chosen ended up in order[0], it is dealt again in the new round but not first
+            remaining = count;
+            index = count > 1 ? 1 + random.nextInt(count - 1) : 0;
+        } else {
+            index = random.nextInt(remaining);
+        }
+        int participant = order[index];
+        // Move the chosen participant behind the ones still to be dealt
+        remaining--;
+        swap(index, remaining);
+        return participant;
+    }
+
+    // Pick a column of the alias table, then the column's participant or its alias
+    private int pickWeighted() {
+        if (tableDirty) {
+            buildAliasTable();
+        }
+        int column = random.nextInt(count);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+
+    // Build the alias table of the current weights (Vose's method), linear in the participant count
+    private void buildAliasTable() {
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += getWeight(i);
+        }
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < count; i++) {
+            scaled[i] = getWeight(i) * count / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // What is left is 1 up to rounding errors
+        while (largeCount > 0) {
+            int more = large[--largeCount];
+            probability[more] = 1.0;
+            alias[more] = more;
+        }
+        while (smallCount > 0) {
+            int less = small[--smallCount];
+            probability[less] = 1.0;
+            alias[less] = less;
+        }
+        tableDirty = false;
+    }
+
+    private void swap(int a, int b) {
+        int tmp = order[a];
+        order[a] = order[b];
+        order[b] = tmp;
+    }
+}
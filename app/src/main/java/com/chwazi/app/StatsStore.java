@@ -0,0 +1,690 @@
+package com.chwazi.app;
+
+// Import necessary Android and Java classes
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// This class keeps the lifetime statistics of every player, keyed by the name they enter: games
+// played, wins, answers and correct answers per category, and their longest run of correct answers.
+// Categories are kept by name, not by their position in the bank, which changes with the installed
+// packs and the locale.
+// Every finished game appends one fixed-width record per named player to a history file, which is
+// never rewritten. The totals per player (the rollup) are kept in a second, small file that is
+// replaced after every game, so loading and the hall of fame cost O(players) however long the
+// history is. The rollup remembers how many history records it covers: records appended after it
+// (a crash between the two writes) are replayed on load, and a missing or broken rollup is rebuilt
+// from the whole history. A history of the first version, which kept category IDs, is rewritten
+// once without its categories.
+//
+// History layout (integers big-endian):
+//   header   GAMES_MAGIC, GAMES_VERSION
+//   records  RECORD_SIZE bytes each: long time, short answered, short correct, short best streak,
+//            short streak at the start, short streak at the end, byte flags, byte name length,
+//            MAX_NAME_LENGTH chars of name, byte category length, MAX_CATEGORY_LENGTH chars of
+//            category name (empty when unknown), int crc32 of the record before it
+public class StatsStore {
+
+    // Names of the two files in the app's files dir
+    public static final String GAMES_FILE = "stats_games.bin";
+    public static final String ROLLUP_FILE = "stats_rollup.bin";
+
+    // Longest player and category names a history record holds, longer names are cut
+    static final int MAX_NAME_LENGTH = 22;
+    static final int MAX_CATEGORY_LENGTH = 32;
+    // Size of a history record
+    static final int RECORD_SIZE = 8 + 5 * 2 + 2 + 2 * MAX_NAME_LENGTH + 1 + 2 * MAX_CATEGORY_LENGTH + 4;
+
+    // Format constants
+    private static final int GAMES_MAGIC = 0x43534741; // "CSGA"
+    private static final int ROLLUP_MAGIC = 0x43535255; // "CSRU"
+    private static final int GAMES_VERSION = 2;
+    private static final int ROLLUP_VERSION = 2;
+    private static final int HEADER_SIZE = 2 * 4;
+    // The first history version: records of 72 bytes with an int category ID after the time
+    private static final int GAMES_VERSION_1 = 1;
+    private static final int RECORD_SIZE_1 = 72;
+    private static final int FLAG_WON = 1;
+    // History records read at a time when replaying
+    private static final int REPLAY_BATCH = 512;
+
+    private static final String TAG = "StatsStore";
+
+    // The single instance shared by the whole application
+    private static StatsStore instance;
+
+    // The totals of one player
+    public static class PlayerStats {
+        public final String name;
+        private int games;
+        private int wins;
+        private int answered;
+        private int correct;
+        private int bestStreak;
+        // Correct answers in a row at the end of the last game, a streak goes on into the next game
+        private int currentStreak;
+
+        // Answers per category, sorted by category name
+        private int categoryCount;
+        private String[] categoryNames = new String[4];
+        private int[] categoryAnswered = new int[4];
+        private int[] categoryCorrect = new int[4];
+
+        PlayerStats(String name) {
+            this.name = name;
+        }
+
+        // Getters for the totals
+        public int getGames() {
+            return games;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getAnswered() {
+            return answered;
+        }
+
+        public int getCorrect() {
+            return correct;
+        }
+
+        public int getBestStreak() {
+            return bestStreak;
+        }
+
+        // Share of answers that were correct, 0 before the first answer
+        public float getAccuracy() {
+            return answered == 0 ? 0 : (float) correct / answered;
+        }
+
+        // Categories the player answered questions of
+        public int getCategoryCount() {
+            return categoryCount;
+        }
+
+        public String getCategoryName(int index) {
+            return categoryNames[index];
+        }
+
+        // Answers and correct answers in a category, 0 for a category the player never played
+        public int getCategoryAnswered(String category) {
+            int index = Arrays.binarySearch(categoryNames, 0, categoryCount, categoryKey(category));
+            return index < 0 ? 0 : categoryAnswered[index];
+        }
+
+        public int getCategoryCorrect(String category) {
+            int index = Arrays.binarySearch(categoryNames, 0, categoryCount, categoryKey(category));
+            return index < 0 ? 0 : categoryCorrect[index];
+        }
+
+        // Index of the category the player answered most questions of, or -1 before any category
+        public int getTopCategory() {
+            int top = -1;
+            for (int i = 0; i < categoryCount; i++) {
+                if (top < 0 || categoryAnswered[i] > categoryAnswered[top]) {
+                    top = i;
+                }
+            }
+            return top;
+        }
+
+        // Add one game of the player. Leading and trailing are the correct answers in a row at the
+        // start and at the end of the game, they join the streak of the previous and the next game.
+        // A game of an unknown category, an empty name, only counts towards the totals.
+        void addGame(String category, int gameAnswered, int gameCorrect, int gameBest, int leading,
+                     int trailing, boolean won) {
+            games++;
+            if (won) {
+                wins++;
+            }
+            answered += gameAnswered;
+            correct += gameCorrect;
+            if (gameCorrect == gameAnswered) {
+                currentStreak += gameAnswered;
+            } else {
+                bestStreak = Math.max(bestStreak, Math.max(gameBest, currentStreak + leading));
+                currentStreak = trailing;
+            }
+            bestStreak = Math.max(bestStreak, currentStreak);
+            if (!category.isEmpty()) {
+                addCategory(category, gameAnswered, gameCorrect);
+            }
+        }
+
+        private void addCategory(String category, int gameAnswered, int gameCorrect) {
+            int index = Arrays.binarySearch(categoryNames, 0, categoryCount, category);
+            if (index < 0) {
+                index = -index - 1;
+                if (categoryCount == categoryNames.length) {
+                    int capacity = categoryCount * 2;
+                    categoryNames = Arrays.copyOf(categoryNames, capacity);
+                    categoryAnswered = Arrays.copyOf(categoryAnswered, capacity);
+                    categoryCorrect = Arrays.copyOf(categoryCorrect, capacity);
+                }
+                int moved = categoryCount - index;
+                System.arraycopy(categoryNames, index, categoryNames, index + 1, moved);
+                System.arraycopy(categoryAnswered, index, categoryAnswered, index + 1, moved);
+                System.arraycopy(categoryCorrect, index, categoryCorrect, index + 1, moved);
+                categoryNames[index] = category;
+                categoryAnswered[index] = 0;
+                categoryCorrect[index] = 0;
+                categoryCount++;
+            }
+            categoryAnswered[index] += gameAnswered;
+            categoryCorrect[index] += gameCorrect;
+        }
+
+        PlayerStats copy() {
+            PlayerStats copy = new PlayerStats(name);
+            copy.games = games;
+            copy.wins = wins;
+            copy.answered = answered;
+            copy.correct = correct;
+            copy.bestStreak = bestStreak;
+            copy.currentStreak = currentStreak;
+            copy.categoryCount = categoryCount;
+            copy.categoryNames = Arrays.copyOf(categoryNames, Math.max(1, categoryCount));
+            copy.categoryAnswered = Arrays.copyOf(categoryAnswered, Math.max(1, categoryCount));
+            copy.categoryCorrect = Arrays.copyOf(categoryCorrect, Math.max(1, categoryCount));
+            return copy;
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeUTF(name);
+            out.writeInt(games);
+            out.writeInt(wins);
+            out.writeInt(answered);
+            out.writeInt(correct);
+            out.writeInt(bestStreak);
+            out.writeInt(currentStreak);
+            out.writeInt(categoryCount);
+            for (int i = 0; i < categoryCount; i++) {
+                out.writeUTF(categoryNames[i]);
+                out.writeInt(categoryAnswered[i]);
+                out.writeInt(categoryCorrect[i]);
+            }
+        }
+
+        static PlayerStats readFrom(DataInputStream in) throws IOException {
+            PlayerStats player = new PlayerStats(in.readUTF());
+            player.games = in.readInt();
+            player.wins = in.readInt();
+            player.answered = in.readInt();
+            player.correct = in.readInt();
+            player.bestStreak = in.readInt();
+            player.currentStreak = in.readInt();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Bad category count " + count);
+            }
+            player.categoryCount = count;
+            player.categoryNames = new String[Math.max(1, count)];
+            player.categoryAnswered = new int[player.categoryNames.length];
+            player.categoryCorrect = new int[player.categoryNames.length];
+            for (int i = 0; i < count; i++) {
+                player.categoryNames[i] = in.readUTF();
+                player.categoryAnswered[i] = in.readInt();
+                player.categoryCorrect[i] = in.readInt();
+            }
+            return player;
+        }
+    }
+
+    // Orders the hall of fame: most wins first, then best accuracy, then most games
+    private static final Comparator<PlayerStats> RANKING = (a, b) -> {
+        if (a.wins != b.wins) {
+            return Integer.compare(b.wins, a.wins);
+        }
+        int accuracy = Float.compare(b.getAccuracy(), a.getAccuracy());
+        if (accuracy != 0) {
+            return accuracy;
+        }
+        if (a.games != b.games) {
+            return Integer.compare(b.games, a.games);
+        }
+        return a.name.compareTo(b.name);
+    };
+
+    private final File gamesFile;
+    private final File rollupFile;
+
+    // Totals by player name, null until the store is loaded
+    private Map<String, PlayerStats> players;
+    // Number of whole records in the history
+    private long recordCount;
+
+    // Create a store kept in the given directory. Nothing is read until it is first used.
+    public StatsStore(File directory) {
+        gamesFile = new File(directory, GAMES_FILE);
+        rollupFile = new File(directory, ROLLUP_FILE);
+    }
+
+    // Return the shared store, creating it on first use
+    public static synchronized StatsStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new StatsStore(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    // Return every player, best first. This may read from disk, call it off the main thread.
+    public synchronized List<PlayerStats> getHallOfFame() {
+        ensureLoaded();
+        List<PlayerStats> ranked = new ArrayList<>(players.size());
+        for (PlayerStats player : players.values()) {
+            ranked.add(player.copy());
+        }
+        Collections.sort(ranked, RANKING);
+        return ranked;
+    }
+
+    // Return the totals of one player, or null if no game of theirs was recorded
+    public synchronized PlayerStats getPlayer(String name) {
+        ensureLoaded();
+        PlayerStats player = players.get(key(name));
+        return player == null ? null : player.copy();
+    }
+
+    // Number of records in the history, one per player per game
+    public synchronized long getRecordCount() {
+        ensureLoaded();
+        return recordCount;
+    }
+
+    // Record a finished game in the background. The game is a copy taken from the journal, so it
+    // can be read on another thread.
+    public void recordGameAsync(GameJournal.Game game) {
+        long time = System.currentTimeMillis();
+        AsyncLoader.prefetch(() -> {
+            try {
+                recordGame(game, time);
+            } catch (IOException e) {
+                // Only the statistics miss this game, the game itself is not affected
+                Log.w(TAG, "Could not record the game's statistics", e);
+            }
+        });
+    }
+
+    // Append a finished game to the history and update the players' totals.
+    // Returns the number of players recorded, participants without a name are left out.
+    public synchronized int recordGame(GameJournal.Game game, long time) throws IOException {
+        ensureLoaded();
+        int count = game.getParticipantCount();
+
+        // Results per player, participants who entered the same name count as one player
+        String[] names = new String[count];
+        int[] slot = new int[count];
+        int[] answered = new int[count];
+        int[] correct = new int[count];
+        int[] best = new int[count];
+        int[] leading = new int[count];
+        int[] run = new int[count];
+        int[] scores = new int[count];
+        int playerCount = 0;
+        for (int i = 0; i < count; i++) {
+            slot[i] = -1;
+            if (game.names[i] == null || game.names[i].trim().isEmpty()) {
+                continue;
+            }
+            String name = key(game.names[i]);
+            int p = 0;
+            while (p < playerCount && !names[p].equals(name)) {
+                p++;
+            }
+            if (p == playerCount) {
+                names[playerCount++] = name;
+            }
+            slot[i] = p;
+        }
+        if (playerCount == 0) {
+            return 0;
+        }
+
+        // Replay the answers in order to count the runs of correct answers
+        boolean[] missed = new boolean[count];
+        for (int a = 0; a < game.getAnswerCount(); a++) {
+            int participant = game.getAnswerParticipant(a);
+            int p = participant < count ? slot[participant] : -1;
+            if (p < 0) {
+                continue;
+            }
+            answered[p]++;
+            if (game.isAnswerCorrect(a)) {
+                correct[p]++;
+                scores[participant]++;
+                run[p]++;
+                best[p] = Math.max(best[p], run[p]);
+                if (!missed[p]) {
+                    leading[p]++;
+                }
+            } else {
+                missed[p] = true;
+                run[p] = 0;
+            }
+        }
+
+        // The winner is the participant with the highest score, as long as nobody shares it
+        int winner = -1;
+        int top = 0;
+        boolean tied = false;
+        for (int i = 0; i < count; i++) {
+            if (scores[i] > top) {
+                top = scores[i];
+                winner = i;
+                tied = false;
+            } else if (scores[i] == top && top > 0) {
+                tied = true;
+            }
+        }
+        int winningPlayer = winner < 0 || tied ? -1 : slot[winner];
+
+        String category = game.categoryName == null ? "" : categoryKey(game.categoryName);
+        ByteBuffer records = ByteBuffer.allocate(playerCount * RECORD_SIZE);
+        for (int p = 0; p < playerCount; p++) {
+            encodeRecord(records, time, category, names[p], answered[p], correct[p], best[p],
+                    leading[p], run[p], p == winningPlayer);
+        }
+        append(records.array());
+
+        // The history is on disk, the totals follow
+        for (int p = 0; p < playerCount; p++) {
+            apply(names[p], category, answered[p], correct[p], best[p], leading[p], run[p],
+                    p == winningPlayer);
+        }
+        recordCount += playerCount;
+        writeRollup();
+        return playerCount;
+    }
+
+    // Encode one history record at the buffer's position
+    static void encodeRecord(ByteBuffer out, long time, String category, String name, int answered, int correct,
+                             int best, int leading, int trailing, boolean won) {
+        int start = out.position();
+        out.putLong(time);
+        out.putShort(clampShort(answered));
+        out.putShort(clampShort(correct));
+        out.putShort(clampShort(best));
+        out.putShort(clampShort(leading));
+        out.putShort(clampShort(trailing));
+        out.put((byte) (won ? FLAG_WON : 0));
+        putName(out, key(name), MAX_NAME_LENGTH);
+        putName(out, categoryKey(category), MAX_CATEGORY_LENGTH);
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), out.arrayOffset() + start, RECORD_SIZE - 4);
+        out.putInt((int) crc.getValue());
+    }
+
+    // Write a name's length and its chars, padded to the given length
+    private static void putName(ByteBuffer out, String name, int maxLength) {
+        out.put((byte) name.length());
+        for (int i = 0; i < maxLength; i++) {
+            out.putChar(i < name.length() ? name.charAt(i) : 0);
+        }
+    }
+
+    // Read a name written by putName
+    private static String getName(ByteBuffer in, char[] chars) {
+        int length = Math.min(in.get() & 0xFF, chars.length);
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = in.getChar();
+        }
+        return new String(chars, 0, length);
+    }
+
+    // The name a player is stored under: trimmed and cut to what a record holds
+    static String key(String name) {
+        return cut(name, MAX_NAME_LENGTH);
+    }
+
+    // The name a category is stored under, the same way
+    static String categoryKey(String category) {
+        return cut(category, MAX_CATEGORY_LENGTH);
+    }
+
+    private static String cut(String name, int maxLength) {
+        String trimmed = name.trim();
+        if (trimmed.length() <= maxLength) {
+            return trimmed;
+        }
+        int end = maxLength;
+        // Do not leave half of a surrogate pair behind
+        if (Character.isHighSurrogate(trimmed.charAt(end - 1))) {
+            end--;
+        }
+        return trimmed.substring(0, end);
+    }
+
+    private static short clampShort(int value) {
+        return (short) Math.min(value, Short.MAX_VALUE);
+    }
+
+    // Add one game to a player's totals, creating the player on their first game
+    private void apply(String name, String category, int answered, int correct, int best, int leading,
+                       int trailing, boolean won) {
+        PlayerStats player = players.get(name);
+        if (player == null) {
+            player = new PlayerStats(name);
+            players.put(name, player);
+        }
+        player.addGame(category, answered, correct, best, leading, trailing, won);
+    }
+
+    // Read the rollup, then replay whatever part of the history it does not cover
+    private void ensureLoaded() {
+        if (players != null) {
+            return;
+        }
+        players = new HashMap<>();
+        upgradeHistory();
+        recordCount = countRecords();
+        long covered = readRollup();
+        if (covered < 0 || covered > recordCount) {
+            // No usable rollup, or one of a history that was lost: start from the history alone
+            players.clear();
+            covered = 0;
+        }
+        if (covered < recordCount) {
+            try {
+                replay(covered);
+                writeRollup();
+            } catch (IOException e) {
+                Log.w(TAG, "Could not replay the statistics history", e);
+            }
+        }
+    }
+
+    // Number of whole records in the history, 0 if there is no history of this format
+    private long countRecords() {
+        if (!gamesFile.isFile() || gamesFile.length() < HEADER_SIZE) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(gamesFile))) {
+            if (in.readInt() != GAMES_MAGIC || in.readInt() != GAMES_VERSION) {
+                return 0;
+            }
+        } catch (IOException e) {
+            return 0;
+        }
+        return (gamesFile.length() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    // Read the totals from the rollup, returns the number of history records they cover or -1
+    private long readRollup() {
+        if (!rollupFile.isFile()) {
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(rollupFile)))) {
+            if (in.readInt() != ROLLUP_MAGIC || in.readInt() != ROLLUP_VERSION) {
+                return -1;
+            }
+            long covered = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                PlayerStats player = PlayerStats.readFrom(in);
+                players.put(player.name, player);
+            }
+            return covered;
+        } catch (IOException e) {
+            // A broken rollup is rebuilt from the history
+            players.clear();
+            return -1;
+        }
+    }
+
+    // Add the history records from the given one on to the totals, skipping any that fail their CRC
+    private void replay(long from) throws IOException {
+        byte[] buffer = new byte[REPLAY_BATCH * RECORD_SIZE];
+        ByteBuffer records = ByteBuffer.wrap(buffer);
+        CRC32 crc = new CRC32();
+        char[] name = new char[MAX_NAME_LENGTH];
+        char[] category = new char[MAX_CATEGORY_LENGTH];
+        try (RandomAccessFile in = new RandomAccessFile(gamesFile, "r")) {
+            in.seek(HEADER_SIZE + from * RECORD_SIZE);
+            long left = recordCount - from;
+            while (left > 0) {
+                int batch = (int) Math.min(left, REPLAY_BATCH);
+                in.readFully(buffer, 0, batch * RECORD_SIZE);
+                for (int r = 0; r < batch; r++) {
+                    int start = r * RECORD_SIZE;
+                    crc.reset();
+                    crc.update(buffer, start, RECORD_SIZE - 4);
+                    if ((int) crc.getValue() != records.getInt(start + RECORD_SIZE - 4)) {
+                        continue;
+                    }
+                    records.position(start + 8);
+                    int answered = records.getShort();
+                    int correct = records.getShort();
+                    int best = records.getShort();
+                    int leading = records.getShort();
+                    int trailing = records.getShort();
+                    boolean won = (records.get() & FLAG_WON) != 0;
+                    String player = getName(records, name);
+                    apply(player, getName(records, category), answered, correct, best, leading, trailing, won);
+                }
+                left -= batch;
+            }
+        }
+    }
+
+    // Rewrite a history of the first version in the current one. Its category IDs no longer say which
+    // category a game was played in, so its games only count towards the totals. Records that fail
+    // their CRC are dropped, and the rollup is rebuilt from the new history.
+    private void upgradeHistory() {
+        if (!gamesFile.isFile() || gamesFile.length() < HEADER_SIZE) {
+            return;
+        }
+        File tmp = new File(gamesFile.getPath() + ".tmp");
+        try (RandomAccessFile in = new RandomAccessFile(gamesFile, "r")) {
+            if (in.readInt() != GAMES_MAGIC || in.readInt() != GAMES_VERSION_1) {
+                return;
+            }
+            byte[] record = new byte[RECORD_SIZE_1];
+            ByteBuffer old = ByteBuffer.wrap(record);
+            ByteBuffer converted = ByteBuffer.allocate(RECORD_SIZE);
+            CRC32 crc = new CRC32();
+            char[] name = new char[MAX_NAME_LENGTH];
+            try (FileOutputStream file = new FileOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+                out.writeInt(GAMES_MAGIC);
+                out.writeInt(GAMES_VERSION);
+                for (long left = (in.length() - HEADER_SIZE) / RECORD_SIZE_1; left > 0; left--) {
+                    in.readFully(record);
+                    crc.reset();
+                    crc.update(record, 0, RECORD_SIZE_1 - 4);
+                    if ((int) crc.getValue() != old.getInt(RECORD_SIZE_1 - 4)) {
+                        continue;
+                    }
+                    // Skip the category ID after the time
+                    old.position(12);
+                    long time = old.getLong(0);
+                    int answered = old.getShort();
+                    int correct = old.getShort();
+                    int best = old.getShort();
+                    int leading = old.getShort();
+                    int trailing = old.getShort();
+                    boolean won = (old.get() & FLAG_WON) != 0;
+                    String player = getName(old, name);
+                    converted.clear();
+                    encodeRecord(converted, time, "", player, answered, correct, best, leading, trailing, won);
+                    out.write(converted.array());
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not upgrade the statistics history", e);
+            tmp.delete();
+            return;
+        }
+        if (tmp.renameTo(gamesFile)) {
+            rollupFile.delete();
+        } else {
+            tmp.delete();
+        }
+    }
+
+    // Append records to the history and sync them, dropping a record cut short by a crash first
+    private void append(byte[] records) throws IOException {
+        File parent = gamesFile.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+        try (RandomAccessFile out = new RandomAccessFile(gamesFile, "rw")) {
+            if (recordCount == 0) {
+                // A new history, or one of another format that is replaced
+                out.setLength(0);
+                out.writeInt(GAMES_MAGIC);
+                out.writeInt(GAMES_VERSION);
+            } else {
+                out.setLength(HEADER_SIZE + recordCount * RECORD_SIZE);
+                out.seek(out.length());
+            }
+            out.write(records);
+            out.getFD().sync();
+        }
+    }
+
+    // Replace the rollup with the current totals. It is not synced: if it is lost, it is rebuilt
+    // from the history, which is.
+    private void writeRollup() {
+        File tmp = new File(rollupFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(ROLLUP_MAGIC);
+            out.writeInt(ROLLUP_VERSION);
+            out.writeLong(recordCount);
+            out.writeInt(players.size());
+            for (PlayerStats player : players.values()) {
+                player.writeTo(out);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write the statistics rollup", e);
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(rollupFile)) {
+            Log.w(TAG, "Could not replace " + rollupFile);
+            tmp.delete();
+        }
+    }
+}
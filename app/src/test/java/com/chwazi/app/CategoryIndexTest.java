@@ -0,0 +1,106 @@
+package com.chwazi.app;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CategoryIndex}, the fallback used when the question pack is missing:
+ * every indexed block parses to its category on its own, the index survives a write and read, and an
+ * index built from an older bank is told apart from the current one.
+ */
+public class CategoryIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Names with braces, brackets and escaped quotes, so the block scanner has to track strings
+    private static final String JSON = "[\n"
+            + "  {\"category\": \"חידות {במתמטיקה}\", \"questions\": [\n"
+            + "    {\"question\": \"כמה זה [2 + 2]?\", \"options\": [\"3\", \"4\"], \"correctAnswer\": 1},\n"
+            + "    {\"question\": \"מה אמר \\\"הוא\\\" }?\", \"options\": [\"כן\", \"לא\"], \"correctAnswer\": 0}\n"
+            + "  ]},\n"
+            + "  {\"category\": \"ריקה\", \"questions\": []},\n"
+            + "  {\"questions\": [{\"question\": \"q\", \"options\": [\"a\"], \"correctAnswer\": 0}], \"category\": \"שם בסוף\"}\n"
+            + "]\n";
+
+    private static CategoryIndex build(String json) throws IOException {
+        return CategoryIndex.build(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 7);
+    }
+
+    @Test
+    public void blocksParseToTheirCategories() throws IOException {
+        CategoryIndex index = build(JSON);
+        byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Arrays.asList("חידות {במתמטיקה}", "ריקה", "שם בסוף"), index.getNames());
+        assertEquals(2, index.getQuestionCount(0));
+        assertEquals(0, index.getQuestionCount(1));
+        assertEquals(1, index.getQuestionCount(2));
+        for (int i = 0; i < index.size(); i++) {
+            CategoryData data = JsonLoader.readCategoryBlock(new ByteArrayInputStream(
+                    bytes, (int) index.getOffset(i), index.getLength(i)));
+            assertEquals(index.getName(i), data.getCategory());
+            assertEquals(index.getQuestionCount(i), data.getQuestions().size());
+        }
+        assertEquals("מה אמר \"הוא\" }?", JsonLoader.readCategoryBlock(new ByteArrayInputStream(
+                bytes, (int) index.getOffset(0), index.getLength(0))).getQuestions().get(1).getQuestion());
+        assertEquals(1, index.find("ריקה"));
+        assertEquals(-1, index.find("אין כזו"));
+    }
+
+    @Test
+    public void indexRoundTripsThroughAFile() throws IOException {
+        CategoryIndex index = build(JSON);
+        File file = new File(folder.getRoot(), "category_index.bin");
+        index.writeTo(file);
+
+        CategoryIndex read = CategoryIndex.readFrom(file);
+        assertNotNull(read);
+        assertEquals(index.getSourceCrc(), read.getSourceCrc());
+        assertEquals(7, read.getSourceStamp());
+        assertEquals(index.getNames(), read.getNames());
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(index.getQuestionCount(i), read.getQuestionCount(i));
+            assertEquals(index.getOffset(i), read.getOffset(i));
+            assertEquals(index.getLength(i), read.getLength(i));
+        }
+        assertEquals(9, read.withSourceStamp(9).getSourceStamp());
+        assertNull(CategoryIndex.readFrom(new File(folder.getRoot(), "missing.bin")));
+    }
+
+    @Test
+    public void corruptFileIsNotRead() throws IOException {
+        File file = new File(folder.getRoot(), "category_index.bin");
+        build(JSON).writeTo(file);
+        // Overwrite the category count, after the magic, version, checksum and stamp
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(20);
+            raf.writeInt(-1);
+        }
+        assertNull(CategoryIndex.readFrom(file));
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(20);
+            raf.writeInt(Integer.MAX_VALUE);
+        }
+        assertNull(CategoryIndex.readFrom(file));
+    }
+
+    @Test
+    public void indexOfAnOlderBankIsStale() throws IOException {
+        CategoryIndex index = build(JSON);
+        assertTrue(index.matches(new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8))));
+        String changed = JSON.replace("ריקה", "מלאה");
+        assertFalse(index.matches(new ByteArrayInputStream(changed.getBytes(StandardCharsets.UTF_8))));
+        assertNotEquals(index.getSourceCrc(), build(changed).getSourceCrc());
+    }
+}
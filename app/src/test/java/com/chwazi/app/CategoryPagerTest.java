@@ -0,0 +1,120 @@
+package com.chwazi.app;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CategoryPager}: pages are requested once as positions are shown,
+ * neighbouring pages are prefetched, and the number of held pages stays bounded while scrolling
+ * through thousands of categories.
+ */
+public class CategoryPagerTest {
+
+    private CategoryPager pager;
+    // Pages requested and not answered yet, and ranges reported as loaded
+    private List<Integer> requested;
+    private List<String> loadedRanges;
+
+    @Before
+    public void setUp() {
+        requested = new ArrayList<>();
+        loadedRanges = new ArrayList<>();
+        pager = new CategoryPager((page, start, count) -> requested.add(page),
+                (start, count) -> loadedRanges.add(start + "+" + count));
+    }
+
+    // Answer every pending request with names made from the category IDs
+    private void answerRequests() {
+        List<Integer> pages = new ArrayList<>(requested);
+        requested.clear();
+        for (int page : pages) {
+            int start = page * CategoryPager.PAGE_SIZE;
+            int size = Math.min(CategoryPager.PAGE_SIZE, pager.getCount() - start);
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                names.add("category " + (start + i));
+            }
+            pager.onPageLoaded(page, names);
+        }
+    }
+
+    @Test
+    public void loadsAPageOnceWhenItIsShown() {
+        pager.setCount(150);
+        assertNull(pager.getName(30));
+        assertNull(pager.getName(31));
+        assertEquals(1, requested.size());
+        assertEquals(0, (int) requested.get(0));
+
+        answerRequests();
+        assertEquals("category 30", pager.getName(30));
+        assertEquals("0+60", loadedRanges.get(0));
+        assertTrue(requested.isEmpty());
+
+        // The last page is partial
+        assertNull(pager.getName(149));
+        answerRequests();
+        assertEquals("category 149", pager.getName(149));
+        assertEquals("120+30", loadedRanges.get(1));
+    }
+
+    @Test
+    public void prefetchesTheNextPageNearThePageEnd() {
+        pager.setCount(1000);
+        pager.getName(0);
+        answerRequests();
+        pager.getName(CategoryPager.PAGE_SIZE - CategoryPager.PREFETCH_DISTANCE - 1);
+        assertTrue(requested.isEmpty());
+        pager.getName(CategoryPager.PAGE_SIZE - CategoryPager.PREFETCH_DISTANCE);
+        assertEquals(1, requested.size());
+        assertEquals(1, (int) requested.get(0));
+        answerRequests();
+        // The next page is ready before it is shown
+        assertEquals("category " + CategoryPager.PAGE_SIZE, pager.getName(CategoryPager.PAGE_SIZE));
+    }
+
+    @Test
+    public void holdsABoundedNumberOfPages() {
+        int count = 5000;
+        pager.setCount(count);
+        // Scroll through every category and back
+        for (int position = 0; position < count; position++) {
+            if (pager.getName(position) == null) {
+                answerRequests();
+                assertEquals("category " + position, pager.getName(position));
+            }
+            assertTrue(pager.getLoadedPageCount() <= CategoryPager.MAX_PAGES);
+        }
+        for (int position = count - 1; position >= 0; position--) {
+            if (pager.getName(position) == null) {
+                answerRequests();
+            }
+            assertEquals("category " + position, pager.getName(position));
+        }
+        assertEquals(CategoryPager.MAX_PAGES, pager.getLoadedPageCount());
+        assertFalse(pager.isLoaded(count / CategoryPager.PAGE_SIZE));
+    }
+
+    @Test
+    public void ignoresStaleAndFailedPages() {
+        pager.setCount(100);
+        pager.getName(0);
+        // The count changes before the page arrives, the old request is dropped
+        pager.setCount(100);
+        answerRequests();
+        assertFalse(pager.isLoaded(0));
+        assertTrue(loadedRanges.isEmpty());
+
+        // A failed page is requested again the next time it is shown
+        pager.getName(0);
+        requested.clear();
+        pager.onPageFailed(0);
+        assertNull(pager.getName(0));
+        assertEquals(1, requested.size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.chwazi.app;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link CircleLayout} and {@link ParticipantPalette}: circles never overlap and
+ * stay inside the container for 2 to 20 participants, from a phone screen down to a tiny view, and
+ * every participant gets a distinct, opaque color.
+ */
+public class CircleLayoutTest {
+
+    private static final float MAX_RADIUS = 150;
+    private static final float GAP = 24;
+    // Containers of a phone in portrait and landscape, a tablet, a small view and a tiny one
+    private static final int[][] CONTAINERS = {{1080, 1920}, {1920, 1080}, {1600, 2560}, {400, 400}, {90, 120}};
+
+    private static void assertFits(CircleLayout layout, int count, int width, int height, float gap) {
+        String where = count + " circles in " + width + "x" + height;
+        float r = layout.getRadius();
+        assertTrue(where + ": radius " + r, r > 0 && r <= MAX_RADIUS);
+        float epsilon = 0.01f;
+        for (int i = 0; i < count; i++) {
+            float x = layout.getCenterX(i);
+            float y = layout.getCenterY(i);
+            assertTrue(where + ": circle " + i + " out of bounds",
+                    x - r >= -epsilon && x + r <= width + epsilon && y - r >= -epsilon && y + r <= height + epsilon);
+            for (int j = 0; j < i; j++) {
+                double distance = Math.hypot(x - layout.getCenterX(j), y - layout.getCenterY(j));
+                assertTrue(where + ": circles " + j + " and " + i + " are " + distance + " apart",
+                        distance >= 2 * r + gap - epsilon);
+            }
+        }
+    }
+
+    @Test
+    public void circlesNeverOverlapAndStayInside() {
+        CircleLayout layout = new CircleLayout();
+        for (int[] container : CONTAINERS) {
+            for (int count = 2; count <= 20; count++) {
+                layout.layout(count, container[0], container[1], MAX_RADIUS, GAP);
+                // The tiny container has no room for the gap, its circles may only touch
+                assertFits(layout, count, container[0], container[1], container[0] < 100 ? 0 : GAP);
+            }
+        }
+    }
+
+    @Test
+    public void fewParticipantsGetTheLargestCircles() {
+        CircleLayout layout = new CircleLayout();
+        layout.layout(2, 1080, 1920, MAX_RADIUS, GAP);
+        assertEquals(MAX_RADIUS, layout.getRadius(), 0.01f);
+        layout.layout(5, 1080, 1920, MAX_RADIUS, GAP);
+        float five = layout.getRadius();
+        layout.layout(20, 1080, 1920, MAX_RADIUS, GAP);
+        assertTrue(layout.getRadius() <= five);
+    }
+
+    @Test
+    public void layoutIsOnlyRecomputedOnChange() {
+        CircleLayout layout = new CircleLayout();
+        assertTrue(layout.layout(5, 1080, 1920, MAX_RADIUS, GAP));
+        assertFalse(layout.layout(5, 1080, 1920, MAX_RADIUS, GAP));
+        assertTrue(layout.layout(5, 1920, 1080, MAX_RADIUS, GAP));
+        assertTrue(layout.layout(0, 1920, 1080, MAX_RADIUS, GAP));
+        assertEquals(0, layout.getRadius(), 0);
+    }
+
+    @Test
+    public void paletteColorsAreOpaqueAndDistinct() {
+        for (int count = 2; count <= 20; count++) {
+            int[] colors = ParticipantPalette.generate(count);
+            assertEquals(count, colors.length);
+            Set<Integer> seen = new HashSet<>();
+            for (int color : colors) {
+                assertEquals(0xFF, color >>> 24);
+                assertTrue(count + " colors repeat " + Integer.toHexString(color), seen.add(color));
+            }
+            // Neighbouring participants never get near identical colors
+            for (int i = 1; i < count; i++) {
+                assertTrue(count + " colors: " + (i - 1) + " and " + i + " are too close",
+                        rgbDistance(colors[i - 1], colors[i]) > 40);
+            }
+        }
+        // Adding players keeps the colors of the first ones for small tables
+        assertArrayEquals(ParticipantPalette.generate(3), java.util.Arrays.copyOf(ParticipantPalette.generate(5), 3));
+    }
+
+    private static double rgbDistance(int a, int b) {
+        int dr = ((a >> 16) & 0xFF) - ((b >> 16) & 0xFF);
+        int dg = ((a >> 8) & 0xFF) - ((b >> 8) & 0xFF);
+        int db = (a & 0xFF) - (b & 0xFF);
+        return Math.sqrt(dr * dr + dg * dg + db * db);
+    }
+}
@@ -0,0 +1,154 @@
+package com.chwazi.app;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CompactQuestionBank}: a packed bank reads back exactly the questions it was built
+ * from, shares repeated strings, and retains several times less heap than the object graph Gson
+ * builds for the same bank.
+ */
+public class CompactQuestionBankTest {
+
+    private static final int CATEGORY_COUNT = 400;
+    private static final int QUESTIONS_PER_CATEGORY = 50;
+
+    // Options that repeat all over a real bank
+    private static final String[][] COMMON_OPTIONS = {
+            {"3", "4", "5", "6"}, {"כן", "לא"}, {"1", "2", "3", "4"}, {"נכון", "לא נכון"},
+    };
+
+    private static String json;
+
+    @BeforeClass
+    public static void generateBank() {
+        StringBuilder w = new StringBuilder("[\n");
+        for (int c = 0; c < CATEGORY_COUNT; c++) {
+            if (c > 0) w.append(",\n");
+            w.append("{\"category\": \"קטגוריה ").append(c).append("\", \"questions\": [");
+            for (int q = 0; q < QUESTIONS_PER_CATEGORY; q++) {
+                if (q > 0) w.append(",");
+                w.append("{\"question\": \"מהי התשובה הנכונה לשאלה מספר ").append(q)
+                        .append(" בקטגוריה ").append(c).append("?\", \"options\": [");
+                // Every fifth question has options of its own, the others use the common ones
+                String[] options = q % 5 == 0
+                        ? new String[]{"תשובה " + q, "תשובה " + (q + 1), "תשובה " + c, "אף אחת"}
+                        : COMMON_OPTIONS[q % COMMON_OPTIONS.length];
+                for (int o = 0; o < options.length; o++) {
+                    if (o > 0) w.append(", ");
+                    w.append('"').append(options[o]).append('"');
+                }
+                w.append("], \"correctAnswer\": ").append(q % options.length).append("}");
+            }
+            w.append("]}");
+        }
+        json = w.append("\n]\n").toString();
+    }
+
+    private static List<CategoryData> parse() throws IOException {
+        return JsonLoader.readCategories(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void bankReadsBackWhatItWasBuiltFrom() throws IOException {
+        List<CategoryData> expected = parse();
+        CompactQuestionBank bank = CompactQuestionBank.build(expected);
+
+        assertEquals(CATEGORY_COUNT, bank.getCategoryCount());
+        assertEquals(CATEGORY_COUNT * QUESTIONS_PER_CATEGORY, bank.getQuestionCount());
+        for (int c = 0; c < expected.size(); c++) {
+            CategoryData category = expected.get(c);
+            assertEquals(category.getCategory(), bank.getCategoryName(c));
+            List<Question> questions = bank.getQuestions(c);
+            assertEquals(category.getQuestions().size(), questions.size());
+            for (int q = 0; q < questions.size(); q++) {
+                Question e = category.getQuestions().get(q);
+                Question a = questions.get(q);
+                assertEquals(e.getQuestion(), a.getQuestion());
+                assertEquals(e.getOptions(), a.getOptions());
+                assertEquals(e.getCorrectAnswer(), a.getCorrectAnswer());
+            }
+        }
+    }
+
+    @Test
+    public void repeatedStringsAreStoredOnce() {
+        List<Question> questions = Arrays.asList(
+                new Question("כמה?", Arrays.asList("3", "4", "5", "6"), 2),
+                new Question("ועכשיו כמה?", Arrays.asList("4", "5", "6", "3"), 0),
+                new Question("כמה?", Arrays.asList("כן", "לא"), 1));
+        CompactQuestionBank bank = CompactQuestionBank.build(
+                Collections.singletonList(new CategoryData("כן", questions)));
+
+        // The name is the same string as an option, the first and last texts are the same too
+        assertEquals(8, bank.getStringCount());
+        List<Question> packed = bank.getQuestions(0);
+        assertEquals(Arrays.asList("כן", "לא"), packed.get(2).getOptions());
+        assertEquals(1, packed.get(2).getCorrectAnswer());
+        assertSame(bank, CompactQuestionBank.bankOf(packed));
+        assertNull(CompactQuestionBank.bankOf(questions));
+        assertTrue(QuestionCache.estimateBytes(packed) < QuestionCache.estimateBytes(questions));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void correctAnswerMustFitInAByte() {
+        CompactQuestionBank.build(Collections.singletonList(new CategoryData("c",
+                Collections.singletonList(new Question("q", Arrays.asList("a", "b"), 1000)))));
+    }
+
+    @Test
+    public void retainsSeveralTimesLessHeapThanGsonObjects() throws IOException {
+        long before = usedHeap();
+        List<LegacyCategory> legacy = new Gson().fromJson(json, new TypeToken<List<LegacyCategory>>() {}.getType());
+        long legacyBytes = usedHeap() - before;
+        assertEquals(CATEGORY_COUNT, legacy.size());
+        legacy = null;
+
+        // The parsed categories are garbage once the bank is built
+        before = usedHeap();
+        CompactQuestionBank bank = CompactQuestionBank.build(parse());
+        long compactBytes = usedHeap() - before;
+        assertEquals(CATEGORY_COUNT, bank.getCategoryCount());
+
+        assertTrue("compact " + compactBytes + " vs Gson " + legacyBytes, compactBytes * 3 < legacyBytes);
+    }
+
+    // Heap in use after collecting garbage until it stops shrinking
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                break;
+            }
+            used = now;
+        }
+        return used;
+    }
+
+    // The question and category classes as they were before the compact bank, filled in by Gson
+    private static class LegacyQuestion {
+        String question;
+        List<String> options;
+        int correctAnswer;
+    }
+
+    private static class LegacyCategory {
+        String category;
+        List<LegacyQuestion> questions;
+    }
+}
@@ -0,0 +1,378 @@
+package com.chwazi.app;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit tests for {@link GameEngine}: the state machine of a game, checked event by event,
+ * and a million simulated turns to measure throughput and catch allocation on the event path.
+ */
+public class GameEngineTest {
+
+    private static final int[] COLORS = {1, 2, 3, 4};
+
+    // Listener that records the engine's commands
+    private static class RecordingListener implements GameEngine.Listener {
+        final List<String> commands = new ArrayList<>();
+
+        @Override
+        public void onCountdownStarted() {
+            commands.add("countdown");
+        }
+
+        @Override
+        public void onCountdownCancelled() {
+            commands.add("cancelled");
+        }
+
+        @Override
+        public void onParticipantSelected(int participant) {
+            commands.add("selected " + participant);
+        }
+
+        @Override
+        public void onNameRequested(int participant) {
+            commands.add("name " + participant);
+        }
+
+        @Override
+        public void onQuestionAsked(int participant, Question question) {
+            commands.add("ask " + participant + " " + question.getQuestion());
+        }
+
+        @Override
+        public void onAnswerScored(int participant, int selectedOption, boolean correct) {
+            commands.add("scored " + participant + " " + correct);
+        }
+
+        @Override
+        public void onRoundFinished(boolean gameFinished) {
+            commands.add("round " + gameFinished);
+        }
+    }
+
+    private static List<Question> questions(int count) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            questions.add(new Question("q" + i, Arrays.asList("a", "b", "c", "d"), i % 4));
+        }
+        return questions;
+    }
+
+    // Start a game with a seeded deck that has no history
+    private static void start(GameEngine engine, int participants, int[] colors, List<Question> questions) {
+        engine.start(participants, colors, questions, new QuestionDeck(questions.size(), new SplittableRandom(17)));
+    }
+
+    // Every participant touches and keeps touching until the countdown runs out
+    private static void touchAll(GameEngine engine, int count) {
+        for (int i = 0; i < count; i++) {
+            engine.touchDown(i);
+        }
+        engine.countdownFinished();
+    }
+
+    @Test
+    public void playsAGameToTheEnd() {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(7)), listener);
+        start(engine, 2, COLORS, questions(2));
+        assertEquals(GameEngine.State.WAITING_FOR_TOUCHES, engine.getState());
+
+        // One finger is not enough
+        engine.touchDown(0);
+        assertEquals(GameEngine.State.WAITING_FOR_TOUCHES, engine.getState());
+        engine.touchDown(1);
+        assertEquals(GameEngine.State.COUNTING_DOWN, engine.getState());
+        assertTrue(engine.countdownFinished());
+        assertEquals(GameEngine.State.SELECTED, engine.getState());
+        int first = engine.getCurrentParticipant();
+        assertEquals(0, engine.getTouchedCount());
+
+        assertTrue(engine.selectionShown());
+        assertEquals(GameEngine.State.NAMING, engine.getState());
+        assertTrue(engine.nameEntered("דנה"));
+        assertEquals(GameEngine.State.ANSWERING, engine.getState());
+        Question asked = engine.getCurrentQuestion();
+
+        // A wrong answer keeps the question for the next round
+        assertTrue(engine.answer((asked.getCorrectAnswer() + 1) % 4));
+        assertEquals(GameEngine.State.SCORING, engine.getState());
+        assertTrue(engine.resultShown());
+        assertEquals(GameEngine.State.WAITING_FOR_TOUCHES, engine.getState());
+        assertEquals(0, engine.getAnsweredCount());
+        assertSame(asked, engine.getCurrentQuestion());
+
+        // Right answers move through the questions until none are left
+        playTurn(engine);
+        assertEquals(1, engine.getAnsweredCount());
+        assertNull(engine.getCurrentQuestion());
+        assertEquals(GameEngine.State.WAITING_FOR_TOUCHES, engine.getState());
+        playTurn(engine);
+        assertEquals(GameEngine.State.FINISHED, engine.getState());
+        assertFalse(engine.hasMoreQuestions());
+
+        assertEquals("countdown", listener.commands.get(0));
+        assertEquals("selected " + first, listener.commands.get(1));
+        assertEquals("name " + first, listener.commands.get(2));
+        assertEquals("ask " + first + " " + asked.getQuestion(), listener.commands.get(3));
+        assertEquals("scored " + first + " false", listener.commands.get(4));
+        assertEquals("round false", listener.commands.get(5));
+        assertEquals("round true", listener.commands.get(listener.commands.size() - 1));
+        assertEquals(2, totalPoints(engine.getRoster()));
+    }
+
+    @Test
+    public void ignoresEventsOutOfState() {
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(1)), new RecordingListener());
+        start(engine, 2, COLORS, questions(1));
+        assertFalse(engine.selectionShown());
+        assertFalse(engine.nameEntered("x"));
+        assertFalse(engine.answer(0));
+        assertFalse(engine.resultShown());
+        assertFalse(engine.countdownFinished());
+
+        touchAll(engine, 2);
+        assertFalse(engine.answer(0));
+        assertTrue(engine.selectionShown());
+        // An empty name is not accepted
+        assertFalse(engine.nameEntered(""));
+        assertEquals(GameEngine.State.NAMING, engine.getState());
+        // Touches while someone is naming do not select anyone
+        touchAll(engine, 2);
+        assertEquals(GameEngine.State.NAMING, engine.getState());
+        // Touching the same circle twice counts once
+        assertFalse(engine.touchDown(0));
+    }
+
+    @Test
+    public void cancelledNameWaitsForTouchesAgain() {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(3)), listener);
+        start(engine, 3, COLORS, questions(5));
+        touchAll(engine, 3);
+        engine.selectionShown();
+        assertTrue(engine.nameCancelled());
+        assertEquals(GameEngine.State.WAITING_FOR_TOUCHES, engine.getState());
+
+        // Fingers from before the selection do not count, everyone has to touch again
+        touchAll(engine, 3);
+        assertEquals(GameEngine.State.SELECTED, engine.getState());
+    }
+
+    @Test
+    public void liftedFingerCancelsCountdownUntilEveryoneTouchesAgain() {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(3)), listener);
+        start(engine, 3, COLORS, questions(5));
+        engine.touchDown(0);
+        engine.touchDown(1);
+        engine.touchDown(2);
+        assertEquals(GameEngine.State.COUNTING_DOWN, engine.getState());
+
+        // The countdown stops as soon as a finger is lifted, and its end no longer selects anyone
+        engine.touchUp(1);
+        assertEquals(GameEngine.State.WAITING_FOR_TOUCHES, engine.getState());
+        assertFalse(engine.countdownFinished());
+        engine.touchUp(2);
+
+        // It starts over once every circle is touched again
+        engine.touchDown(2);
+        engine.touchDown(1);
+        assertTrue(engine.countdownFinished());
+        assertEquals(GameEngine.State.SELECTED, engine.getState());
+        assertEquals(Arrays.asList("countdown", "cancelled", "countdown", "selected " + engine.getCurrentParticipant()),
+                listener.commands);
+    }
+
+    @Test
+    public void lostTouchesStopCountdownQuietly() {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(3)), listener);
+        start(engine, 2, COLORS, questions(5));
+        engine.touchDown(0);
+        engine.touchDown(1);
+        engine.touchesLost();
+        assertEquals(GameEngine.State.WAITING_FOR_TOUCHES, engine.getState());
+        assertEquals(0, engine.getTouchedCount());
+        assertFalse(engine.countdownFinished());
+        // The new screen never showed a countdown, so there is nothing to cancel on it
+        assertEquals(Collections.singletonList("countdown"), listener.commands);
+    }
+
+    @Test
+    public void namedParticipantGoesStraightToTheQuestion() {
+        RecordingListener listener = new RecordingListener();
+        // A single participant is always the one selected
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(5)), listener);
+        start(engine, 1, COLORS, questions(3));
+        touchAll(engine, 1);
+        engine.selectionShown();
+        engine.nameEntered("א");
+        engine.answer(engine.getCurrentQuestion().getCorrectAnswer());
+        engine.resultShown();
+
+        listener.commands.clear();
+        touchAll(engine, 1);
+        engine.selectionShown();
+        assertEquals(Arrays.asList("countdown", "selected 0", "ask 0 " + engine.getCurrentQuestion().getQuestion()), listener.commands);
+    }
+
+    @Test
+    public void asksEveryQuestionOnceInShuffledOrder() {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(2)), listener);
+        List<Question> questions = questions(50);
+        start(engine, 2, COLORS, questions);
+        List<String> asked = new ArrayList<>();
+        while (engine.getState() != GameEngine.State.FINISHED) {
+            playTurn(engine);
+            String command = listener.commands.get(listener.commands.size() - 3);
+            asked.add(command.substring(command.lastIndexOf(' ') + 1));
+        }
+
+        // Every question exactly once, but not in file order
+        List<String> inFileOrder = new ArrayList<>();
+        for (Question question : questions) {
+            inFileOrder.add(question.getQuestion());
+        }
+        assertEquals(new HashSet<>(inFileOrder), new HashSet<>(asked));
+        assertEquals(50, asked.size());
+        assertNotEquals(inFileOrder, asked);
+        assertEquals(50, totalPoints(engine.getRoster()));
+    }
+
+    @Test
+    public void noQuestionsFinishesAfterNaming() {
+        RecordingListener listener = new RecordingListener();
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(5)), listener);
+        start(engine, 2, COLORS, Collections.<Question>emptyList());
+        touchAll(engine, 2);
+        engine.selectionShown();
+        engine.nameEntered("א");
+        assertEquals(GameEngine.State.FINISHED, engine.getState());
+        assertEquals("round true", listener.commands.get(listener.commands.size() - 1));
+    }
+
+    @Test
+    public void millionTurnsWithoutAllocation() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+
+        final int participants = 20;
+        final int turns = 1_000_000;
+        // Every question is the same object, so reading one does not allocate
+        Question question = new Question("q", Arrays.asList("a", "b", "c", "d"), 2);
+        List<Question> questions = Collections.nCopies(turns * 2, question);
+        CountingListener listener = new CountingListener();
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(11)), listener);
+        start(engine, participants, new int[participants], questions);
+        listener.engine = engine;
+
+        // Warm up, this also names every participant
+        simulate(engine, participants, 50_000);
+
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = sunBean.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        simulate(engine, participants, turns);
+        long elapsed = System.nanoTime() - start;
+        long allocated = sunBean.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        assertEquals(GameEngine.State.WAITING_FOR_TOUCHES, engine.getState());
+        assertTrue("event path allocated " + allocated + " bytes", allocated < 16 * 1024);
+        // Far below the budget on any machine, catches accidental quadratic work
+        assertTrue("a million turns took " + elapsed / 1_000_000 + " ms", elapsed < 10_000_000_000L);
+    }
+
+    // Listener that answers the engine immediately, the way a very fast player would
+    private static class CountingListener implements GameEngine.Listener {
+        GameEngine engine;
+        long selections;
+        long correctAnswers;
+
+        @Override
+        public void onCountdownStarted() {
+        }
+
+        @Override
+        public void onCountdownCancelled() {
+        }
+
+        @Override
+        public void onParticipantSelected(int participant) {
+            selections++;
+        }
+
+        @Override
+        public void onNameRequested(int participant) {
+            engine.nameEntered(NAMES[participant]);
+        }
+
+        @Override
+        public void onQuestionAsked(int participant, Question question) {
+            // Alternate right and wrong answers
+            engine.answer((int) (selections & 1) == 0 ? question.getCorrectAnswer() : 0);
+        }
+
+        @Override
+        public void onAnswerScored(int participant, int selectedOption, boolean correct) {
+            if (correct) {
+                correctAnswers++;
+            }
+        }
+
+        @Override
+        public void onRoundFinished(boolean gameFinished) {
+        }
+    }
+
+    private static final String[] NAMES = new String[20];
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            NAMES[i] = "שחקן " + i;
+        }
+    }
+
+    // Play full turns: everyone touches, the selected participant answers, the result is shown
+    private static void simulate(GameEngine engine, int participants, int turns) {
+        for (int turn = 0; turn < turns; turn++) {
+            touchAll(engine, participants);
+            engine.selectionShown();
+            engine.resultShown();
+        }
+    }
+
+    // Play one turn with a right answer, naming the selected participant if needed
+    private static void playTurn(GameEngine engine) {
+        touchAll(engine, 2);
+        engine.selectionShown();
+        if (engine.getState() == GameEngine.State.NAMING) {
+            engine.nameEntered("p" + engine.getCurrentParticipant());
+        }
+        engine.answer(engine.getCurrentQuestion().getCorrectAnswer());
+        engine.resultShown();
+    }
+
+    private static int totalPoints(ParticipantRoster roster) {
+        int points = 0;
+        for (int participant = 0; participant < roster.getCount(); participant++) {
+            points += roster.getScore(participant);
+        }
+        return points;
+    }
+}
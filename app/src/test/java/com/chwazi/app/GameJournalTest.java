@@ -0,0 +1,209 @@
+package com.chwazi.app;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link GameJournal}: a game recorded by one journal is rebuilt by a fresh one on the same
+ * file, as after the process was killed, including when the last record was cut short, and a finished
+ * game is compacted into a single snapshot.
+ */
+public class GameJournalTest {
+
+    private static final int[] COLORS = {10, 20, 30};
+
+    private File directory;
+    private File file;
+    private final List<ScheduledThreadPoolExecutor> writers = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal").toFile();
+        file = new File(directory, GameJournal.JOURNAL_FILE);
+    }
+
+    @After
+    public void tearDown() {
+        for (ScheduledThreadPoolExecutor writer : writers) {
+            writer.shutdownNow();
+        }
+        for (File f : directory.listFiles()) {
+            f.delete();
+        }
+        directory.delete();
+    }
+
+    // A journal over the test file, as a new process would open it
+    private GameJournal open() {
+        ScheduledThreadPoolExecutor writer = new ScheduledThreadPoolExecutor(1);
+        writers.add(writer);
+        return new GameJournal(file, writer);
+    }
+
+    private static void playSomeRounds(GameJournal journal) {
+        journal.participantsSet(4, "animals", 10, COLORS);
+        journal.participantSelected(1);
+        journal.nameSet(1, "Dana");
+        journal.answerGiven(1, 7, true);
+        journal.participantSelected(2);
+        journal.nameSet(2, "נועה");
+        journal.answerGiven(2, 3, false);
+        journal.participantSelected(0);
+    }
+
+    @Test
+    public void eventsAreBatchedAndReplayedAfterRestart() throws Exception {
+        GameJournal journal = open();
+        playSomeRounds(journal);
+        // Nothing reaches the disk on the recording thread
+        assertFalse(file.exists() && file.length() > 0);
+        journal.flush().get();
+
+        GameJournal.Game game = open().load();
+        assertNotNull(game);
+        assertEquals(4, game.categoryId);
+        assertEquals("animals", game.categoryName);
+        assertArrayEquals(COLORS, game.colors);
+        assertArrayEquals(new String[]{null, "Dana", "נועה"}, game.names);
+        assertEquals(2, game.getAnswerCount());
+        assertEquals(0, game.selected);
+        assertFalse(game.finished);
+    }
+
+    @Test
+    public void recordCutShortIsDroppedAndAppendingContinues() throws Exception {
+        GameJournal journal = open();
+        playSomeRounds(journal);
+        journal.flush().get();
+        // The last record (participant 0 selected) loses its last bytes in a crash
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        GameJournal restarted = open();
+        GameJournal.Game game = restarted.load();
+        assertEquals(-1, game.selected);
+        assertEquals(2, game.getAnswerCount());
+
+        restarted.answerGiven(0, 5, true);
+        restarted.flush().get();
+        assertEquals(3, open().load().getAnswerCount());
+    }
+
+    @Test
+    public void finishedGameIsCompactedIntoSnapshot() throws Exception {
+        GameJournal journal = open();
+        playSomeRounds(journal);
+        for (int i = 0; i < 200; i++) {
+            journal.participantSelected(i % COLORS.length);
+            journal.answerGiven(i % COLORS.length, i % 10, false);
+        }
+        journal.flush().get();
+        long before = file.length();
+        journal.gameFinished();
+        journal.flush().get();
+        assertTrue(file.length() < before);
+
+        GameJournal.Game game = open().load();
+        assertTrue(game.finished);
+        assertEquals(202, game.getAnswerCount());
+        assertArrayEquals(new String[]{null, "Dana", "נועה"}, game.names);
+    }
+
+    @Test
+    public void resetLeavesNothingToResume() throws Exception {
+        GameJournal journal = open();
+        playSomeRounds(journal);
+        journal.gameReset();
+        journal.flush().get();
+        assertNull(open().load());
+    }
+
+    @Test
+    public void restoreBringsEngineBackToWhereGameStopped() throws Exception {
+        GameJournal journal = open();
+        playSomeRounds(journal);
+        journal.flush().get();
+        GameJournal.Game game = open().load();
+
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            questions.add(new Question("q" + i, Arrays.asList("a", "b", "c", "d"), 0));
+        }
+        GameEngine engine = new GameEngine(new SelectionEngine(new SplittableRandom(1)), new GameEngineListener());
+        QuestionDeck deck = new QuestionDeck(10, new SplittableRandom(1));
+        game.restore(engine, questions, deck);
+
+        assertEquals("Dana", engine.getRoster().getName(1));
+        assertEquals(1, engine.getRoster().getScore(1));
+        assertEquals(0, engine.getRoster().getScore(2));
+        assertEquals(1, engine.getAnsweredCount());
+        // The question answered wrong is asked again, the one answered right is never dealt again
+        assertEquals(3, engine.getCurrentQuestionIndex());
+        assertEquals(2, deck.getDrawnCount());
+        assertEquals(GameEngine.State.SELECTED, engine.getState());
+        assertEquals(0, engine.getCurrentParticipant());
+    }
+
+    @Test
+    public void longJournalReplaysQuickly() throws Exception {
+        GameJournal journal = open();
+        journal.participantsSet(0, "animals", 1000, COLORS);
+        // Stays below the size that triggers compaction, so every event is replayed
+        for (int i = 0; i < 2000; i++) {
+            journal.participantSelected(i % COLORS.length);
+            journal.answerGiven(i % COLORS.length, i % 1000, i % 2 == 0);
+        }
+        journal.flush().get();
+
+        long start = System.nanoTime();
+        GameJournal.Game game = open().load();
+        long micros = (System.nanoTime() - start) / 1000;
+        assertEquals(2000, game.getAnswerCount());
+        assertTrue("replay took " + micros + " us", micros < 500_000);
+    }
+
+    // Listener that ignores the engine's commands
+    private static class GameEngineListener implements GameEngine.Listener {
+        @Override
+        public void onCountdownStarted() {
+        }
+
+        @Override
+        public void onCountdownCancelled() {
+        }
+
+        @Override
+        public void onParticipantSelected(int participant) {
+        }
+
+        @Override
+        public void onNameRequested(int participant) {
+        }
+
+        @Override
+        public void onQuestionAsked(int participant, Question question) {
+        }
+
+        @Override
+        public void onAnswerScored(int participant, int selectedOption, boolean correct) {
+        }
+
+        @Override
+        public void onRoundFinished(boolean gameFinished) {
+        }
+    }
+}
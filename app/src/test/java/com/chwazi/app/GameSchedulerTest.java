@@ -0,0 +1,144 @@
+package com.chwazi.app;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link GameScheduler}, driven by a virtual clock that only moves
+ * when the test advances it.
+ */
+public class GameSchedulerTest {
+
+    // Virtual clock that calls the scheduler back when time passes its wake up
+    private static class VirtualDriver implements GameScheduler.Driver {
+        GameScheduler scheduler;
+        long now;
+        long wakeAt = -1;
+
+        @Override
+        public long now() {
+            return now;
+        }
+
+        @Override
+        public void wakeAt(long time) {
+            wakeAt = time;
+        }
+
+        @Override
+        public void cancelWake() {
+            wakeAt = -1;
+        }
+
+        // Move the clock forward, waking the scheduler on every requested wake up on the way
+        void advance(long ms) {
+            long end = now + ms;
+            while (wakeAt >= 0 && wakeAt <= end) {
+                now = Math.max(now, wakeAt);
+                wakeAt = -1;
+                scheduler.runDue();
+            }
+            now = end;
+        }
+    }
+
+    private VirtualDriver driver;
+    private GameScheduler scheduler;
+    private List<String> log;
+
+    @Before
+    public void setUp() {
+        driver = new VirtualDriver();
+        scheduler = new GameScheduler(driver);
+        driver.scheduler = scheduler;
+        log = new ArrayList<>();
+    }
+
+    @Test
+    public void runsEventsInTimeOrder() {
+        scheduler.schedule("b", 1000, () -> log.add("b@" + driver.now));
+        scheduler.schedule("a", 500, () -> log.add("a@" + driver.now));
+        scheduler.schedule("c", 1000, () -> log.add("c@" + driver.now));
+
+        driver.advance(499);
+        assertTrue(log.isEmpty());
+        driver.advance(1);
+        driver.advance(2000);
+        assertEquals(Arrays.asList("a@500", "b@1000", "c@1000"), log);
+        assertFalse(scheduler.isScheduled("a"));
+    }
+
+    @Test
+    public void schedulingANameAgainReplacesIt() {
+        // A double tap schedules the same step twice, it must run only once
+        scheduler.schedule("prompt", 500, () -> log.add("first"));
+        driver.advance(200);
+        scheduler.schedule("prompt", 500, () -> log.add("second"));
+
+        driver.advance(400);
+        assertTrue(log.isEmpty());
+        driver.advance(100);
+        assertEquals(Arrays.asList("second"), log);
+        driver.advance(5000);
+        assertEquals(1, log.size());
+    }
+
+    @Test
+    public void cancelAndCancelAll() {
+        scheduler.schedule("a", 100, () -> log.add("a"));
+        scheduler.schedule("b", 200, () -> log.add("b"));
+        scheduler.schedule("c", 300, () -> log.add("c"));
+        scheduler.cancel("b");
+        assertFalse(scheduler.isScheduled("b"));
+        driver.advance(150);
+        scheduler.cancelAll();
+
+        driver.advance(1000);
+        assertEquals(Arrays.asList("a"), log);
+        assertEquals(-1, driver.wakeAt);
+    }
+
+    @Test
+    public void pauseKeepsTheRemainingDelay() {
+        scheduler.schedule("answer", 1000, () -> log.add("answer@" + driver.now));
+        driver.advance(400);
+        scheduler.pause();
+        driver.advance(10_000);
+        assertTrue(log.isEmpty());
+
+        // Events scheduled while paused start counting on resume
+        scheduler.schedule("dismiss", 100, () -> log.add("dismiss@" + driver.now));
+        scheduler.resume();
+        driver.advance(99);
+        assertTrue(log.isEmpty());
+        driver.advance(1);
+        assertEquals(Arrays.asList("dismiss@10500"), log);
+        driver.advance(500);
+        assertEquals(Arrays.asList("dismiss@10500", "answer@11000"), log);
+    }
+
+    @Test
+    public void eventsCanScheduleEvents() {
+        scheduler.schedule("step", 100, new Runnable() {
+            int runs;
+
+            @Override
+            public void run() {
+                log.add("step@" + driver.now);
+                if (++runs < 3) {
+                    scheduler.schedule("step", 100, this);
+                }
+            }
+        });
+        scheduler.schedule("zero", 0, () -> log.add("zero@" + driver.now));
+
+        driver.advance(1000);
+        assertEquals(Arrays.asList("zero@0", "step@100", "step@200", "step@300"), log);
+    }
+}
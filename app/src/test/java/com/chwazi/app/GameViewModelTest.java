@@ -0,0 +1,153 @@
+package com.chwazi.app;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link GameViewModel}: a game goes on unchanged when its screen is recreated, the engine
+ * only reports to the screen that is attached, and a finished game is added to the statistics once.
+ */
+public class GameViewModelTest {
+
+    private static final int[] COLORS = {1, 2};
+
+    // Screen that records the engine's commands it receives
+    private static class RecordingScreen implements GameEngine.Listener {
+        final List<String> commands = new ArrayList<>();
+
+        @Override
+        public void onCountdownStarted() {
+            commands.add("countdown");
+        }
+
+        @Override
+        public void onCountdownCancelled() {
+            commands.add("cancelled");
+        }
+
+        @Override
+        public void onParticipantSelected(int participant) {
+            commands.add("selected");
+        }
+
+        @Override
+        public void onNameRequested(int participant) {
+            commands.add("name");
+        }
+
+        @Override
+        public void onQuestionAsked(int participant, Question question) {
+            commands.add("ask " + question.getQuestion());
+        }
+
+        @Override
+        public void onAnswerScored(int participant, int selectedOption, boolean correct) {
+            commands.add("scored");
+        }
+
+        @Override
+        public void onRoundFinished(boolean gameFinished) {
+            commands.add("round");
+        }
+    }
+
+    private static GameViewModel startedGame() {
+        GameViewModel viewModel = new GameViewModel(new SelectionEngine(new SplittableRandom(1)));
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            questions.add(new Question("q" + i, Arrays.asList("a", "b", "c", "d"), 0));
+        }
+        viewModel.getEngine().start(COLORS.length, COLORS, questions, new QuestionDeck(3, new SplittableRandom(1)));
+        viewModel.gameStarted(7, COLORS, questions);
+        return viewModel;
+    }
+
+    @Test
+    public void gameGoesOnWhenScreenIsRecreated() {
+        GameViewModel viewModel = startedGame();
+        RecordingScreen before = new RecordingScreen();
+        viewModel.attach(before);
+        GameEngine engine = viewModel.getEngine();
+        engine.touchDown(0);
+        engine.touchDown(1);
+        engine.countdownFinished();
+        engine.selectionShown();
+        assertEquals(Arrays.asList("countdown", "selected", "name"), before.commands);
+
+        // Rotation: the old screen goes away, a new one shows the same game
+        viewModel.detach(before);
+        RecordingScreen after = new RecordingScreen();
+        viewModel.attach(after);
+        assertTrue(viewModel.hasGame());
+        assertEquals(7, viewModel.getCategoryId());
+        assertSame(engine, viewModel.getEngine());
+        assertEquals(GameEngine.State.NAMING, engine.getState());
+
+        engine.nameEntered("Dana");
+        assertEquals(3, before.commands.size());
+        assertEquals(1, after.commands.size());
+        assertTrue(after.commands.get(0).startsWith("ask "));
+        assertEquals("Dana", engine.getRoster().getName(engine.getCurrentParticipant()));
+    }
+
+    @Test
+    public void oldScreenDetachingLateKeepsNewOne() {
+        GameViewModel viewModel = startedGame();
+        RecordingScreen before = new RecordingScreen();
+        RecordingScreen after = new RecordingScreen();
+        viewModel.attach(before);
+        // The new screen is created before the old one is destroyed
+        viewModel.attach(after);
+        viewModel.detach(before);
+        viewModel.getEngine().touchDown(0);
+        viewModel.getEngine().touchDown(1);
+        assertEquals(0, before.commands.size());
+        assertEquals(Arrays.asList("countdown"), after.commands);
+    }
+
+    @Test
+    public void policyIsOnlyAppliedOnce() {
+        GameViewModel viewModel = startedGame();
+        viewModel.configure(SelectionEngine.Policy.LEAST_RECENTLY_CHOSEN.name());
+        viewModel.configure(SelectionEngine.Policy.WEIGHTED_BY_ANSWERS.name());
+        assertEquals(SelectionEngine.Policy.LEAST_RECENTLY_CHOSEN, viewModel.getEngine().getSelection().getPolicy());
+    }
+
+    @Test
+    public void resetCanChangeThePolicy() {
+        GameViewModel viewModel = startedGame();
+        viewModel.configure(SelectionEngine.Policy.LEAST_RECENTLY_CHOSEN.name());
+        viewModel.setSelectionPolicy(SelectionEngine.Policy.WEIGHTED_BY_ANSWERS);
+        assertEquals(SelectionEngine.Policy.WEIGHTED_BY_ANSWERS, viewModel.getEngine().getSelection().getPolicy());
+        // A screen recreated after the reset keeps the policy chosen in it
+        viewModel.configure(SelectionEngine.Policy.UNIFORM.name());
+        assertEquals(SelectionEngine.Policy.WEIGHTED_BY_ANSWERS, viewModel.getEngine().getSelection().getPolicy());
+    }
+
+    @Test
+    public void unknownPolicySelectsUniformly() {
+        GameViewModel viewModel = startedGame();
+        // A name saved by another version of the app
+        viewModel.configure("ROUND_ROBIN");
+        assertEquals(SelectionEngine.Policy.UNIFORM, viewModel.getEngine().getSelection().getPolicy());
+        assertEquals(SelectionEngine.Policy.UNIFORM, SelectionEngine.Policy.fromName(null));
+        assertEquals(SelectionEngine.Policy.WEIGHTED_BY_ANSWERS, SelectionEngine.Policy.fromName("WEIGHTED_BY_ANSWERS"));
+    }
+
+    @Test
+    public void statsAreRecordedOncePerGame() {
+        GameViewModel viewModel = startedGame();
+        assertTrue(viewModel.markStatsRecorded());
+        assertFalse(viewModel.markStatsRecorded());
+        viewModel.gameReset();
+        assertFalse(viewModel.hasGame());
+        viewModel.gameStarted(7, COLORS, new ArrayList<Question>());
+        assertTrue(viewModel.markStatsRecorded());
+    }
+}
@@ -0,0 +1,208 @@
+package com.chwazi.app;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit tests for the streaming modes of {@link JsonLoader}, run against a large
+ * generated question bank so that heap allocation and parse time are measurable.
+ */
+public class JsonLoaderTest {
+
+    private static final int CATEGORY_COUNT = 400;
+    private static final int QUESTIONS_PER_CATEGORY = 50;
+
+    @ClassRule
+    public static TemporaryFolder tmp = new TemporaryFolder();
+
+    private static File bank;
+
+    @BeforeClass
+    public static void generateBank() throws IOException {
+        bank = tmp.newFile("questions.json");
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(bank), StandardCharsets.UTF_8)) {
+            w.write("[\n");
+            for (int c = 0; c < CATEGORY_COUNT; c++) {
+                if (c > 0) w.write(",\n");
+                w.write("{\"category\": \"קטגוריה " + c + "\", \"questions\": [");
+                for (int q = 0; q < QUESTIONS_PER_CATEGORY; q++) {
+                    if (q > 0) w.write(",");
+                    w.write("{\"question\": \"שאלה מספר " + q + " בקטגוריה " + c + "?\","
+                            + " \"options\": [\"3\", \"4\", \"5\", \"" + q + "\"],"
+                            + " \"correctAnswer\": " + (q % 4) + "}");
+                }
+                w.write("]}");
+            }
+            w.write("\n]\n");
+        }
+    }
+
+    @Test
+    public void fullMode_matchesGsonReflection() throws IOException {
+        List<CategoryData> streamed;
+        try (InputStream in = open()) {
+            streamed = JsonLoader.readCategories(in);
+        }
+        List<CategoryData> reflected = parseWithGson();
+
+        assertEquals(reflected.size(), streamed.size());
+        for (int c = 0; c < reflected.size(); c++) {
+            CategoryData expected = reflected.get(c);
+            CategoryData actual = streamed.get(c);
+            assertEquals(expected.getCategory(), actual.getCategory());
+            assertEquals(expected.getQuestions().size(), actual.getQuestions().size());
+            for (int q = 0; q < expected.getQuestions().size(); q++) {
+                Question e = expected.getQuestions().get(q);
+                Question a = actual.getQuestions().get(q);
+                assertEquals(e.getQuestion(), a.getQuestion());
+                assertEquals(e.getOptions(), a.getOptions());
+                assertEquals(e.getCorrectAnswer(), a.getCorrectAnswer());
+            }
+        }
+    }
+
+    @Test
+    public void namesMode_returnsEveryCategoryInOrder() throws IOException {
+        List<String> names;
+        try (InputStream in = open()) {
+            names = JsonLoader.readCategoryNames(in);
+        }
+        assertEquals(CATEGORY_COUNT, names.size());
+        assertEquals("קטגוריה 0", names.get(0));
+        assertEquals("קטגוריה " + (CATEGORY_COUNT - 1), names.get(CATEGORY_COUNT - 1));
+    }
+
+    @Test
+    public void singleMode_findsCategoryAndReturnsNullWhenMissing() throws IOException {
+        CategoryData data;
+        try (InputStream in = open()) {
+            data = JsonLoader.readCategory(in, "קטגוריה 250");
+        }
+        assertNotNull(data);
+        assertEquals("קטגוריה 250", data.getCategory());
+        assertEquals(QUESTIONS_PER_CATEGORY, data.getQuestions().size());
+        assertEquals("שאלה מספר 7 בקטגוריה 250?", data.getQuestions().get(7).getQuestion());
+
+        try (InputStream in = open()) {
+            assertNull(JsonLoader.readCategory(in, "no such category"));
+        }
+    }
+
+    @Test
+    public void singleMode_handlesQuestionsBeforeName() throws IOException {
+        String json = "[{\"questions\": [{\"question\": \"a\", \"options\": [\"x\"], \"correctAnswer\": 0}],"
+                + " \"category\": \"first\"},"
+                + " {\"questions\": [{\"question\": \"b\", \"options\": [\"y\"], \"correctAnswer\": 0}],"
+                + " \"category\": \"second\"}]";
+        CategoryData data = JsonLoader.readCategory(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), "second");
+        assertNotNull(data);
+        assertEquals("b", data.getQuestions().get(0).getQuestion());
+    }
+
+    @Test
+    public void skippingModes_allocateFarLessThanFullParse() throws IOException {
+        com.sun.management.ThreadMXBean bean = allocationBean();
+        long gson = measureAllocation(bean, () -> parseWithGson());
+        long full = measureAllocation(bean, () -> {
+            try (InputStream in = open()) {
+                JsonLoader.readCategories(in);
+            }
+        });
+        long names = measureAllocation(bean, () -> {
+            try (InputStream in = open()) {
+                JsonLoader.readCategoryNames(in);
+            }
+        });
+        long single = measureAllocation(bean, () -> {
+            try (InputStream in = open()) {
+                JsonLoader.readCategory(in, "קטגוריה " + (CATEGORY_COUNT - 1));
+            }
+        });
+
+        // Streaming never holds the whole file as a String, so even the full mode beats the old loader
+        assertTrue("full=" + full + " gson=" + gson, full < gson);
+        // Skipping question bodies must avoid most of the garbage of a full parse
+        assertTrue("names=" + names + " full=" + full, names * 4 < full);
+        assertTrue("single=" + single + " full=" + full, single * 4 < full);
+    }
+
+    @Test
+    public void singleMode_isFasterThanFullParse() throws IOException {
+        // A category in the middle: reading stops there, so about half of the file is tokenized.
+        // For the last category both modes tokenize the whole file and their times are too close
+        // to compare reliably; its allocations are compared above.
+        String middle = "קטגוריה " + (CATEGORY_COUNT / 2);
+        long full = Long.MAX_VALUE;
+        long single = Long.MAX_VALUE;
+        // Take the best of several runs so JIT warm-up and GC noise do not decide the result
+        for (int run = 0; run < 10; run++) {
+            long start = System.nanoTime();
+            try (InputStream in = open()) {
+                JsonLoader.readCategories(in);
+            }
+            full = Math.min(full, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            try (InputStream in = open()) {
+                JsonLoader.readCategory(in, middle);
+            }
+            single = Math.min(single, System.nanoTime() - start);
+        }
+        assertTrue("single=" + single + "ns full=" + full + "ns", single < full);
+    }
+
+    private interface IoRunnable {
+        void run() throws IOException;
+    }
+
+    private static InputStream open() throws IOException {
+        return new BufferedInputStream(new FileInputStream(bank));
+    }
+
+    // The previous loader: read the whole file into one String and let Gson reflect over it
+    private static List<CategoryData> parseWithGson() throws IOException {
+        String json = new String(Files.readAllBytes(bank.toPath()), StandardCharsets.UTF_8);
+        return new Gson().fromJson(json, new TypeToken<List<CategoryData>>() {}.getType());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return sunBean;
+    }
+
+    private static long measureAllocation(com.sun.management.ThreadMXBean bean, IoRunnable body) throws IOException {
+        // Warm up once so class loading is not counted
+        body.run();
+        long thread = Thread.currentThread().getId();
+        long before = bean.getThreadAllocatedBytes(thread);
+        body.run();
+        return bean.getThreadAllocatedBytes(thread) - before;
+    }
+}
@@ -0,0 +1,221 @@
+package com.chwazi.app;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for installing and updating question packs from a local stand-in for the pack server:
+ * a first install downloads the whole pack, an update downloads only a delta, and nothing that
+ * does not match the catalog's checksum is ever installed.
+ */
+public class PackManagerTest {
+
+    private HttpServer server;
+    private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+    private File directory;
+    private PackManager manager;
+
+    private byte[] version1;
+    private byte[] version2;
+
+    @Before
+    public void setUp() throws IOException {
+        // The build compiles the pack for the unit tests and passes its location in this property
+        String packPath = System.getProperty("chwazi.questionPack");
+        assumeTrue("question pack not compiled", packPath != null && new File(packPath).isFile());
+        version1 = Files.readAllBytes(new File(packPath).toPath());
+        // A new version with a few bytes of question text changed near the end
+        version2 = version1.clone();
+        for (int i = version2.length - 40; i < version2.length - 30; i++) {
+            version2[i] ^= 1;
+        }
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = files.get(exchange.getRequestURI().getPath().substring(1));
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+
+        directory = Files.createTempDirectory("packs").toFile();
+        manager = new PackManager(directory, "http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    }
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (directory != null) {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void installsWholePackThenUpdatesWithDelta() throws IOException {
+        publish(1, version1);
+        PackManager.UpdateResult first = manager.update();
+        assertEquals(1, first.downloaded);
+        assertArrayEquals(version1, Files.readAllBytes(installedFile("animals", 1).toPath()));
+
+        publish(2, version2, 1);
+        files.put("packs/animals/1-2.qdelta", PackDelta.create(version1, version2));
+        PackManager.UpdateResult second = manager.update();
+        assertEquals(1, second.patched);
+        assertEquals(0, second.downloaded);
+        assertTrue("delta should be much smaller than the pack", second.bytesDownloaded < version2.length / 4);
+
+        // Only the new version is left, and it is a readable pack
+        List<PackManager.InstalledPack> installed = manager.getInstalledPacks();
+        assertEquals(1, installed.size());
+        assertEquals(2, installed.get(0).version);
+        assertFalse(installedFile("animals", 1).exists());
+        assertArrayEquals(version2, Files.readAllBytes(installed.get(0).file.toPath()));
+        assertTrue(QuestionPack.open(installed.get(0).file).getCategoryCount() > 0);
+    }
+
+    @Test
+    public void upToDatePackIsNotDownloadedAgain() throws IOException {
+        publish(1, version1);
+        manager.update();
+        PackManager.UpdateResult again = manager.update();
+        assertEquals(0, again.downloaded + again.patched + again.failed);
+        assertEquals(files.get(PackManager.CATALOG_PATH).length, again.bytesDownloaded);
+    }
+
+    @Test
+    public void brokenDeltaFallsBackToWholePack() throws IOException {
+        publish(1, version1);
+        manager.update();
+
+        publish(2, version2, 1);
+        byte[] delta = PackDelta.create(version1, version2);
+        files.put("packs/animals/1-2.qdelta", Arrays.copyOf(delta, delta.length / 2));
+        PackManager.UpdateResult result = manager.update();
+        assertEquals(0, result.patched);
+        assertEquals(1, result.downloaded);
+        assertArrayEquals(version2, Files.readAllBytes(installedFile("animals", 2).toPath()));
+    }
+
+    @Test
+    public void packWithWrongChecksumIsNotInstalled() throws IOException {
+        publish(1, version1);
+        files.put("packs/animals/1.qpack", version2);
+        PackManager.UpdateResult result = manager.update();
+        assertEquals(1, result.failed);
+        assertTrue(manager.getInstalledPacks().isEmpty());
+        // Nothing is left behind, not even a temporary file
+        assertEquals(0, directory.listFiles().length);
+    }
+
+    @Test
+    public void delta_rebuildsTargetAndRejectsOtherSource() throws IOException {
+        Random random = new Random(42);
+        byte[] source = new byte[20_000];
+        random.nextBytes(source);
+        // Replace 1000 bytes with 500 new ones and change a byte further on
+        byte[] inserted = new byte[500];
+        random.nextBytes(inserted);
+        byte[] target = new byte[source.length - 500];
+        System.arraycopy(source, 0, target, 0, 5000);
+        System.arraycopy(inserted, 0, target, 5000, 500);
+        System.arraycopy(source, 6000, target, 5500, source.length - 6000);
+        target[12_345] ^= 0x55;
+
+        byte[] delta = PackDelta.create(source, target);
+        assertArrayEquals(target, PackDelta.apply(source, delta, target.length));
+        assertTrue(delta.length < target.length / 4);
+
+        // A delta building another length than the catalog lists is refused before allocating it
+        try {
+            PackDelta.apply(source, delta, target.length + 1);
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            // expected
+        }
+
+        source[0] ^= 1;
+        try {
+            PackDelta.apply(source, delta, target.length);
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void unreadablePackIsNotInstalled() throws IOException {
+        // Shorter than the header, then a question table pointing past the end of the pack
+        byte[] truncated = Arrays.copyOf(version1, 20);
+        byte[] damaged = version1.clone();
+        damaged[24] = 0x7F;
+        for (byte[] pack : new byte[][]{truncated, damaged}) {
+            // The checksum matches, so only reading the pack can tell
+            publish(1, pack);
+            PackManager.UpdateResult result = manager.update();
+            assertEquals(1, result.failed);
+            assertTrue(manager.getInstalledPacks().isEmpty());
+        }
+    }
+
+    @Test
+    public void packWithABadEntryFailsVerification() throws IOException {
+        QuestionPack pack = new QuestionPack(ByteBuffer.wrap(version1));
+        pack.verify();
+        // Point the first question record past the end of the pack
+        byte[] damaged = version1.clone();
+        int questionTable = ByteBuffer.wrap(version1).getInt(24);
+        ByteBuffer.wrap(damaged).putInt(questionTable, version1.length);
+        try {
+            new QuestionPack(ByteBuffer.wrap(damaged)).verify();
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    // Publish a version of the "animals" pack, with deltas from the given versions
+    private void publish(int version, byte[] pack, int... deltas) {
+        StringBuilder deltaList = new StringBuilder();
+        for (int from : deltas) {
+            deltaList.append(deltaList.length() == 0 ? "" : ",").append(from);
+        }
+        String catalog = "[{\"id\": \"animals\", \"version\": " + version + ", \"size\": " + pack.length
+                + ", \"sha256\": \"" + PackManager.sha256(pack) + "\", \"deltas\": [" + deltaList + "]}]";
+        files.put(PackManager.CATALOG_PATH, catalog.getBytes());
+        files.put("packs/animals/" + version + ".qpack", pack);
+    }
+
+    private File installedFile(String id, int version) {
+        return new File(directory, id + "-" + version + ".qpack");
+    }
+}
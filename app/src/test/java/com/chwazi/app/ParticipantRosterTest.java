@@ -0,0 +1,146 @@
+package com.chwazi.app;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit tests for {@link ParticipantRoster}: participants are keyed by ID rather than by name,
+ * may be named in any order, and scoring on the answer path does not allocate.
+ */
+public class ParticipantRosterTest {
+
+    private static final int[] COLORS = {0xFFFF0000, 0xFF00FF00, 0xFF0000FF, 0xFFFFFF00};
+
+    @Test
+    public void duplicateNamesKeepSeparateScores() {
+        ParticipantRoster roster = new ParticipantRoster();
+        roster.reset(3, COLORS);
+        roster.setName(0, "דנה");
+        roster.setName(2, "דנה");
+
+        roster.addPoint(2);
+        roster.addPoint(2);
+        roster.addPoint(0);
+
+        assertEquals(1, roster.getScore(0));
+        assertEquals(0, roster.getScore(1));
+        assertEquals(2, roster.getScore(2));
+        assertEquals(2, roster.getLeader());
+        assertFalse(roster.isLeaderTied());
+    }
+
+    @Test
+    public void outOfOrderJoinsKeepTheirIds() {
+        ParticipantRoster roster = new ParticipantRoster();
+        roster.reset(4, COLORS);
+        roster.setName(3, "ד");
+        roster.setName(1, "ב");
+
+        assertFalse(roster.hasName(0));
+        assertEquals("ב", roster.getName(1));
+        assertFalse(roster.hasName(2));
+        assertEquals("ד", roster.getName(3));
+        assertEquals(COLORS[3], roster.getColor(3));
+
+        roster.setName(0, "א");
+        roster.addPoint(3);
+        assertEquals("ד", roster.getName(roster.getLeader()));
+        assertEquals(1, roster.getScore(3));
+        assertEquals(0, roster.getScore(0));
+    }
+
+    @Test
+    public void rankingOrdersByScoreThenFirstToReachIt() {
+        ParticipantRoster roster = new ParticipantRoster();
+        roster.reset(4, COLORS);
+        assertTrue(roster.isLeaderTied());
+        assertEquals(0, roster.getLeader());
+
+        roster.addPoint(3);
+        roster.addPoint(1);
+        roster.addPoint(1);
+        roster.addPoint(3);
+        // 1 reached two points before 3 did, 0 and 2 still have the starting score in ID order
+        assertTrue(roster.isLeaderTied());
+        assertArrayEquals(new int[]{1, 3, 0, 2}, ranking(roster));
+
+        roster.addPoint(3);
+        assertFalse(roster.isLeaderTied());
+        assertArrayEquals(new int[]{3, 1, 0, 2}, ranking(roster));
+        assertEquals(0, roster.getRank(3));
+        assertEquals(1, roster.getRank(1));
+    }
+
+    @Test
+    public void resetClearsNamesAndScores() {
+        ParticipantRoster roster = new ParticipantRoster();
+        roster.reset(2, COLORS);
+        roster.setName(1, "ב");
+        roster.addPoint(1);
+
+        roster.reset(2, COLORS);
+        assertFalse(roster.hasName(1));
+        assertEquals(0, roster.getScore(1));
+
+        roster.reset(4, COLORS);
+        assertEquals(4, roster.getCount());
+        assertFalse(roster.hasName(3));
+    }
+
+    @Test
+    public void emptyRosterHasNoLeader() {
+        ParticipantRoster roster = new ParticipantRoster();
+        assertEquals(-1, roster.getLeader());
+        assertFalse(roster.isLeaderTied());
+    }
+
+    @Test
+    public void answerPathDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+
+        ParticipantRoster roster = new ParticipantRoster();
+        roster.reset(20, new int[20]);
+        for (int i = 0; i < 20; i++) {
+            roster.setName(i, "שחקן " + i);
+        }
+        // Warm up so class loading and compilation are not counted
+        int checksum = play(roster, 10_000);
+
+        long thread = Thread.currentThread().getId();
+        long before = sunBean.getThreadAllocatedBytes(thread);
+        checksum += play(roster, 100_000);
+        long allocated = sunBean.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(checksum > 0);
+        assertTrue("answer path allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    // Score a number of turns the way the game does and read back the leader after each one
+    private static int play(ParticipantRoster roster, int turns) {
+        int checksum = 0;
+        for (int turn = 0; turn < turns; turn++) {
+            int participant = (turn * 7) % roster.getCount();
+            if (roster.hasName(participant)) {
+                roster.addPoint(participant);
+            }
+            checksum += roster.getLeader() + roster.getScore(participant);
+        }
+        return checksum;
+    }
+
+    private static int[] ranking(ParticipantRoster roster) {
+        int[] ranking = new int[roster.getCount()];
+        for (int rank = 0; rank < ranking.length; rank++) {
+            ranking[rank] = roster.getRanked(rank);
+        }
+        return ranking;
+    }
+}
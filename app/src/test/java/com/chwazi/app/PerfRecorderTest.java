@@ -0,0 +1,156 @@
+package com.chwazi.app;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link PerfRecorder}: bucket bounds, percentiles and the exported file.
+ */
+public class PerfRecorderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static long ms(long millis) {
+        return millis * 1_000_000L;
+    }
+
+    @Test
+    public void bucketsArePowersOfTwoMicroseconds() {
+        assertEquals(0, PerfRecorder.bucketOf(0));
+        assertEquals(0, PerfRecorder.bucketOf(999));
+        assertEquals(1, PerfRecorder.bucketOf(1_000));
+        assertEquals(2, PerfRecorder.bucketOf(2_000));
+        assertEquals(2, PerfRecorder.bucketOf(3_999));
+        assertEquals(3, PerfRecorder.bucketOf(4_000));
+        // Everything beyond the last bound lands in the last bucket
+        assertEquals(PerfRecorder.BUCKET_COUNT - 1, PerfRecorder.bucketOf(Long.MAX_VALUE));
+
+        // Every duration is below the upper bound of its bucket
+        for (long nanos = 1; nanos < ms(10_000); nanos = nanos * 3 + 7) {
+            int bucket = PerfRecorder.bucketOf(nanos);
+            assertTrue(nanos < PerfRecorder.bucketUpperNanos(bucket));
+            if (bucket > 0) {
+                assertTrue(nanos >= PerfRecorder.bucketUpperNanos(bucket - 1));
+            }
+        }
+    }
+
+    @Test
+    public void summaryAndPercentiles() {
+        PerfRecorder recorder = new PerfRecorder();
+        assertEquals(0, recorder.getPercentileNanos(PerfRecorder.Phase.ASSET_LOAD, 0.5));
+        assertEquals(0, recorder.getMinNanos(PerfRecorder.Phase.ASSET_LOAD));
+
+        // 90 fast loads of 1ms and 10 slow ones of 100ms
+        for (int i = 0; i < 90; i++) {
+            recorder.record(PerfRecorder.Phase.ASSET_LOAD, ms(1));
+        }
+        for (int i = 0; i < 10; i++) {
+            recorder.record(PerfRecorder.Phase.ASSET_LOAD, ms(100));
+        }
+
+        assertEquals(100, recorder.getCount(PerfRecorder.Phase.ASSET_LOAD));
+        assertEquals((90 * ms(1) + 10 * ms(100)) / 100, recorder.getMeanNanos(PerfRecorder.Phase.ASSET_LOAD));
+        assertEquals(ms(1), recorder.getMinNanos(PerfRecorder.Phase.ASSET_LOAD));
+        assertEquals(ms(100), recorder.getMaxNanos(PerfRecorder.Phase.ASSET_LOAD));
+
+        // Percentiles are bucket bounds: at least the real value and less than twice it
+        long p50 = recorder.getPercentileNanos(PerfRecorder.Phase.ASSET_LOAD, 0.5);
+        assertTrue(p50 > ms(1) && p50 < ms(2));
+        long p90 = recorder.getPercentileNanos(PerfRecorder.Phase.ASSET_LOAD, 0.9);
+        assertEquals(p50, p90);
+        // Never more than the slowest sample
+        assertEquals(ms(100), recorder.getPercentileNanos(PerfRecorder.Phase.ASSET_LOAD, 0.99));
+
+        // Other phases are untouched
+        assertEquals(0, recorder.getCount(PerfRecorder.Phase.COLD_START));
+        recorder.clear();
+        assertEquals(0, recorder.getCount(PerfRecorder.Phase.ASSET_LOAD));
+    }
+
+    @Test
+    public void exportRoundTripsAndMerges() throws IOException {
+        PerfRecorder recorder = new PerfRecorder();
+        recorder.record(PerfRecorder.Phase.COLD_START, ms(420));
+        recorder.record(PerfRecorder.Phase.SELECTION_LATENCY, 30_000);
+        recorder.record(PerfRecorder.Phase.SELECTION_LATENCY, 50_000);
+        File file = new File(folder.getRoot(), "perf/metrics.txt");
+        recorder.writeTo(file);
+
+        PerfRecorder read = new PerfRecorder();
+        read.readFrom(file);
+        for (PerfRecorder.Phase phase : PerfRecorder.Phase.values()) {
+            assertEquals(recorder.getCount(phase), read.getCount(phase));
+            assertEquals(recorder.getMeanNanos(phase), read.getMeanNanos(phase));
+            assertEquals(recorder.getMinNanos(phase), read.getMinNanos(phase));
+            assertEquals(recorder.getMaxNanos(phase), read.getMaxNanos(phase));
+            for (int b = 0; b < PerfRecorder.BUCKET_COUNT; b++) {
+                assertEquals(recorder.getBucketCount(phase, b), read.getBucketCount(phase, b));
+            }
+        }
+
+        // Reading a second export adds to what is there
+        read.readFrom(file);
+        assertEquals(4, read.getCount(PerfRecorder.Phase.SELECTION_LATENCY));
+        assertEquals(0, read.getCounter(PerfRecorder.Counter.QUESTION_CACHE_HITS));
+        assertEquals(30_000, read.getMinNanos(PerfRecorder.Phase.SELECTION_LATENCY));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void countersAreExportedWithThePhases() throws IOException {
+        QuestionCache cache = new QuestionCache(1, Long.MAX_VALUE);
+        cache.get("a");
+        cache.put("a", new ArrayList<Question>());
+        cache.get("a");
+        cache.get("a");
+        cache.put("b", new ArrayList<Question>());
+
+        PerfRecorder recorder = new PerfRecorder();
+        recorder.setCounter(PerfRecorder.Counter.QUESTION_CACHE_HITS, cache.getHitCount());
+        recorder.setCounter(PerfRecorder.Counter.QUESTION_CACHE_MISSES, cache.getMissCount());
+        recorder.setCounter(PerfRecorder.Counter.QUESTION_CACHE_EVICTIONS, cache.getEvictionCount());
+        File file = new File(folder.getRoot(), "metrics.txt");
+        recorder.writeTo(file);
+
+        PerfRecorder read = new PerfRecorder();
+        read.readFrom(file);
+        assertEquals(2, read.getCounter(PerfRecorder.Counter.QUESTION_CACHE_HITS));
+        assertEquals(1, read.getCounter(PerfRecorder.Counter.QUESTION_CACHE_MISSES));
+        assertEquals(1, read.getCounter(PerfRecorder.Counter.QUESTION_CACHE_EVICTIONS));
+        read.clear();
+        assertEquals(0, read.getCounter(PerfRecorder.Counter.QUESTION_CACHE_HITS));
+    }
+
+    @Test
+    public void skipsUnknownPhasesAndRejectsOtherFiles() throws IOException {
+        File file = folder.newFile("metrics.txt");
+        try (Writer out = new FileWriter(file)) {
+            out.write("# chwazi-perf v1\nSOME_OLD_PHASE count=1 mean=5 min=5 max=5\nASSET_LOAD count=1 mean=7 min=7 max=7\n");
+        }
+        PerfRecorder recorder = new PerfRecorder();
+        recorder.readFrom(file);
+        assertEquals(1, recorder.getCount(PerfRecorder.Phase.ASSET_LOAD));
+        assertEquals(7, recorder.getMaxNanos(PerfRecorder.Phase.ASSET_LOAD));
+
+        try (Writer out = new FileWriter(file)) {
+            out.write("not a metrics file\n");
+        }
+        try {
+            recorder.readFrom(file);
+            fail("expected an IOException");
+        } catch (IOException expected) {
+            // The header is checked before anything is merged
+        }
+    }
+}
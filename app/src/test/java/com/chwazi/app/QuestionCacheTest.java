@@ -0,0 +1,90 @@
+package com.chwazi.app;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link QuestionCache}: the least recently used category is evicted first,
+ * both the entry and the byte limits are enforced, and hits, misses and evictions are counted.
+ */
+public class QuestionCacheTest {
+
+    // A category of the given number of questions with four short options each
+    private static List<Question> questions(int count) {
+        List<Question> questions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            questions.add(new Question("שאלה " + i, Arrays.asList("3", "4", "5", "6"), i % 4));
+        }
+        return questions;
+    }
+
+    @Test
+    public void leastRecentlyUsedCategoryIsEvictedFirst() {
+        QuestionCache cache = new QuestionCache(2, Long.MAX_VALUE);
+        List<Question> a = questions(1);
+        cache.put("a", a);
+        cache.put("b", questions(1));
+        // Reading a makes b the least recently used
+        assertSame(a, cache.get("a"));
+        cache.put("c", questions(1));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void byteLimitEvictsUntilTheCacheFits() {
+        long one = QuestionCache.estimateBytes(questions(10));
+        QuestionCache cache = new QuestionCache(100, 2 * one);
+        cache.put("a", questions(10));
+        cache.put("b", questions(10));
+        assertEquals(2 * one, cache.getCurrentBytes());
+
+        cache.put("c", questions(10));
+        assertEquals(2, cache.size());
+        assertEquals(2 * one, cache.getCurrentBytes());
+        assertNull(cache.get("a"));
+
+        // A category bigger than the whole budget is still kept, alone
+        List<Question> big = questions(100);
+        cache.put("big", big);
+        assertEquals(1, cache.size());
+        assertSame(big, cache.get("big"));
+        assertEquals(QuestionCache.estimateBytes(big), cache.getCurrentBytes());
+        assertEquals(3, cache.getEvictionCount());
+    }
+
+    @Test
+    public void replacingAndClearingKeepTheSizeRight() {
+        QuestionCache cache = new QuestionCache(4, Long.MAX_VALUE);
+        cache.put("a", questions(10));
+        cache.put("a", questions(5));
+        assertEquals(1, cache.size());
+        assertEquals(QuestionCache.estimateBytes(questions(5)), cache.getCurrentBytes());
+        assertEquals(0, cache.getEvictionCount());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getCurrentBytes());
+    }
+
+    @Test
+    public void hitsAndMissesAreCounted() {
+        QuestionCache cache = new QuestionCache(4, Long.MAX_VALUE);
+        assertNull(cache.get("a"));
+        cache.put("a", questions(1));
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+}
@@ -0,0 +1,160 @@
+package com.chwazi.app;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link QuestionDeck} and {@link QuestionHistory}: shuffled dealing, questions
+ * seen in earlier games coming last, and the history surviving a write and read.
+ */
+public class QuestionDeckTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void dealsEveryQuestionOnce() {
+        QuestionDeck deck = new QuestionDeck(130, new SplittableRandom(1));
+        Set<Integer> dealt = new HashSet<>();
+        boolean inOrder = true;
+        for (int i = 0; i < 130; i++) {
+            assertTrue(deck.hasNext());
+            int question = deck.next();
+            assertTrue(deck.isSeen(question));
+            assertTrue("dealt " + question + " twice", dealt.add(question));
+            inOrder &= question == i;
+        }
+        assertFalse(deck.hasNext());
+        assertFalse("the deck was not shuffled", inOrder);
+        assertEquals(130, deck.getSeenCount());
+    }
+
+    @Test
+    public void questionsFromEarlierGamesComeLast() {
+        long[] seen = new long[QuestionDeck.wordCount(100)];
+        QuestionDeck first = new QuestionDeck(100, seen, new SplittableRandom(2));
+        Set<Integer> firstGame = new HashSet<>();
+        for (int i = 0; i < 70; i++) {
+            firstGame.add(first.next());
+        }
+
+        // The next game gets the 30 questions nobody saw before any repeat
+        QuestionDeck second = new QuestionDeck(100, seen, new SplittableRandom(3));
+        assertEquals(70, second.getSeenCount());
+        for (int i = 0; i < 30; i++) {
+            assertFalse(firstGame.contains(second.next()));
+        }
+        // Then the category is exhausted and the history starts over
+        int repeat = second.next();
+        assertTrue(firstGame.contains(repeat));
+        assertEquals(31, second.getSeenCount());
+        int dealt = 31;
+        while (second.hasNext()) {
+            second.next();
+            dealt++;
+        }
+        assertEquals(100, dealt);
+    }
+
+    @Test
+    public void takenQuestionsAreNeverDealtAgain() {
+        long[] seen = new long[QuestionDeck.wordCount(50)];
+        // Questions 0..9 were seen in an earlier game
+        seen[0] = (1L << 10) - 1;
+        QuestionDeck deck = new QuestionDeck(50, seen, new SplittableRandom(8));
+        assertTrue(deck.take(3));
+        assertTrue(deck.take(40));
+        assertFalse(deck.take(40));
+        assertEquals(2, deck.getDrawnCount());
+
+        Set<Integer> dealt = new HashSet<>();
+        while (deck.hasNext()) {
+            int question = deck.next();
+            assertTrue(dealt.add(question));
+            // The fresh questions still come before the other seen ones
+            if (dealt.size() <= 39) {
+                assertTrue(question >= 10);
+            }
+        }
+        assertEquals(48, dealt.size());
+        assertFalse(dealt.contains(3));
+        assertFalse(dealt.contains(40));
+    }
+
+    @Test
+    public void smallAndEmptyDecks() {
+        QuestionDeck empty = new QuestionDeck(0, new SplittableRandom(4));
+        assertFalse(empty.hasNext());
+
+        QuestionDeck single = new QuestionDeck(1, new SplittableRandom(4));
+        assertEquals(0, single.next());
+        assertFalse(single.hasNext());
+        // The history of a single question starts over on every game
+        QuestionDeck again = new QuestionDeck(1, single.getSeen(), new SplittableRandom(4));
+        assertEquals(0, again.next());
+    }
+
+    @Test
+    public void historyRoundTripsThroughAFile() throws IOException {
+        QuestionHistory history = new QuestionHistory();
+        QuestionDeck deck = new QuestionDeck(200, history.getSeen("היסטוריה", 200), new SplittableRandom(5));
+        for (int i = 0; i < 120; i++) {
+            deck.next();
+        }
+        history.getSeen("מדע", 10);
+        File file = new File(folder.getRoot(), "question_history.bin");
+        history.copy().writeTo(file);
+
+        QuestionHistory read = QuestionHistory.readFrom(file);
+        assertEquals(2, read.getCategoryCount());
+        QuestionDeck restored = new QuestionDeck(200, read.getSeen("היסטוריה", 200), new SplittableRandom(6));
+        assertEquals(120, restored.getSeenCount());
+        for (int question = 0; question < 200; question++) {
+            assertEquals(deck.isSeen(question), restored.isSeen(question));
+        }
+
+        // A category whose size changed starts over
+        assertEquals(0, new QuestionDeck(201, read.getSeen("היסטוריה", 201), new SplittableRandom(7)).getSeenCount());
+        // A missing or broken file is an empty history
+        assertEquals(0, QuestionHistory.readFrom(new File(folder.getRoot(), "missing.bin")).getCategoryCount());
+        assertEquals(0, QuestionHistory.readFrom(folder.newFile("broken.bin")).getCategoryCount());
+    }
+
+    @Test
+    public void corruptHistoryIsEmpty() throws IOException {
+        QuestionHistory history = new QuestionHistory();
+        history.getSeen("היסטוריה", 200);
+        File file = new File(folder.getRoot(), "question_history.bin");
+        // Overwrite the category count, after the magic and version
+        for (int count : new int[]{-1, Integer.MAX_VALUE}) {
+            history.writeTo(file);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(8);
+                raf.writeInt(count);
+            }
+            assertEquals(0, QuestionHistory.readFrom(file).getCategoryCount());
+        }
+        // Overwrite the question count of the category, after the count and the name
+        int sizeOffset = 12 + 2 + "היסטוריה".getBytes("UTF-8").length;
+        for (int size : new int[]{-1, Integer.MAX_VALUE}) {
+            history.writeTo(file);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(sizeOffset);
+                raf.writeInt(size);
+            }
+            assertEquals(0, QuestionHistory.readFrom(file).getCategoryCount());
+        }
+        history.writeTo(file);
+        assertEquals(1, QuestionHistory.readFrom(file).getCategoryCount());
+    }
+}
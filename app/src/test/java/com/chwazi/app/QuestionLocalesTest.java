@@ -0,0 +1,65 @@
+package com.chwazi.app;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link QuestionLocales}: the bank of a locale is found with its region first, then by
+ * language, then for the next preferred locale, and Hebrew under either code uses the default bank.
+ */
+public class QuestionLocalesTest {
+
+    private static final String[] ASSETS = {
+            "questions.json", "questions.qpack", "search.qidx",
+            "questions-en.qpack", "search-en.qidx", "questions-pt-BR.json", "questions-pt-BR.qpack",
+            "questions-fr.json", "images", "questions-.qpack", "search-de.qidx",
+    };
+
+    private static Set<String> available() {
+        Set<String> keys = QuestionLocales.findKeys(ASSETS, "questions", ".qpack");
+        keys.addAll(QuestionLocales.findKeys(ASSETS, "questions", ".json"));
+        return keys;
+    }
+
+    private static String resolve(Locale... locales) {
+        return QuestionLocales.resolve(available(), Arrays.asList(locales));
+    }
+
+    @Test
+    public void banksAreFoundByFileName() {
+        assertEquals(new TreeSet<>(Arrays.asList("en", "fr", "pt-BR")), available());
+        assertEquals("questions-pt-BR.qpack", QuestionLocales.fileName("questions", "pt-BR", ".qpack"));
+        assertEquals("search.qidx", QuestionLocales.fileName("search", QuestionLocales.DEFAULT_KEY, ".qidx"));
+    }
+
+    @Test
+    public void regionComesBeforeLanguage() {
+        assertEquals("pt-BR", resolve(new Locale("pt", "BR")));
+        assertEquals("en", resolve(new Locale("en", "GB")));
+        assertEquals("en", resolve(Locale.ENGLISH));
+        // No Portuguese bank outside Brazil
+        assertEquals(QuestionLocales.DEFAULT_KEY, resolve(new Locale("pt", "PT")));
+    }
+
+    @Test
+    public void laterLocalesAreTriedBeforeTheDefault() {
+        assertEquals("fr", resolve(Locale.GERMAN, Locale.FRENCH, Locale.ENGLISH));
+        assertEquals(QuestionLocales.DEFAULT_KEY, resolve(Locale.GERMAN, Locale.ITALIAN));
+        assertEquals(QuestionLocales.DEFAULT_KEY, QuestionLocales.resolve(available(), Collections.<Locale>emptyList()));
+    }
+
+    @Test
+    public void hebrewUsesTheDefaultBankUnderEitherCode() {
+        // A Hebrew user who also reads English still gets the Hebrew questions
+        assertEquals(QuestionLocales.DEFAULT_KEY, resolve(new Locale("iw", "IL"), Locale.ENGLISH));
+        assertEquals(QuestionLocales.DEFAULT_KEY, resolve(Locale.forLanguageTag("he-IL"), Locale.ENGLISH));
+        assertEquals("iw", QuestionLocales.normalizeLanguage("HE"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.chwazi.app;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Round-trip test for the binary question pack: the pack compiled by the build must decode to
+ * exactly the same categories and questions as the questions.json it was compiled from.
+ */
+public class QuestionPackTest {
+
+    private byte[] json;
+    private QuestionPack pack;
+
+    @Before
+    public void setUp() throws IOException {
+        // The build compiles the pack for the unit tests and passes its location in this property
+        String packPath = System.getProperty("chwazi.questionPack");
+        assumeTrue("question pack not compiled", packPath != null && new File(packPath).isFile());
+
+        json = Files.readAllBytes(new File("src/main/assets/questions.json").toPath());
+        pack = new QuestionPack(ByteBuffer.wrap(Files.readAllBytes(new File(packPath).toPath())));
+    }
+
+    @Test
+    public void pack_decodesToSameContentAsJson() throws IOException {
+        List<CategoryData> expected = JsonLoader.readCategories(new ByteArrayInputStream(json));
+
+        assertEquals(expected.size(), pack.getCategoryCount());
+        int total = 0;
+        for (int c = 0; c < expected.size(); c++) {
+            CategoryData category = expected.get(c);
+            assertEquals(category.getCategory(), pack.getCategoryName(c));
+            assertEquals(c, pack.findCategory(category.getCategory()));
+
+            List<Question> questions = pack.getQuestions(c);
+            assertEquals(category.getQuestions().size(), questions.size());
+            for (int q = 0; q < questions.size(); q++) {
+                Question e = category.getQuestions().get(q);
+                Question a = questions.get(q);
+                assertEquals(e.getQuestion(), a.getQuestion());
+                assertEquals(e.getOptions(), a.getOptions());
+                assertEquals(e.getCorrectAnswer(), a.getCorrectAnswer());
+            }
+            total += questions.size();
+        }
+        assertEquals(total, pack.getQuestionCount());
+    }
+
+    @Test
+    public void pack_recordsChecksumOfItsSource() {
+        CRC32 crc = new CRC32();
+        crc.update(json, 0, json.length);
+        assertEquals((int) crc.getValue(), pack.getSourceCrc());
+    }
+
+    @Test
+    public void pack_rejectsUnknownCategoryAndQuestion() {
+        assertEquals(-1, pack.findCategory("no such category"));
+        try {
+            pack.getQuestion(0, pack.getQuestionCount(0));
+            fail("expected an IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException expected) {
+            // expected
+        }
+    }
+}
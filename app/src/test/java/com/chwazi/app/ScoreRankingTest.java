@@ -0,0 +1,147 @@
+package com.chwazi.app;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ScoreRanking}, checked against a brute force recount after
+ * every point of a long random game, including the order of participants with equal scores.
+ */
+public class ScoreRankingTest {
+
+    @Test
+    public void staysSortedThroughRandomGames() {
+        Random random = new Random(42);
+        for (int count = 1; count <= 20; count++) {
+            ScoreRanking ranking = new ScoreRanking();
+            ranking.reset(count);
+            int[] expected = new int[count];
+            // Point at which every participant reached its score, the starting score counts as reached by ID
+            int[] reachedAt = new int[count];
+            for (int i = 0; i < count; i++) {
+                reachedAt[i] = i - count;
+            }
+            for (int point = 0; point < 500; point++) {
+                int participant = random.nextInt(count);
+                int[] before = order(ranking);
+                int oldRank = ranking.increment(participant);
+                expected[participant]++;
+                reachedAt[participant] = point;
+
+                assertRankingValid(ranking, expected);
+                // The scorer moved up to its old score group's head, only the ranks it passed changed
+                assertTrue(ranking.getRank(participant) <= oldRank);
+                assertEquals(movedCount(oldRank, ranking.getRank(participant)), changedRanks(before, ranking));
+                for (int rank = 1; rank < count; rank++) {
+                    int ahead = ranking.getParticipant(rank - 1);
+                    int behind = ranking.getParticipant(rank);
+                    if (expected[ahead] == expected[behind]) {
+                        assertTrue("tie out of arrival order", reachedAt[ahead] < reachedAt[behind]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void leaderAndTie() {
+        ScoreRanking ranking = new ScoreRanking();
+        ranking.reset(3);
+        assertTrue(ranking.isLeaderTied());
+
+        ranking.increment(2);
+        assertEquals(2, ranking.getLeader());
+        assertFalse(ranking.isLeaderTied());
+
+        // Only the top two tie, the third player does not matter
+        ranking.increment(0);
+        assertTrue(ranking.isLeaderTied());
+        assertEquals(2, ranking.getLeader());
+
+        ranking.increment(0);
+        assertEquals(0, ranking.getLeader());
+        assertFalse(ranking.isLeaderTied());
+        assertEquals(2, ranking.getScore(0));
+        assertEquals(1, ranking.getRank(2));
+        assertEquals(1, ranking.getParticipant(2));
+    }
+
+    @Test
+    public void tieGroupKeepsArrivalOrder() {
+        ScoreRanking ranking = new ScoreRanking();
+        ranking.reset(3);
+        ranking.increment(0);
+        ranking.increment(1);
+        ranking.increment(2);
+        // x, y and z all have one point, in that order; z scoring again leaves x ahead of y
+        assertEquals(2, ranking.increment(2));
+        assertEquals(2, ranking.getParticipant(0));
+        assertEquals(0, ranking.getParticipant(1));
+        assertEquals(1, ranking.getParticipant(2));
+    }
+
+    @Test
+    public void resetStartsOver() {
+        ScoreRanking ranking = new ScoreRanking();
+        ranking.reset(2);
+        ranking.increment(1);
+        ranking.reset(2);
+        assertEquals(0, ranking.getScore(1));
+        assertEquals(0, ranking.getLeader());
+
+        ranking.reset(0);
+        assertEquals(-1, ranking.getLeader());
+        assertFalse(ranking.isLeaderTied());
+    }
+
+    private static void assertRankingValid(ScoreRanking ranking, int[] expected) {
+        boolean[] seen = new boolean[expected.length];
+        for (int rank = 0; rank < ranking.size(); rank++) {
+            int participant = ranking.getParticipant(rank);
+            assertFalse(seen[participant]);
+            seen[participant] = true;
+            assertEquals(rank, ranking.getRank(participant));
+            assertEquals(expected[participant], ranking.getScore(participant));
+            if (rank > 0) {
+                assertTrue(ranking.getScore(ranking.getParticipant(rank - 1)) >= ranking.getScore(participant));
+            }
+        }
+        int best = 0;
+        int bestCount = 0;
+        for (int score : expected) {
+            if (score > best) {
+                best = score;
+                bestCount = 1;
+            } else if (score == best) {
+                bestCount++;
+            }
+        }
+        assertEquals(best, ranking.getScore(ranking.getLeader()));
+        assertEquals(bestCount > 1, ranking.isLeaderTied());
+    }
+
+    private static int[] order(ScoreRanking ranking) {
+        int[] order = new int[ranking.size()];
+        for (int rank = 0; rank < order.length; rank++) {
+            order[rank] = ranking.getParticipant(rank);
+        }
+        return order;
+    }
+
+    private static int changedRanks(int[] before, ScoreRanking ranking) {
+        int changed = 0;
+        for (int rank = 0; rank < before.length; rank++) {
+            if (before[rank] != ranking.getParticipant(rank)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private static int movedCount(int oldRank, int newRank) {
+        return oldRank == newRank ? 0 : oldRank - newRank + 1;
+    }
+}
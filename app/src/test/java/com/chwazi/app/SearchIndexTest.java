@@ -0,0 +1,143 @@
+package com.chwazi.app;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests for the prebuilt search index and the tokenizer it shares with the build: every category
+ * must be found by its own name, Hebrew prefix letters and final letters must not change a match,
+ * and several words must only match categories that contain all of them.
+ */
+public class SearchIndexTest {
+
+    private byte[] json;
+    private List<CategoryData> categories;
+    private SearchIndex index;
+
+    @Before
+    public void setUp() throws IOException {
+        // The build compiles the index for the unit tests and passes its location in this property
+        String indexPath = System.getProperty("chwazi.searchIndex");
+        assumeTrue("search index not compiled", indexPath != null && new File(indexPath).isFile());
+
+        json = Files.readAllBytes(new File("src/main/assets/questions.json").toPath());
+        categories = JsonLoader.readCategories(new ByteArrayInputStream(json));
+        index = new SearchIndex(ByteBuffer.wrap(Files.readAllBytes(new File(indexPath).toPath())));
+    }
+
+    @Test
+    public void tokenizer_normalizesMarksFinalLettersAndCase() {
+        assertEquals(Arrays.asList("שלומ", "עולמ", "abc"), HebrewTokenizer.tokenize("שָׁלוֹם, עולם! ABC x"));
+    }
+
+    @Test
+    public void tokenizer_stripsPrefixLettersOnly() {
+        assertEquals(Arrays.asList("והמספר", "המספר", "מספר", "ספר"), HebrewTokenizer.variants("והמספר"));
+        // Stops at the first letter that is not a prefix, and never leaves fewer than two letters
+        assertEquals(Arrays.asList("וגן", "גן"), HebrewTokenizer.variants("וגן"));
+        assertEquals(Arrays.asList("של"), HebrewTokenizer.variants("של"));
+    }
+
+    @Test
+    public void index_recordsChecksumOfItsSource() {
+        CRC32 crc = new CRC32();
+        crc.update(json, 0, json.length);
+        assertEquals((int) crc.getValue(), index.getSourceCrc());
+        assertEquals(categories.size(), index.getCategoryCount());
+    }
+
+    @Test
+    public void everyCategoryIsFoundFirstByItsName() {
+        for (int id = 0; id < categories.size(); id++) {
+            String name = categories.get(id).getCategory();
+            int[] found = index.search(name + " ", categories.size());
+            assertTrue(name, contains(found, id));
+            // Categories with the words in their name come before those with them in a question only
+            assertTrue(name, nameContainsAll(categories.get(found[0]).getCategory(), name));
+        }
+    }
+
+    @Test
+    public void prefixLettersDoNotChangeTheMatch() {
+        String word = firstLongWord();
+        int[] plain = index.search(word + " ", categories.size());
+        int[] prefixed = index.search("וה" + word + " ", categories.size());
+        assertTrue(plain.length > 0);
+        for (int id : plain) {
+            assertTrue(contains(prefixed, id));
+        }
+    }
+
+    @Test
+    public void wordBeingTypedMatchesAsPrefix() {
+        String word = firstLongWord();
+        int[] whole = index.search(word + " ", categories.size());
+        int[] typing = index.search(word.substring(0, word.length() - 1), categories.size());
+        for (int id : whole) {
+            assertTrue(contains(typing, id));
+        }
+    }
+
+    @Test
+    public void everyWordMustMatch() {
+        assertEquals(0, index.search("zzzzqqq", 10).length);
+        String word = firstLongWord();
+        assertEquals(0, index.search(word + " zzzzqqq ", 10).length);
+        assertEquals(0, index.search("   ", 10).length);
+    }
+
+    @Test
+    public void resultsAreCapped() {
+        String word = firstLongWord();
+        assertTrue(index.search(word, 1).length <= 1);
+    }
+
+    // A word of the first category's name, long enough to survive prefix stripping
+    private String firstLongWord() {
+        for (CategoryData category : categories) {
+            for (String word : HebrewTokenizer.tokenize(category.getCategory())) {
+                if (word.length() >= 3) {
+                    return word;
+                }
+            }
+        }
+        throw new AssertionError("no category name with a word of three letters");
+    }
+
+    private static boolean nameContainsAll(String name, String query) {
+        List<String> nameWords = HebrewTokenizer.tokenize(name);
+        for (String word : HebrewTokenizer.tokenize(query)) {
+            boolean found = false;
+            for (String variant : HebrewTokenizer.variants(word)) {
+                for (String nameWord : nameWords) {
+                    found |= HebrewTokenizer.variants(nameWord).contains(variant);
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] ids, int id) {
+        for (int found : ids) {
+            if (found == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,151 @@
+package com.chwazi.app;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Local unit tests for {@link SelectionEngine}: the distribution of every policy over many picks,
+ * seeded picks, and picking without allocation.
+ */
+public class SelectionEngineTest {
+
+    private static SelectionEngine engine(SelectionEngine.Policy policy, int count, long seed) {
+        SelectionEngine selection = new SelectionEngine(new SplittableRandom(seed));
+        selection.setPolicy(policy);
+        selection.reset(count);
+        return selection;
+    }
+
+    private static int[] histogram(SelectionEngine selection, int picks) {
+        int[] counts = new int[selection.getCount()];
+        for (int i = 0; i < picks; i++) {
+            counts[selection.pick()]++;
+        }
+        return counts;
+    }
+
+    @Test
+    public void uniformGivesEveryoneTheSameChance() {
+        int[] counts = histogram(engine(SelectionEngine.Policy.UNIFORM, 5, 1), 100_000);
+        for (int count : counts) {
+            // 20000 expected, about 5 standard deviations of slack
+            assertTrue("picked " + count + " times", Math.abs(count - 20_000) < 700);
+        }
+    }
+
+    @Test
+    public void sameSeedPicksTheSameParticipants() {
+        for (SelectionEngine.Policy policy : SelectionEngine.Policy.values()) {
+            SelectionEngine a = engine(policy, 7, 99);
+            SelectionEngine b = engine(policy, 7, 99);
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(policy.name(), a.pick(), b.pick());
+            }
+        }
+    }
+
+    @Test
+    public void leastRecentlyChosenDealsEveryoneOncePerRound() {
+        int count = 6;
+        SelectionEngine selection = engine(SelectionEngine.Policy.LEAST_RECENTLY_CHOSEN, count, 3);
+
+        // The first round is a permutation of the participants
+        boolean[] seen = new boolean[count];
+        int last = -1;
+        for (int i = 0; i < count; i++) {
+            last = selection.pick();
+            assertFalse("picked " + last + " twice in the first round", seen[last]);
+            seen[last] = true;
+        }
+
+        int[] picks = new int[count];
+        int[] lastPick = new int[count];
+        for (int i = 0; i < 10_000; i++) {
+            int participant = selection.pick();
+            assertNotEquals("picked twice in a row", last, participant);
+            picks[participant]++;
+            lastPick[participant] = i;
+            last = participant;
+            // Nobody waits much longer than two rounds
+            for (int p = 0; p < count; p++) {
+                assertTrue(i - lastPick[p] < 2 * count);
+            }
+        }
+        int min = Integer.MAX_VALUE;
+        int max = 0;
+        for (int value : picks) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        assertTrue("picks range from " + min + " to " + max, max - min <= 1);
+    }
+
+    @Test
+    public void weightedFavorsThoseWhoAnsweredLess() {
+        SelectionEngine selection = engine(SelectionEngine.Policy.WEIGHTED_BY_ANSWERS, 3, 5);
+        // Weights 1, 1/2 and 1/4
+        selection.recordAnswer(1);
+        selection.recordAnswer(2);
+        selection.recordAnswer(2);
+        selection.recordAnswer(2);
+        assertEquals(0.25, selection.getWeight(2), 0.0);
+
+        int picks = 175_000;
+        int[] counts = histogram(selection, picks);
+        double total = 1 + 0.5 + 0.25;
+        assertEquals(picks / total, counts[0], 1000);
+        assertEquals(picks * 0.5 / total, counts[1], 1000);
+        assertEquals(picks * 0.25 / total, counts[2], 1000);
+
+        // Without answers the table is uniform again
+        selection.reset(3);
+        counts = histogram(selection, 90_000);
+        for (int count : counts) {
+            assertEquals(30_000, count, 800);
+        }
+    }
+
+    @Test
+    public void singleParticipantIsAlwaysPicked() {
+        for (SelectionEngine.Policy policy : SelectionEngine.Policy.values()) {
+            SelectionEngine selection = engine(policy, 1, 8);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(0, selection.pick());
+                selection.recordAnswer(0);
+            }
+        }
+    }
+
+    @Test
+    public void picksDoNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(sunBean.isThreadAllocatedMemorySupported());
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+
+        for (SelectionEngine.Policy policy : SelectionEngine.Policy.values()) {
+            SelectionEngine selection = engine(policy, 20, 13);
+            // Warm up
+            playPicks(selection, 50_000);
+
+            long thread = Thread.currentThread().getId();
+            long allocatedBefore = sunBean.getThreadAllocatedBytes(thread);
+            playPicks(selection, 1_000_000);
+            long allocated = sunBean.getThreadAllocatedBytes(thread) - allocatedBefore;
+            assertTrue(policy + " allocated " + allocated + " bytes", allocated < 16 * 1024);
+        }
+    }
+
+    // Pick and answer like a game does, so weighted picks also rebuild their table
+    private static void playPicks(SelectionEngine selection, int picks) {
+        for (int i = 0; i < picks; i++) {
+            selection.recordAnswer(selection.pick());
+        }
+    }
+}
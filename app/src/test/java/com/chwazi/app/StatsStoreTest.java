@@ -0,0 +1,241 @@
+package com.chwazi.app;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StatsStore}: finished games add up per player across restarts, streaks carry
+ * from one game into the next, and the totals are rebuilt from the history when the rollup is
+ * missing or behind it.
+ */
+public class StatsStoreTest {
+
+    private static final int[] COLORS = {10, 20, 30};
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("stats").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : directory.listFiles()) {
+            f.delete();
+        }
+        directory.delete();
+    }
+
+    // A game in the given category where each answer is given as participant and result,
+    // for example "1+" for a correct answer of participant 1. The category ID is the position the
+    // category happened to have, statistics go by its name.
+    private static GameJournal.Game game(String category, String[] names, String... answers) {
+        GameJournal.Game game = new GameJournal.Game(category.length(), category, 10, COLORS);
+        System.arraycopy(names, 0, game.names, 0, names.length);
+        for (int i = 0; i < answers.length; i++) {
+            game.addAnswer(answers[i].charAt(0) - '0', i % 10, answers[i].charAt(1) == '+');
+        }
+        game.finished = true;
+        return game;
+    }
+
+    @Test
+    public void gamesAddUpPerPlayerAcrossRestarts() throws IOException {
+        StatsStore store = new StatsStore(directory);
+        String[] names = {"Dana", "נועה", null};
+        assertEquals(2, store.recordGame(game("חידות", names, "0+", "1-", "0+", "1+"), 1));
+        assertEquals(2, store.recordGame(game("אמנות", names, "0-", "1+", "1+"), 2));
+
+        StatsStore reopened = new StatsStore(directory);
+        assertEquals(4, reopened.getRecordCount());
+        List<StatsStore.PlayerStats> ranked = reopened.getHallOfFame();
+        assertEquals(2, ranked.size());
+
+        // Dana won the first game, Noa the second; Noa is ahead on accuracy
+        StatsStore.PlayerStats noa = ranked.get(0);
+        assertEquals("נועה", noa.name);
+        assertEquals(2, noa.getGames());
+        assertEquals(1, noa.getWins());
+        assertEquals(4, noa.getAnswered());
+        assertEquals(3, noa.getCorrect());
+        assertEquals(1, noa.getCategoryAnswered("חידות") - noa.getCategoryCorrect("חידות"));
+        assertEquals(2, noa.getCategoryCorrect("אמנות"));
+
+        StatsStore.PlayerStats dana = reopened.getPlayer("  Dana ");
+        assertEquals(1, dana.getWins());
+        assertEquals(2, dana.getCategoryCount());
+        assertEquals(0, dana.getCategoryAnswered("מוזיקה"));
+        // Dana answered two questions of the riddles and one of art
+        assertEquals("חידות", dana.getCategoryName(dana.getTopCategory()));
+    }
+
+    @Test
+    public void tieHasNoWinnerAndUnnamedParticipantsAreLeftOut() throws IOException {
+        StatsStore store = new StatsStore(directory);
+        assertEquals(2, store.recordGame(game("היסטוריה", new String[]{"Dana", "Noa"}, "0+", "1+", "2+"), 1));
+        for (StatsStore.PlayerStats player : store.getHallOfFame()) {
+            assertEquals(0, player.getWins());
+            assertEquals(1, player.getGames());
+        }
+    }
+
+    @Test
+    public void streakCarriesIntoTheNextGame() throws IOException {
+        StatsStore store = new StatsStore(directory);
+        String[] names = {"Dana"};
+        // Two correct at the end, three in a perfect game, one at the start of the next: a streak of six
+        store.recordGame(game("היסטוריה", names, "0+", "0-", "0+", "0+"), 1);
+        store.recordGame(game("היסטוריה", names, "0+", "0+", "0+"), 2);
+        store.recordGame(game("היסטוריה", names, "0+", "0-", "0+"), 3);
+        assertEquals(6, store.getPlayer("Dana").getBestStreak());
+        assertEquals(6, new StatsStore(directory).getPlayer("Dana").getBestStreak());
+    }
+
+    @Test
+    public void totalsAreRebuiltWhenRollupIsLostOrBehind() throws IOException {
+        StatsStore store = new StatsStore(directory);
+        String[] names = {"Dana", "Noa"};
+        store.recordGame(game("מדע", names, "0+", "1-"), 1);
+        File rollup = new File(directory, StatsStore.ROLLUP_FILE);
+        byte[] behind = Files.readAllBytes(rollup.toPath());
+        store.recordGame(game("ספורט", names, "0-", "1+", "1+"), 2);
+        store.recordGame(game("מדע", names, "0+", "1+"), 3);
+        StatsStore.PlayerStats expected = store.getPlayer("Noa");
+
+        // The process died after appending to the history but before replacing the rollup,
+        // with a record of the next game cut short
+        Files.write(rollup.toPath(), behind);
+        File games = new File(directory, StatsStore.GAMES_FILE);
+        try (RandomAccessFile raf = new RandomAccessFile(games, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[StatsStore.RECORD_SIZE / 2]);
+        }
+        assertStatsEqual(expected, new StatsStore(directory).getPlayer("Noa"));
+
+        // Without a rollup at all
+        rollup.delete();
+        StatsStore rebuilt = new StatsStore(directory);
+        assertStatsEqual(expected, rebuilt.getPlayer("Noa"));
+        // Appending drops the half record first
+        rebuilt.recordGame(game("מדע", names, "1+"), 4);
+        assertEquals(8, new StatsStore(directory).getRecordCount());
+        assertEquals(8 + 8 * StatsStore.RECORD_SIZE, games.length());
+    }
+
+    @Test
+    public void categoriesAreKeptByName() throws IOException {
+        StatsStore store = new StatsStore(directory);
+        String[] names = {"Dana"};
+        // The same category at another position, after a pack was installed or the locale changed
+        GameJournal.Game moved = game("מדע", names, "0+", "0-");
+        GameJournal.Game before = new GameJournal.Game(40, moved.categoryName, 10, COLORS);
+        before.names[0] = "Dana";
+        before.addAnswer(0, 0, true);
+        store.recordGame(before, 1);
+        store.recordGame(moved, 2);
+        // Another category that took over the first position
+        store.recordGame(game("היסטוריה", names, "0+"), 3);
+
+        StatsStore.PlayerStats dana = new StatsStore(directory).getPlayer("Dana");
+        assertEquals(2, dana.getCategoryCount());
+        assertEquals(3, dana.getCategoryAnswered(" מדע "));
+        assertEquals(2, dana.getCategoryCorrect("מדע"));
+        assertEquals(1, dana.getCategoryAnswered("היסטוריה"));
+        assertEquals("מדע", dana.getCategoryName(dana.getTopCategory()));
+    }
+
+    @Test
+    public void firstVersionHistoryKeepsItsTotals() throws IOException {
+        // Two records in the first layout: time, category ID, the five counts, flags and the name
+        ByteBuffer history = ByteBuffer.allocate(8 + 2 * 72);
+        history.putInt(0x43534741).putInt(1);
+        for (int i = 0; i < 2; i++) {
+            int start = history.position();
+            history.putLong(i).putInt(3);
+            history.putShort((short) 4).putShort((short) 3).putShort((short) 2).putShort((short) 1).putShort((short) 0);
+            history.put((byte) (i == 0 ? 1 : 0)).put((byte) 4);
+            for (int c = 0; c < StatsStore.MAX_NAME_LENGTH; c++) {
+                history.putChar(c < 4 ? "Dana".charAt(c) : 0);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(history.array(), start, 72 - 4);
+            history.putInt((int) crc.getValue());
+        }
+        File games = new File(directory, StatsStore.GAMES_FILE);
+        Files.write(games.toPath(), history.array());
+
+        StatsStore store = new StatsStore(directory);
+        StatsStore.PlayerStats dana = store.getPlayer("Dana");
+        assertEquals(2, dana.getGames());
+        assertEquals(1, dana.getWins());
+        assertEquals(6, dana.getCorrect());
+        // The category IDs are meaningless now, no category is kept
+        assertEquals(0, dana.getCategoryCount());
+        assertEquals(8 + 2 * StatsStore.RECORD_SIZE, games.length());
+
+        // New games are appended to the upgraded history
+        store.recordGame(game("מדע", new String[]{"Dana"}, "0+"), 3);
+        StatsStore reopened = new StatsStore(directory);
+        assertEquals(3, reopened.getRecordCount());
+        assertEquals(1, reopened.getPlayer("Dana").getCategoryAnswered("מדע"));
+    }
+
+    @Test
+    public void longHistoryLoadsFromRollup() throws IOException {
+        // Tens of thousands of games by 50 players, written straight into the history
+        int records = 60_000;
+        ByteBuffer history = ByteBuffer.allocate(8 + records * StatsStore.RECORD_SIZE);
+        history.putInt(0x43534741).putInt(2);
+        for (int i = 0; i < records; i++) {
+            StatsStore.encodeRecord(history, i, "category " + (i % 40), "player " + (i % 50), 5, i % 6, 2, 1, 0, i % 100 == 0);
+        }
+        Files.write(new File(directory, StatsStore.GAMES_FILE).toPath(), history.array());
+
+        long start = System.nanoTime();
+        List<StatsStore.PlayerStats> rebuilt = new StatsStore(directory).getHallOfFame();
+        long rebuildMicros = (System.nanoTime() - start) / 1000;
+
+        start = System.nanoTime();
+        List<StatsStore.PlayerStats> loaded = new StatsStore(directory).getHallOfFame();
+        long loadMicros = (System.nanoTime() - start) / 1000;
+
+        assertEquals(50, loaded.size());
+        int games = 0;
+        for (int i = 0; i < loaded.size(); i++) {
+            assertStatsEqual(rebuilt.get(i), loaded.get(i));
+            games += loaded.get(i).getGames();
+        }
+        assertEquals(records, games);
+        assertTrue("rollup load took " + loadMicros + " us", loadMicros < 200_000);
+        // Replaying the whole history is slower, but far below this on any machine
+        assertTrue("rebuild took " + rebuildMicros + " us", rebuildMicros < 5_000_000);
+    }
+
+    private static void assertStatsEqual(StatsStore.PlayerStats expected, StatsStore.PlayerStats actual) {
+        assertEquals(expected.name, actual.name);
+        assertEquals(expected.getGames(), actual.getGames());
+        assertEquals(expected.getWins(), actual.getWins());
+        assertEquals(expected.getAnswered(), actual.getAnswered());
+        assertEquals(expected.getCorrect(), actual.getCorrect());
+        assertEquals(expected.getBestStreak(), actual.getBestStreak());
+        assertEquals(expected.getCategoryCount(), actual.getCategoryCount());
+        for (int i = 0; i < expected.getCategoryCount(); i++) {
+            String category = expected.getCategoryName(i);
+            assertEquals(category, actual.getCategoryName(i));
+            assertEquals(expected.getCategoryAnswered(category), actual.getCategoryAnswered(category));
+            assertEquals(expected.getCategoryCorrect(category), actual.getCategoryCorrect(category));
+        }
+    }
+}
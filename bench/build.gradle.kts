@@ -0,0 +1,80 @@
+import java.util.Properties
+
+// JMH benchmarks for the plain Java hot paths of the app: loading questions, searching, picking a participant and scoring.
+// Run with ./gradlew :bench:jmh, results are written as JSON to build/results/jmh/results.json.
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// Sources contain Hebrew text, as in the app module
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+// The benchmarked classes are compiled straight from the app's sources, so they can never drift apart
+sourceSets {
+    main {
+        java {
+            srcDir(rootProject.file("app/src/main/java"))
+            // The search index is built in the benchmark's setup by the build's own compiler
+            srcDir(rootProject.file("buildSrc/src/main/java"))
+            include(
+                "com/chwazi/app/Question.java",
+                "com/chwazi/app/CategoryData.java",
+                "com/chwazi/app/CompactQuestionBank.java",
+                "com/chwazi/app/JsonLoader.java",
+                "com/chwazi/app/ParticipantRoster.java",
+                "com/chwazi/app/ScoreRanking.java",
+                "com/chwazi/app/SelectionEngine.java",
+                "com/chwazi/app/QuestionDeck.java",
+                "com/chwazi/app/GameEngine.java",
+                "com/chwazi/app/HebrewTokenizer.java",
+                "com/chwazi/app/SearchIndex.java",
+                "com/chwazi/build/SearchIndexCompiler.java"
+            )
+        }
+    }
+}
+
+// SearchIndex also has a helper that takes a Context, compile it against the platform the app builds
+// with. The benchmarks only call the buffer methods, so no Android class is needed at runtime.
+// The SDK is only looked up when the bench sources are compiled, other builds never need it.
+val androidJar = providers.provider {
+    val compileSdk = libs.versions.compileSdk.get()
+    val sdkDir = rootProject.file("local.properties")
+        .takeIf { it.exists() }
+        ?.let { file -> Properties().apply { file.inputStream().use { load(it) } }.getProperty("sdk.dir") }
+        ?: System.getenv("ANDROID_HOME")
+        ?: System.getenv("ANDROID_SDK_ROOT")
+        ?: throw GradleException(
+            "The benchmarks compile against the Android SDK, but it was not found. " +
+                "Set sdk.dir in local.properties or the ANDROID_HOME environment variable."
+        )
+    val jar = file("$sdkDir/platforms/android-$compileSdk/android.jar")
+    if (!jar.isFile) {
+        throw GradleException("$jar is missing, install the Android $compileSdk platform with the SDK manager.")
+    }
+    jar
+}
+
+dependencies {
+    implementation(libs.gson)
+    compileOnly(files(androidJar))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // The real question bank the synthetic ones are scaled from
+    jvmArgsAppend.add("-Dchwazi.questionsJson=" + rootProject.file("app/src/main/assets/questions.json").absolutePath)
+}
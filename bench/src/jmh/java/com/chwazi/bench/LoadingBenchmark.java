@@ -0,0 +1,65 @@
+package com.chwazi.bench;
+
+// Import necessary JMH and Java classes
+import com.chwazi.app.CategoryData;
+import com.chwazi.app.CompactQuestionBank;
+import com.chwazi.app.JsonLoader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// This class benchmarks the streaming modes of JsonLoader on the real questions.json (scale 1)
+// and on synthetic banks 10, 100 and 1000 times its size.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoadingBenchmark {
+
+    // Size of the bank as a multiple of the real one
+    @Param({"1", "10", "100", "1000"})
+    public int scale;
+
+    private byte[] bank;
+    private String lastCategory;
+
+    @Setup
+    public void setUp() throws IOException {
+        bank = QuestionBanks.scale(QuestionBanks.readRealBank(), scale);
+        lastCategory = QuestionBanks.lastCategory(bank);
+    }
+
+    // Every category with all of its questions
+    @Benchmark
+    public List<CategoryData> readCategories() throws IOException {
+        return JsonLoader.readCategories(new ByteArrayInputStream(bank));
+    }
+
+    // Every category, packed into a compact bank as the JSON fallback keeps questions in memory
+    @Benchmark
+    public CompactQuestionBank readCompactBank() throws IOException {
+        return CompactQuestionBank.build(JsonLoader.readCategories(new ByteArrayInputStream(bank)));
+    }
+
+    // Only the category names, as the category screen needs
+    @Benchmark
+    public List<String> readCategoryNames() throws IOException {
+        return JsonLoader.readCategoryNames(new ByteArrayInputStream(bank));
+    }
+
+    // A single category, the last one so the whole bank is scanned
+    @Benchmark
+    public CategoryData readLastCategory() throws IOException {
+        return JsonLoader.readCategory(new ByteArrayInputStream(bank), lastCategory);
+    }
+}
@@ -0,0 +1,80 @@
+package com.chwazi.bench;
+
+// Import necessary Java classes
+import com.chwazi.app.CategoryData;
+import com.chwazi.app.JsonLoader;
+import com.chwazi.app.Question;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+// This class provides the question banks the benchmarks parse: the real questions.json,
+// and synthetic banks made of many renamed copies of its categories.
+final class QuestionBanks {
+
+    // System property with the path of the real bank, set by the bench build
+    private static final String BANK_PROPERTY = "chwazi.questionsJson";
+
+    private QuestionBanks() {
+    }
+
+    // Read the real bank shipped with the app
+    static byte[] readRealBank() throws IOException {
+        String path = System.getProperty(BANK_PROPERTY);
+        if (path == null) {
+            throw new IOException("System property " + BANK_PROPERTY + " is not set");
+        }
+        return Files.readAllBytes(Paths.get(path));
+    }
+
+    // Build a bank with scale copies of every category of the given one, copies get a numbered name
+    static byte[] scale(byte[] bank, int scale) throws IOException {
+        if (scale == 1) {
+            return bank;
+        }
+        List<CategoryData> categories = JsonLoader.readCategories(new ByteArrayInputStream(bank));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bank.length * scale);
+        try (JsonWriter writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.beginArray();
+            for (int copy = 0; copy < scale; copy++) {
+                for (CategoryData category : categories) {
+                    writeCategory(writer, copy == 0 ? category.getCategory() : category.getCategory() + " " + copy, category);
+                }
+            }
+            writer.endArray();
+        }
+        return out.toByteArray();
+    }
+
+    // Name of the last category of a bank, the worst case for finding a single category
+    static String lastCategory(byte[] bank) throws IOException {
+        List<String> names = JsonLoader.readCategoryNames(new ByteArrayInputStream(bank));
+        return names.get(names.size() - 1);
+    }
+
+    private static void writeCategory(JsonWriter writer, String name, CategoryData category) throws IOException {
+        writer.beginObject();
+        writer.name("category").value(name);
+        writer.name("questions").beginArray();
+        for (Question question : category.getQuestions()) {
+            writer.beginObject();
+            writer.name("question").value(question.getQuestion());
+            writer.name("options").beginArray();
+            for (String option : question.getOptions()) {
+                writer.value(option);
+            }
+            writer.endArray();
+            writer.name("correctAnswer").value(question.getCorrectAnswer());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+}
@@ -0,0 +1,92 @@
+package com.chwazi.bench;
+
+// Import necessary JMH and Java classes
+import com.chwazi.app.ParticipantRoster;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// This class benchmarks scoring a correct answer and then working out the winner.
+// The legacy case repeats the old GameActivity code (boxed scores in a map keyed by name and a loop
+// over the whole map for the winner) as a baseline for the ParticipantRoster.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ScoringBenchmark {
+
+    @Param({"2", "8", "20"})
+    public int participants;
+
+    private String[] names;
+    private Map<String, Integer> scores;
+    private ParticipantRoster roster;
+    private int turn;
+
+    @Setup
+    public void setUp() {
+        names = new String[participants];
+        scores = new HashMap<>();
+        roster = new ParticipantRoster();
+        roster.reset(participants, new int[participants]);
+        for (int i = 0; i < participants; i++) {
+            names[i] = "שחקן " + i;
+            roster.setName(i, names[i]);
+        }
+    }
+
+    // Uneven scoring, so the leader changes now and then
+    private int nextParticipant() {
+        turn++;
+        return (turn * 7 + (turn >> 3)) % participants;
+    }
+
+    // One point and the winner, as GameActivity used to compute them
+    @Benchmark
+    public void legacyScoreAndWinner(Blackhole blackhole) {
+        String participantName = names[nextParticipant()];
+        scores.put(participantName, scores.getOrDefault(participantName, 0) + 1);
+
+        int firstScore = -1;
+        boolean isTie = true;
+        String winnerName = null;
+        int highestScore = 0;
+        for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+            int score = entry.getValue();
+            if (firstScore == -1) {
+                firstScore = score;
+                winnerName = entry.getKey();
+                highestScore = score;
+            } else if (score != firstScore) {
+                isTie = false;
+                if (score > highestScore) {
+                    highestScore = score;
+                    winnerName = entry.getKey();
+                }
+            }
+        }
+        blackhole.consume(isTie);
+        blackhole.consume(winnerName);
+        blackhole.consume(highestScore);
+    }
+
+    // One point and the winner from the roster's incremental ranking
+    @Benchmark
+    public void rosterScoreAndWinner(Blackhole blackhole) {
+        roster.addPoint(nextParticipant());
+        int leader = roster.getLeader();
+        blackhole.consume(roster.isLeaderTied());
+        blackhole.consume(roster.getName(leader));
+        blackhole.consume(roster.getScore(leader));
+    }
+}
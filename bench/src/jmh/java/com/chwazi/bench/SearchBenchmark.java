@@ -0,0 +1,64 @@
+package com.chwazi.bench;
+
+// Import necessary JMH and Java classes
+import com.chwazi.app.HebrewTokenizer;
+import com.chwazi.app.SearchIndex;
+import com.chwazi.build.SearchIndexCompiler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// This class benchmarks category search with the prebuilt index on the real questions.json (scale 1)
+// and on synthetic banks 10, 100 and 1000 times its size. A search has to fit well within a frame
+// (16 ms), since the category screen searches again on every keystroke.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    // Size of the bank as a multiple of the real one
+    @Param({"1", "10", "100", "1000"})
+    public int scale;
+
+    private SearchIndex index;
+    // A whole word with prefix letters, a word still being typed, and two words
+    private String prefixedWord;
+    private String typedWord;
+    private String twoWords;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] bank = QuestionBanks.scale(QuestionBanks.readRealBank(), scale);
+        index = new SearchIndex(ByteBuffer.wrap(SearchIndexCompiler.compile(bank)));
+        List<String> words = HebrewTokenizer.tokenize(QuestionBanks.lastCategory(bank));
+        prefixedWord = "וה" + words.get(0) + " ";
+        typedWord = words.get(0).substring(0, 2);
+        twoWords = words.get(0) + " " + words.get(words.size() - 1) + " ";
+    }
+
+    @Benchmark
+    public int[] searchPrefixedWord() {
+        return index.search(prefixedWord, 100);
+    }
+
+    @Benchmark
+    public int[] searchTypedWord() {
+        return index.search(typedWord, 100);
+    }
+
+    @Benchmark
+    public int[] searchTwoWords() {
+        return index.search(twoWords, 100);
+    }
+}
@@ -0,0 +1,131 @@
+package com.chwazi.bench;
+
+// Import necessary JMH and Java classes
+import com.chwazi.app.GameEngine;
+import com.chwazi.app.Question;
+import com.chwazi.app.QuestionDeck;
+import com.chwazi.app.SelectionEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// This class benchmarks picking a random participant once everyone touches their circle.
+// The legacy case repeats what GameActivity.chooseRandomColor used to do (a boxed list of the
+// touched participants and a new Random per pick) as a baseline for the GameEngine, and every
+// selection policy is measured on its own, with an answer recorded after every pick like in a game.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SelectionBenchmark {
+
+    @Param({"2", "8", "20"})
+    public int participants;
+
+    private boolean[] touched;
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() {
+        touched = new boolean[participants];
+        for (int i = 0; i < participants; i++) {
+            touched[i] = true;
+        }
+        engine = new GameEngine(new SelectionEngine(new SplittableRandom(42)), new NoOpListener());
+        engine.start(participants, new int[participants], Collections.<Question>emptyList(),
+                new QuestionDeck(0, new SplittableRandom(42)));
+    }
+
+    // The pick as chooseRandomColor used to do it
+    @Benchmark
+    public int legacyPick() {
+        List<Integer> touchedList = new ArrayList<>();
+        for (int i = 0; i < participants; i++) {
+            if (touched[i]) {
+                touchedList.add(i);
+            }
+        }
+        int randomIndex = new Random().nextInt(touchedList.size());
+        return touchedList.get(randomIndex);
+    }
+
+    // Every participant touches, the countdown runs out, the engine picks one, and the round is cancelled
+    // to wait for touches again
+    @Benchmark
+    public int enginePick() {
+        for (int i = 0; i < participants; i++) {
+            engine.touchDown(i);
+        }
+        engine.countdownFinished();
+        int picked = engine.getCurrentParticipant();
+        engine.selectionShown();
+        engine.nameCancelled();
+        return picked;
+    }
+
+    // Each policy picks for 8 participants, the picked participant answers before the next pick
+    @Benchmark
+    public int policyPick(PolicyState state) {
+        int picked = state.selection.pick();
+        state.selection.recordAnswer(picked);
+        return picked;
+    }
+
+    @State(Scope.Thread)
+    public static class PolicyState {
+        @Param({"UNIFORM", "LEAST_RECENTLY_CHOSEN", "WEIGHTED_BY_ANSWERS"})
+        public String policy;
+
+        SelectionEngine selection;
+
+        @Setup
+        public void setUp() {
+            selection = new SelectionEngine(new SplittableRandom(42));
+            selection.setPolicy(SelectionEngine.Policy.valueOf(policy));
+            selection.reset(8);
+        }
+    }
+
+    // Listener that ignores the engine's commands
+    static class NoOpListener implements GameEngine.Listener {
+        @Override
+        public void onCountdownStarted() {
+        }
+
+        @Override
+        public void onCountdownCancelled() {
+        }
+
+        @Override
+        public void onParticipantSelected(int participant) {
+        }
+
+        @Override
+        public void onNameRequested(int participant) {
+        }
+
+        @Override
+        public void onQuestionAsked(int participant, Question question) {
+        }
+
+        @Override
+        public void onAnswerScored(int participant, int selectedOption, boolean correct) {
+        }
+
+        @Override
+        public void onRoundFinished(boolean gameFinished) {
+        }
+    }
+}
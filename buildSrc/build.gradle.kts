@@ -0,0 +1,23 @@
+// Build logic used by the app module, such as compiling the question bank into a binary pack.
+plugins {
+    `java-library`
+}
+
+// The search index is tokenized with the app's own tokenizer, compiled straight from the app's
+// sources so queries and the index can never be split into terms differently
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "com/chwazi/build/**",
+                "com/chwazi/app/HebrewTokenizer.java"
+            )
+        }
+    }
+}
+
+dependencies {
+    implementation(gradleApi())
+    implementation(libs.gson)
+}
@@ -0,0 +1,47 @@
+package com.chwazi.build;
+
+// Import necessary Gradle and Java classes
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+// This task compiles a questions JSON file into a search index inside its output directory
+@CacheableTask
+public abstract class CompileSearchIndexTask extends DefaultTask {
+
+    // The questions JSON to index
+    @InputFile
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract RegularFileProperty getSource();
+
+    // Name of the index file written into the output directory
+    @Input
+    public abstract Property<String> getIndexName();
+
+    // Directory the index is written to, registered as a generated assets directory
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDir();
+
+    public CompileSearchIndexTask() {
+        getIndexName().convention("search.qidx");
+    }
+
+    @TaskAction
+    public void compile() throws IOException {
+        byte[] json = Files.readAllBytes(getSource().get().getAsFile().toPath());
+        File out = getOutputDir().file(getIndexName().get()).get().getAsFile();
+        Files.write(out.toPath(), SearchIndexCompiler.compile(json));
+    }
+}
@@ -0,0 +1,137 @@
+package com.chwazi.build;
+
+// Import necessary Java and Gson classes
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// This class compiles the questions JSON into the binary question pack read by QuestionPack in the app.
+//
+// Layout (all integers big-endian, all offsets absolute from the start of the file):
+//   header          MAGIC, VERSION, categoryCount, questionCount, stringCount,
+//                   categoryTableOffset, questionTableOffset, questionDataOffset,
+//                   stringTableOffset, stringDataOffset, sourceCrc32
+//   category table  per category: nameStringId, firstQuestion, questionCount
+//   question table  per question: offset of its record in the question data
+//   question data   per question: textStringId, correctAnswer (byte), optionCount (byte), optionStringIds
+//   string table    stringCount + 1 offsets into the string data, string i spans [off[i], off[i + 1])
+//   string data     deduplicated UTF-8 bytes
+//
+// The layout must stay in sync with QuestionPack in the app module.
+public final class QuestionPackCompiler {
+
+    public static final int MAGIC = 0x4351504B; // "CQPK"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 11 * 4;
+    public static final int CATEGORY_ENTRY_SIZE = 3 * 4;
+
+    private QuestionPackCompiler() {
+    }
+
+    // Compile the given JSON bytes into a question pack
+    public static byte[] compile(byte[] json) throws IOException {
+        JsonArray categories;
+        try (InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8)) {
+            categories = JsonParser.parseReader(reader).getAsJsonArray();
+        }
+
+        Map<String, Integer> stringIds = new LinkedHashMap<>();
+        ByteArrayOutputStream categoryTable = new ByteArrayOutputStream();
+        DataOutputStream categoryOut = new DataOutputStream(categoryTable);
+        ByteArrayOutputStream questionData = new ByteArrayOutputStream();
+        DataOutputStream questionOut = new DataOutputStream(questionData);
+        List<Integer> questionOffsets = new ArrayList<>();
+
+        for (JsonElement categoryElement : categories) {
+            JsonObject category = categoryElement.getAsJsonObject();
+            JsonArray questions = category.has("questions")
+                    ? category.getAsJsonArray("questions") : new JsonArray();
+
+            categoryOut.writeInt(intern(stringIds, category.get("category").getAsString()));
+            categoryOut.writeInt(questionOffsets.size());
+            categoryOut.writeInt(questions.size());
+
+            for (JsonElement questionElement : questions) {
+                JsonObject question = questionElement.getAsJsonObject();
+                JsonArray options = question.getAsJsonArray("options");
+                int correctAnswer = question.has("correctAnswer") ? question.get("correctAnswer").getAsInt() : 0;
+                if (options.size() > 127 || correctAnswer < 0 || correctAnswer > 127) {
+                    throw new IOException("Question out of range for the pack format: "
+                            + question.get("question").getAsString());
+                }
+
+                questionOffsets.add(questionOut.size());
+                questionOut.writeInt(intern(stringIds, question.get("question").getAsString()));
+                questionOut.writeByte(correctAnswer);
+                questionOut.writeByte(options.size());
+                for (JsonElement option : options) {
+                    questionOut.writeInt(intern(stringIds, option.getAsString()));
+                }
+            }
+        }
+
+        ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+        ByteArrayOutputStream stringTable = new ByteArrayOutputStream();
+        DataOutputStream stringTableOut = new DataOutputStream(stringTable);
+        for (String value : stringIds.keySet()) {
+            stringTableOut.writeInt(stringData.size());
+            stringData.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+        stringTableOut.writeInt(stringData.size());
+
+        int categoryTableOffset = HEADER_SIZE;
+        int questionTableOffset = categoryTableOffset + categoryTable.size();
+        int questionDataOffset = questionTableOffset + questionOffsets.size() * 4;
+        int stringTableOffset = questionDataOffset + questionData.size();
+        int stringDataOffset = stringTableOffset + stringTable.size();
+
+        CRC32 crc = new CRC32();
+        crc.update(json, 0, json.length);
+
+        ByteArrayOutputStream pack = new ByteArrayOutputStream(stringDataOffset + stringData.size());
+        DataOutputStream out = new DataOutputStream(pack);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(categories.size());
+        out.writeInt(questionOffsets.size());
+        out.writeInt(stringIds.size());
+        out.writeInt(categoryTableOffset);
+        out.writeInt(questionTableOffset);
+        out.writeInt(questionDataOffset);
+        out.writeInt(stringTableOffset);
+        out.writeInt(stringDataOffset);
+        out.writeInt((int) crc.getValue());
+        categoryTable.writeTo(out);
+        for (int offset : questionOffsets) {
+            out.writeInt(questionDataOffset + offset);
+        }
+        questionData.writeTo(out);
+        stringTable.writeTo(out);
+        stringData.writeTo(out);
+        out.flush();
+        return pack.toByteArray();
+    }
+
+    // Return the id of a string in the table, adding it the first time it is seen
+    private static int intern(Map<String, Integer> stringIds, String value) {
+        Integer id = stringIds.get(value);
+        if (id == null) {
+            id = stringIds.size();
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,151 @@
+package com.chwazi.build;
+
+// Import necessary Java, Gson and app classes
+import com.chwazi.app.HebrewTokenizer;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.zip.CRC32;
+
+// This class compiles the questions JSON into the search index read by SearchIndex in the app.
+// Category names and question texts are split into terms with the app's HebrewTokenizer, and every
+// term maps to the categories it appears in. A posting is categoryId * 2 + 1 for a term in the
+// category's name, and categoryId * 2 for a term in one of its questions.
+//
+// Layout (all integers big-endian, all offsets absolute from the start of the file):
+//   header          MAGIC, VERSION, categoryCount, termCount, termTableOffset, termDataOffset,
+//                   postingTableOffset, postingDataOffset, sourceCrc32
+//   term table      termCount + 1 offsets into the term data, term i spans [off[i], off[i + 1])
+//   term data       UTF-8 bytes of every term, sorted by unsigned byte order
+//   posting table   termCount + 1 offsets into the posting data, laid out like the term table
+//   posting data    per term, its sorted postings as unsigned LEB128 varints of the gap to the previous one
+//
+// The layout must stay in sync with SearchIndex in the app module.
+public final class SearchIndexCompiler {
+
+    public static final int MAGIC = 0x43534958; // "CSIX"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 9 * 4;
+
+    private SearchIndexCompiler() {
+    }
+
+    // Compile the given JSON bytes into a search index
+    public static byte[] compile(byte[] json) throws IOException {
+        JsonArray categories;
+        try (InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8)) {
+            categories = JsonParser.parseReader(reader).getAsJsonArray();
+        }
+
+        Map<String, TreeSet<Integer>> postings = new HashMap<>();
+        for (int id = 0; id < categories.size(); id++) {
+            JsonObject category = categories.get(id).getAsJsonObject();
+            addText(postings, category.get("category").getAsString(), id * 2 + 1);
+            if (category.has("questions")) {
+                for (JsonElement question : category.getAsJsonArray("questions")) {
+                    addText(postings, question.getAsJsonObject().get("question").getAsString(), id * 2);
+                }
+            }
+        }
+
+        // Sort the terms the way the app compares them, byte by byte
+        List<byte[]> terms = new ArrayList<>(postings.size());
+        Map<byte[], String> termStrings = new HashMap<>();
+        for (String term : postings.keySet()) {
+            byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+            terms.add(bytes);
+            termStrings.put(bytes, term);
+        }
+        Collections.sort(terms, SearchIndexCompiler::compareUnsigned);
+
+        ByteArrayOutputStream termData = new ByteArrayOutputStream();
+        ByteArrayOutputStream postingData = new ByteArrayOutputStream();
+        int[] termOffsets = new int[terms.size() + 1];
+        int[] postingOffsets = new int[terms.size() + 1];
+        for (int i = 0; i < terms.size(); i++) {
+            termOffsets[i] = termData.size();
+            postingOffsets[i] = postingData.size();
+            termData.write(terms.get(i));
+            int previous = 0;
+            for (int posting : postings.get(termStrings.get(terms.get(i)))) {
+                writeVarint(postingData, posting - previous);
+                previous = posting;
+            }
+        }
+        termOffsets[terms.size()] = termData.size();
+        postingOffsets[terms.size()] = postingData.size();
+
+        int termTableOffset = HEADER_SIZE;
+        int termDataOffset = termTableOffset + termOffsets.length * 4;
+        int postingTableOffset = termDataOffset + termData.size();
+        int postingDataOffset = postingTableOffset + postingOffsets.length * 4;
+
+        CRC32 crc = new CRC32();
+        crc.update(json, 0, json.length);
+
+        ByteArrayOutputStream index = new ByteArrayOutputStream(postingDataOffset + postingData.size());
+        DataOutputStream out = new DataOutputStream(index);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(categories.size());
+        out.writeInt(terms.size());
+        out.writeInt(termTableOffset);
+        out.writeInt(termDataOffset);
+        out.writeInt(postingTableOffset);
+        out.writeInt(postingDataOffset);
+        out.writeInt((int) crc.getValue());
+        for (int offset : termOffsets) {
+            out.writeInt(termDataOffset + offset);
+        }
+        termData.writeTo(out);
+        for (int offset : postingOffsets) {
+            out.writeInt(postingDataOffset + offset);
+        }
+        postingData.writeTo(out);
+        out.flush();
+        return index.toByteArray();
+    }
+
+    // Add a posting for every term of a text
+    private static void addText(Map<String, TreeSet<Integer>> postings, String text, int posting) {
+        for (String word : HebrewTokenizer.tokenize(text)) {
+            for (String term : HebrewTokenizer.variants(word)) {
+                postings.computeIfAbsent(term, key -> new TreeSet<>()).add(posting);
+            }
+        }
+    }
+
+    // Write an unsigned LEB128 varint: seven bits per byte, high bit set on every byte but the last
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return a.length - b.length;
+    }
+}
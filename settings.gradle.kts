@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "Chwazi Riddle AY"
 include(":app")
+include(":bench")